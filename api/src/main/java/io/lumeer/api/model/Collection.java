@@ -33,7 +33,6 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
@@ -99,7 +98,7 @@ public class Collection extends Resource implements HealthChecking, Updatable<Co
       o.id = this.id;
       o.description = this.description;
       o.nonRemovable = this.nonRemovable;
-      o.attributes = new HashSet<>(this.attributes);
+      o.attributes = new LinkedHashSet<>(this.attributes);
       o.documentsCount = this.documentsCount;
       o.lastTimeUsed = this.lastTimeUsed;
       o.defaultAttributeId = this.defaultAttributeId;
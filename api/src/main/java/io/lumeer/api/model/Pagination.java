@@ -20,15 +20,37 @@ package io.lumeer.api.model;
 
 import javax.annotation.concurrent.Immutable;
 
+/**
+ * Either offset pagination by page number or keyset (seek) pagination continuing after the last seen id.
+ */
 @Immutable
 public class Pagination {
 
    private final Integer page;
    private final Integer pageSize;
+   private final String lastId;
+   private final boolean seek;
 
    public Pagination(final Integer page, final Integer pageSize) {
+      this(page, pageSize, null, false);
+   }
+
+   private Pagination(final Integer page, final Integer pageSize, final String lastId, final boolean seek) {
       this.page = page;
       this.pageSize = pageSize;
+      this.lastId = lastId;
+      this.seek = seek;
+   }
+
+   /**
+    * Creates keyset pagination returning at most pageSize entities ordered by id and following the lastId.
+    *
+    * @param lastId id of the last entity from the previous page, null for the first page
+    * @param pageSize maximum number of returned entities
+    * @return keyset pagination
+    */
+   public static Pagination seek(final String lastId, final Integer pageSize) {
+      return new Pagination(null, pageSize, lastId, true);
    }
 
    public Integer getPage() {
@@ -38,4 +60,12 @@ public class Pagination {
    public Integer getPageSize() {
       return pageSize;
    }
+
+   public String getLastId() {
+      return lastId;
+   }
+
+   public boolean isSeek() {
+      return seek;
+   }
 }
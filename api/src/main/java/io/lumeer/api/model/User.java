@@ -30,6 +30,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -150,6 +151,26 @@ public class User implements HealthChecking {
       this.hints = hints;
    }
 
+   public User copy() {
+      final User o = new User(this.id, this.name, this.email, this.organizations != null ? new HashSet<>(this.organizations) : null);
+
+      o.authIds = this.authIds != null ? new HashSet<>(this.authIds) : null;
+      o.defaultWorkspace = this.defaultWorkspace;
+      o.agreement = this.agreement;
+      o.agreementDate = this.agreementDate;
+      o.newsletter = this.newsletter;
+      o.wizardDismissed = this.wizardDismissed;
+      o.referral = this.referral;
+      o.affiliatePartner = this.affiliatePartner;
+      o.emailVerified = this.emailVerified;
+      o.notifications = this.notifications;
+      o.wishes = this.wishes != null ? new ArrayList<>(this.wishes) : null;
+      o.hints = this.hints != null ? new DataDocument(this.hints) : null;
+      o.lastLoggedIn = this.lastLoggedIn;
+
+      return o;
+   }
+
    public String getId() {
       return id;
    }
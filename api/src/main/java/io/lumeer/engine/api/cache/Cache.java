@@ -132,4 +132,13 @@ public interface Cache<T> {
     * @return Stream of values.
     */
    Stream<T> stream();
+
+   /**
+    * Gets the usage counters of the cache.
+    *
+    * @return Counters snapshot, empty when the implementation does not count.
+    */
+   default CacheStatistics getStatistics() {
+      return CacheStatistics.EMPTY;
+   }
 }
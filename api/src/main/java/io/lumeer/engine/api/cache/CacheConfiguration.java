@@ -0,0 +1,106 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.engine.api.cache;
+
+import java.time.Duration;
+
+/**
+ * Limits of a cache. A cache without any limits keeps all entries until they are removed.
+ */
+public final class CacheConfiguration {
+
+   private static final CacheConfiguration UNBOUNDED = new CacheConfiguration(0, 0, 0);
+
+   private final long maximumSize;
+   private final long expireAfterWrite;
+   private final long expireAfterAccess;
+
+   private CacheConfiguration(final long maximumSize, final long expireAfterWrite, final long expireAfterAccess) {
+      this.maximumSize = maximumSize;
+      this.expireAfterWrite = expireAfterWrite;
+      this.expireAfterAccess = expireAfterAccess;
+   }
+
+   /**
+    * Gets a configuration without any limits.
+    *
+    * @return Configuration without any limits.
+    */
+   public static CacheConfiguration unbounded() {
+      return UNBOUNDED;
+   }
+
+   /**
+    * Limits the number of entries, the least recently used entries are evicted first.
+    *
+    * @param maximumSize
+    *       Maximum number of entries, zero means no limit.
+    * @return New configuration with the limit.
+    */
+   public CacheConfiguration maximumSize(final long maximumSize) {
+      return new CacheConfiguration(Math.max(0, maximumSize), expireAfterWrite, expireAfterAccess);
+   }
+
+   /**
+    * Expires entries after the given time since they were stored.
+    *
+    * @param duration
+    *       Time to live of an entry, zero means no expiration.
+    * @return New configuration with the expiration.
+    */
+   public CacheConfiguration expireAfterWrite(final Duration duration) {
+      return new CacheConfiguration(maximumSize, Math.max(0, duration.toMillis()), expireAfterAccess);
+   }
+
+   /**
+    * Expires entries after the given time since they were last read or stored.
+    *
+    * @param duration
+    *       Idle time of an entry, zero means no expiration.
+    * @return New configuration with the expiration.
+    */
+   public CacheConfiguration expireAfterAccess(final Duration duration) {
+      return new CacheConfiguration(maximumSize, expireAfterWrite, Math.max(0, duration.toMillis()));
+   }
+
+   public long getMaximumSize() {
+      return maximumSize;
+   }
+
+   public long getExpireAfterWriteMillis() {
+      return expireAfterWrite;
+   }
+
+   public long getExpireAfterAccessMillis() {
+      return expireAfterAccess;
+   }
+
+   public boolean isUnbounded() {
+      return maximumSize == 0 && expireAfterWrite == 0 && expireAfterAccess == 0;
+   }
+
+   @Override
+   public String toString() {
+      return "CacheConfiguration{" +
+            "maximumSize=" + maximumSize +
+            ", expireAfterWrite=" + expireAfterWrite +
+            ", expireAfterAccess=" + expireAfterAccess +
+            '}';
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.engine.api.data;
+
+import java.util.Set;
+
+/**
+ * Carries a decision to create or drop an attribute index together with the measured duration of the filtering queries.
+ */
+public class DataIndexDecision {
+
+   public enum Action {
+      CREATE, DROP
+   }
+
+   /**
+    * Name of the database.
+    */
+   private String databaseName;
+
+   /**
+    * Name of the data collection.
+    */
+   private String collectionName;
+
+   /**
+    * Id of the indexed attribute.
+    */
+   private String attributeId;
+
+   /**
+    * Conditions the attribute was filtered by.
+    */
+   private Set<String> conditions;
+
+   private Action action;
+
+   /**
+    * Time of the decision in milliseconds since the epoch.
+    */
+   private long time;
+
+   /**
+    * Number of queries filtering by the attribute before the decision.
+    */
+   private long queriesBefore;
+
+   /**
+    * Average duration of the queries filtering by the attribute before the decision in milliseconds.
+    */
+   private double averageMillisBefore;
+
+   /**
+    * Number of queries filtering by the attribute since the decision.
+    */
+   private long queriesAfter;
+
+   /**
+    * Average duration of the queries filtering by the attribute since the decision in milliseconds.
+    */
+   private double averageMillisAfter;
+
+   public String getDatabaseName() {
+      return databaseName;
+   }
+
+   public void setDatabaseName(final String databaseName) {
+      this.databaseName = databaseName;
+   }
+
+   public String getCollectionName() {
+      return collectionName;
+   }
+
+   public void setCollectionName(final String collectionName) {
+      this.collectionName = collectionName;
+   }
+
+   public String getAttributeId() {
+      return attributeId;
+   }
+
+   public void setAttributeId(final String attributeId) {
+      this.attributeId = attributeId;
+   }
+
+   public Set<String> getConditions() {
+      return conditions;
+   }
+
+   public void setConditions(final Set<String> conditions) {
+      this.conditions = conditions;
+   }
+
+   public Action getAction() {
+      return action;
+   }
+
+   public void setAction(final Action action) {
+      this.action = action;
+   }
+
+   public long getTime() {
+      return time;
+   }
+
+   public void setTime(final long time) {
+      this.time = time;
+   }
+
+   public long getQueriesBefore() {
+      return queriesBefore;
+   }
+
+   public void setQueriesBefore(final long queriesBefore) {
+      this.queriesBefore = queriesBefore;
+   }
+
+   public double getAverageMillisBefore() {
+      return averageMillisBefore;
+   }
+
+   public void setAverageMillisBefore(final double averageMillisBefore) {
+      this.averageMillisBefore = averageMillisBefore;
+   }
+
+   public long getQueriesAfter() {
+      return queriesAfter;
+   }
+
+   public void setQueriesAfter(final long queriesAfter) {
+      this.queriesAfter = queriesAfter;
+   }
+
+   public double getAverageMillisAfter() {
+      return averageMillisAfter;
+   }
+
+   public void setAverageMillisAfter(final double averageMillisAfter) {
+      this.averageMillisAfter = averageMillisAfter;
+   }
+
+   @Override
+   public String toString() {
+      return "DataIndexDecision{" +
+            "databaseName='" + databaseName + '\'' +
+            ", collectionName='" + collectionName + '\'' +
+            ", attributeId='" + attributeId + '\'' +
+            ", conditions=" + conditions +
+            ", action=" + action +
+            ", time=" + time +
+            ", queriesBefore=" + queriesBefore +
+            ", averageMillisBefore=" + averageMillisBefore +
+            ", queriesAfter=" + queriesAfter +
+            ", averageMillisAfter=" + averageMillisAfter +
+            '}';
+   }
+}
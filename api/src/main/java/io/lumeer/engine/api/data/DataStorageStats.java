@@ -18,6 +18,10 @@
  */
 package io.lumeer.engine.api.data;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Carries statistics about database or collection usage.
  */
@@ -64,6 +68,11 @@ public class DataStorageStats {
     */
    private long indexSize;
 
+   /**
+    * Number of operations which used the index since the server start by index name, when applicable.
+    */
+   private Map<String, Long> indexUsage = Collections.emptyMap();
+
    public String getDatabaseName() {
       return databaseName;
    }
@@ -128,6 +137,14 @@ public class DataStorageStats {
       this.indexSize = indexSize;
    }
 
+   public Map<String, Long> getIndexUsage() {
+      return indexUsage;
+   }
+
+   public void setIndexUsage(final Map<String, Long> indexUsage) {
+      this.indexUsage = indexUsage;
+   }
+
    @Override
    public String toString() {
       return "DataStorageStats{" +
@@ -139,6 +156,7 @@ public class DataStorageStats {
             ", storageSize=" + storageSize +
             ", indexes=" + indexes +
             ", indexSize=" + indexSize +
+            ", indexUsage=" + indexUsage +
             '}';
    }
 
@@ -174,6 +192,9 @@ public class DataStorageStats {
       if (databaseName != null ? !databaseName.equals(that.databaseName) : that.databaseName != null) {
          return false;
       }
+      if (!Objects.equals(indexUsage, that.indexUsage)) {
+         return false;
+      }
       return collectionName != null ? collectionName.equals(that.collectionName) : that.collectionName == null;
    }
 
@@ -187,6 +208,7 @@ public class DataStorageStats {
       result = 31 * result + (int) (storageSize ^ (storageSize >>> 32));
       result = 31 * result + (int) (indexes ^ (indexes >>> 32));
       result = 31 * result + (int) (indexSize ^ (indexSize >>> 32));
+      result = 31 * result + (indexUsage != null ? indexUsage.hashCode() : 0);
       return result;
    }
 
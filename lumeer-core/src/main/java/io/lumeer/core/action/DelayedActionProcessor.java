@@ -30,6 +30,7 @@ import io.lumeer.api.model.User;
 import io.lumeer.api.model.UserNotification;
 import io.lumeer.api.model.ViewCursor;
 import io.lumeer.core.WorkspaceContext;
+import io.lumeer.core.cache.UsersSnapshotCache;
 import io.lumeer.core.facade.EmailService;
 import io.lumeer.core.facade.PusherFacade;
 import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
@@ -40,6 +41,7 @@ import io.lumeer.core.util.Utils;
 import io.lumeer.engine.api.data.DataDocument;
 import io.lumeer.engine.api.data.DataStorage;
 import io.lumeer.storage.api.dao.DelayedActionDao;
+import io.lumeer.storage.api.dao.GroupDao;
 import io.lumeer.storage.api.dao.OrganizationDao;
 import io.lumeer.storage.api.dao.UserDao;
 import io.lumeer.storage.api.dao.UserNotificationDao;
@@ -78,6 +80,9 @@ public class DelayedActionProcessor extends WorkspaceContext {
    @Inject
    private UserDao userDao;
 
+   @Inject
+   private GroupDao groupDao;
+
    @Inject
    private OrganizationDao organizationDao;
 
@@ -93,6 +98,9 @@ public class DelayedActionProcessor extends WorkspaceContext {
    @Inject
    private TranslationManager translationManager;
 
+   @Inject
+   private UsersSnapshotCache usersSnapshotCache;
+
    private PusherClient pusherClient;
 
    private boolean skipDelay = false;
@@ -186,7 +194,7 @@ public class DelayedActionProcessor extends WorkspaceContext {
 
       aggregateActions(actions).forEach(action -> {
          final String organizationId = action.getData().getString(DelayedAction.DATA_ORGANIZATION_ID);
-         final List<User> allUsers = userCache.computeIfAbsent(organizationId, orgId -> userDao.getAllUsers(orgId));
+         final List<User> allUsers = userCache.computeIfAbsent(organizationId, orgId -> new ArrayList<>(usersSnapshotCache.getSnapshot(orgId, userDao, groupDao).getUsers()));
          allUsers.addAll(getUsersFromActions(actions, allUsers)); // mix in users from actions
 
          final Map<String, User> users = getUsers(allUsers); // id -> user
@@ -134,7 +134,7 @@ public class AuthenticatedUser implements Serializable {
             userByAuthId.setEmailVerified(emailVerified);
 
             createDemoWorkspaceIfNeeded(userByAuthId);
-            userDao.updateUser(userByAuthId.getId(), userByAuthId);
+            storeUser(userByAuthId);
          } else {
             createDemoWorkspaceIfNeeded(userByAuthId);
             if (userByAuthId.getName() == null || !userByAuthId.getName().equals(name)) {
@@ -146,7 +146,7 @@ public class AuthenticatedUser implements Serializable {
             }
 
             userByAuthId.setEmailVerified(emailVerified);
-            userDao.updateUser(userByAuthId.getId(), userByAuthId);
+            storeUser(userByAuthId);
          }
          if (firstLogin) {
             userLoginDao.userLoggedIn(userByAuthId.getId());
@@ -169,7 +169,7 @@ public class AuthenticatedUser implements Serializable {
                userByEmail.setAuthIds(new HashSet<>(Collections.singletonList(authId)));
             }
             createDemoWorkspaceIfNeeded(userByEmail);
-            userDao.updateUser(userByEmail.getId(), userByEmail);
+            storeUser(userByEmail);
             if (firstLogin) {
                userLoginDao.userLoggedIn(userByEmail.getId());
                eventLogFacade.logEvent(userByEmail, "Logged in");
@@ -184,7 +184,7 @@ public class AuthenticatedUser implements Serializable {
 
             createdUser.setEmailVerified(emailVerified);
             createDemoWorkspaceIfNeeded(createdUser);
-            userDao.updateUser(createdUser.getId(), createdUser);
+            storeUser(createdUser);
             if (firstLogin) {
                userLoginDao.userLoggedIn(createdUser.getId());
                eventLogFacade.logEvent(createdUser, "Logged in");
@@ -193,6 +193,11 @@ public class AuthenticatedUser implements Serializable {
       }
    }
 
+   private void storeUser(User user) {
+      final User storedUser = userDao.updateUser(user.getId(), user);
+      userCache.updateUser(storedUser.getEmail(), storedUser);
+   }
+
    private void checkLocalUser(String email) {
       User userByEmail = userDao.getUserByEmail(email);
       if (userByEmail == null) {
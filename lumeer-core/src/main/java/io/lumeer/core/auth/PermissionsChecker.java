@@ -37,6 +37,9 @@ import io.lumeer.api.model.rule.BlocklyRule;
 import io.lumeer.core.WorkspaceKeeper;
 import io.lumeer.core.adapter.CollectionAdapter;
 import io.lumeer.core.adapter.PermissionAdapter;
+import io.lumeer.core.cache.ProjectResourcesCache;
+import io.lumeer.core.cache.UserCache;
+import io.lumeer.core.cache.UsersSnapshotCache;
 import io.lumeer.core.exception.FeatureNotAllowedException;
 import io.lumeer.core.exception.NoPermissionException;
 import io.lumeer.core.exception.NoResourcePermissionException;
@@ -110,6 +113,15 @@ public class PermissionsChecker {
    @UserDataStorage
    private DataStorage dataStorage;
 
+   @Inject
+   private ProjectResourcesCache projectResourcesCache;
+
+   @Inject
+   private UsersSnapshotCache usersSnapshotCache;
+
+   @Inject
+   private UserCache userCache;
+
    private CollectionAdapter collectionAdapter;
    private PermissionAdapter permissionAdapter;
 
@@ -118,7 +130,7 @@ public class PermissionsChecker {
    @PostConstruct
    public void init() {
       collectionAdapter = new CollectionAdapter(collectionDao, favoriteItemDao, documentDao);
-      permissionAdapter = new PermissionAdapter(userDao, groupDao, viewDao, linkTypeDao, collectionDao);
+      permissionAdapter = new PermissionAdapter(userDao, groupDao, viewDao, linkTypeDao, collectionDao, projectResourcesCache, usersSnapshotCache, userCache);
    }
 
    public PermissionsChecker() {
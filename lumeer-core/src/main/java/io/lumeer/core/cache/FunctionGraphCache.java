@@ -0,0 +1,158 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.cache;
+
+import io.lumeer.api.model.Project;
+import io.lumeer.api.model.function.FunctionResourceType;
+import io.lumeer.api.model.function.FunctionRow;
+import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
+import io.lumeer.core.util.FunctionGraph;
+import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheConfiguration;
+import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.event.RemoveResource;
+import io.lumeer.storage.api.dao.FunctionDao;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import javax.annotation.PostConstruct;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+/**
+ * Keeps function dependency graphs of projects across requests. A graph is read from the database by a single query and
+ * it is then updated by the changes of function rows made through this cache. Changes made by other nodes are picked up
+ * when the graph expires.
+ */
+@ApplicationScoped
+public class FunctionGraphCache {
+
+   private static final long DEFAULT_TIME_TO_LIVE = 10L;
+   private static final int MAX_PROJECTS = 1000;
+
+   // observers run before the default priority ones which may already read the graph
+   private static final int OBSERVER_PRIORITY = 1000;
+
+   @Inject
+   private CacheFactory cacheFactory;
+
+   @Inject
+   private DefaultConfigurationProducer configurationProducer;
+
+   private final Object writeLock = new Object();
+
+   // incremented on every write, a graph loaded meanwhile might be outdated and is not stored
+   private volatile long writes;
+
+   private Cache<FunctionGraph> graphs;
+
+   @PostConstruct
+   public void initCache() {
+      final long timeToLive = configurationProducer.getLong(DefaultConfigurationProducer.FUNCTION_GRAPH_TTL, DEFAULT_TIME_TO_LIVE);
+      graphs = cacheFactory.getCache(CacheConfiguration.unbounded().maximumSize(MAX_PROJECTS).expireAfterWrite(Duration.ofSeconds(timeToLive)));
+   }
+
+   public FunctionGraph getGraph(final FunctionDao functionDao) {
+      final String projectId = getProjectId(functionDao);
+      if (projectId == null) {
+         return FunctionGraph.of(functionDao.getAllRows());
+      }
+
+      final FunctionGraph graph = graphs.get(projectId);
+      if (graph != null) {
+         return graph;
+      }
+
+      final long writesBefore = writes;
+      final FunctionGraph loadedGraph = FunctionGraph.of(functionDao.getAllRows());
+      synchronized (writeLock) {
+         if (writes == writesBefore) {
+            graphs.set(projectId, loadedGraph);
+         }
+      }
+
+      return loadedGraph;
+   }
+
+   public void createRows(final FunctionDao functionDao, final List<FunctionRow> rows) {
+      functionDao.createRows(rows);
+      update(functionDao, graph -> graph.withRows(rows));
+   }
+
+   public void deleteByResources(final FunctionDao functionDao, final FunctionResourceType type, final String... resourceIds) {
+      functionDao.deleteByResources(type, resourceIds);
+      final Set<String> ids = new HashSet<>(Arrays.asList(resourceIds));
+      update(functionDao, graph -> graph.withoutRows(row -> row.getType() == type && ids.contains(row.getResourceId())));
+   }
+
+   public void deleteByCollection(final FunctionDao functionDao, final String collectionId, final String attributeId) {
+      functionDao.deleteByCollection(collectionId, attributeId);
+      update(functionDao, graph -> graph.withoutRows(row -> isResourceRow(row, FunctionResourceType.COLLECTION, collectionId, attributeId)));
+   }
+
+   public void deleteByLinkType(final FunctionDao functionDao, final String linkTypeId, final String attributeId) {
+      functionDao.deleteByLinkType(linkTypeId, attributeId);
+      update(functionDao, graph -> graph.withoutRows(row -> isResourceRow(row, FunctionResourceType.LINK, linkTypeId, attributeId)));
+   }
+
+   public void clear() {
+      synchronized (writeLock) {
+         writes++;
+         graphs.clear();
+      }
+   }
+
+   public void onRemoveResource(@Observes @Priority(OBSERVER_PRIORITY) final RemoveResource removeResource) {
+      if (removeResource.getResource() instanceof Project) {
+         synchronized (writeLock) {
+            writes++;
+            graphs.remove(removeResource.getResource().getId());
+         }
+      }
+   }
+
+   private void update(final FunctionDao functionDao, final UnaryOperator<FunctionGraph> change) {
+      final String projectId = getProjectId(functionDao);
+      synchronized (writeLock) {
+         writes++;
+         if (projectId != null) {
+            final FunctionGraph graph = graphs.get(projectId);
+            if (graph != null) {
+               graphs.set(projectId, change.apply(graph));
+            }
+         }
+      }
+   }
+
+   private static boolean isResourceRow(final FunctionRow row, final FunctionResourceType type, final String resourceId, final String attributeId) {
+      return row.getType() == type && Objects.equals(row.getResourceId(), resourceId) && (attributeId == null || attributeId.equals(row.getAttributeId()));
+   }
+
+   // the project the dao reads from, it does not have to be the selected workspace one
+   private static String getProjectId(final FunctionDao functionDao) {
+      return functionDao.getProject().map(Project::getId).orElse(null);
+   }
+}
@@ -0,0 +1,247 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.cache;
+
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.LinkType;
+import io.lumeer.api.model.Project;
+import io.lumeer.api.model.View;
+import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
+import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.event.CreateLinkType;
+import io.lumeer.engine.api.event.CreateResource;
+import io.lumeer.engine.api.event.ReloadResourceContent;
+import io.lumeer.engine.api.event.RemoveLinkType;
+import io.lumeer.engine.api.event.RemoveResource;
+import io.lumeer.engine.api.event.UpdateLinkType;
+import io.lumeer.engine.api.event.UpdateResource;
+import io.lumeer.storage.api.dao.CollectionDao;
+import io.lumeer.storage.api.dao.LinkTypeDao;
+import io.lumeer.storage.api.dao.ProjectScopedDao;
+import io.lumeer.storage.api.dao.ViewDao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import javax.annotation.PostConstruct;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+/**
+ * Keeps collections, link types and views of projects across requests. Cached resources are validated by their versions
+ * (a single query reading only ids and versions) at most once per validation interval and only the changed resources are read again.
+ * Any change event on this node forces the validation on the next access, changes made by other nodes are picked up
+ * after the validation interval at the latest.
+ */
+@ApplicationScoped
+public class ProjectResourcesCache {
+
+   private static final long DEFAULT_VALIDATION_INTERVAL = 1000L;
+
+   // observers run before the default priority ones (e.g. push notifications) which may already read the resources
+   private static final int OBSERVER_PRIORITY = 1000;
+
+   @Inject
+   private CacheFactory cacheFactory;
+
+   @Inject
+   private DefaultConfigurationProducer configurationProducer;
+
+   private final AtomicLong generation = new AtomicLong();
+   private long validationInterval;
+
+   private ProjectResources<Collection> collections;
+   private ProjectResources<LinkType> linkTypes;
+   private ProjectResources<View> views;
+
+   @PostConstruct
+   public void initCaches() {
+      validationInterval = configurationProducer.getLong(DefaultConfigurationProducer.PROJECT_RESOURCES_VALIDATION, DEFAULT_VALIDATION_INTERVAL);
+
+      collections = new ProjectResources<>(cacheFactory.getCache(), Collection::getId, Collection::getVersion, Collection::copy);
+      linkTypes = new ProjectResources<>(cacheFactory.getCache(), LinkType::getId, LinkType::getVersion, LinkType::new);
+      views = new ProjectResources<>(cacheFactory.getCache(), View::getId, View::getVersion, View::copy);
+   }
+
+   public List<Collection> getCollections(final CollectionDao collectionDao) {
+      return collections.get(getProjectId(collectionDao), collectionDao::getAllCollections, collectionDao::getAllCollectionVersions, collectionDao::getCollectionsByIds);
+   }
+
+   public List<LinkType> getLinkTypes(final LinkTypeDao linkTypeDao) {
+      return linkTypes.get(getProjectId(linkTypeDao), linkTypeDao::getAllLinkTypes, linkTypeDao::getAllLinkTypeVersions, linkTypeDao::getLinkTypesByIds);
+   }
+
+   public List<View> getViews(final ViewDao viewDao) {
+      return views.get(getProjectId(viewDao), viewDao::getAllViews, viewDao::getAllViewVersions, viewDao::getViewsByIds);
+   }
+
+   public void invalidate() {
+      generation.incrementAndGet();
+   }
+
+   public void removeProject(final String projectId) {
+      collections.remove(projectId);
+      linkTypes.remove(projectId);
+      views.remove(projectId);
+   }
+
+   public void clear() {
+      invalidate();
+      collections.clear();
+      linkTypes.clear();
+      views.clear();
+   }
+
+   public void onCreateResource(@Observes @Priority(OBSERVER_PRIORITY) final CreateResource createResource) {
+      invalidate();
+   }
+
+   public void onUpdateResource(@Observes @Priority(OBSERVER_PRIORITY) final UpdateResource updateResource) {
+      invalidate();
+   }
+
+   public void onRemoveResource(@Observes @Priority(OBSERVER_PRIORITY) final RemoveResource removeResource) {
+      invalidate();
+      if (removeResource.getResource() instanceof Project) {
+         removeProject(removeResource.getResource().getId());
+      }
+   }
+
+   public void onReloadResourceContent(@Observes @Priority(OBSERVER_PRIORITY) final ReloadResourceContent reloadResourceContent) {
+      invalidate();
+   }
+
+   public void onCreateLinkType(@Observes @Priority(OBSERVER_PRIORITY) final CreateLinkType createLinkType) {
+      invalidate();
+   }
+
+   public void onUpdateLinkType(@Observes @Priority(OBSERVER_PRIORITY) final UpdateLinkType updateLinkType) {
+      invalidate();
+   }
+
+   public void onRemoveLinkType(@Observes @Priority(OBSERVER_PRIORITY) final RemoveLinkType removeLinkType) {
+      invalidate();
+   }
+
+   // the project the dao reads from, it does not have to be the selected workspace one
+   private static String getProjectId(final ProjectScopedDao dao) {
+      return dao.getProject().map(Project::getId).orElse(null);
+   }
+
+   private final class ProjectResources<T> {
+
+      private final Cache<Snapshot<T>> cache;
+      private final Function<T, String> idFunction;
+      private final ToLongFunction<T> versionFunction;
+      private final UnaryOperator<T> copyFunction;
+
+      private ProjectResources(final Cache<Snapshot<T>> cache, final Function<T, String> idFunction, final ToLongFunction<T> versionFunction, final UnaryOperator<T> copyFunction) {
+         this.cache = cache;
+         this.idFunction = idFunction;
+         this.versionFunction = versionFunction;
+         this.copyFunction = copyFunction;
+      }
+
+      private List<T> get(final String projectId, final Supplier<List<T>> allLoader, final Supplier<Map<String, Long>> versionsLoader, final Function<Set<String>, List<T>> idsLoader) {
+         if (projectId == null) {
+            return allLoader.get();
+         }
+
+         // read before loading so that a change made meanwhile forces the validation on the next access
+         final long currentGeneration = generation.get();
+         final long now = System.currentTimeMillis();
+
+         Snapshot<T> snapshot = cache.get(projectId);
+         if (snapshot == null) {
+            snapshot = new Snapshot<>(index(allLoader.get()), currentGeneration, now);
+            cache.set(projectId, snapshot);
+         } else if (snapshot.generation != currentGeneration || now - snapshot.validated >= validationInterval) {
+            snapshot = validate(snapshot, versionsLoader.get(), idsLoader, currentGeneration, now);
+            cache.set(projectId, snapshot);
+         }
+
+         final List<T> result = new ArrayList<>(snapshot.resources.size());
+         snapshot.resources.values().forEach(resource -> result.add(copyFunction.apply(resource)));
+         return result;
+      }
+
+      private Snapshot<T> validate(final Snapshot<T> snapshot, final Map<String, Long> versions, final Function<Set<String>, List<T>> idsLoader, final long currentGeneration, final long now) {
+         final Set<String> changedIds = new HashSet<>();
+         versions.forEach((id, version) -> {
+            final T resource = snapshot.resources.get(id);
+            if (resource == null || versionFunction.applyAsLong(resource) != version) {
+               changedIds.add(id);
+            }
+         });
+
+         if (changedIds.isEmpty() && versions.size() == snapshot.resources.size()) {
+            return new Snapshot<>(snapshot.resources, currentGeneration, now);
+         }
+
+         final Map<String, T> changedResources = changedIds.isEmpty() ? Collections.emptyMap() : index(idsLoader.apply(changedIds));
+         final Map<String, T> resources = new LinkedHashMap<>();
+         versions.keySet().forEach(id -> {
+            final T resource = changedIds.contains(id) ? changedResources.get(id) : snapshot.resources.get(id);
+            if (resource != null) {
+               resources.put(id, resource);
+            }
+         });
+         return new Snapshot<>(Collections.unmodifiableMap(resources), currentGeneration, now);
+      }
+
+      private Map<String, T> index(final List<T> resources) {
+         final Map<String, T> indexed = new LinkedHashMap<>();
+         resources.forEach(resource -> indexed.put(idFunction.apply(resource), resource));
+         return Collections.unmodifiableMap(indexed);
+      }
+
+      private void remove(final String projectId) {
+         cache.remove(projectId);
+      }
+
+      private void clear() {
+         cache.clear();
+      }
+   }
+
+   private static final class Snapshot<T> {
+
+      private final Map<String, T> resources;
+      private final long generation;
+      private final long validated;
+
+      private Snapshot(final Map<String, T> resources, final long generation, final long validated) {
+         this.resources = resources;
+         this.generation = generation;
+         this.validated = validated;
+      }
+   }
+}
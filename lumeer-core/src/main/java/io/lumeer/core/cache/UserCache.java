@@ -19,62 +19,191 @@
 package io.lumeer.core.cache;
 
 import io.lumeer.api.model.User;
+import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheConfiguration;
 import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.event.CreateOrUpdateUser;
+import io.lumeer.engine.api.event.RemoveUser;
+import io.lumeer.engine.api.event.UpdateCurrentUser;
 import io.lumeer.storage.api.dao.UserDao;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
-import javax.enterprise.context.RequestScoped;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
-@RequestScoped
+/**
+ * Keeps users across requests indexed both by email and by id. All writes go through a single lock so both indexes
+ * always point to the same user, reads do not lock. Users updated without going through this cache (e.g. by other nodes)
+ * are picked up when their entries expire. Copies are returned so callers can modify them freely.
+ */
+@ApplicationScoped
 public class UserCache {
 
+   private static final long DEFAULT_TIME_TO_LIVE = 300L;
+   private static final int MAX_USERS = 10000;
+
+   // observers run before the default priority ones which may already read the updated user
+   private static final int OBSERVER_PRIORITY = 1000;
+
    @Inject
    private CacheFactory cacheFactory;
 
+   @Inject
+   private DefaultConfigurationProducer configurationProducer;
+
    @Inject
    private UserDao userDao;
 
-   private Cache<User> userCache;
+   private final Object writeLock = new Object();
+
+   // incremented on every explicit write, a user loaded meanwhile might be outdated and is not stored
+   private volatile long writes;
+
+   private Cache<User> usersByEmail;
+   private Cache<String> emailsById;
 
    @PostConstruct
    public void initCache() {
-      userCache = cacheFactory.getCache();
+      final long timeToLive = configurationProducer.getLong(DefaultConfigurationProducer.USER_CACHE_TTL, DEFAULT_TIME_TO_LIVE);
+      final CacheConfiguration configuration = CacheConfiguration.unbounded().maximumSize(MAX_USERS).expireAfterWrite(Duration.ofSeconds(timeToLive));
+      usersByEmail = cacheFactory.getCache(configuration);
+      emailsById = cacheFactory.getCache(configuration);
    }
 
    public User getUser(String email) {
-      return userCache.computeIfAbsent(email, userDao::getUserByEmail);
+      if (email == null) {
+         return null;
+      }
+
+      final User user = usersByEmail.get(email);
+      if (user != null) {
+         return user.copy();
+      }
+
+      return load(email, () -> userDao.getUserByEmail(email));
    }
 
    public User getUserById(String id) {
-      final Optional<User> maybeUser = userCache.stream().filter(u -> id.equals(u.getId())).findFirst();
-
-      if (maybeUser.isEmpty()) {
-         final User u = userDao.getUserById(id);
+      if (id == null) {
+         return null;
+      }
 
-         if (u != null) {
-            updateUser(u.getEmail(), u);
-            return u;
-         }
-      } else {
-         return maybeUser.get();
+      final String email = emailsById.get(id);
+      final User user = email != null ? usersByEmail.get(email) : null;
+      if (user != null && id.equals(user.getId())) {
+         return user.copy();
       }
 
-      return null;
+      return load(null, () -> userDao.getUserById(id));
    }
 
    public void updateUser(String username, User user) {
-      userCache.set(username, user);
+      synchronized (writeLock) {
+         writes++;
+         removeEntries(username);
+         if (user != null && user.getId() != null) {
+            removeEntries(emailsById.get(user.getId()));
+         }
+         store(username, user);
+      }
    }
 
    public void removeUser(String username) {
-      userCache.remove(username);
+      synchronized (writeLock) {
+         writes++;
+         removeEntries(username);
+      }
+   }
+
+   /**
+    * Removes only the users belonging to the organization, the cache is shared by all organizations.
+    */
+   public void removeOrganizationUsers(String organizationId) {
+      synchronized (writeLock) {
+         writes++;
+         final List<User> users = usersByEmail.stream()
+                                              .filter(user -> user.getOrganizations() != null && user.getOrganizations().contains(organizationId))
+                                              .collect(Collectors.toList());
+         users.forEach(user -> {
+            // the user is stored under the email it was requested by, which is the one in the id index
+            removeEntries(user.getId() != null ? emailsById.get(user.getId()) : null);
+            removeEntries(user.getEmail());
+         });
+      }
    }
 
    public void clear() {
-      userCache.clear();
+      synchronized (writeLock) {
+         writes++;
+         usersByEmail.clear();
+         emailsById.clear();
+      }
+   }
+
+   public void onCreateOrUpdateUser(@Observes @Priority(OBSERVER_PRIORITY) final CreateOrUpdateUser createOrUpdateUser) {
+      refreshUser(createOrUpdateUser.getUser());
    }
 
+   public void onRemoveUser(@Observes @Priority(OBSERVER_PRIORITY) final RemoveUser removeUser) {
+      refreshUser(removeUser.getUser());
+   }
+
+   public void onUpdateCurrentUser(@Observes @Priority(OBSERVER_PRIORITY) final UpdateCurrentUser updateCurrentUser) {
+      refreshUser(updateCurrentUser.getUser());
+   }
+
+   private void refreshUser(final User user) {
+      if (user != null && user.getEmail() != null) {
+         updateUser(user.getEmail(), user);
+      }
+   }
+
+   private User load(final String email, final Supplier<User> loader) {
+      final long writesBefore = writes;
+      final User user = loader.get();
+      final String key = email != null ? email : (user != null ? user.getEmail() : null);
+      if (user == null || key == null) {
+         return user;
+      }
+
+      synchronized (writeLock) {
+         if (writes == writesBefore) {
+            removeEntries(emailsById.get(user.getId()));
+            store(key, user);
+         }
+      }
+
+      return user.copy();
+   }
+
+   private void store(final String email, final User user) {
+      if (email == null || user == null) {
+         return;
+      }
+
+      final User stored = user.copy();
+      usersByEmail.set(email, stored);
+      if (stored.getId() != null) {
+         emailsById.set(stored.getId(), email);
+      }
+   }
+
+   private void removeEntries(final String email) {
+      if (email == null) {
+         return;
+      }
+
+      final User user = usersByEmail.get(email);
+      usersByEmail.remove(email);
+      if (user != null && user.getId() != null && email.equals(emailsById.get(user.getId()))) {
+         emailsById.remove(user.getId());
+      }
+   }
 }
@@ -0,0 +1,92 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.cache;
+
+import io.lumeer.api.model.Group;
+import io.lumeer.api.model.User;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable users and groups of an organization indexed for lookups. The lists are shared by all readers
+ * so neither they nor the users and groups in them can be modified.
+ */
+public final class UsersSnapshot {
+
+   private final String organizationId;
+   private final List<User> users;
+   private final List<Group> groups;
+   private final Map<String, User> usersById;
+   private final Map<String, User> usersByEmail;
+   private final Map<String, Group> groupsById;
+   private final long generation;
+
+   UsersSnapshot(final String organizationId, final List<User> users, final List<Group> groups, final long generation) {
+      this.organizationId = organizationId;
+      this.users = Collections.unmodifiableList(users);
+      this.groups = Collections.unmodifiableList(groups);
+      this.generation = generation;
+
+      final Map<String, User> usersById = new HashMap<>();
+      final Map<String, User> usersByEmail = new HashMap<>();
+      users.forEach(user -> {
+         usersById.put(user.getId(), user);
+         if (user.getEmail() != null) {
+            usersByEmail.put(user.getEmail(), user);
+         }
+      });
+      this.usersById = Collections.unmodifiableMap(usersById);
+      this.usersByEmail = Collections.unmodifiableMap(usersByEmail);
+
+      final Map<String, Group> groupsById = new HashMap<>();
+      groups.forEach(group -> groupsById.put(group.getId(), group));
+      this.groupsById = Collections.unmodifiableMap(groupsById);
+   }
+
+   public String getOrganizationId() {
+      return organizationId;
+   }
+
+   public List<User> getUsers() {
+      return users;
+   }
+
+   public List<Group> getGroups() {
+      return groups;
+   }
+
+   public User getUserById(final String userId) {
+      return usersById.get(userId);
+   }
+
+   public User getUserByEmail(final String email) {
+      return usersByEmail.get(email);
+   }
+
+   public Group getGroupById(final String groupId) {
+      return groupsById.get(groupId);
+   }
+
+   long getGeneration() {
+      return generation;
+   }
+}
@@ -0,0 +1,135 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.cache;
+
+import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
+import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheConfiguration;
+import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.event.CreateOrUpdateGroup;
+import io.lumeer.engine.api.event.CreateOrUpdateUser;
+import io.lumeer.engine.api.event.ReloadGroups;
+import io.lumeer.engine.api.event.RemoveGroup;
+import io.lumeer.engine.api.event.RemoveUser;
+import io.lumeer.engine.api.event.UpdateCurrentUser;
+import io.lumeer.storage.api.dao.GroupDao;
+import io.lumeer.storage.api.dao.UserDao;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+/**
+ * Keeps users and groups snapshots of organizations across requests. A snapshot is reloaded after a user or group change
+ * event of its organization, changes made without an event (or by other nodes) are picked up when the snapshot expires.
+ */
+@ApplicationScoped
+public class UsersSnapshotCache {
+
+   private static final long DEFAULT_TIME_TO_LIVE = 60L;
+   private static final int MAX_ORGANIZATIONS = 1000;
+
+   // observers run before the default priority ones (e.g. push notifications) which may already read the users
+   private static final int OBSERVER_PRIORITY = 1000;
+
+   @Inject
+   private CacheFactory cacheFactory;
+
+   @Inject
+   private DefaultConfigurationProducer configurationProducer;
+
+   private final AtomicLong generation = new AtomicLong();
+
+   // organization id -> generation of its last change, snapshots loaded before it are stale
+   private final Map<String, Long> changes = new ConcurrentHashMap<>();
+   private volatile long allChanged;
+
+   private Cache<UsersSnapshot> snapshots;
+
+   @PostConstruct
+   public void initCache() {
+      final long timeToLive = configurationProducer.getLong(DefaultConfigurationProducer.USERS_SNAPSHOT_TTL, DEFAULT_TIME_TO_LIVE);
+      snapshots = cacheFactory.getCache(CacheConfiguration.unbounded().maximumSize(MAX_ORGANIZATIONS).expireAfterWrite(Duration.ofSeconds(timeToLive)));
+   }
+
+   public UsersSnapshot getSnapshot(final String organizationId, final UserDao userDao, final GroupDao groupDao) {
+      final UsersSnapshot snapshot = snapshots.get(organizationId);
+      if (snapshot != null && !isStale(snapshot)) {
+         return snapshot;
+      }
+
+      // read before loading so that a change made meanwhile makes the loaded snapshot stale
+      final long currentGeneration = generation.get();
+      final UsersSnapshot loaded = new UsersSnapshot(organizationId, new ArrayList<>(userDao.getAllUsers(organizationId)), new ArrayList<>(groupDao.getAllGroups(organizationId)), currentGeneration);
+      snapshots.set(organizationId, loaded);
+      return loaded;
+   }
+
+   public void invalidate(final String organizationId) {
+      if (organizationId == null) {
+         invalidateAll();
+         return;
+      }
+
+      changes.put(organizationId, generation.incrementAndGet());
+      snapshots.remove(organizationId);
+   }
+
+   public void invalidateAll() {
+      allChanged = generation.incrementAndGet();
+      snapshots.clear();
+   }
+
+   public void onCreateOrUpdateUser(@Observes @Priority(OBSERVER_PRIORITY) final CreateOrUpdateUser createOrUpdateUser) {
+      invalidate(createOrUpdateUser.getOrganizationId());
+   }
+
+   public void onRemoveUser(@Observes @Priority(OBSERVER_PRIORITY) final RemoveUser removeUser) {
+      invalidate(removeUser.getOrganizationId());
+   }
+
+   public void onUpdateCurrentUser(@Observes @Priority(OBSERVER_PRIORITY) final UpdateCurrentUser updateCurrentUser) {
+      if (updateCurrentUser.getUser() != null && updateCurrentUser.getUser().getOrganizations() != null) {
+         updateCurrentUser.getUser().getOrganizations().forEach(this::invalidate);
+      }
+   }
+
+   public void onCreateOrUpdateGroup(@Observes @Priority(OBSERVER_PRIORITY) final CreateOrUpdateGroup createOrUpdateGroup) {
+      invalidate(createOrUpdateGroup.getOrganizationId());
+   }
+
+   public void onRemoveGroup(@Observes @Priority(OBSERVER_PRIORITY) final RemoveGroup removeGroup) {
+      invalidate(removeGroup.getOrganizationId());
+   }
+
+   public void onReloadGroups(@Observes @Priority(OBSERVER_PRIORITY) final ReloadGroups reloadGroups) {
+      invalidate(reloadGroups.getOrganizationId());
+   }
+
+   private boolean isStale(final UsersSnapshot snapshot) {
+      return snapshot.getGeneration() < allChanged || snapshot.getGeneration() < changes.getOrDefault(snapshot.getOrganizationId(), 0L);
+   }
+}
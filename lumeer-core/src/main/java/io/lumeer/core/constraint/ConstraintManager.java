@@ -53,12 +53,14 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -82,8 +84,19 @@ public class ConstraintManager {
 
    private DateTimeFormatter dateDecoder;
 
+   private DateTimeFormatter gmtOffsetFormatter;
+
+   private DateTimeFormatter isoOffsetFormatter;
+
    private static final ZoneId utcZone = ZoneId.ofOffset("UTC", ZoneOffset.UTC);
 
+   private static final String DATE_TIME_SHAPE = "dddd-dd-ddTdd:dd:dd.ddd";
+
+   private static final int MAX_PLANS = 1000;
+
+   private final Map<String, ConstraintPlan> collectionPlans = new ConcurrentHashMap<>();
+   private final Map<String, ConstraintPlan> linkTypePlans = new ConcurrentHashMap<>();
+
    /**
     * Obtains a default instance of ConstraintManager configured according to system properties.
     *
@@ -137,14 +150,66 @@ public class ConstraintManager {
 
    private void initDateTimeFormatters(final Locale locale) {
       dateDecoder = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ", locale);
+      gmtOffsetFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSO", locale);
+      isoOffsetFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX", locale);
       formatters = Set.of(
             dateDecoder,
-            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSO", locale),
+            gmtOffsetFormatter,
             DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSx", locale),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX", locale)
+            isoOffsetFormatter
       );
    }
 
+   /**
+    * Picks the formatter by the shape of the value so that values which are not dates are rejected without any parsing.
+    *
+    * @param value The trimmed value.
+    * @return The formatter most likely to parse the value or null when none of the formatters can parse it.
+    */
+   private DateTimeFormatter getDateTimeFormatter(final String value) {
+      if (value.length() <= DATE_TIME_SHAPE.length()) {
+         return null;
+      }
+
+      for (int i = 0; i < DATE_TIME_SHAPE.length(); i++) {
+         final char c = value.charAt(i);
+         final char expected = DATE_TIME_SHAPE.charAt(i);
+         if (expected == 'd' ? c < '0' || c > '9' : c != expected) {
+            return null;
+         }
+      }
+
+      final char zone = value.charAt(DATE_TIME_SHAPE.length());
+      if (zone == 'Z' || zone == '+' || zone == '-') {
+         return isoOffsetFormatter;
+      }
+      return zone == 'G' ? gmtOffsetFormatter : null;
+   }
+
+   private Date parseDateTime(final String value) {
+      final DateTimeFormatter formatter = getDateTimeFormatter(value);
+      if (formatter == null) {
+         return null;
+      }
+
+      try {
+         return Date.from(ZonedDateTime.from(formatter.parse(value)).toInstant());
+      } catch (DateTimeParseException e) {
+         // the shape is right, so let's see whether some other formatter accepts the offset
+      }
+
+      for (final DateTimeFormatter dtf : formatters) {
+         if (dtf != formatter) {
+            try {
+               return Date.from(ZonedDateTime.from(dtf.parse(value)).toInstant());
+            } catch (DateTimeParseException e) {
+               // no problem, we will try another
+            }
+         }
+      }
+      return null;
+   }
+
    /**
     * Tries to convert the parameter to a number (either integer, double or big decimal) and return it.
     *
@@ -291,14 +356,9 @@ public class ConstraintManager {
             return value;
          }
 
-         DateTimeFormatter dtf;
-         for (final Iterator<DateTimeFormatter> i = formatters.iterator(); i.hasNext(); ) {
-            dtf = i.next();
-            try {
-               return Date.from(ZonedDateTime.from(dtf.parse(value.toString().trim())).toInstant());
-            } catch (DateTimeParseException e) {
-               // no problem, we will try another
-            }
+         final Date date = parseDateTime(value.toString().trim());
+         if (date != null) {
+            return date;
          }
       }
 
@@ -356,10 +416,25 @@ public class ConstraintManager {
       if (collection == null) {
          return Collections.emptyMap();
       }
-      return collection.getAttributes()
-                       .stream()
-                       .filter(attr -> attr.getId() != null && attr.getConstraint() != null)
-                       .collect(Collectors.toMap(Attribute::getId, Attribute::getConstraint));
+      return getConstraints(collectionPlans, collection.getId(), collection.getVersion(), collection.getAttributes());
+   }
+
+   private Map<String, Constraint> getConstraints(final Map<String, ConstraintPlan> plans, final String resourceId, final long version, final java.util.Collection<Attribute> attributes) {
+      if (resourceId == null) {
+         return new ConstraintPlan(version, attributes).constraintsMap;
+      }
+
+      final ConstraintPlan plan = plans.get(resourceId);
+      if (plan != null && plan.matches(version, attributes)) {
+         return plan.constraintsMap;
+      }
+
+      if (plans.size() >= MAX_PLANS) {
+         plans.clear();
+      }
+      final ConstraintPlan newPlan = new ConstraintPlan(version, attributes);
+      plans.put(resourceId, newPlan);
+      return newPlan.constraintsMap;
    }
 
    public Query encodeQuery(final Query query, final List<Collection> collections, final List<LinkType> linkTypes) {
@@ -438,10 +513,7 @@ public class ConstraintManager {
       if (linkType == null) {
          return Collections.emptyMap();
       }
-      return linkType.getAttributes()
-                     .stream()
-                     .filter(attr -> attr.getId() != null && attr.getConstraint() != null)
-                     .collect(Collectors.toMap(Attribute::getId, Attribute::getConstraint));
+      return getConstraints(linkTypePlans, linkType.getId(), linkType.getVersion(), linkType.getAttributes());
    }
 
    public DataDocument encodeDataTypes(final LinkType linkType, final DataDocument data) {
@@ -463,13 +535,13 @@ public class ConstraintManager {
 
       final DataDocument newData = new DataDocument();
 
-      data.keySet().forEach(key -> {
-         if (!DataDocument.ID.equals(key)) {
-            newData.put(key, processor.apply(data.get(key), constraints.get(key)));
+      for (final Map.Entry<String, Object> entry : data.entrySet()) {
+         if (!DataDocument.ID.equals(entry.getKey())) {
+            newData.put(entry.getKey(), processor.apply(entry.getValue(), constraints.get(entry.getKey())));
          } else {
-            newData.put(key, data.get(key));
+            newData.put(entry.getKey(), entry.getValue());
          }
-      });
+      }
 
       return newData;
    }
@@ -482,4 +554,47 @@ public class ConstraintManager {
       return numberMatch.matcher(value).matches();
    }
 
+   /**
+    * Constraints of a collection or link type indexed by attribute id. It is valid as long as the resource has the same version
+    * and attributes, so it can be shared by all documents or links of the resource.
+    */
+   private static final class ConstraintPlan {
+      private final long version;
+      private final String[] attributeIds;
+      private final Constraint[] constraints;
+      private final Map<String, Constraint> constraintsMap;
+
+      private ConstraintPlan(final long version, final java.util.Collection<Attribute> attributes) {
+         this.version = version;
+         this.attributeIds = new String[attributes.size()];
+         this.constraints = new Constraint[attributes.size()];
+         this.constraintsMap = new HashMap<>();
+
+         int i = 0;
+         for (final Attribute attribute : attributes) {
+            attributeIds[i] = attribute.getId();
+            constraints[i] = attribute.getConstraint();
+            if (attribute.getId() != null && attribute.getConstraint() != null) {
+               constraintsMap.put(attribute.getId(), attribute.getConstraint());
+            }
+            i++;
+         }
+      }
+
+      private boolean matches(final long version, final java.util.Collection<Attribute> attributes) {
+         if (this.version != version || attributeIds.length != attributes.size()) {
+            return false;
+         }
+
+         int i = 0;
+         for (final Attribute attribute : attributes) {
+            if (!Objects.equals(attributeIds[i], attribute.getId()) || (constraints[i] != attribute.getConstraint() && !Objects.equals(constraints[i], attribute.getConstraint()))) {
+               return false;
+            }
+            i++;
+         }
+         return true;
+      }
+   }
+
 }
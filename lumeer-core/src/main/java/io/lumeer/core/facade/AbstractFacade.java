@@ -27,7 +27,10 @@ import io.lumeer.core.adapter.FacadeAdapter;
 import io.lumeer.core.auth.AuthenticatedUser;
 import io.lumeer.core.auth.PermissionsChecker;
 import io.lumeer.core.cache.UserCache;
+import io.lumeer.core.exception.NoSystemPermissionException;
 
+import java.util.Arrays;
+import java.util.List;
 import javax.inject.Inject;
 
 abstract class AbstractFacade {
@@ -84,4 +87,12 @@ abstract class AbstractFacade {
    protected <T extends Resource> T setupPublicPermissions(final T resource) {
       return getFacadeAdapter().setupPublicPermissions(resource, authenticatedUser.getCurrentUserId());
    }
+
+   protected void checkSystemPermission() {
+      String currentUserEmail = authenticatedUser.getUserEmail();
+      List<String> allowedEmails = Arrays.asList("support@lumeer.io", "mvecera@lumeer.io", "kubedo8@gmail.com", "aturing@lumeer.io");
+      if (!allowedEmails.contains(currentUserEmail)) {
+         throw new NoSystemPermissionException();
+      }
+   }
 }
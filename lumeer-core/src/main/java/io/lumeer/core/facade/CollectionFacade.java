@@ -36,6 +36,7 @@ import io.lumeer.api.model.rule.AutoLinkRule;
 import io.lumeer.api.util.CollectionUtil;
 import io.lumeer.core.adapter.CollectionAdapter;
 import io.lumeer.core.adapter.ResourceAdapter;
+import io.lumeer.core.cache.ProjectResourcesCache;
 import io.lumeer.core.exception.NoResourcePermissionException;
 import io.lumeer.core.facade.conversion.ConversionFacade;
 import io.lumeer.core.task.AutoLinkBatchTask;
@@ -112,13 +113,16 @@ public class CollectionFacade extends AbstractFacade {
    @Inject
    private TaskExecutor taskExecutor;
 
+   @Inject
+   private ProjectResourcesCache projectResourcesCache;
+
    private CollectionAdapter adapter;
    private ResourceAdapter resourceAdapter;
 
    @PostConstruct
    public void init() {
       adapter = new CollectionAdapter(collectionDao, favoriteItemDao, documentDao);
-      resourceAdapter = new ResourceAdapter(permissionsChecker.getPermissionAdapter(), collectionDao, linkTypeDao, viewDao, userDao);
+      resourceAdapter = new ResourceAdapter(permissionsChecker.getPermissionAdapter(), collectionDao, linkTypeDao, viewDao, userDao, projectResourcesCache);
    }
 
    public Collection createCollection(Collection collection) {
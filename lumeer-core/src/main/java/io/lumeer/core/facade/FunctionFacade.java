@@ -29,9 +29,10 @@ import io.lumeer.api.model.function.FunctionResourceType;
 import io.lumeer.api.model.function.FunctionRow;
 import io.lumeer.api.util.ResourceUtils;
 import io.lumeer.core.adapter.LinkTypeAdapter;
+import io.lumeer.core.cache.FunctionGraphCache;
 import io.lumeer.core.task.ContextualTaskFactory;
 import io.lumeer.core.task.FunctionTask;
-import io.lumeer.core.util.FunctionOrder;
+import io.lumeer.core.util.FunctionGraph;
 import io.lumeer.core.util.FunctionXmlParser;
 import io.lumeer.core.util.Utils;
 import io.lumeer.engine.api.data.DataDocument;
@@ -51,7 +52,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
@@ -81,6 +81,12 @@ public class FunctionFacade extends AbstractFacade {
 
    private LinkTypeAdapter linkTypeAdapter;
 
+   @Inject
+   private FunctionGraphCache functionGraphCache;
+
+   // used when there is no shared cache (e.g. in tasks), loaded once per facade instance
+   private FunctionGraph localGraph;
+
    @PostConstruct
    public void init() {
       linkTypeAdapter = new LinkTypeAdapter(linkInstanceDao);
@@ -101,7 +107,7 @@ public class FunctionFacade extends AbstractFacade {
    public FunctionTask createTaskForCreatedFunction(Collection collection, Attribute attribute) {
       List<FunctionRow> functionRows = createCollectionRowsFromXml(collection, attribute);
       if (!functionRows.isEmpty()) {
-         functionDao.createRows(functionRows);
+         createRows(functionRows);
       }
 
       Deque<FunctionParameterDocuments> queue = createQueueForCollection(collection, attribute, functionRows);
@@ -134,22 +140,34 @@ public class FunctionFacade extends AbstractFacade {
    }
 
    private Deque<FunctionParameterDocuments> orderFunctions(Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap) {
-      Deque<FunctionParameterDocuments> queue = FunctionOrder.orderFunctions(parametersMap);
+      return getGraph().orderFunctions(parametersMap.keySet());
+   }
 
-      Deque<FunctionParameterDocuments> mappedQueue = new LinkedList<>();
-      for (final FunctionParameterDocuments functionParameterDocuments : queue) {
-         Optional<FunctionParameterDocuments> first = parametersMap.keySet().stream().filter(param -> param.equals(functionParameterDocuments)).findFirst();
-         first.ifPresent(mappedQueue::add);
+   private FunctionGraph getGraph() {
+      if (functionGraphCache != null) {
+         return functionGraphCache.getGraph(functionDao);
       }
 
-      return mappedQueue;
+      if (localGraph == null) {
+         localGraph = FunctionGraph.of(functionDao.getAllRows());
+      }
+      return localGraph;
+   }
+
+   private void createRows(final List<FunctionRow> functionRows) {
+      if (functionGraphCache != null) {
+         functionGraphCache.createRows(functionDao, functionRows);
+      } else {
+         functionDao.createRows(functionRows);
+         localGraph = null;
+      }
    }
 
    private void fillParametersMapForCollection(Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap, FunctionParameterDocuments parentParameter) {
-      List<FunctionRow> functionRows = functionDao.searchByDependentCollection(parentParameter.getResourceId(), parentParameter.getAttributeId());
+      List<FunctionRow> functionRows = getGraph().searchByDependentCollection(parentParameter.getResourceId(), parentParameter.getAttributeId());
 
       functionRows.forEach(row -> {
-         List<FunctionRow> rows = functionDao.searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
+         List<FunctionRow> rows = getGraph().searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
          Set<String> documentIds = parentParameter.getDocuments().stream().map(Document::getId).collect(Collectors.toSet());
 
          FunctionParameterDocuments parameter = new FunctionParameterDocuments(row.getType(), row.getResourceId(), row.getAttributeId());
@@ -175,10 +193,10 @@ public class FunctionFacade extends AbstractFacade {
    }
 
    private void fillParametersMapForLinkType(Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap, FunctionParameterDocuments parentParameter) {
-      List<FunctionRow> functionRows = functionDao.searchByDependentLinkType(parentParameter.getResourceId(), parentParameter.getAttributeId());
+      List<FunctionRow> functionRows = getGraph().searchByDependentLinkType(parentParameter.getResourceId(), parentParameter.getAttributeId());
 
       functionRows.forEach(row -> {
-         List<FunctionRow> rows = functionDao.searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
+         List<FunctionRow> rows = getGraph().searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
          Set<String> linkInstanceIds = parentParameter.getLinkInstances().stream().map(LinkInstance::getId).collect(Collectors.toSet());
 
          FunctionParameterDocuments parameter = new FunctionParameterDocuments(row.getType(), row.getResourceId(), row.getAttributeId());
@@ -260,13 +278,18 @@ public class FunctionFacade extends AbstractFacade {
    }
 
    public void onDeleteCollectionFunction(String collectionId, String attributeId) {
-      functionDao.deleteByCollection(collectionId, attributeId);
+      if (functionGraphCache != null) {
+         functionGraphCache.deleteByCollection(functionDao, collectionId, attributeId);
+      } else {
+         functionDao.deleteByCollection(collectionId, attributeId);
+         localGraph = null;
+      }
    }
 
    public FunctionTask createTaskForCreatedLinkFunction(LinkType linkType, Attribute attribute) {
       List<FunctionRow> functionRows = createLinkRowsFromXml(linkType, attribute);
       if (!functionRows.isEmpty()) {
-         functionDao.createRows(functionRows);
+         createRows(functionRows);
       }
 
       Deque<FunctionParameterDocuments> queue = createQueueForLinkType(linkType, attribute, functionRows);
@@ -304,7 +327,12 @@ public class FunctionFacade extends AbstractFacade {
    }
 
    public void onDeleteLinkTypeFunction(String collectionId, String attributeId) {
-      functionDao.deleteByLinkType(collectionId, attributeId);
+      if (functionGraphCache != null) {
+         functionGraphCache.deleteByLinkType(functionDao, collectionId, attributeId);
+      } else {
+         functionDao.deleteByLinkType(collectionId, attributeId);
+         localGraph = null;
+      }
    }
 
    public FunctionTask createTaskForCreatedDocument(Collection collection, Document document) {
@@ -312,7 +340,16 @@ public class FunctionFacade extends AbstractFacade {
       return convertQueueToTask(queue);
    }
 
+   public FunctionTask createTaskForCreatedDocuments(Collection collection, Set<Document> documents) {
+      Deque<FunctionParameterDocuments> queue = createQueueForCreatedDocuments(collection, documents);
+      return convertQueueToTask(queue);
+   }
+
    public Deque<FunctionParameterDocuments> createQueueForCreatedDocument(Collection collection, Document document) {
+      return createQueueForCreatedDocuments(collection, Collections.singleton(document));
+   }
+
+   public Deque<FunctionParameterDocuments> createQueueForCreatedDocuments(Collection collection, Set<Document> documents) {
       List<Attribute> attributes = collection.getAttributes().stream().filter(Attribute::isFunctionDefined).collect(Collectors.toList());
 
       Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap = new HashMap<>();
@@ -320,11 +357,11 @@ public class FunctionFacade extends AbstractFacade {
       attributes.forEach(attribute -> {
          FunctionParameterDocuments parameter = new FunctionParameterDocuments(FunctionResourceType.COLLECTION, collection.getId(), attribute.getId());
          if (!parametersMap.containsKey(parameter)) {
-            parameter.setDocuments(Collections.singleton(document));
+            parameter.setDocuments(new HashSet<>(documents));
             parameter.setCollection(collection);
             parameter.setAttribute(attribute);
 
-            List<FunctionRow> functionRows = functionDao.searchByResource(collection.getId(), attribute.getId(), FunctionResourceType.COLLECTION);
+            List<FunctionRow> functionRows = getGraph().searchByResource(collection.getId(), attribute.getId(), FunctionResourceType.COLLECTION);
             parametersMap.put(parameter, functionRows.stream().map(this::functionRowToParameter).collect(Collectors.toList()));
             fillParametersMapForCollection(parametersMap, parameter);
          }
@@ -358,7 +395,15 @@ public class FunctionFacade extends AbstractFacade {
       return convertQueueToTask(createQueueForDocumentChanged(collection.getId(), changedAttributeIds, documentId));
    }
 
-   private List<String> getChangedAttributesIds(java.util.Collection<Attribute> attributes, DataDocument oldData, DataDocument newData) {
+   public FunctionTask createTaskForUpdatedDocuments(final Collection collection, final Set<String> documentIds, final java.util.Collection<String> changedAttributeIds) {
+      if (documentIds.isEmpty() || changedAttributeIds.isEmpty()) {
+         return null;
+      }
+
+      return convertQueueToTask(createQueueForDocumentsChanged(collection.getId(), changedAttributeIds, documentIds));
+   }
+
+   static List<String> getChangedAttributesIds(java.util.Collection<Attribute> attributes, DataDocument oldData, DataDocument newData) {
       if (oldData == null || newData == null || attributes == null) {
          return Collections.emptyList();
       }
@@ -371,25 +416,29 @@ public class FunctionFacade extends AbstractFacade {
    }
 
    public Deque<FunctionParameterDocuments> createQueueForDocumentChanged(String collectionId, java.util.Collection<String> attributeIds, String documentId) {
+      return createQueueForDocumentsChanged(collectionId, attributeIds, Collections.singleton(documentId));
+   }
+
+   public Deque<FunctionParameterDocuments> createQueueForDocumentsChanged(String collectionId, java.util.Collection<String> attributeIds, Set<String> documentIds) {
       Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap = new HashMap<>();
 
       attributeIds.forEach(attributeId -> {
 
-         List<FunctionRow> functionRows = functionDao.searchByDependentCollection(collectionId, attributeId);
+         List<FunctionRow> functionRows = getGraph().searchByDependentCollection(collectionId, attributeId);
 
          functionRows.forEach(row -> {
             FunctionParameterDocuments parameter = new FunctionParameterDocuments(row.getType(), row.getResourceId(), row.getAttributeId());
-            List<FunctionRow> rows = functionDao.searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
+            List<FunctionRow> rows = getGraph().searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
             if (!parametersMap.containsKey(parameter)) {
                if (row.getType() == FunctionResourceType.COLLECTION) {
-                  Set<Document> documents = findDocumentsForRow(row, Collections.singleton(documentId));
+                  Set<Document> documents = findDocumentsForRow(row, documentIds);
                   if (!documents.isEmpty()) {
                      parameter.setDocuments(documents);
                      parametersMap.put(parameter, rows.stream().map(this::functionRowToParameter).collect(Collectors.toList()));
                      fillParametersMapForCollection(parametersMap, parameter);
                   }
                } else {
-                  Set<LinkInstance> linkInstances = new HashSet<>(linkInstanceDao.getLinkInstancesByDocumentIds(Collections.singleton(documentId), row.getDependentLinkTypeId()));
+                  Set<LinkInstance> linkInstances = new HashSet<>(linkInstanceDao.getLinkInstancesByDocumentIds(documentIds, row.getDependentLinkTypeId()));
                   if (!linkInstances.isEmpty()) {
                      parameter.setLinkInstances(linkInstances);
                      parametersMap.put(parameter, rows.stream().map(this::functionRowToParameter).collect(Collectors.toList()));
@@ -405,9 +454,13 @@ public class FunctionFacade extends AbstractFacade {
    }
 
    public FunctionTask createTaskForRemovedDocument(Collection collection, Document document) {
+      return createTaskForRemovedDocuments(collection, Collections.singleton(document));
+   }
+
+   public FunctionTask createTaskForRemovedDocuments(Collection collection, Set<Document> documents) {
       Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap = new HashMap<>();
       FunctionParameterDocuments parameter = new FunctionParameterDocuments(FunctionResourceType.COLLECTION, collection.getId(), null);
-      parameter.setDocuments(Collections.singleton(document));
+      parameter.setDocuments(new HashSet<>(documents));
 
       fillParametersMapForCollection(parametersMap, parameter);
 
@@ -435,7 +488,7 @@ public class FunctionFacade extends AbstractFacade {
             parameter.setLinkType(linkType);
             parameter.setAttribute(attribute);
 
-            List<FunctionRow> functionRows = functionDao.searchByResource(linkType.getId(), attribute.getId(), FunctionResourceType.LINK);
+            List<FunctionRow> functionRows = getGraph().searchByResource(linkType.getId(), attribute.getId(), FunctionResourceType.LINK);
             parametersMap.put(parameter, functionRows.stream().map(this::functionRowToParameter).collect(Collectors.toList()));
             fillParametersMapForLinkType(parametersMap, parameter);
          }
@@ -447,10 +500,10 @@ public class FunctionFacade extends AbstractFacade {
    }
 
    private void fillParametersMapForDependentLinkType(Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap, LinkType linkType, Set<LinkInstance> linkInstances, List<Document> additionalDocuments, final List<String> skipCollectionIds) {
-      List<FunctionRow> dependentRows = functionDao.searchByDependentLinkType(linkType.getId(), null);
+      List<FunctionRow> dependentRows = getGraph().searchByDependentLinkType(linkType.getId(), null);
       dependentRows.forEach(row -> {
          FunctionParameterDocuments parameter = new FunctionParameterDocuments(row.getType(), row.getResourceId(), row.getAttributeId());
-         List<FunctionRow> rows = functionDao.searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
+         List<FunctionRow> rows = getGraph().searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
 
          if (!parametersMap.containsKey(parameter)) {
             if (row.getType() == FunctionResourceType.COLLECTION) {
@@ -498,29 +551,41 @@ public class FunctionFacade extends AbstractFacade {
       return convertQueueToTask(createQueueForLinkChanged(linkType.getId(), changedAttributeIds, linkInstanceId));
    }
 
+   public FunctionTask createTaskForChangedLinks(final LinkType linkType, final Set<String> linkInstanceIds, final java.util.Collection<String> changedAttributeIds) {
+      if (linkInstanceIds.isEmpty() || changedAttributeIds.isEmpty()) {
+         return null;
+      }
+
+      return convertQueueToTask(createQueueForLinksChanged(linkType.getId(), changedAttributeIds, linkInstanceIds));
+   }
+
    public Deque<FunctionParameterDocuments> createQueueForLinkChanged(String linkTypeId, java.util.Collection<String> attributeIds, String linkInstanceId) {
+      return createQueueForLinksChanged(linkTypeId, attributeIds, Collections.singleton(linkInstanceId));
+   }
+
+   public Deque<FunctionParameterDocuments> createQueueForLinksChanged(String linkTypeId, java.util.Collection<String> attributeIds, Set<String> linkInstanceIds) {
       Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap = new HashMap<>();
-      fillParametersMapForLinkChanged(parametersMap, linkTypeId, attributeIds, linkInstanceId);
+      fillParametersMapForLinkChanged(parametersMap, linkTypeId, attributeIds, linkInstanceIds);
       return orderFunctions(parametersMap);
    }
 
-   private void fillParametersMapForLinkChanged(Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap, String linkTypeId, java.util.Collection<String> attributeIds, String linkInstanceId) {
+   private void fillParametersMapForLinkChanged(Map<FunctionParameterDocuments, List<FunctionParameterDocuments>> parametersMap, String linkTypeId, java.util.Collection<String> attributeIds, Set<String> linkInstanceIds) {
       attributeIds.forEach(attributeId -> {
-         List<FunctionRow> functionRows = functionDao.searchByDependentLinkType(linkTypeId, attributeId);
+         List<FunctionRow> functionRows = getGraph().searchByDependentLinkType(linkTypeId, attributeId);
 
          functionRows.forEach(row -> {
             FunctionParameterDocuments parameter = new FunctionParameterDocuments(row.getType(), row.getResourceId(), row.getAttributeId());
-            List<FunctionRow> rows = functionDao.searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
+            List<FunctionRow> rows = getGraph().searchByResource(row.getResourceId(), row.getAttributeId(), row.getType());
             if (!parametersMap.containsKey(parameter)) {
                if (row.getType() == FunctionResourceType.COLLECTION) {
-                  Set<Document> documents = findDocumentsForRowByLinkInstances(row, Collections.singleton(linkInstanceId));
+                  Set<Document> documents = findDocumentsForRowByLinkInstances(row, linkInstanceIds);
                   if (!documents.isEmpty()) {
                      parameter.setDocuments(documents);
                      parametersMap.put(parameter, rows.stream().map(this::functionRowToParameter).collect(Collectors.toList()));
                      fillParametersMapForCollection(parametersMap, parameter);
                   }
                } else if (row.getDependentLinkTypeId() == null || row.getDependentLinkTypeId().equals(row.getResourceId())) {
-                  parameter.setLinkInstances(Collections.singleton(linkInstanceDao.getLinkInstance(linkInstanceId)));
+                  parameter.setLinkInstances(new HashSet<>(linkInstanceDao.getLinkInstances(linkInstanceIds)));
                   parametersMap.put(parameter, rows.stream().map(this::functionRowToParameter).collect(Collectors.toList()));
                   fillParametersMapForLinkType(parametersMap, parameter);
                }
@@ -569,7 +634,12 @@ public class FunctionFacade extends AbstractFacade {
 
    private void deleteByRows(FunctionResourceType type, List<FunctionRow> functionRows) {
       String[] resourceIdsToDelete = functionRows.stream().map(FunctionRow::getResourceId).toArray(String[]::new);
-      functionDao.deleteByResources(type, resourceIdsToDelete);
+      if (functionGraphCache != null) {
+         functionGraphCache.deleteByResources(functionDao, type, resourceIdsToDelete);
+      } else {
+         functionDao.deleteByResources(type, resourceIdsToDelete);
+         localGraph = null;
+      }
    }
 
    private Set<Document> findDocumentsForRow(FunctionRow row, Set<String> documentIds) {
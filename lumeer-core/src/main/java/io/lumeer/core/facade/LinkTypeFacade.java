@@ -31,6 +31,7 @@ import io.lumeer.api.model.RoleType;
 import io.lumeer.api.util.CollectionUtil;
 import io.lumeer.core.adapter.LinkTypeAdapter;
 import io.lumeer.core.adapter.ResourceAdapter;
+import io.lumeer.core.cache.ProjectResourcesCache;
 import io.lumeer.core.exception.BadFormatException;
 import io.lumeer.core.exception.NoPermissionException;
 import io.lumeer.storage.api.dao.CollectionDao;
@@ -80,13 +81,16 @@ public class LinkTypeFacade extends AbstractFacade {
    @Inject
    private UserDao userDao;
 
+   @Inject
+   private ProjectResourcesCache projectResourcesCache;
+
    private LinkTypeAdapter adapter;
    private ResourceAdapter resourceAdapter;
 
    @PostConstruct
    public void init() {
       adapter = new LinkTypeAdapter(linkInstanceDao);
-      resourceAdapter = new ResourceAdapter(permissionsChecker.getPermissionAdapter(), collectionDao, linkTypeDao, viewDao, userDao);
+      resourceAdapter = new ResourceAdapter(permissionsChecker.getPermissionAdapter(), collectionDao, linkTypeDao, viewDao, userDao, projectResourcesCache);
    }
 
    public LinkTypeAdapter getAdapter() {
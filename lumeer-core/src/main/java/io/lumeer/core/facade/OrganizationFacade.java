@@ -27,7 +27,6 @@ import io.lumeer.api.model.RoleType;
 import io.lumeer.api.model.ServiceLimits;
 import io.lumeer.api.model.User;
 import io.lumeer.core.cache.WorkspaceCache;
-import io.lumeer.core.exception.NoSystemPermissionException;
 import io.lumeer.core.util.Utils;
 import io.lumeer.storage.api.dao.DelayedActionDao;
 import io.lumeer.storage.api.dao.FavoriteItemDao;
@@ -37,7 +36,6 @@ import io.lumeer.storage.api.dao.PaymentDao;
 import io.lumeer.storage.api.dao.ProjectDao;
 import io.lumeer.storage.api.dao.UserDao;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -252,7 +250,8 @@ public class OrganizationFacade extends AbstractFacade {
       groups.add(organizationId);
       currentUser.setOrganizations(groups);
 
-      userDao.updateUser(currentUser.getId(), currentUser);
+      final User updatedUser = userDao.updateUser(currentUser.getId(), currentUser);
+      userCache.updateUser(updatedUser.getEmail(), updatedUser);
    }
 
    private void createOrganizationScopedRepositories(Organization organization) {
@@ -270,16 +269,8 @@ public class OrganizationFacade extends AbstractFacade {
       paymentDao.deleteRepository(organization);
       favoriteItemDao.deleteRepository(organization);
 
-      userCache.clear();
+      userCache.removeOrganizationUsers(organization.getId());
 
       delayedActionDao.deleteAllScheduledActions(organization.getId());
    }
-
-   private void checkSystemPermission() {
-      String currentUserEmail = authenticatedUser.getUserEmail();
-      List<String> allowedEmails = Arrays.asList("support@lumeer.io", "mvecera@lumeer.io", "kubedo8@gmail.com", "aturing@lumeer.io");
-      if (!allowedEmails.contains(currentUserEmail)) {
-         throw new NoSystemPermissionException();
-      }
-   }
 }
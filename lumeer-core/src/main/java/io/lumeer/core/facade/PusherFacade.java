@@ -45,6 +45,7 @@ import io.lumeer.core.adapter.PusherAdapter;
 import io.lumeer.core.adapter.ResourceAdapter;
 import io.lumeer.core.adapter.ViewAdapter;
 import io.lumeer.core.auth.RequestDataKeeper;
+import io.lumeer.core.cache.ProjectResourcesCache;
 import io.lumeer.core.constraint.ConstraintManager;
 import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.core.util.DocumentUtils;
@@ -103,7 +104,9 @@ import org.marvec.pusher.data.Event;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -166,6 +169,9 @@ public class PusherFacade extends AbstractFacade {
    @Inject
    private PusherHelperFacade pusherHelperFacade;
 
+   @Inject
+   private ProjectResourcesCache projectResourcesCache;
+
    private ConstraintManager constraintManager;
    private CollectionAdapter collectionAdapter;
    private LinkTypeAdapter linkTypeAdapter;
@@ -182,7 +188,7 @@ public class PusherFacade extends AbstractFacade {
       pusherClient = pusherHelperFacade.getPusherClient();
       permissionAdapter = permissionsChecker.getPermissionAdapter();
       collectionAdapter = new CollectionAdapter(collectionDao, favoriteItemDao, documentDao);
-      resourceAdapter = new ResourceAdapter(permissionAdapter, collectionDao, linkTypeDao, viewDao, userDao);
+      resourceAdapter = new ResourceAdapter(permissionAdapter, collectionDao, linkTypeDao, viewDao, userDao, projectResourcesCache);
       linkTypeAdapter = new LinkTypeAdapter(linkInstanceDao);
       viewAdapter = new ViewAdapter(resourceAdapter, favoriteItemDao);
 
@@ -479,9 +485,10 @@ public class PusherFacade extends AbstractFacade {
             final Collection collection = collectionDao.getCollectionById(document.getCollectionId());
             document.setData(constraintManager.decodeDataTypes(collection, document.getData()));
             Set<String> userIds = resourceAdapter.getDocumentReaders(getOrganization(), getProject(), collection, document);
+            final Map<String, Document> userDocuments = createDocumentsForUsers(document, userIds, eventSuffix);
 
             sendNotificationsBatch(userIds.stream()
-                                          .map(userId -> createEvent(createDocumentForUser(document, userId), eventSuffix, userId))
+                                          .map(userId -> createEvent(userDocuments.get(userId), eventSuffix, userId))
                                           .collect(Collectors.toList()));
          } catch (Exception e) {
             log.log(Level.WARNING, "Unable to send push notification: ", e);
@@ -489,8 +496,11 @@ public class PusherFacade extends AbstractFacade {
       }
    }
 
-   private Document createDocumentForUser(final Document document, final String userId) {
-      return documentAdapter.mapDocumentData(document, userId, workspaceKeeper.getProjectId());
+   private Map<String, Document> createDocumentsForUsers(final Document document, final Set<String> userIds, final String eventSuffix) {
+      if (REMOVE_EVENT_SUFFIX.equals(eventSuffix)) { // only the id is sent
+         return userIds.stream().collect(Collectors.toMap(Function.identity(), userId -> document));
+      }
+      return documentAdapter.mapDocumentDataForUsers(document, userIds, workspaceKeeper.getProjectId());
    }
 
    public void createLinkInstance(@Observes final CreateLinkInstance createLinkInstance) {
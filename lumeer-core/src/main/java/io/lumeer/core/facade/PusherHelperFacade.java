@@ -23,6 +23,7 @@ import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.core.util.PusherClient;
 
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -37,9 +38,12 @@ public class PusherHelperFacade {
    @Inject
    private DefaultConfigurationProducer configurationProducer;
 
+   @Inject
+   private ManagedScheduledExecutorService executorService;
+
    @PostConstruct
    public void init() {
-      pusherClient = PusherClient.getInstance(configurationProducer);
+      pusherClient = PusherClient.getInstance(configurationProducer, executorService);
       delayedActionProcessor.setPusherClient(pusherClient);
    }
 
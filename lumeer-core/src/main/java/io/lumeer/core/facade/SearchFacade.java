@@ -26,11 +26,14 @@ import io.lumeer.api.model.CollectionPurposeType;
 import io.lumeer.api.model.ConditionType;
 import io.lumeer.api.model.ConditionValueType;
 import io.lumeer.api.model.ConstraintData;
+import io.lumeer.api.model.ConstraintType;
 import io.lumeer.api.model.CurrencyData;
 import io.lumeer.api.model.Document;
 import io.lumeer.api.model.Language;
 import io.lumeer.api.model.LinkInstance;
 import io.lumeer.api.model.LinkType;
+import io.lumeer.api.model.Organization;
+import io.lumeer.api.model.Project;
 import io.lumeer.api.model.Query;
 import io.lumeer.api.model.QueryStem;
 import io.lumeer.api.model.RoleType;
@@ -39,25 +42,34 @@ import io.lumeer.api.model.common.Resource;
 import io.lumeer.api.util.ResourceUtils;
 import io.lumeer.core.adapter.DocumentAdapter;
 import io.lumeer.core.adapter.LinkInstanceAdapter;
+import io.lumeer.core.adapter.PermissionAdapter;
 import io.lumeer.core.adapter.SearchAdapter;
 import io.lumeer.core.auth.RequestDataKeeper;
+import io.lumeer.core.cache.ProjectResourcesCache;
+import io.lumeer.core.cache.UsersSnapshotCache;
 import io.lumeer.core.constraint.ConstraintManager;
 import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.core.facade.translate.TranslationManager;
+import io.lumeer.core.util.BoundedExecutor;
 import io.lumeer.core.util.CollectionPurposeUtils;
 import io.lumeer.core.util.QueryUtils;
 import io.lumeer.core.util.Tuple;
 import io.lumeer.core.util.Utils;
+import io.lumeer.core.util.filter.StemPushdownPlanner;
 import io.lumeer.core.util.js.DataFilter;
 import io.lumeer.storage.api.dao.CollectionDao;
 import io.lumeer.storage.api.dao.DataDao;
 import io.lumeer.storage.api.dao.DocumentDao;
 import io.lumeer.storage.api.dao.FavoriteItemDao;
+import io.lumeer.storage.api.dao.GroupDao;
 import io.lumeer.storage.api.dao.LinkDataDao;
 import io.lumeer.storage.api.dao.LinkInstanceDao;
 import io.lumeer.storage.api.dao.LinkTypeDao;
 import io.lumeer.storage.api.dao.ResourceCommentDao;
 import io.lumeer.storage.api.dao.UserDao;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshotFactory;
+import io.lumeer.storage.api.query.SearchQueryStem;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -69,9 +81,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 
@@ -84,9 +103,15 @@ public class SearchFacade extends AbstractFacade {
    @Inject
    private DataDao dataDao;
 
+   @Inject
+   private LinkDataDao linkDataDao;
+
    @Inject
    private UserDao userDao;
 
+   @Inject
+   private GroupDao groupDao;
+
    @Inject
    private DocumentDao documentDao;
 
@@ -96,9 +121,6 @@ public class SearchFacade extends AbstractFacade {
    @Inject
    private LinkInstanceDao linkInstanceDao;
 
-   @Inject
-   private LinkDataDao linkDataDao;
-
    @Inject
    private ResourceCommentDao resourceCommentDao;
 
@@ -114,6 +136,18 @@ public class SearchFacade extends AbstractFacade {
    @Inject
    private RequestDataKeeper requestDataKeeper;
 
+   @Inject
+   private DaoContextSnapshotFactory daoContextSnapshotFactory;
+
+   @Inject
+   private ManagedExecutorService executorService;
+
+   @Inject
+   private ProjectResourcesCache projectResourcesCache;
+
+   @Inject
+   private UsersSnapshotCache usersSnapshotCache;
+
    private ConstraintManager constraintManager;
    private Language language;
    private String timezone;
@@ -122,18 +156,24 @@ public class SearchFacade extends AbstractFacade {
    private LinkInstanceAdapter linkInstanceAdapter;
    private SearchAdapter searchAdapter;
 
+   private int searchParallelism;
+
    @PostConstruct
    public void init() {
       constraintManager = ConstraintManager.getInstance(configurationProducer);
       language = Language.fromString(requestDataKeeper.getUserLocale());
       timezone = requestDataKeeper.getTimezone();
+      searchParallelism = configurationProducer.getInt(DefaultConfigurationProducer.SEARCH_PARALLELISM, DEFAULT_SEARCH_PARALLELISM);
 
       documentAdapter = new DocumentAdapter(resourceCommentDao, favoriteItemDao);
       linkInstanceAdapter = new LinkInstanceAdapter(resourceCommentDao);
-      searchAdapter = new SearchAdapter(permissionsChecker.getPermissionAdapter(), constraintManager, documentDao, dataDao, linkInstanceDao, linkDataDao);
+      searchAdapter = new SearchAdapter(permissionsChecker.getPermissionAdapter(), constraintManager, documentDao, dataDao, linkInstanceDao);
    }
 
    private static final Integer FETCH_SIZE = 200;
+   private static final int STREAM_QUEUE_SIZE = 8;
+   private static final long STREAM_POLL_MILLIS = 50;
+   private static final int DEFAULT_SEARCH_PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
 
    public void setLanguage(final Language language) {
       this.language = language;
@@ -235,40 +275,86 @@ public class SearchFacade extends AbstractFacade {
       return searchDocumentsAndLinks(query, includeChildDocuments, true, collectionsMap, linkTypesMap, null);
    }
 
+   /**
+    * Searches documents and links like {@link #searchDocumentsAndLinks(Query, boolean)} but passes them to the consumer as soon as each page is filtered.
+    * Every document and link is passed only once and the consumer is always called from the calling thread.
+    */
+   public void searchDocumentsAndLinks(final Query query, boolean includeChildDocuments, final BiConsumer<List<Document>, List<LinkInstance>> consumer) {
+      var resources = getReadResources(false, query);
+      final Map<String, Collection> collectionsMap = getCollectionsMap(resources.getFirst());
+      final Map<String, LinkType> linkTypesMap = getLinkTypeMap(resources.getSecond());
+      searchDocumentsAndLinks(query, includeChildDocuments, true, collectionsMap, linkTypesMap, null, new StreamingSink(consumer));
+   }
+
    private Tuple<List<Document>, List<LinkInstance>> searchDocumentsAndLinks(final Query query, boolean includeChildDocuments, boolean shouldCheckQuery, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter) {
-      final Query encodedQuery = checkQuery(query, collectionsMap, linkTypesMap, shouldCheckQuery);
+      final CollectingSink sink = new CollectingSink();
+      searchDocumentsAndLinks(query, includeChildDocuments, shouldCheckQuery, collectionsMap, linkTypesMap, documentFilter, sink);
+
+      var mappedDocuments = documentAdapter.mapDocumentsData(new ArrayList<>(sink.documents), getCurrentUserId(), workspaceKeeper.getProjectId());
+      var mappedLinkInstances = linkInstanceAdapter.mapLinkInstancesData(new ArrayList<>(sink.linkInstances));
+
+      return new Tuple<>(mappedDocuments, mappedLinkInstances);
+   }
 
-      final Set<Document> allDocuments = new HashSet<>();
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
+   private void searchDocumentsAndLinks(final Query query, boolean includeChildDocuments, boolean shouldCheckQuery, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, final SearchResultSink sink) {
+      final Query encodedQuery = checkQuery(query, collectionsMap, linkTypesMap, shouldCheckQuery);
 
       if (encodedQuery.containsStems()) {
-         ConstraintData constraintData = createConstraintData();
-         encodedQuery.getStems().forEach(stem -> {
-            var result = stem.containsAnyFilter() || encodedQuery.getFulltexts().size() > 0
-                  ? searchDocumentsAndLinksInStem(stem, encodedQuery.getFulltexts(), collectionsMap, linkTypesMap, documentFilter, constraintData, includeChildDocuments)
-                  : searchDocumentsAndLinksInStemWithoutFilters(stem, collectionsMap, linkTypesMap, documentFilter);
-            allDocuments.addAll(result.getFirst());
-            allLinkInstances.addAll(result.getSecond());
-         });
+         final ConstraintData constraintData = createConstraintData();
+         final BoundedExecutor executor = new BoundedExecutor(executorService, searchParallelism > 1 ? searchParallelism : 0);
+         final DaoContextSnapshot daoContextSnapshot = searchParallelism > 1 ? daoContextSnapshotFactory.getInstance() : null;
+
+         // resources and permissions are resolved here because request scoped beans are not available in the stem tasks
+         final List<Future<Void>> stemResults = encodedQuery.getStems().stream().map(stem -> {
+            final SearchContext context = createSearchContext(daoContextSnapshot);
+            if (stem.containsAnyFilter() || encodedQuery.getFulltexts().size() > 0) {
+               var resources = getResourcesFromStem(stem, collectionsMap, linkTypesMap);
+               final Map<String, AllowedPermissions> collectionsPermissions = permissionsChecker.getCollectionsPermissions(resources.getFirst());
+               final Map<String, AllowedPermissions> linkTypesPermissions = permissionsChecker.getLinkTypesPermissions(resources.getSecond());
+               return executor.<Void>submit(() -> {
+                  searchDocumentsAndLinksInStem(context, executor, sink, stem, encodedQuery.getFulltexts(), resources, collectionsPermissions, linkTypesPermissions, collectionsMap, linkTypesMap, documentFilter, constraintData, includeChildDocuments);
+                  return null;
+               });
+            }
+            return executor.<Void>submit(() -> {
+               searchDocumentsAndLinksInStemWithoutFilters(context, sink, stem, collectionsMap, linkTypesMap, documentFilter);
+               return null;
+            });
+         }).collect(Collectors.toList());
+
+         try {
+            sink.await(stemResults);
+         } catch (RuntimeException e) {
+            // the remaining stems are not needed anymore
+            sink.cancel();
+            throw e;
+         }
       } else if (encodedQuery.getFulltexts().size() > 0) {
-         var result = searchDocumentsAndLinksByFulltexts(encodedQuery.getFulltexts(), collectionsMap, linkTypesMap, documentFilter, createConstraintData(), includeChildDocuments);
-         allDocuments.addAll(result.getFirst());
-         allLinkInstances.addAll(result.getSecond());
+         searchDocumentsAndLinksByFulltexts(createSearchContext(null), sink, encodedQuery.getFulltexts(), collectionsMap, linkTypesMap, documentFilter, createConstraintData(), includeChildDocuments);
       } else {
-         var result = searchDocumentsAndLinksByEmptyQuery(collectionsMap, linkTypesMap, documentFilter);
-         allDocuments.addAll(result.getFirst());
-         allLinkInstances.addAll(result.getSecond());
+         searchDocumentsAndLinksByEmptyQuery(createSearchContext(null), sink, collectionsMap, linkTypesMap, documentFilter);
       }
+   }
 
-      var mappedDocuments = documentAdapter.mapDocumentsData(new ArrayList<>(allDocuments), getCurrentUserId(), workspaceKeeper.getProjectId());
-      var mappedLinkInstances = linkInstanceAdapter.mapLinkInstancesData(new ArrayList<>(allLinkInstances));
+   private SearchContext createSearchContext(@Nullable final DaoContextSnapshot daoContextSnapshot) {
+      if (daoContextSnapshot == null) {
+         return new SearchContext(searchAdapter, getOrganization(), getProject(), getCurrentUserId());
+      }
 
-      return new Tuple<>(mappedDocuments, mappedLinkInstances);
+      // adapters cache data in non thread safe maps so each stem gets its own
+      final PermissionAdapter permissionAdapter = new PermissionAdapter(daoContextSnapshot.getUserDao(), daoContextSnapshot.getGroupDao(), daoContextSnapshot.getViewDao(), daoContextSnapshot.getLinkTypeDao(), daoContextSnapshot.getCollectionDao(),
+            projectResourcesCache, usersSnapshotCache);
+      final String viewId = permissionsChecker.getPermissionAdapter().getViewId();
+      if (viewId != null) {
+         permissionAdapter.setViewId(viewId);
+      }
+      final SearchAdapter adapter = new SearchAdapter(permissionAdapter, constraintManager, daoContextSnapshot.getDocumentDao(), daoContextSnapshot.getDataDao(), daoContextSnapshot.getLinkInstanceDao());
+      return new SearchContext(adapter, getOrganization(), getProject(), getCurrentUserId());
    }
 
    private ConstraintData createConstraintData() {
       return new ConstraintData(
-            userDao.getAllUsers(workspaceKeeper.getOrganizationId()),
+            usersSnapshotCache.getSnapshot(workspaceKeeper.getOrganizationId(), userDao, groupDao).getUsers(),
             authenticatedUser.getCurrentUser(),
             translationManager.translateDurationUnitsMap(language),
             new CurrencyData(translationManager.translateAbbreviations(language), translationManager.translateOrdinals(language)),
@@ -276,58 +362,62 @@ public class SearchFacade extends AbstractFacade {
       );
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksInStem(final QueryStem stem, final Set<String> fulltexts, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData,
-         boolean includeChildDocuments) {
-      final Set<Document> allDocuments = new HashSet<>();
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
-
-      var resources = getResourcesFromStem(stem, collectionsMap, linkTypesMap);
+   private void searchDocumentsAndLinksInStem(final SearchContext context, final BoundedExecutor executor, final SearchResultSink sink, final QueryStem stem, final Set<String> fulltexts, final Tuple<List<Collection>, List<LinkType>> resources,
+         final Map<String, AllowedPermissions> collectionsPermissions, final Map<String, AllowedPermissions> linkTypesPermissions, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap,
+         @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData, boolean includeChildDocuments) {
       final List<Collection> allCollections = resources.getFirst();
       final List<LinkType> allLinkTypes = resources.getSecond();
 
       if (allCollections.isEmpty()) {
-         return new Tuple<>(allDocuments, allLinkInstances);
+         return;
       }
 
-      final Map<String, AllowedPermissions> collectionsPermissions = permissionsChecker.getCollectionsPermissions(allCollections);
-      final Map<String, AllowedPermissions> linkTypesPermissions = permissionsChecker.getLinkTypesPermissions(allLinkTypes);
       final Query query = new Query(Collections.singletonList(stem), fulltexts, null, null);
+      // the pushed filters only skip documents the query rejects anyway, so the whole query is still evaluated below
+      final SearchQueryStem pushdownQuery = StemPushdownPlanner.createPushdownQuery(stem, allCollections, constraintData, includeChildDocuments);
+
+      // next page is fetched while the current one is filtered, fetches of one stem never overlap because the context is not thread safe
+      Future<StemPage> nextPage = executor.submit(() -> fetchStemPage(context, stem, allCollections.get(0), null, pushdownQuery, collectionsMap, linkTypesMap, documentFilter));
+      while (!sink.isCancelled()) {
+         final StemPage page = BoundedExecutor.getResult(nextPage);
+         if (page.firstCollectionDocuments.isEmpty()) {
+            break;
+         }
 
-      var hasMoreDocuments = true;
-      var page = 0;
+         final String lastDocumentId = getLastId(page.firstCollectionDocuments, Document::getId);
+         nextPage = executor.submit(() -> fetchStemPage(context, stem, allCollections.get(0), lastDocumentId, pushdownQuery, collectionsMap, linkTypesMap, documentFilter));
 
-      while (hasMoreDocuments) {
-         var previousCollection = allCollections.get(0);
-         var firstCollectionDocuments = getDocumentsByCollection(previousCollection, page, FETCH_SIZE);
-         var previousDocuments = filterDocumentsByDocumentFilter(firstCollectionDocuments, documentFilter);
-         final Set<Document> currentDocuments = new HashSet<>(previousDocuments);
-         final Set<LinkInstance> currentLinkInstances = new HashSet<>();
+         if (!page.documents.isEmpty()) {
+            var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(page.documents), allCollections, allLinkTypes, new ArrayList<>(page.linkInstances), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language);
+            sink.accept(result.getFirst(), result.getSecond());
+         }
+      }
+   }
 
-         for (String linkTypeId : stem.getLinkTypeIds()) {
-            var linkType = linkTypesMap.get(linkTypeId);
-            var collection = getOtherCollection(linkType, collectionsMap, Utils.computeIfNotNull(previousCollection, Collection::getId));
-            if (linkType != null && previousCollection != null) {
-               var links = getLinkInstancesByLinkType(linkType, getDocumentsIds(previousDocuments));
-               var documents = getDocumentsByCollection(collection, getLinkDocumentsIds(links), documentFilter);
+   private StemPage fetchStemPage(final SearchContext context, final QueryStem stem, final Collection firstCollection, final String lastDocumentId, @Nullable final SearchQueryStem pushdownQuery,
+         final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter) {
+      var previousCollection = firstCollection;
+      var firstCollectionDocuments = context.searchAdapter.getDocuments(context.organization, context.project, previousCollection, lastDocumentId, FETCH_SIZE, context.userId, pushdownQuery);
+      var previousDocuments = filterDocumentsByDocumentFilter(firstCollectionDocuments, documentFilter);
+      final Set<Document> currentDocuments = new HashSet<>(previousDocuments);
+      final Set<LinkInstance> currentLinkInstances = new HashSet<>();
 
-               currentDocuments.addAll(documents);
-               currentLinkInstances.addAll(links);
+      for (String linkTypeId : stem.getLinkTypeIds()) {
+         var linkType = linkTypesMap.get(linkTypeId);
+         var collection = getOtherCollection(linkType, collectionsMap, Utils.computeIfNotNull(previousCollection, Collection::getId));
+         if (linkType != null && previousCollection != null) {
+            var links = getLinkInstancesByLinkType(context, linkType, getDocumentsIds(previousDocuments));
+            var documents = getDocumentsByCollection(context, collection, getLinkDocumentsIds(links), documentFilter);
 
-               previousCollection = collection;
-               previousDocuments = documents;
-            }
-         }
+            currentDocuments.addAll(documents);
+            currentLinkInstances.addAll(links);
 
-         if (!currentDocuments.isEmpty()) {
-            var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(currentDocuments), allCollections, allLinkTypes, new ArrayList<>(currentLinkInstances), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language);
-            allDocuments.addAll(result.getFirst());
-            allLinkInstances.addAll(result.getSecond());
+            previousCollection = collection;
+            previousDocuments = documents;
          }
-         page++;
-         hasMoreDocuments = !firstCollectionDocuments.isEmpty();
       }
 
-      return new Tuple<>(allDocuments, allLinkInstances);
+      return new StemPage(firstCollectionDocuments, currentDocuments, currentLinkInstances);
    }
 
    private Tuple<List<Collection>, List<LinkType>> getResourcesFromStem(final QueryStem stem, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap) {
@@ -352,37 +442,30 @@ public class SearchFacade extends AbstractFacade {
       return new Tuple<>(allCollections, allLinkTypes);
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksInStemWithoutFilters(final QueryStem stem, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter) {
+   private void searchDocumentsAndLinksInStemWithoutFilters(final SearchContext context, final SearchResultSink sink, final QueryStem stem, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter) {
       var previousCollection = collectionsMap.get(stem.getCollectionId());
       if (previousCollection == null) {
-         return new Tuple<>(new HashSet<>(), new HashSet<>());
+         return;
       }
 
-      final Set<Document> allDocuments = new HashSet<>(getDocumentsByCollection(previousCollection, documentFilter));
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
+      sink.accept(getDocumentsByCollection(context, previousCollection, documentFilter), Collections.emptyList());
 
       for (String linkTypeId : stem.getLinkTypeIds()) {
          var linkType = linkTypesMap.get(linkTypeId);
          var collection = getOtherCollection(linkType, collectionsMap, Utils.computeIfNotNull(previousCollection, Collection::getId));
          if (linkType != null && collection != null) {
-            var links = getLinkInstancesByLinkType(linkType);
-            var documents = getDocumentsByCollection(collection, documentFilter);
+            var links = getLinkInstancesByLinkType(context, linkType);
+            var documents = getDocumentsByCollection(context, collection, documentFilter);
 
-            allDocuments.addAll(documents);
-            allLinkInstances.addAll(links);
+            sink.accept(documents, links);
 
             previousCollection = collection;
          }
       }
-
-      return new Tuple<>(allDocuments, allLinkInstances);
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksByFulltexts(final Set<String> fulltexts, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData,
+   private void searchDocumentsAndLinksByFulltexts(final SearchContext context, final SearchResultSink sink, final Set<String> fulltexts, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData,
          boolean includeChildDocuments) {
-      final Set<Document> allDocuments = new HashSet<>();
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
-
       // because we are filtering documents (or links) without linked documents, so it is safe to fetch more
       var fetchSizeMultiplier = 3;
       var fetchSize = FETCH_SIZE * fetchSizeMultiplier;
@@ -392,17 +475,31 @@ public class SearchFacade extends AbstractFacade {
          final Map<String, AllowedPermissions> collectionsPermissions = permissionsChecker.getCollectionsPermissions(collections);
          final Map<String, AllowedPermissions> linkTypesPermissions = Collections.emptyMap();
          final Query query = new Query(Collections.emptyList(), fulltexts, null, null);
-         var hasMoreDocuments = true;
-         var page = 0;
+         final Set<String> candidates = canUseFulltextIndex(collection.getAttributes(), includeChildDocuments) ? dataDao.searchFulltextCandidates(collection.getId(), fulltexts) : null;
+         if (candidates != null) {
+            final List<String> candidateIds = new ArrayList<>(candidates);
+            for (int i = 0; i < candidateIds.size() && !sink.isCancelled(); i += fetchSize) {
+               final Set<String> documentIds = new HashSet<>(candidateIds.subList(i, Math.min(i + fetchSize, candidateIds.size())));
+               final List<Document> filteredDocuments = getDocumentsByCollection(context, collection, documentIds, documentFilter);
+               if (!filteredDocuments.isEmpty()) {
+                  var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(filteredDocuments), collections, Collections.emptyList(), new ArrayList<>(), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language);
+                  sink.accept(result.getFirst(), Collections.emptyList());
+               }
+            }
+            return;
+         }
+
+         var hasMoreDocuments = !sink.isCancelled();
+         String lastDocumentId = null;
          while (hasMoreDocuments) {
-            final List<Document> pagedDocuments = getDocumentsByCollection(collection, page, fetchSize);
+            final List<Document> pagedDocuments = getDocumentsByCollection(context, collection, lastDocumentId, fetchSize);
             final List<Document> filteredDocuments = filterDocumentsByDocumentFilter(pagedDocuments, documentFilter);
             if (!filteredDocuments.isEmpty()) {
                var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(filteredDocuments), collections, Collections.emptyList(), new ArrayList<>(), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language);
-               allDocuments.addAll(result.getFirst());
+               sink.accept(result.getFirst(), Collections.emptyList());
             }
-            hasMoreDocuments = !pagedDocuments.isEmpty();
-            page++;
+            hasMoreDocuments = !pagedDocuments.isEmpty() && !sink.isCancelled();
+            lastDocumentId = getLastId(pagedDocuments, Document::getId);
          }
       });
 
@@ -412,31 +509,52 @@ public class SearchFacade extends AbstractFacade {
          final Map<String, AllowedPermissions> collectionsPermissions = permissionsChecker.getCollectionsPermissions(collections);
          final Map<String, AllowedPermissions> linkTypesPermissions = permissionsChecker.getLinkTypesPermissions(linkTypes);
          final Query query = new Query(Collections.emptyList(), fulltexts, null, null);
-         var hasMoreLinks = true;
-         var page = 0;
+         final Set<String> candidates = canUseFulltextIndex(linkType.getAttributes(), false) ? linkDataDao.searchFulltextCandidates(linkType.getId(), fulltexts) : null;
+         if (candidates != null) {
+            final List<String> candidateIds = new ArrayList<>(candidates);
+            for (int i = 0; i < candidateIds.size() && !sink.isCancelled(); i += fetchSize) {
+               final Set<String> linkInstanceIds = new HashSet<>(candidateIds.subList(i, Math.min(i + fetchSize, candidateIds.size())));
+               final List<LinkInstance> linkInstances = context.searchAdapter.getLinkInstancesByIds(context.organization, context.project, linkType, linkInstanceIds, context.userId);
+               if (!linkInstances.isEmpty()) {
+                  var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(), collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, true, language);
+                  sink.accept(Collections.emptyList(), result.getSecond());
+               }
+            }
+            return;
+         }
+
+         var hasMoreLinks = !sink.isCancelled();
+         String lastLinkInstanceId = null;
          while (hasMoreLinks) {
-            final List<LinkInstance> linkInstances = getLinkInstancesByLinkType(linkType, page, fetchSize);
+            final List<LinkInstance> linkInstances = getLinkInstancesByLinkType(context, linkType, lastLinkInstanceId, fetchSize);
             if (!linkInstances.isEmpty()) {
                var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(), collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, true, language);
-               allLinkInstances.addAll(result.getSecond());
+               sink.accept(Collections.emptyList(), result.getSecond());
             }
-            hasMoreLinks = !linkInstances.isEmpty();
-            page++;
+            hasMoreLinks = !linkInstances.isEmpty() && !sink.isCancelled();
+            lastLinkInstanceId = getLastId(linkInstances, LinkInstance::getId);
          }
       });
-
-      return new Tuple<>(allDocuments, allLinkInstances);
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksByEmptyQuery(final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter) {
-      final Set<Document> allDocuments = new HashSet<>();
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
-
-      collectionsMap.values().forEach(collection -> allDocuments.addAll(getDocumentsByCollection(collection, documentFilter)));
+   /**
+    * The fulltext index holds the stored values, so it can answer only for attributes displayed as they are stored. A parent
+    * document is matched also by its children, which are not among the index candidates.
+    */
+   private boolean canUseFulltextIndex(final java.util.Collection<Attribute> attributes, boolean includeChildDocuments) {
+      if (includeChildDocuments) {
+         return false;
+      }
+      return attributes == null || attributes.stream().allMatch(attribute -> attribute.getConstraint() == null
+            || attribute.getConstraint().getType() == null
+            || attribute.getConstraint().getType() == ConstraintType.None
+            || attribute.getConstraint().getType() == ConstraintType.Text);
+   }
 
-      linkTypesMap.values().forEach(linkType -> allLinkInstances.addAll(getLinkInstancesByLinkType(linkType)));
+   private void searchDocumentsAndLinksByEmptyQuery(final SearchContext context, final SearchResultSink sink, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter) {
+      collectionsMap.values().forEach(collection -> sink.accept(getDocumentsByCollection(context, collection, documentFilter), Collections.emptyList()));
 
-      return new Tuple<>(allDocuments, allLinkInstances);
+      linkTypesMap.values().forEach(linkType -> sink.accept(Collections.emptyList(), getLinkInstancesByLinkType(context, linkType)));
    }
 
    private Collection getOtherCollection(final LinkType linkType, final Map<String, Collection> collectionMap, final String collectionId) {
@@ -485,21 +603,18 @@ public class SearchFacade extends AbstractFacade {
 
    private Tuple<List<Collection>, List<LinkType>> getReadResources(boolean isPublic, Query query) {
       if (isPublic && this.permissionsChecker.isPublic()) {
-         var collections = collectionDao.getAllCollections();
-         var linkTypes = linkTypeDao.getAllLinkTypes();
+         var collections = projectResourcesCache.getCollections(collectionDao);
+         var linkTypes = projectResourcesCache.getLinkTypes(linkTypeDao);
          return new Tuple<>(collections, linkTypes);
       }
 
-      List<Collection> collections;
-      List<LinkType> linkTypes;
+      List<Collection> collections = projectResourcesCache.getCollections(collectionDao);
+      List<LinkType> linkTypes = projectResourcesCache.getLinkTypes(linkTypeDao);
       if (query.containsStems()) {
          var linkTypeIds = query.getLinkTypeIds();
-         linkTypes = linkTypeDao.getLinkTypesByIds(linkTypeIds);
+         linkTypes = linkTypes.stream().filter(linkType -> linkTypeIds.contains(linkType.getId())).collect(Collectors.toList());
          var collectionIds = QueryUtils.getQueryCollectionIds(query, linkTypes);
-         collections = collectionDao.getCollectionsByIds(collectionIds);
-      } else {
-         linkTypes = linkTypeDao.getAllLinkTypes();
-         collections = collectionDao.getAllCollections();
+         collections = collections.stream().filter(collection -> collectionIds.contains(collection.getId())).collect(Collectors.toList());
       }
 
       var filteredCollections = collections.stream()
@@ -511,18 +626,18 @@ public class SearchFacade extends AbstractFacade {
       return new Tuple<>(filteredCollections, filteredLinkTypes);
    }
 
-   private List<Document> getDocumentsByCollection(Collection collection, @Nullable final Function<Document, Boolean> documentFilter) {
-      var documents = searchAdapter.getDocuments(getOrganization(), getProject(), collection, authenticatedUser.getCurrentUserId());
+   private List<Document> getDocumentsByCollection(final SearchContext context, Collection collection, @Nullable final Function<Document, Boolean> documentFilter) {
+      var documents = context.searchAdapter.getDocuments(context.organization, context.project, collection, context.userId);
       return filterDocumentsByDocumentFilter(documents, documentFilter);
    }
 
-   private List<Document> getDocumentsByCollection(Collection collection, @NotNull Set<String> documentIds, @Nullable final Function<Document, Boolean> documentFilter) {
-      var documents = searchAdapter.getDocuments(getOrganization(), getProject(), collection, documentIds, authenticatedUser.getCurrentUserId());
+   private List<Document> getDocumentsByCollection(final SearchContext context, Collection collection, @NotNull Set<String> documentIds, @Nullable final Function<Document, Boolean> documentFilter) {
+      var documents = context.searchAdapter.getDocuments(context.organization, context.project, collection, documentIds, context.userId);
       return filterDocumentsByDocumentFilter(documents, documentFilter);
    }
 
-   private List<Document> getDocumentsByCollection(Collection collection, Integer page, Integer limit) {
-      return searchAdapter.getDocuments(getOrganization(), getProject(), collection, page, limit, authenticatedUser.getCurrentUserId());
+   private List<Document> getDocumentsByCollection(final SearchContext context, Collection collection, String lastId, Integer limit) {
+      return context.searchAdapter.getDocuments(context.organization, context.project, collection, lastId, limit, context.userId);
    }
 
    private List<Document> filterDocumentsByDocumentFilter(final List<Document> documents, @Nullable final Function<Document, Boolean> documentFilter) {
@@ -532,15 +647,151 @@ public class SearchFacade extends AbstractFacade {
       return documents;
    }
 
-   private List<LinkInstance> getLinkInstancesByLinkType(LinkType linkType) {
-      return searchAdapter.getLinkInstances(getOrganization(), getProject(), linkType, authenticatedUser.getCurrentUserId());
+   private List<LinkInstance> getLinkInstancesByLinkType(final SearchContext context, LinkType linkType) {
+      return context.searchAdapter.getLinkInstances(context.organization, context.project, linkType, context.userId);
+   }
+
+   private List<LinkInstance> getLinkInstancesByLinkType(final SearchContext context, LinkType linkType, @NotNull Set<String> documentIds) {
+      return context.searchAdapter.getLinkInstances(context.organization, context.project, linkType, documentIds, context.userId);
+   }
+
+   private List<LinkInstance> getLinkInstancesByLinkType(final SearchContext context, LinkType linkType, String lastId, Integer limit) {
+      return context.searchAdapter.getLinkInstances(context.organization, context.project, linkType, lastId, limit, context.userId);
+   }
+
+   private <T> String getLastId(final List<T> entities, final Function<T, String> idFunction) {
+      return entities.isEmpty() ? null : idFunction.apply(entities.get(entities.size() - 1));
+   }
+
+   /**
+    * Everything needed to fetch documents and links outside of the request thread.
+    */
+   private static final class SearchContext {
+      private final SearchAdapter searchAdapter;
+      private final Organization organization;
+      private final Project project;
+      private final String userId;
+
+      private SearchContext(final SearchAdapter searchAdapter, final Organization organization, final Project project, final String userId) {
+         this.searchAdapter = searchAdapter;
+         this.organization = organization;
+         this.project = project;
+         this.userId = userId;
+      }
    }
 
-   private List<LinkInstance> getLinkInstancesByLinkType(LinkType linkType, @NotNull Set<String> documentIds) {
-      return searchAdapter.getLinkInstances(getOrganization(), getProject(), linkType, documentIds, authenticatedUser.getCurrentUserId());
+   /**
+    * Receives the results of a single search, the search stops after the current page once the sink is cancelled.
+    */
+   private abstract static class SearchResultSink {
+      private final AtomicBoolean cancelled = new AtomicBoolean();
+
+      public abstract void accept(java.util.Collection<Document> documents, java.util.Collection<LinkInstance> linkInstances);
+
+      public void await(final List<Future<Void>> futures) {
+         futures.forEach(BoundedExecutor::getResult);
+      }
+
+      void cancel() {
+         cancelled.set(true);
+      }
+
+      boolean isCancelled() {
+         return cancelled.get();
+      }
    }
 
-   private List<LinkInstance> getLinkInstancesByLinkType(LinkType linkType, Integer page, Integer limit) {
-      return searchAdapter.getLinkInstances(getOrganization(), getProject(), linkType, page, limit, authenticatedUser.getCurrentUserId());
+   private static final class CollectingSink extends SearchResultSink {
+      private final Set<Document> documents = new HashSet<>();
+      private final Set<LinkInstance> linkInstances = new HashSet<>();
+
+      @Override
+      public synchronized void accept(final java.util.Collection<Document> documents, final java.util.Collection<LinkInstance> linkInstances) {
+         this.documents.addAll(documents);
+         this.linkInstances.addAll(linkInstances);
+      }
+   }
+
+   /**
+    * Maps and passes results to the consumer in the request thread, stem tasks hand their pages over through a bounded queue.
+    */
+   private final class StreamingSink extends SearchResultSink {
+      private final Thread requestThread = Thread.currentThread();
+      private final BlockingQueue<Tuple<java.util.Collection<Document>, java.util.Collection<LinkInstance>>> pages = new ArrayBlockingQueue<>(STREAM_QUEUE_SIZE);
+      private final Set<String> documentIds = new HashSet<>();
+      private final Set<String> linkInstanceIds = new HashSet<>();
+      private final BiConsumer<List<Document>, List<LinkInstance>> consumer;
+
+      private StreamingSink(final BiConsumer<List<Document>, List<LinkInstance>> consumer) {
+         this.consumer = consumer;
+      }
+
+      @Override
+      public void accept(final java.util.Collection<Document> documents, final java.util.Collection<LinkInstance> linkInstances) {
+         if (Thread.currentThread() == requestThread) {
+            emit(documents, linkInstances);
+            return;
+         }
+
+         try {
+            final Tuple<java.util.Collection<Document>, java.util.Collection<LinkInstance>> page = new Tuple<>(documents, linkInstances);
+            while (!pages.offer(page, STREAM_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+               if (isCancelled()) {
+                  return;
+               }
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while passing search results", e);
+         }
+      }
+
+      @Override
+      public void await(final List<Future<Void>> futures) {
+         try {
+            for (Future<Void> future : futures) {
+               BoundedExecutor.runIfNotStarted(future);
+               while (!future.isDone()) {
+                  emit(pages.poll(STREAM_POLL_MILLIS, TimeUnit.MILLISECONDS));
+               }
+               BoundedExecutor.getResult(future);
+               emit(pages.poll());
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search results", e);
+         }
+
+         Tuple<java.util.Collection<Document>, java.util.Collection<LinkInstance>> page;
+         while ((page = pages.poll()) != null) {
+            emit(page);
+         }
+      }
+
+      private void emit(@Nullable final Tuple<java.util.Collection<Document>, java.util.Collection<LinkInstance>> page) {
+         if (page != null) {
+            emit(page.getFirst(), page.getSecond());
+         }
+      }
+
+      private void emit(final java.util.Collection<Document> documents, final java.util.Collection<LinkInstance> linkInstances) {
+         final List<Document> newDocuments = documents.stream().filter(document -> documentIds.add(document.getId())).collect(Collectors.toList());
+         final List<LinkInstance> newLinkInstances = linkInstances.stream().filter(linkInstance -> linkInstanceIds.add(linkInstance.getId())).collect(Collectors.toList());
+         if (!newDocuments.isEmpty() || !newLinkInstances.isEmpty()) {
+            consumer.accept(documentAdapter.mapDocumentsData(newDocuments, getCurrentUserId(), workspaceKeeper.getProjectId()), linkInstanceAdapter.mapLinkInstancesData(newLinkInstances));
+         }
+      }
+   }
+
+   private static final class StemPage {
+      private final List<Document> firstCollectionDocuments;
+      private final Set<Document> documents;
+      private final Set<LinkInstance> linkInstances;
+
+      private StemPage(final List<Document> firstCollectionDocuments, final Set<Document> documents, final Set<LinkInstance> linkInstances) {
+         this.firstCollectionDocuments = firstCollectionDocuments;
+         this.documents = documents;
+         this.linkInstances = linkInstances;
+      }
    }
 }
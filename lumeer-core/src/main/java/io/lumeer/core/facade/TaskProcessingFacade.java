@@ -54,9 +54,15 @@ import org.apache.commons.lang3.StringUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.enterprise.context.RequestScoped;
 import javax.enterprise.event.Observes;
@@ -65,6 +71,13 @@ import javax.inject.Inject;
 @RequestScoped
 public class TaskProcessingFacade {
 
+   // pending events of a batch are processed when there is this many of them
+   private static final int MAX_BATCH_EVENTS = 500;
+
+   private enum EventType {
+      CREATE, UPDATE, REMOVE
+   }
+
    @Inject
    private TaskExecutor taskExecutor;
 
@@ -80,6 +93,12 @@ public class TaskProcessingFacade {
    @Inject
    private FunctionFacade functionFacade;
 
+   private int batchDepth = 0;
+   private final Map<List<Object>, EventGroup> batch = new LinkedHashMap<>();
+   private final List<Supplier<List<RuleTask>>> batchRules = new ArrayList<>();
+   private final Map<String, Collection> batchCollections = new HashMap<>();
+   private final Map<String, LinkType> batchLinkTypes = new HashMap<>();
+
    public static TaskProcessingFacade getInstance(final TaskExecutor taskExecutor, final ContextualTaskFactory contextualTaskFactory, final CollectionDao collectionDao, final LinkTypeDao linkTypeDao, final FunctionFacade functionFacade) {
       final TaskProcessingFacade taskProcessingFacade = new TaskProcessingFacade();
 
@@ -123,6 +142,17 @@ public class TaskProcessingFacade {
    }
 
    public void onCreateChain(@Observes final CreateDocumentsAndLinks chain) {
+      if (chain.getLinkInstances().isEmpty()) {
+         // there is no order of documents and links to keep, all documents can be processed together
+         startBatch();
+         try {
+            chain.getDocuments().forEach(document -> batchDocumentEvent(EventType.CREATE, new CreateDocument(document), null));
+         } finally {
+            finishBatch();
+         }
+         return;
+      }
+
       List<Task> allTasks = new ArrayList<>();
 
       var linkOffset = 0;
@@ -145,6 +175,10 @@ public class TaskProcessingFacade {
    }
 
    public void onCreateDocument(@Observes final CreateDocument createDocument) {
+      if (batchDocumentEvent(EventType.CREATE, createDocument, null)) {
+         return;
+      }
+
       List<Task> tasks = documentCreatedTasks(new Document(createDocument.getDocument()));
       processTasks(tasks.toArray(new Task[0]));
    }
@@ -273,6 +307,10 @@ public class TaskProcessingFacade {
    }
 
    public void onDocumentUpdate(final UpdateDocument updateDocument, final String skipTask) {
+      if (batchDocumentEvent(EventType.UPDATE, updateDocument, skipTask)) {
+         return;
+      }
+
       final Collection collection = getCollectionForEvent(updateDocument);
       if (collection == null) {
          return;
@@ -316,6 +354,10 @@ public class TaskProcessingFacade {
    }
 
    public void onRemoveDocument(@Observes final RemoveDocument removeDocument) {
+      if (batchDocumentEvent(EventType.REMOVE, removeDocument, null)) {
+         return;
+      }
+
       final Collection collection = getCollectionForEvent(removeDocument);
       if (collection == null) {
          return;
@@ -343,6 +385,10 @@ public class TaskProcessingFacade {
    }
 
    public void onCreateLink(@Observes final CreateLinkInstance createLinkEvent) {
+      if (batchLinkEvent(EventType.CREATE, createLinkEvent, null)) {
+         return;
+      }
+
       List<Task> tasks = linkCreatedTasks(new LinkInstance(createLinkEvent.getLinkInstance()));
       processTasks(tasks.toArray(new Task[0]));
    }
@@ -367,7 +413,7 @@ public class TaskProcessingFacade {
       }
 
       FunctionTask functionTask = functionFacade.createTaskForCreatedLinks(linkType, linkInstances);
-      List<RuleTask> tasks = linkInstances.stream().map(linkInstance -> createLinkInstanceCreateRuleTasks(linkType, linkInstances.get(0))).flatMap(List::stream).collect(Collectors.toList());
+      List<RuleTask> tasks = linkInstances.stream().map(linkInstance -> createLinkInstanceCreateRuleTasks(linkType, linkInstance)).flatMap(List::stream).collect(Collectors.toList());
       RuleTask ruleTask = createOrderedRuleTask(tasks);
 
       return Arrays.asList(functionTask, ruleTask);
@@ -386,6 +432,10 @@ public class TaskProcessingFacade {
    }
 
    public void onUpdateLink(final UpdateLinkInstance updateLinkEvent, final String skipTask) {
+      if (batchLinkEvent(EventType.UPDATE, updateLinkEvent, skipTask)) {
+         return;
+      }
+
       LinkType linkType = getLinkTypeForEvent(updateLinkEvent);
       if (linkType == null) {
          return;
@@ -399,6 +449,10 @@ public class TaskProcessingFacade {
    }
 
    public void onRemoveLink(@Observes final RemoveLinkInstance removeLinkInstanceEvent) {
+      if (batchLinkEvent(EventType.REMOVE, removeLinkInstanceEvent, null)) {
+         return;
+      }
+
       LinkType linkType = getLinkTypeForEvent(removeLinkInstanceEvent);
       if (linkType == null) {
          return;
@@ -464,4 +518,164 @@ public class TaskProcessingFacade {
       functionFacade.onDeleteLinkType(removeLinkType.getLinkType().getId());
    }
 
+   /**
+    * Starts collecting document and link events instead of processing each of them separately. Events of the same kind
+    * in the same collection or link type are processed together by a single function recalculation, the functions are followed
+    * by the rules of all the events in their original order. Batches can be nested, the events are processed when the outermost
+    * one is finished.
+    */
+   public void startBatch() {
+      batchDepth++;
+   }
+
+   public void finishBatch() {
+      if (batchDepth > 0 && --batchDepth == 0) {
+         flushBatch();
+      }
+   }
+
+   public void flushBatch() {
+      if (batch.isEmpty()) {
+         return;
+      }
+
+      final List<Task> tasks = batch.values().stream().map(EventGroup::createFunctionTask).collect(Collectors.toList());
+      tasks.add(createOrderedRuleTask(batchRules.stream().map(Supplier::get).flatMap(List::stream).collect(Collectors.toList())));
+
+      batch.clear();
+      batchRules.clear();
+      batchCollections.clear();
+      batchLinkTypes.clear();
+
+      processTasks(tasks.toArray(new Task[0]));
+   }
+
+   private boolean batchDocumentEvent(final EventType type, final DocumentEvent event, final String skipTask) {
+      if (batchDepth <= 0) {
+         return false;
+      }
+
+      final Document document = event.getDocument() != null ? new Document(event.getDocument()) : null;
+      final Collection collection = document != null ? batchCollections.computeIfAbsent(document.getCollectionId(), collectionDao::getCollectionById) : null;
+      if (collection == null) {
+         return true;
+      }
+
+      // events are copied as the documents can be modified by the caller before the batch is processed
+      final Document originalDocument = event instanceof UpdateDocument && ((UpdateDocument) event).getOriginalDocument() != null ? new Document(((UpdateDocument) event).getOriginalDocument()) : null;
+      final List<String> changedAttributeIds = originalDocument != null ? FunctionFacade.getChangedAttributesIds(collection.getAttributes(), originalDocument.getData(), document.getData()) : Collections.emptyList();
+      final DocumentEvent copiedEvent = type == EventType.CREATE ? new CreateDocument(document) : type == EventType.UPDATE ? new UpdateDocument(document, originalDocument) : new RemoveDocument(document);
+
+      final EventGroup group = batch.computeIfAbsent(Arrays.asList(type, collection.getId(), changedAttributeIds), key -> new DocumentEventGroup(type, collection, changedAttributeIds));
+      ((DocumentEventGroup) group).events.add(copiedEvent);
+      batchRules.add(() -> {
+         switch (type) {
+            case CREATE:
+               return createDocumentCreateRuleTasks(collection, copiedEvent.getDocument());
+            case UPDATE:
+               return createDocumentUpdateRuleTasks(collection, (UpdateDocument) copiedEvent, skipTask);
+            default:
+               return createDocumentRemoveRuleTasks(collection, copiedEvent.getDocument());
+         }
+      });
+      onBatchEventAdded();
+
+      return true;
+   }
+
+   private boolean batchLinkEvent(final EventType type, final LinkInstanceEvent event, final String skipTask) {
+      if (batchDepth <= 0) {
+         return false;
+      }
+
+      final LinkInstance linkInstance = event.getLinkInstance() != null ? new LinkInstance(event.getLinkInstance()) : null;
+      final LinkType linkType = linkInstance != null ? batchLinkTypes.computeIfAbsent(linkInstance.getLinkTypeId(), linkTypeDao::getLinkType) : null;
+      if (linkType == null) {
+         return true;
+      }
+
+      final LinkInstance originalLinkInstance = event instanceof UpdateLinkInstance && ((UpdateLinkInstance) event).getOriginalLinkInstance() != null ? new LinkInstance(((UpdateLinkInstance) event).getOriginalLinkInstance()) : null;
+      final List<String> changedAttributeIds = originalLinkInstance != null ? FunctionFacade.getChangedAttributesIds(linkType.getAttributes(), originalLinkInstance.getData(), linkInstance.getData()) : Collections.emptyList();
+      final LinkInstanceEvent copiedEvent = type == EventType.CREATE ? new CreateLinkInstance(linkInstance) : type == EventType.UPDATE ? new UpdateLinkInstance(linkInstance, originalLinkInstance) : new RemoveLinkInstance(linkInstance);
+
+      final EventGroup group = batch.computeIfAbsent(Arrays.asList(type, linkType.getId(), changedAttributeIds), key -> new LinkEventGroup(type, linkType, changedAttributeIds));
+      ((LinkEventGroup) group).events.add(copiedEvent);
+      batchRules.add(() -> {
+         switch (type) {
+            case CREATE:
+               return createLinkInstanceCreateRuleTasks(linkType, copiedEvent.getLinkInstance());
+            case UPDATE:
+               return createLinkInstanceUpdateRuleTasks(linkType, (UpdateLinkInstance) copiedEvent, skipTask);
+            default:
+               return createLinkInstanceRemoveRuleTasks(linkType, copiedEvent.getLinkInstance());
+         }
+      });
+      onBatchEventAdded();
+
+      return true;
+   }
+
+   private void onBatchEventAdded() {
+      if (batchRules.size() >= MAX_BATCH_EVENTS) {
+         flushBatch();
+      }
+   }
+
+   private abstract static class EventGroup {
+      protected final EventType type;
+      protected final List<String> changedAttributeIds;
+
+      private EventGroup(final EventType type, final List<String> changedAttributeIds) {
+         this.type = type;
+         this.changedAttributeIds = changedAttributeIds;
+      }
+
+      protected abstract Task createFunctionTask();
+   }
+
+   private final class DocumentEventGroup extends EventGroup {
+      private final Collection collection;
+      private final List<DocumentEvent> events = new ArrayList<>();
+
+      private DocumentEventGroup(final EventType type, final Collection collection, final List<String> changedAttributeIds) {
+         super(type, changedAttributeIds);
+         this.collection = collection;
+      }
+
+      @Override
+      protected Task createFunctionTask() {
+         final Set<Document> documents = events.stream().map(DocumentEvent::getDocument).collect(Collectors.toCollection(LinkedHashSet::new));
+         switch (type) {
+            case CREATE:
+               return functionFacade.createTaskForCreatedDocuments(collection, documents);
+            case UPDATE:
+               return functionFacade.createTaskForUpdatedDocuments(collection, documents.stream().map(Document::getId).collect(Collectors.toSet()), changedAttributeIds);
+            default:
+               return functionFacade.createTaskForRemovedDocuments(collection, documents);
+         }
+      }
+   }
+
+   private final class LinkEventGroup extends EventGroup {
+      private final LinkType linkType;
+      private final List<LinkInstanceEvent> events = new ArrayList<>();
+
+      private LinkEventGroup(final EventType type, final LinkType linkType, final List<String> changedAttributeIds) {
+         super(type, changedAttributeIds);
+         this.linkType = linkType;
+      }
+
+      @Override
+      protected Task createFunctionTask() {
+         final List<LinkInstance> linkInstances = events.stream().map(LinkInstanceEvent::getLinkInstance).collect(Collectors.toList());
+         switch (type) {
+            case CREATE:
+               return functionFacade.createTaskForCreatedLinks(linkType, linkInstances);
+            case UPDATE:
+               return functionFacade.createTaskForChangedLinks(linkType, linkInstances.stream().map(LinkInstance::getId).collect(Collectors.toSet()), changedAttributeIds);
+            default:
+               return functionFacade.createTaskForRemovedLinks(linkType, linkInstances);
+         }
+      }
+   }
 }
@@ -27,6 +27,7 @@ import io.lumeer.api.model.View;
 import io.lumeer.core.adapter.ResourceAdapter;
 import io.lumeer.core.adapter.ViewAdapter;
 import io.lumeer.core.auth.PermissionsChecker;
+import io.lumeer.core.cache.ProjectResourcesCache;
 import io.lumeer.core.util.CodeGenerator;
 import io.lumeer.core.util.QueryUtils;
 import io.lumeer.storage.api.dao.CollectionDao;
@@ -69,12 +70,15 @@ public class ViewFacade extends AbstractFacade {
    @Inject
    private DefaultViewConfigDao defaultViewConfigDao;
 
+   @Inject
+   private ProjectResourcesCache projectResourcesCache;
+
    private ViewAdapter adapter;
    private ResourceAdapter resourceAdapter;
 
    @PostConstruct
    public void init() {
-      resourceAdapter = new ResourceAdapter(permissionsChecker.getPermissionAdapter(), collectionDao, linkTypeDao, viewDao, userDao);
+      resourceAdapter = new ResourceAdapter(permissionsChecker.getPermissionAdapter(), collectionDao, linkTypeDao, viewDao, userDao, projectResourcesCache);
       adapter = new ViewAdapter(resourceAdapter, favoriteItemDao);
    }
 
@@ -67,6 +67,8 @@ public class DefaultConfigurationProducer implements Serializable {
    public static final String PUSHER_KEY = "pusher_key";
    public static final String PUSHER_SECRET = "pusher_secret";
    public static final String PUSHER_CLUSTER = "pusher_cluster";
+   public static final String PUSHER_QUEUE_CAPACITY = "pusher_queue_capacity";
+   public static final String PUSHER_QUEUE_WINDOW = "pusher_queue_window";
 
    public static final String S3_KEY = "s3_key";
    public static final String S3_SECRET = "s3_secret";
@@ -92,6 +94,20 @@ public class DefaultConfigurationProducer implements Serializable {
 
    public static final String EVENT_LOG_URL = "event_log_url";
 
+   public static final String SEARCH_PARALLELISM = "search_parallelism";
+
+   public static final String PROJECT_RESOURCES_VALIDATION = "project_resources_validation";
+
+   public static final String USERS_SNAPSHOT_TTL = "users_snapshot_ttl";
+
+   public static final String USER_CACHE_TTL = "user_cache_ttl";
+
+   public static final String FUNCTION_GRAPH_TTL = "function_graph_ttl";
+
+   public static final String DATA_INDEX_BUDGET = "data_index_budget";
+   public static final String DATA_INDEX_COLLECTION_BUDGET = "data_index_collection_budget";
+   public static final String DATA_INDEX_MIN_QUERIES = "data_index_min_queries";
+
    public DefaultConfigurationProducer() {
       synchronized (this) {
          if (defaultConfiguration == null) {
@@ -126,6 +142,30 @@ public class DefaultConfigurationProducer implements Serializable {
       return defaultConfiguration.get(key);
    }
 
+   /**
+    * Returns the numeric value of the key, or the default value when the key is not set or is not a number.
+    */
+   public long getLong(final String key, final long defaultValue) {
+      final String value = get(key);
+      try {
+         return value != null && !value.isBlank() ? Long.parseLong(value.trim()) : defaultValue;
+      } catch (NumberFormatException e) {
+         return defaultValue;
+      }
+   }
+
+   /**
+    * Returns the numeric value of the key, or the default value when the key is not set or is not a number.
+    */
+   public int getInt(final String key, final int defaultValue) {
+      final String value = get(key);
+      try {
+         return value != null && !value.isBlank() ? Integer.parseInt(value.trim()) : defaultValue;
+      } catch (NumberFormatException e) {
+         return defaultValue;
+      }
+   }
+
    public DeployEnvironment getEnvironment() {
       final String value = get(ENVIRONMENT);
 
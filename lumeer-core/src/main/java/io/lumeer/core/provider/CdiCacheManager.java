@@ -19,12 +19,15 @@
 package io.lumeer.core.provider;
 
 import io.lumeer.core.WorkspaceKeeper;
+import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheConfiguration;
 import io.lumeer.engine.api.cache.CacheFactory;
 import io.lumeer.engine.api.cache.CacheManager;
 import io.lumeer.engine.api.cache.CacheProvider;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.enterprise.context.ApplicationScoped;
@@ -41,6 +44,11 @@ public class CdiCacheManager implements CacheManager, Serializable {
    @Inject
    private WorkspaceKeeper workspaceKeeper;
 
+   @Inject
+   private DefaultConfigurationProducer configurationProducer;
+
+   private Map<String, CacheConfiguration> configurations = new ConcurrentHashMap<>();
+
    @Override
    public CacheProvider getCacheProvider(final String namespace) {
       final CacheProvider provider = new DefaultCacheProvider();
@@ -52,11 +60,26 @@ public class CdiCacheManager implements CacheManager, Serializable {
    public <T> Cache<T> getCache(final String cacheName) {
       final String key = getKey();
       final Map<String, Cache> localCaches = caches.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
-      final Cache<T> cache = localCaches.computeIfAbsent(cacheName, k -> cacheFactory.getCache());
+      final Cache<T> cache = localCaches.computeIfAbsent(cacheName, k -> cacheFactory.getCache(getConfiguration(cacheName)));
 
       return cache;
    }
 
+   /**
+    * Reads limits of the named cache from the configuration keys cache.&lt;name&gt;.maximum_size,
+    * cache.&lt;name&gt;.expire_after_write and cache.&lt;name&gt;.expire_after_access (in seconds).
+    */
+   public CacheConfiguration getConfiguration(final String cacheName) {
+      return configurations.computeIfAbsent(cacheName, name -> CacheConfiguration.unbounded()
+                                                                               .maximumSize(getLong(name, "maximum_size"))
+                                                                               .expireAfterWrite(Duration.ofSeconds(getLong(name, "expire_after_write")))
+                                                                               .expireAfterAccess(Duration.ofSeconds(getLong(name, "expire_after_access"))));
+   }
+
+   private long getLong(final String cacheName, final String property) {
+      return configurationProducer.getLong("cache." + cacheName + "." + property, 0L);
+   }
+
    public String getKey() {
       if (!workspaceKeeper.getOrganization().isPresent()) {
          return "system";
@@ -65,6 +65,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -246,11 +247,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
       return new BackupDataEvent(PusherFacade.PRIVATE_CHANNEL_PREFIX + userId, View.class.getSimpleName() + suffix, message, getResourceId(mappedView, null), null);
    }
 
-   private Event createEventForDocument(final Document document, final String userId, final String suffix) {
-      final String projectId = daoContextSnapshot.getSelectedWorkspace().getProject().map(Project::getId).orElse("");
-
-      final Document mappedDocument = documentAdapter.mapDocumentData(new Document(document), userId, projectId);
-
+   private Event createEventForDocument(final Document mappedDocument, final String userId, final String suffix) {
       if (PusherFacade.REMOVE_EVENT_SUFFIX.equals(suffix)) {
          return createEventForRemove(Document.class.getSimpleName(), getResourceId(mappedDocument, mappedDocument.getCollectionId()), userId);
       }
@@ -335,8 +332,10 @@ public abstract class AbstractContextualTask implements ContextualTask {
       final List<Event> events = new ArrayList<>();
       final List<Event> collectionEvents = new ArrayList<>();
 
+      final Map<String, List<Document>> userDocuments = mapDocumentsForUsers(documents, users, suffix);
+
       users.forEach(userId -> {
-         documents.forEach(doc -> events.add(createEventForDocument(doc, userId, suffix)));
+         userDocuments.get(userId).forEach(doc -> events.add(createEventForDocument(doc, userId, suffix)));
          if (collectionChanged) {
             collectionEvents.add(createEventForCollection(collection, userId));
          }
@@ -346,6 +345,15 @@ public abstract class AbstractContextualTask implements ContextualTask {
       getPusherClient().trigger(collectionEvents);
    }
 
+   private Map<String, List<Document>> mapDocumentsForUsers(final List<Document> documents, final Set<String> users, final String suffix) {
+      if (PusherFacade.REMOVE_EVENT_SUFFIX.equals(suffix)) { // only the ids are sent
+         return users.stream().collect(Collectors.toMap(Function.identity(), userId -> documents));
+      }
+
+      final String projectId = daoContextSnapshot.getSelectedWorkspace().getProject().map(Project::getId).orElse("");
+      return documentAdapter.mapDocumentsDataForUsers(documents, users, projectId);
+   }
+
    public void sendPushNotifications(final LinkType linkType, final List<LinkInstance> linkInstances, final String suffix, final boolean linkTypeChanged) {
       if (linkType.getCollectionIds().size() == 2) {
          linkTypeAdapter.mapLinkTypeComputedProperties(linkType);
@@ -19,7 +19,7 @@
 package io.lumeer.core.task.executor;
 
 import io.lumeer.api.model.Document;
-import io.lumeer.core.js.JsEngineFactory;
+import io.lumeer.core.js.JsContextPool;
 import io.lumeer.core.task.ContextualTask;
 import io.lumeer.core.task.TaskExecutor;
 import io.lumeer.core.task.executor.bridge.LumeerBridge;
@@ -28,12 +28,17 @@ import io.lumeer.core.task.executor.operation.OperationExecutor;
 import io.lumeer.core.util.JsFunctionsParser;
 
 import org.graalvm.polyglot.Context;
-import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class JsExecutor {
 
@@ -41,15 +46,48 @@ public class JsExecutor {
    private static final String HE_JS_SIGNATURE = "/** he.js **/";
    private static final String NUMBRO_JS_SIGNATURE = "/** numbro.js **/";
 
+   private static final int HE_JS = 1;
+   private static final int NUMBRO_JS = 2;
+   private static final int MOMENT_JS = 4;
+
+   private static final long TIMEOUT_MS = 3000;
+   private static final int MAX_CACHED_SOURCES = 1000;
+
    private LumeerBridge lumeerBridge;
    private ContextualTask task;
    private boolean dryRun = false;
-   private static final Engine engine = JsEngineFactory.getEngine();
    private static final String momentJsCode = JsFunctionsParser.getMomentJsCode();
    private static final String heJsCode = JsFunctionsParser.getHeJsCode();
    private static final String numbroJsCode = JsFunctionsParser.getNumbroJsCode();
 
-   private String getJsLib() {
+   // contexts with the libraries already evaluated, one pool for each combination of libraries used by scripts
+   private static final Map<Integer, JsContextPool> contextPools = new ConcurrentHashMap<>();
+   private static final Map<String, Source> sources = new ConcurrentHashMap<>();
+   private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "js-executor-watchdog");
+      thread.setDaemon(true);
+      return thread;
+   });
+
+   // restores the global object as it was after the libraries were evaluated, returns false when some global cannot be removed
+   private static final String GLOBALS_RESET = "(function() {\n"
+         + "  var initial = new Map();\n"
+         + "  Object.getOwnPropertyNames(globalThis).forEach(function(name) { initial.set(name, globalThis[name]); });\n"
+         + "  return function() {\n"
+         + "    var clean = true;\n"
+         + "    Object.getOwnPropertyNames(globalThis).forEach(function(name) {\n"
+         + "      if (!initial.has(name)) {\n"
+         + "        clean = delete globalThis[name] && clean;\n"
+         + "      } else if (globalThis[name] !== initial.get(name)) {\n"
+         + "        try { globalThis[name] = initial.get(name); } catch (e) { clean = false; }\n"
+         + "        clean = clean && globalThis[name] === initial.get(name);\n"
+         + "      }\n"
+         + "    });\n"
+         + "    return clean;\n"
+         + "  };\n"
+         + "})()";
+
+   private static String getJsLib() {
       return "function lumeer_numbro(locale, decimals, num) { numbro.setLanguage(locale); return numbro(num).formatCurrency({mantissa: decimals, thousandSeparated: true}); } "
             + "function lumeer_isEmpty(v) {\n"
             + "  return (v === null || v === undefined || v === '' || (Array.isArray(v) && (v.length === 0 || (v.length === 1 && lumeer_isEmpty(v[0])))) || (typeof v === 'object' && !!v && Object.keys(v).length === 0 && v.constructor === Object));\n"
@@ -61,30 +99,60 @@ public class JsExecutor {
       lumeerBridge = new LumeerBridge(task);
       lumeerBridge.setDryRun(dryRun);
 
-      Context context = Context
-            .newBuilder("js")
-            .engine(engine)
-            .allowAllAccess(true)
-            .build();
-      context.initialize("js");
-      context.getPolyglotBindings().putMember("lumeer", lumeerBridge);
+      final List<String> names = bindings.keySet().stream().sorted().collect(Collectors.toList());
+      final Object[] values = names.stream().map(bindings::get).toArray();
 
-      bindings.forEach((k, v) -> context.getBindings("js").putMember(k, v));
+      getContextPool(js).execute(pooled -> {
+         final Context context = pooled.getContext();
+         context.getPolyglotBindings().putMember("lumeer", lumeerBridge);
 
-      Timer timer = new Timer(true);
-      timer.schedule(new TimerTask() {
-         @Override
-         public void run() {
+         final ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+            pooled.setDiscarded(true);
             context.close(true);
+         }, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+         try {
+            context.eval(getSource(names, js)).execute(values);
+
+            // the next script run in this context may belong to another organization, a context which cannot be reset is dropped
+            if (!pooled.getFunction().execute().asBoolean()) {
+               pooled.setDiscarded(true);
+            }
+         } finally {
+            timeout.cancel(false);
          }
-      }, 3000);
 
-      final String jsCode = getJsLib() +
-            (js.contains(HE_JS_SIGNATURE) ? heJsCode : "") +
-            (js.contains(NUMBRO_JS_SIGNATURE) ? numbroJsCode : "") +
-            (js.contains(JsFunctionsParser.FORMAT_JS_DATE) || js.contains(JsFunctionsParser.PARSE_JS_DATE) || js.contains(MOMENT_JS_SIGNATURE) ? momentJsCode + ";\n" : "") + js;
+         // the context goes back to the pool, so it must not reference this task anymore
+         context.getPolyglotBindings().removeMember("lumeer");
+         return null;
+      });
+   }
+
+   private static JsContextPool getContextPool(final String js) {
+      final int libraries = (js.contains(HE_JS_SIGNATURE) ? HE_JS : 0) |
+            (js.contains(NUMBRO_JS_SIGNATURE) ? NUMBRO_JS : 0) |
+            (js.contains(JsFunctionsParser.FORMAT_JS_DATE) || js.contains(JsFunctionsParser.PARSE_JS_DATE) || js.contains(MOMENT_JS_SIGNATURE) ? MOMENT_JS : 0);
+
+      return contextPools.computeIfAbsent(libraries, key -> new JsContextPool("js-executor-" + key, Runtime.getRuntime().availableProcessors(), context -> {
+         final String libraryCode = getJsLib() +
+               ((key & HE_JS) != 0 ? heJsCode : "") +
+               ((key & NUMBRO_JS) != 0 ? numbroJsCode : "") +
+               ((key & MOMENT_JS) != 0 ? momentJsCode + ";\n" : "");
+         context.eval("js", libraryCode);
+         return context.eval("js", GLOBALS_RESET);
+      }));
+   }
 
-      context.eval("js", jsCode);
+   /**
+    * Scripts are wrapped in a function with the bindings as its parameters, so that their variables do not outlive
+    * the execution in a pooled context. Scripts declare the bindings by var statements which keeps the passed values.
+    * Globals the scripts assign without declaring them are removed after the execution.
+    */
+   private static Source getSource(final List<String> names, final String js) {
+      final String parameters = String.join(", ", names);
+      if (sources.size() >= MAX_CACHED_SOURCES) {
+         sources.clear();
+      }
+      return sources.computeIfAbsent(parameters + "\n" + js, key -> Source.create("js", "(function(" + parameters + ") {\n" + js + "\n})"));
    }
 
    public ChangesTracker commitOperations(final TaskExecutor taskExecutor) {
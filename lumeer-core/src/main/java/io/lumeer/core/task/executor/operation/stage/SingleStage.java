@@ -26,6 +26,7 @@ import io.lumeer.api.model.Document;
 import io.lumeer.api.model.LinkInstance;
 import io.lumeer.api.model.LinkType;
 import io.lumeer.api.model.ResourceType;
+import io.lumeer.core.adapter.AuditUpdate;
 import io.lumeer.core.adapter.LinkTypeAdapter;
 import io.lumeer.core.facade.FunctionFacade;
 import io.lumeer.core.facade.TaskProcessingFacade;
@@ -133,114 +134,141 @@ public class SingleStage extends Stage {
                                                          .stream().collect(Collectors.toMap(Collection::getId, coll -> coll));
       final Set<String> collectionsChanged = new HashSet<>();
 
-      Map<String, Document> documentsByCorrelationId = createdDocuments.stream().collect(Collectors.toMap(doc -> doc.createIfAbsentMetaData().getString(Document.META_CORRELATION_ID), Function.identity()));
-
-      // aggregate all operations to individual documents
-      final Map<String, List<DocumentOperation>> changesByDocumentId = Utils.categorize(operations.stream(), change -> change.getEntity().getId());
-
-      final Set<String> unprocessedCreatedDocuments = createdDocuments.stream().map(Document::getId).collect(toSet());
-
-      changesByDocumentId.forEach((id, changeList) -> {
-         unprocessedCreatedDocuments.remove(id);
-         final Document document = changeList.get(0).getEntity();
-         final Document originalDocument =
-               (task instanceof RuleTask) ? ((RuleTask) task).getOldDocument() :
-                     ((task instanceof FunctionTask) ? ((FunctionTask) task).getOriginalDocumentOrDefault(id, changeList.get(0).getOriginalDocument()) :
-                           changeList.get(0).getOriginalDocument());
-         final Collection collection = collectionsMap.get(document.getCollectionId());
-         final DataDocument aggregatedUpdate = new DataDocument();
-         changeList.forEach(change -> aggregatedUpdate.put(change.getAttrId(), change.getValue()));
-         final DataDocument newData = constraintManager.encodeDataTypes(collection, aggregatedUpdate);
-         final DataDocument oldData = originalDocument != null ? new DataDocument(originalDocument.getData()) : new DataDocument();
-
-         Set<String> attributesIdsToAdd = new HashSet<>(newData.keySet());
-         attributesIdsToAdd.removeAll(oldData.keySet());
-
-         if (attributesIdsToAdd.size() > 0) {
-            collection.getAttributes().stream().filter(attr -> attributesIdsToAdd.contains(attr.getId())).forEach(attr -> {
-               attr.setUsageCount(attr.getUsageCount() + 1);
-               collection.setLastTimeUsed(ZonedDateTime.now());
-               collectionsChanged.add(collection.getId());
-            });
-         }
-
-         document.setUpdatedBy(task.getInitiator().getId());
-         document.setUpdateDate(ZonedDateTime.now());
-
-         final DataDocument beforePatch = task.getDaoContextSnapshot().getDataDao().getData(document.getCollectionId(), document.getId());
-
-         DataDocument patchedData = task.getDaoContextSnapshot().getDataDao()
-                                        .patchData(document.getCollectionId(), document.getId(), newData);
+      taskProcessingFacade.startBatch();
+      try {
+         Map<String, Document> documentsByCorrelationId = createdDocuments.stream().collect(Collectors.toMap(doc -> doc.createIfAbsentMetaData().getString(Document.META_CORRELATION_ID), Function.identity()));
+
+         // aggregate all operations to individual documents
+         final Map<String, List<DocumentOperation>> changesByDocumentId = Utils.categorize(operations.stream(), change -> change.getEntity().getId());
+
+         final Set<String> unprocessedCreatedDocuments = createdDocuments.stream().map(Document::getId).collect(toSet());
+
+         final List<PendingUpdate<Document, Collection>> pendingUpdates = new ArrayList<>();
+         changesByDocumentId.forEach((id, changeList) -> {
+            unprocessedCreatedDocuments.remove(id);
+            final Document document = changeList.get(0).getEntity();
+            final Document originalDocument =
+                  (task instanceof RuleTask) ? ((RuleTask) task).getOldDocument() :
+                        ((task instanceof FunctionTask) ? ((FunctionTask) task).getOriginalDocumentOrDefault(id, changeList.get(0).getOriginalDocument()) :
+                              changeList.get(0).getOriginalDocument());
+            final Collection collection = collectionsMap.get(document.getCollectionId());
+            final DataDocument aggregatedUpdate = new DataDocument();
+            changeList.forEach(change -> aggregatedUpdate.put(change.getAttrId(), change.getValue()));
+            final DataDocument newData = constraintManager.encodeDataTypes(collection, aggregatedUpdate);
+            final DataDocument oldData = originalDocument != null ? new DataDocument(originalDocument.getData()) : new DataDocument();
+
+            Set<String> attributesIdsToAdd = new HashSet<>(newData.keySet());
+            attributesIdsToAdd.removeAll(oldData.keySet());
+
+            if (attributesIdsToAdd.size() > 0) {
+               collection.getAttributes().stream().filter(attr -> attributesIdsToAdd.contains(attr.getId())).forEach(attr -> {
+                  attr.setUsageCount(attr.getUsageCount() + 1);
+                  collection.setLastTimeUsed(ZonedDateTime.now());
+                  collectionsChanged.add(collection.getId());
+               });
+            }
 
-         Document updatedDocument = task.getDaoContextSnapshot().getDocumentDao()
-                                        .updateDocument(document.getId(), document);
+            document.setUpdatedBy(task.getInitiator().getId());
+            document.setUpdateDate(ZonedDateTime.now());
 
-         updatedDocument.setData(patchedData);
+            pendingUpdates.add(new PendingUpdate<>(document, originalDocument, collection, aggregatedUpdate, newData));
+         });
 
-         // notify delayed actions about data change
-         if (collection.getPurposeType() == CollectionPurposeType.Tasks) {
-            final Document original;
-            if (originalDocument == null) { // when triggered by an action button, let's use the document from db
-               original = new Document(document);
-               original.setData(beforePatch);
-            } else {
-               original = originalDocument;
+         // write all the changes at once, the number of round trips depends only on the number of affected collections
+         final Map<String, DataDocument> dataBeforePatch = new HashMap<>();
+         final Map<String, DataDocument> dataAfterPatch = new HashMap<>();
+         Utils.categorize(pendingUpdates.stream(), update -> update.getEntity().getCollectionId()).forEach((collectionId, updates) -> {
+            final Map<String, DataDocument> patches = updates.stream().collect(Collectors.toMap(update -> update.getEntity().getId(), PendingUpdate::getNewData));
+            task.getDaoContextSnapshot().getDataDao().getData(collectionId, patches.keySet()).forEach(data -> dataBeforePatch.put(data.getId(), data));
+            task.getDaoContextSnapshot().getDataDao().patchDataBulk(collectionId, patches).forEach(data -> dataAfterPatch.put(data.getId(), data));
+         });
+         final Map<String, Document> documentsAfterUpdate = task.getDaoContextSnapshot().getDocumentDao()
+                                                                .updateDocumentsBulk(pendingUpdates.stream().map(PendingUpdate::getEntity).collect(toList()))
+                                                                .stream().collect(Collectors.toMap(Document::getId, Function.identity()));
+         final Map<String, List<AuditUpdate>> auditUpdates = new HashMap<>(); // Collection -> [AuditUpdate]
+
+         pendingUpdates.forEach(pendingUpdate -> {
+            final Document document = pendingUpdate.getEntity();
+            final Document originalDocument = pendingUpdate.getOriginal();
+            final Collection collection = pendingUpdate.getResource();
+            final DataDocument aggregatedUpdate = pendingUpdate.getAggregatedUpdate();
+            final DataDocument beforePatch = dataBeforePatch.getOrDefault(document.getId(), new DataDocument());
+            DataDocument patchedData = dataAfterPatch.getOrDefault(document.getId(), new DataDocument());
+
+            Document updatedDocument = documentsAfterUpdate.get(document.getId());
+
+            updatedDocument.setData(patchedData);
+
+            // notify delayed actions about data change
+            if (collection.getPurposeType() == CollectionPurposeType.Tasks) {
+               final Document original;
+               if (originalDocument == null) { // when triggered by an action button, let's use the document from db
+                  original = new Document(document);
+                  original.setData(beforePatch);
+               } else {
+                  original = originalDocument;
+               }
+               purposeChangeProcessor.processChanges(new UpdateDocument(updatedDocument, original), collection);
             }
-            purposeChangeProcessor.processChanges(new UpdateDocument(updatedDocument, original), collection);
-         }
 
-         var oldDataDecoded = constraintManager.decodeDataTypes(collection, beforePatch);
-         var patchedDataDecoded = constraintManager.decodeDataTypes(collection, patchedData);
+            var oldDataDecoded = constraintManager.decodeDataTypes(collection, beforePatch);
+            var patchedDataDecoded = constraintManager.decodeDataTypes(collection, patchedData);
 
-         auditAdapter.registerUpdate(updatedDocument.getCollectionId(), ResourceType.DOCUMENT, updatedDocument.getId(),
-               task.getInitiator(), automationName, beforePatch, oldDataDecoded, patchedData, patchedDataDecoded);
+            auditUpdates.computeIfAbsent(updatedDocument.getCollectionId(), key -> new ArrayList<>())
+                        .add(new AuditUpdate(updatedDocument.getId(), beforePatch, oldDataDecoded, patchedData, patchedDataDecoded));
 
-         // add patched data to new documents
-         boolean created = false;
-         if (StringUtils.isNotEmpty(document.createIfAbsentMetaData().getString(Document.META_CORRELATION_ID))) {
-            final Document doc = documentsByCorrelationId.get(document.getMetaData().getString(Document.META_CORRELATION_ID));
+            // add patched data to new documents
+            boolean created = false;
+            if (StringUtils.isNotEmpty(document.createIfAbsentMetaData().getString(Document.META_CORRELATION_ID))) {
+               final Document doc = documentsByCorrelationId.get(document.getMetaData().getString(Document.META_CORRELATION_ID));
 
-            if (doc != null) {
-               doc.setData(patchedData);
-               created = true;
+               if (doc != null) {
+                  doc.setData(patchedData);
+                  created = true;
+               }
             }
-         }
 
-         if (task instanceof RuleTask) {
-            if (created) {
-               taskProcessingFacade.onCreateDocument(new CreateDocument(updatedDocument));
-            } else {
-               if (task.getRecursionDepth() == 0) {
-                  // there are now 3 versions of the document:
-                  // 1) the document before user triggered an update - original document (null when triggered by action button)
-                  // 2) the document with the new user entered value - before patch
-                  // 3) the document with the value computed by the rule based on the previous two - updated document
-                  // this rule got executed because of change from 1 to 2
-                  // for the recursive rules, we need to trigger rules for changes between 2 and 3
-                  final UpdateDocument updateDocumentEvent;
-                  final Document orig = new Document(document);
-                  orig.setData(beforePatch);
-                  updateDocumentEvent = new UpdateDocument(updatedDocument, orig);
-
-                  taskProcessingFacade.onDocumentUpdate(updateDocumentEvent, ((RuleTask) task).getRule().getName());
+            if (task instanceof RuleTask) {
+               if (created) {
+                  taskProcessingFacade.onCreateDocument(new CreateDocument(updatedDocument));
                } else {
-                  taskExecutor.submitTask(functionFacade.createTaskForUpdateDocument(collection, originalDocument, updatedDocument, aggregatedUpdate.keySet()));
+                  if (task.getRecursionDepth() == 0) {
+                     // there are now 3 versions of the document:
+                     // 1) the document before user triggered an update - original document (null when triggered by action button)
+                     // 2) the document with the new user entered value - before patch
+                     // 3) the document with the value computed by the rule based on the previous two - updated document
+                     // this rule got executed because of change from 1 to 2
+                     // for the recursive rules, we need to trigger rules for changes between 2 and 3
+                     final UpdateDocument updateDocumentEvent;
+                     final Document orig = new Document(document);
+                     orig.setData(beforePatch);
+                     updateDocumentEvent = new UpdateDocument(updatedDocument, orig);
+
+                     taskProcessingFacade.onDocumentUpdate(updateDocumentEvent, ((RuleTask) task).getRule().getName());
+                  } else {
+                     taskExecutor.submitTask(functionFacade.createTaskForUpdateDocument(collection, originalDocument, updatedDocument, aggregatedUpdate.keySet()));
+                  }
                }
             }
-         }
 
-         patchedData = constraintManager.decodeDataTypes(collection, patchedData);
-         updatedDocument.setData(patchedData);
+            patchedData = constraintManager.decodeDataTypes(collection, patchedData);
+            updatedDocument.setData(patchedData);
 
-         updatedDocuments.computeIfAbsent(document.getCollectionId(), key -> new ArrayList<>())
-                         .add(updatedDocument);
-      });
+            updatedDocuments.computeIfAbsent(document.getCollectionId(), key -> new ArrayList<>())
+                            .add(updatedDocument);
+         });
 
-      unprocessedCreatedDocuments.forEach(id -> {
-         createdDocuments.stream().filter(d -> d.getId().equals(id)).findFirst().ifPresent(document -> {
-            taskProcessingFacade.onCreateDocument(new CreateDocument(document));
+         auditUpdates.forEach((collectionId, updates) ->
+               auditAdapter.registerUpdates(collectionId, ResourceType.DOCUMENT, task.getInitiator(), automationName, updates));
+
+         unprocessedCreatedDocuments.forEach(id -> {
+            createdDocuments.stream().filter(d -> d.getId().equals(id)).findFirst().ifPresent(document -> {
+               taskProcessingFacade.onCreateDocument(new CreateDocument(document));
+            });
          });
-      });
+      } finally {
+         taskProcessingFacade.finishBatch();
+      }
 
       changesTracker.addCollections(collectionsChanged.stream().map(collectionsMap::get).collect(toSet()));
       changesTracker.addUpdatedDocuments(updatedDocuments.values().stream().flatMap(java.util.Collection::stream).collect(toSet()));
@@ -346,100 +374,127 @@ public class SingleStage extends Stage {
                                                      .stream().collect(Collectors.toMap(LinkType::getId, linkType -> linkType));
       Set<String> linkTypesChanged = new HashSet<>();
 
-      Map<String, LinkInstance> linksByCorrelationId = createdLinks.stream().collect(Collectors.toMap(LinkInstance::getTemplateId, Function.identity()));
-
-      // aggregate all changes to individual link instances
-      final Map<String, List<LinkOperation>> changesByLinkTypeId = Utils.categorize(changes.stream(), change -> change.getEntity().getId());
-
-      final Set<String> unprocessedCreatedLinks = createdLinks.stream().map(LinkInstance::getId).collect(toSet());
-
-      changesByLinkTypeId.forEach((id, changeList) -> {
-         unprocessedCreatedLinks.remove(id);
-         final LinkInstance linkInstance = changeList.get(0).getEntity();
-         final LinkInstance originalLinkInstance = (task instanceof RuleTask) ? ((RuleTask) task).getOldLinkInstance() :
-               ((task instanceof FunctionTask) ? ((FunctionTask) task).getOriginalLinkInstanceOrDefault(id, changeList.get(0).getOriginalLinkInstance()) :
-                     changeList.get(0).getOriginalLinkInstance());
-         final LinkType linkType = linkTypesMap.get(linkInstance.getLinkTypeId());
-         final DataDocument aggregatedUpdate = new DataDocument();
-         changeList.forEach(change -> aggregatedUpdate.put(change.getAttrId(), change.getValue()));
-         final DataDocument newData = constraintManager.encodeDataTypes(linkType, aggregatedUpdate);
-         final DataDocument oldData = originalLinkInstance != null ? new DataDocument(originalLinkInstance.getData()) : new DataDocument();
-
-         Set<String> attributesIdsToAdd = new HashSet<>(newData.keySet());
-         attributesIdsToAdd.removeAll(oldData.keySet());
+      taskProcessingFacade.startBatch();
+      try {
+         Map<String, LinkInstance> linksByCorrelationId = createdLinks.stream().collect(Collectors.toMap(LinkInstance::getTemplateId, Function.identity()));
+
+         // aggregate all changes to individual link instances
+         final Map<String, List<LinkOperation>> changesByLinkTypeId = Utils.categorize(changes.stream(), change -> change.getEntity().getId());
+
+         final Set<String> unprocessedCreatedLinks = createdLinks.stream().map(LinkInstance::getId).collect(toSet());
+
+         final List<PendingUpdate<LinkInstance, LinkType>> pendingUpdates = new ArrayList<>();
+         changesByLinkTypeId.forEach((id, changeList) -> {
+            unprocessedCreatedLinks.remove(id);
+            final LinkInstance linkInstance = changeList.get(0).getEntity();
+            final LinkInstance originalLinkInstance = (task instanceof RuleTask) ? ((RuleTask) task).getOldLinkInstance() :
+                  ((task instanceof FunctionTask) ? ((FunctionTask) task).getOriginalLinkInstanceOrDefault(id, changeList.get(0).getOriginalLinkInstance()) :
+                        changeList.get(0).getOriginalLinkInstance());
+            final LinkType linkType = linkTypesMap.get(linkInstance.getLinkTypeId());
+            final DataDocument aggregatedUpdate = new DataDocument();
+            changeList.forEach(change -> aggregatedUpdate.put(change.getAttrId(), change.getValue()));
+            final DataDocument newData = constraintManager.encodeDataTypes(linkType, aggregatedUpdate);
+            final DataDocument oldData = originalLinkInstance != null ? new DataDocument(originalLinkInstance.getData()) : new DataDocument();
+
+            Set<String> attributesIdsToAdd = new HashSet<>(newData.keySet());
+            attributesIdsToAdd.removeAll(oldData.keySet());
+
+            if (attributesIdsToAdd.size() > 0) {
+               linkType.getAttributes().stream().filter(attr -> attributesIdsToAdd.contains(attr.getId())).forEach(attr -> {
+                  attr.setUsageCount(attr.getUsageCount() + 1);
+                  linkTypesChanged.add(linkType.getId());
+               });
+            }
 
-         if (attributesIdsToAdd.size() > 0) {
-            linkType.getAttributes().stream().filter(attr -> attributesIdsToAdd.contains(attr.getId())).forEach(attr -> {
-               attr.setUsageCount(attr.getUsageCount() + 1);
-               linkTypesChanged.add(linkType.getId());
-            });
-         }
+            linkInstance.setUpdatedBy(task.getInitiator().getId());
+            linkInstance.setUpdateDate(ZonedDateTime.now());
 
-         linkInstance.setUpdatedBy(task.getInitiator().getId());
-         linkInstance.setUpdateDate(ZonedDateTime.now());
+            pendingUpdates.add(new PendingUpdate<>(linkInstance, originalLinkInstance, linkType, aggregatedUpdate, newData));
+         });
 
-         final DataDocument beforePatch = task.getDaoContextSnapshot().getLinkDataDao().getData(linkInstance.getLinkTypeId(), linkInstance.getId());
+         // write all the changes at once, the number of round trips depends only on the number of affected link types
+         final Map<String, DataDocument> dataBeforePatch = new HashMap<>();
+         final Map<String, DataDocument> dataAfterPatch = new HashMap<>();
+         Utils.categorize(pendingUpdates.stream(), update -> update.getEntity().getLinkTypeId()).forEach((linkTypeId, updates) -> {
+            final Map<String, DataDocument> patches = updates.stream().collect(Collectors.toMap(update -> update.getEntity().getId(), PendingUpdate::getNewData));
+            task.getDaoContextSnapshot().getLinkDataDao().getData(linkTypeId, patches.keySet()).forEach(data -> dataBeforePatch.put(data.getId(), data));
+            task.getDaoContextSnapshot().getLinkDataDao().patchDataBulk(linkTypeId, patches).forEach(data -> dataAfterPatch.put(data.getId(), data));
+         });
+         final Map<String, LinkInstance> linksAfterUpdate = task.getDaoContextSnapshot().getLinkInstanceDao()
+                                                                .updateLinkInstancesBulk(pendingUpdates.stream().map(PendingUpdate::getEntity).collect(toList()))
+                                                                .stream().collect(Collectors.toMap(LinkInstance::getId, Function.identity()));
+         final Map<String, List<AuditUpdate>> auditUpdates = new HashMap<>(); // LinkType -> [AuditUpdate]
 
-         DataDocument patchedData = task.getDaoContextSnapshot().getLinkDataDao()
-                                        .patchData(linkInstance.getLinkTypeId(), linkInstance.getId(), newData);
+         pendingUpdates.forEach(pendingUpdate -> {
+            final LinkInstance linkInstance = pendingUpdate.getEntity();
+            final LinkInstance originalLinkInstance = pendingUpdate.getOriginal();
+            final LinkType linkType = pendingUpdate.getResource();
+            final DataDocument aggregatedUpdate = pendingUpdate.getAggregatedUpdate();
+            final DataDocument beforePatch = dataBeforePatch.getOrDefault(linkInstance.getId(), new DataDocument());
+            DataDocument patchedData = dataAfterPatch.getOrDefault(linkInstance.getId(), new DataDocument());
 
-         LinkInstance updatedLink = task.getDaoContextSnapshot().getLinkInstanceDao()
-                                        .updateLinkInstance(linkInstance.getId(), linkInstance);
+            LinkInstance updatedLink = linksAfterUpdate.get(linkInstance.getId());
 
-         updatedLink.setData(patchedData);
+            updatedLink.setData(patchedData);
 
-         var oldDataDecoded = constraintManager.decodeDataTypes(linkType, beforePatch);
-         var patchedDataDecoded = constraintManager.decodeDataTypes(linkType, patchedData);
+            var oldDataDecoded = constraintManager.decodeDataTypes(linkType, beforePatch);
+            var patchedDataDecoded = constraintManager.decodeDataTypes(linkType, patchedData);
 
-         auditAdapter.registerUpdate(updatedLink.getLinkTypeId(), ResourceType.LINK, updatedLink.getId(),
-               task.getInitiator(), automationName, beforePatch, oldDataDecoded, patchedData, patchedDataDecoded);
+            auditUpdates.computeIfAbsent(updatedLink.getLinkTypeId(), key -> new ArrayList<>())
+                        .add(new AuditUpdate(updatedLink.getId(), beforePatch, oldDataDecoded, patchedData, patchedDataDecoded));
 
-         // add patched data to new links
-         boolean created = false;
-         if (StringUtils.isNotEmpty(linkInstance.getTemplateId())) {
-            final LinkInstance link = linksByCorrelationId.get(linkInstance.getTemplateId());
+            // add patched data to new links
+            boolean created = false;
+            if (StringUtils.isNotEmpty(linkInstance.getTemplateId())) {
+               final LinkInstance link = linksByCorrelationId.get(linkInstance.getTemplateId());
 
-            if (link != null) {
-               link.setData(patchedData);
-               created = true;
+               if (link != null) {
+                  link.setData(patchedData);
+                  created = true;
+               }
             }
-         }
 
-         if (task instanceof RuleTask) {
-            if (created) {
-               taskProcessingFacade.onCreateLink(new CreateLinkInstance(updatedLink));
-            } else {
-               if (task.getRecursionDepth() == 0) {
-                  // there are now 3 versions of the document:
-                  // 1) the document before user triggered an update - original document (null when triggered by action button)
-                  // 2) the document with the new user entered value - before patch
-                  // 3) the document with the value computed by the rule based on the previous two - updated document
-                  // this rule got executed because of change from 1 to 2
-                  // for the recursive rules, we need to trigger rules for changes between 2 and 3
-                  final UpdateLinkInstance updateLinkInstanceEvent;
-                  final LinkInstance orig = new LinkInstance(linkInstance);
-                  orig.setData(beforePatch);
-                  updateLinkInstanceEvent = new UpdateLinkInstance(updatedLink, orig);
-
-                  taskProcessingFacade.onUpdateLink(updateLinkInstanceEvent, ((RuleTask) task).getRule().getName());
+            if (task instanceof RuleTask) {
+               if (created) {
+                  taskProcessingFacade.onCreateLink(new CreateLinkInstance(updatedLink));
                } else {
-                  taskExecutor.submitTask(functionFacade.creatTaskForChangedLink(linkType, originalLinkInstance, updatedLink, aggregatedUpdate.keySet()));
+                  if (task.getRecursionDepth() == 0) {
+                     // there are now 3 versions of the document:
+                     // 1) the document before user triggered an update - original document (null when triggered by action button)
+                     // 2) the document with the new user entered value - before patch
+                     // 3) the document with the value computed by the rule based on the previous two - updated document
+                     // this rule got executed because of change from 1 to 2
+                     // for the recursive rules, we need to trigger rules for changes between 2 and 3
+                     final UpdateLinkInstance updateLinkInstanceEvent;
+                     final LinkInstance orig = new LinkInstance(linkInstance);
+                     orig.setData(beforePatch);
+                     updateLinkInstanceEvent = new UpdateLinkInstance(updatedLink, orig);
+
+                     taskProcessingFacade.onUpdateLink(updateLinkInstanceEvent, ((RuleTask) task).getRule().getName());
+                  } else {
+                     taskExecutor.submitTask(functionFacade.creatTaskForChangedLink(linkType, originalLinkInstance, updatedLink, aggregatedUpdate.keySet()));
+                  }
                }
             }
-         }
 
-         patchedData = constraintManager.decodeDataTypes(linkType, patchedData);
-         updatedLink.setData(patchedData);
+            patchedData = constraintManager.decodeDataTypes(linkType, patchedData);
+            updatedLink.setData(patchedData);
 
-         updatedLinks.computeIfAbsent(linkInstance.getLinkTypeId(), key -> new ArrayList<>())
-                     .add(updatedLink);
-      });
+            updatedLinks.computeIfAbsent(linkInstance.getLinkTypeId(), key -> new ArrayList<>())
+                        .add(updatedLink);
+         });
 
-      unprocessedCreatedLinks.forEach(id -> {
-         createdLinks.stream().filter(l -> l.getId().equals(id)).findFirst().ifPresent(link -> {
-            taskProcessingFacade.onCreateLink(new CreateLinkInstance(link));
+         auditUpdates.forEach((linkTypeId, updates) ->
+               auditAdapter.registerUpdates(linkTypeId, ResourceType.LINK, task.getInitiator(), automationName, updates));
+
+         unprocessedCreatedLinks.forEach(id -> {
+            createdLinks.stream().filter(l -> l.getId().equals(id)).findFirst().ifPresent(link -> {
+               taskProcessingFacade.onCreateLink(new CreateLinkInstance(link));
+            });
          });
-      });
+      } finally {
+         taskProcessingFacade.finishBatch();
+      }
 
       linkTypeMapForCreatedLinks.forEach((id, linkType) -> linkTypesChanged.add(id));
 
@@ -564,4 +619,41 @@ public class SingleStage extends Stage {
       return changesTracker;
    }
 
+   private static final class PendingUpdate<E, R> {
+
+      private final E entity;
+      private final E original;
+      private final R resource;
+      private final DataDocument aggregatedUpdate;
+      private final DataDocument newData;
+
+      private PendingUpdate(final E entity, final E original, final R resource, final DataDocument aggregatedUpdate, final DataDocument newData) {
+         this.entity = entity;
+         this.original = original;
+         this.resource = resource;
+         this.aggregatedUpdate = aggregatedUpdate;
+         this.newData = newData;
+      }
+
+      public E getEntity() {
+         return entity;
+      }
+
+      public E getOriginal() {
+         return original;
+      }
+
+      public R getResource() {
+         return resource;
+      }
+
+      public DataDocument getAggregatedUpdate() {
+         return aggregatedUpdate;
+      }
+
+      public DataDocument getNewData() {
+         return newData;
+      }
+   }
+
 }
@@ -0,0 +1,127 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on a shared executor with a limited number of tasks running concurrently for a single owner (e.g. a request).
+ * Tasks over the limit run directly in the submitting thread and a task which has not been started yet is run by the thread
+ * waiting for its result, so waiting for submitted tasks never deadlocks even when the shared executor is saturated.
+ */
+public class BoundedExecutor {
+
+   private final Executor executor;
+   private final Semaphore permits;
+
+   public BoundedExecutor(final Executor executor, final int concurrency) {
+      this.executor = executor;
+      this.permits = new Semaphore(executor != null ? Math.max(0, concurrency) : 0);
+   }
+
+   public <T> Future<T> submit(final Supplier<T> task) {
+      final BoundedTask<T> boundedTask = new BoundedTask<>(task, permits);
+      if (permits.tryAcquire()) {
+         try {
+            executor.execute(boundedTask);
+            return boundedTask;
+         } catch (RejectedExecutionException e) {
+            // the task is run below in this thread and releases the permit
+         }
+      } else {
+         boundedTask.withoutPermit();
+      }
+
+      boundedTask.run();
+      return boundedTask;
+   }
+
+   /**
+    * Waits for the task result and rethrows the original runtime exception of a failed task.
+    */
+   public static <T> T getResult(final Future<T> future) {
+      runIfNotStarted(future);
+
+      try {
+         return future.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while waiting for a task", e);
+      } catch (ExecutionException e) {
+         final Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+         if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+         }
+         if (cause instanceof Error) {
+            throw (Error) cause;
+         }
+         throw new IllegalStateException(cause);
+      }
+   }
+
+   /**
+    * Runs the task in the calling thread when the executor has not started it yet.
+    */
+   public static void runIfNotStarted(final Future<?> future) {
+      if (future instanceof BoundedTask) {
+         ((BoundedTask<?>) future).run();
+      }
+   }
+
+   private static final class BoundedTask<T> extends CompletableFuture<T> implements Runnable {
+
+      private final Supplier<T> task;
+      private final AtomicBoolean started = new AtomicBoolean();
+      private Semaphore permits;
+
+      private BoundedTask(final Supplier<T> task, final Semaphore permits) {
+         this.task = task;
+         this.permits = permits;
+      }
+
+      private void withoutPermit() {
+         permits = null;
+      }
+
+      @Override
+      public void run() {
+         if (!started.compareAndSet(false, true)) {
+            return;
+         }
+
+         try {
+            complete(task.get());
+         } catch (Throwable t) {
+            completeExceptionally(t);
+         } finally {
+            if (permits != null) {
+               permits.release();
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,186 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import io.lumeer.api.model.function.FunctionParameter;
+import io.lumeer.api.model.function.FunctionResourceType;
+import io.lumeer.api.model.function.FunctionRow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory graph of function dependencies of a single project. Nodes are attributes of collections and link types,
+ * every {@link FunctionRow} is an edge from the attribute the function reads (the dependent one) to the function attribute.
+ * Offers the same lookups as {@link io.lumeer.storage.api.dao.FunctionDao} without touching the database, changes produce
+ * a new graph.
+ */
+public class FunctionGraph {
+
+   private final List<FunctionRow> rows;
+   private final Map<List<Object>, List<FunctionRow>> byResource = new HashMap<>();
+   private final Map<List<Object>, List<FunctionRow>> byDependentCollection = new HashMap<>();
+   private final Map<List<Object>, List<FunctionRow>> byDependentLinkType = new HashMap<>();
+   private volatile Map<FunctionParameter, Integer> ranks;
+
+   private FunctionGraph(final List<FunctionRow> rows) {
+      this.rows = Collections.unmodifiableList(rows);
+
+      // every row is indexed both by the resource only and by the resource and attribute
+      rows.forEach(row -> {
+         index(byResource, row, Arrays.asList(row.getType(), row.getResourceId()), row.getAttributeId());
+         if (row.getDependentCollectionId() != null) {
+            index(byDependentCollection, row, Arrays.asList(row.getDependentCollectionId()), row.getDependentAttributeId());
+         }
+         if (row.getDependentLinkTypeId() != null) {
+            index(byDependentLinkType, row, Arrays.asList(row.getDependentLinkTypeId()), row.getDependentAttributeId());
+         }
+      });
+   }
+
+   public static FunctionGraph of(final List<FunctionRow> rows) {
+      return new FunctionGraph(new ArrayList<>(rows));
+   }
+
+   private static void index(final Map<List<Object>, List<FunctionRow>> index, final FunctionRow row, final List<Object> resourceKey, final String attributeId) {
+      index.computeIfAbsent(resourceKey, key -> new ArrayList<>()).add(row);
+      if (attributeId != null) {
+         index.computeIfAbsent(withAttribute(resourceKey, attributeId), key -> new ArrayList<>()).add(row);
+      }
+   }
+
+   private static List<FunctionRow> lookup(final Map<List<Object>, List<FunctionRow>> index, final List<Object> resourceKey, final String attributeId) {
+      final List<Object> key = attributeId != null ? withAttribute(resourceKey, attributeId) : resourceKey;
+      return new ArrayList<>(index.getOrDefault(key, Collections.emptyList()));
+   }
+
+   private static List<Object> withAttribute(final List<Object> resourceKey, final String attributeId) {
+      final List<Object> key = new ArrayList<>(resourceKey);
+      key.add(attributeId);
+      return key;
+   }
+
+   public List<FunctionRow> getRows() {
+      return rows;
+   }
+
+   public FunctionGraph withRows(final Collection<FunctionRow> newRows) {
+      final List<FunctionRow> allRows = new ArrayList<>(rows);
+      allRows.addAll(newRows);
+      return new FunctionGraph(allRows);
+   }
+
+   public FunctionGraph withoutRows(final Predicate<FunctionRow> filter) {
+      return new FunctionGraph(rows.stream().filter(filter.negate()).collect(Collectors.toList()));
+   }
+
+   public List<FunctionRow> searchByDependentCollection(final String collectionId, final String attributeId) {
+      return lookup(byDependentCollection, Arrays.asList(collectionId), attributeId);
+   }
+
+   public List<FunctionRow> searchByDependentLinkType(final String linkTypeId, final String attributeId) {
+      return lookup(byDependentLinkType, Arrays.asList(linkTypeId), attributeId);
+   }
+
+   public List<FunctionRow> searchByResource(final String resourceId, final String attributeId, final FunctionResourceType type) {
+      return lookup(byResource, Arrays.asList(type, resourceId), attributeId);
+   }
+
+   /**
+    * Orders the parameters so that every function comes after all the functions it depends on, also through attributes not
+    * present among the parameters. Parameters not present in the graph do not depend on anything and go first.
+    */
+   public <T extends FunctionParameter> Deque<T> orderFunctions(final Collection<T> parameters) {
+      final Map<FunctionParameter, Integer> ranks = getRanks();
+      final List<T> ordered = new ArrayList<>(parameters);
+      ordered.sort(Comparator.comparingInt(parameter -> ranks.getOrDefault(toNode(parameter), -1)));
+
+      return new LinkedList<>(ordered);
+   }
+
+   private Map<FunctionParameter, Integer> getRanks() {
+      if (ranks == null) {
+         ranks = computeRanks();
+      }
+      return ranks;
+   }
+
+   // Kahn's algorithm, nodes on cycles are ranked after all the others in the order of their first appearance
+   private Map<FunctionParameter, Integer> computeRanks() {
+      final Map<FunctionParameter, Set<FunctionParameter>> edges = new LinkedHashMap<>();
+      final Map<FunctionParameter, Integer> inDegrees = new LinkedHashMap<>();
+
+      rows.forEach(row -> {
+         final FunctionParameter function = new FunctionParameter(row.getType(), row.getResourceId(), row.getAttributeId());
+         final FunctionParameter dependency = getDependency(row);
+         inDegrees.putIfAbsent(dependency, 0);
+         inDegrees.putIfAbsent(function, 0);
+         if (!dependency.equals(function) && edges.computeIfAbsent(dependency, k -> new LinkedHashSet<>()).add(function)) {
+            inDegrees.merge(function, 1, Integer::sum);
+         }
+      });
+
+      final Map<FunctionParameter, Integer> result = new HashMap<>();
+      final Deque<FunctionParameter> ready = new ArrayDeque<>();
+      inDegrees.forEach((node, degree) -> {
+         if (degree == 0) {
+            ready.add(node);
+         }
+      });
+
+      while (!ready.isEmpty()) {
+         final FunctionParameter node = ready.poll();
+         result.put(node, result.size());
+         edges.getOrDefault(node, Collections.emptySet()).forEach(next -> {
+            if (inDegrees.merge(next, -1, Integer::sum) == 0) {
+               ready.add(next);
+            }
+         });
+      }
+
+      inDegrees.keySet().forEach(node -> result.putIfAbsent(node, result.size()));
+
+      return result;
+   }
+
+   private static FunctionParameter getDependency(final FunctionRow row) {
+      return row.getDependentCollectionId() != null
+            ? new FunctionParameter(FunctionResourceType.COLLECTION, row.getDependentCollectionId(), row.getDependentAttributeId())
+            : new FunctionParameter(FunctionResourceType.LINK, row.getDependentLinkTypeId(), row.getDependentAttributeId());
+   }
+
+   // parameters can be subclasses which are never equal to the plain graph nodes
+   private static FunctionParameter toNode(final FunctionParameter parameter) {
+      return parameter.getClass() == FunctionParameter.class ? parameter : new FunctionParameter(parameter.getType(), parameter.getResourceId(), parameter.getAttributeId());
+   }
+}
@@ -18,10 +18,8 @@
  */
 package io.lumeer.core.util;
 
-import io.lumeer.core.js.JsEngineFactory;
+import io.lumeer.core.js.JsContextPool;
 
-import org.graalvm.polyglot.Context;
-import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Value;
 
 import java.io.IOException;
@@ -32,13 +30,15 @@ public class JsFunctionsParser implements AutoCloseable {
    public static final String FORMAT_JS_DATE = "formatMomentJsDate";
    public static final String PARSE_JS_DATE = "parseMomentJsDate";
 
-   private static Context context = null;
-   private static Value formatMomentJsDate;
-   private static Value parseMomentJsDate;
    private static String momentJsCode;
    private static String heJsCode;
    private static String numbroJsCode;
-   private static final Engine engine = JsEngineFactory.getEngine();
+
+   // GraalJS contexts can not be used by multiple threads at once
+   private static final JsContextPool momentJsContexts = new JsContextPool("moment-js", Runtime.getRuntime().availableProcessors(), context -> {
+      context.eval("js", momentJsCode);
+      return context.getBindings("js");
+   });
 
    static {
       try (
@@ -74,73 +74,73 @@ public class JsFunctionsParser implements AutoCloseable {
    }
 
    public static Long parseMomentJsDate(final String date, final String format, final String locale) {
-      if (context == null) {
-         initContext();
+      final MomentDateFormat dateFormat = MomentDateFormat.get(format, locale);
+      if (dateFormat != null) {
+         final Long time = dateFormat.parse(date);
+         if (time != null) {
+            return time;
+         }
+      }
+
+      if (momentJsCode == null) {
+         return null;
       }
 
       try {
-         var result = parseMomentJsDate.execute(date, format, locale);
+         return momentJsContexts.execute(pooled -> {
+            var result = pooled.getFunction().getMember(PARSE_JS_DATE).execute(date, format, locale);
+            return getTime(result);
+         });
+      } catch (Exception e) {
+         return null;
+      }
+   }
 
-         if (result.isNull()) {
-            return null;
-         }
+   private static Long getTime(final Value result) {
+      if (result.isNull()) {
+         return null;
+      }
 
-         if (result.isString()) {
-            return null;
-         }
+      if (result.isString()) {
+         return null;
+      }
 
-         if (result.isNumber()) {
-            double x = result.asDouble();
+      if (result.isNumber()) {
+         double x = result.asDouble();
 
-            if (Double.isNaN(x)) {
-               return null;
-            }
+         if (Double.isNaN(x)) {
+            return null;
+         }
 
-            if (result.fitsInLong()) {
-               return result.asLong();
-            }
+         if (result.fitsInLong()) {
+            return result.asLong();
          }
-      } catch (Exception e) {
-         return null;
       }
 
       return null;
    }
 
    public static String formatMomentJsDate(final long time, final String format, final String locale) {
-      if (context == null) {
-         initContext();
+      final MomentDateFormat dateFormat = MomentDateFormat.get(format, locale);
+      if (dateFormat != null) {
+         final String formatted = dateFormat.format(time);
+         if (formatted != null) {
+            return formatted;
+         }
       }
 
-      try {
-         var result = formatMomentJsDate.execute(time, format, locale);
-
-         return result.asString();
-      } catch (Exception e) {
+      if (momentJsCode == null) {
          return null;
       }
-   }
-
-   private synchronized static void initContext() {
-      if (context == null) {
-
-         if (momentJsCode != null) {
-            context = Context
-                  .newBuilder("js")
-                  .engine(engine)
-                  .allowAllAccess(true)
-                  .build();
-            context.initialize("js");
-
-            var result = context.eval("js", momentJsCode);
 
-            formatMomentJsDate = context.getBindings("js").getMember(FORMAT_JS_DATE);
-            parseMomentJsDate = context.getBindings("js").getMember(PARSE_JS_DATE);
-         }
+      try {
+         return momentJsContexts.execute(pooled -> pooled.getFunction().getMember(FORMAT_JS_DATE).execute(time, format, locale).asString());
+      } catch (Exception e) {
+         return null;
       }
    }
 
    public void close() {
-      context.close();
+      momentJsContexts.close();
    }
 }
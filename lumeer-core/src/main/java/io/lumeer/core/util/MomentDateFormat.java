@@ -0,0 +1,237 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Formats and parses dates by the numeric moment.js patterns (e.g. DD.MM.YYYY HH:mm) directly in Java.
+ * {@link #get(String, String)} returns null for anything else and both methods return null whenever the result could differ
+ * from moment.js, so the caller can fall back to it.
+ */
+final class MomentDateFormat {
+
+   private static final int CACHE_SIZE = 256;
+   private static final MomentDateFormat UNSUPPORTED = new MomentDateFormat(Collections.emptyList(), false);
+
+   // locales which use latin digits and no custom number pre/post processing in moment.js
+   private static final Set<String> LOCALES = Set.of("en", "cs", "sk", "de", "fr", "es", "it", "nl", "pl", "pt", "hu", "ru", "uk", "sv", "da", "fi", "nb");
+
+   private static final Map<String, MomentDateFormat> formats = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, MomentDateFormat> eldest) {
+         return size() > CACHE_SIZE;
+      }
+   });
+
+   private enum Field {
+      YEAR, MONTH, DAY, HOUR, MINUTE, SECOND, MILLISECOND
+   }
+
+   private static final class Token {
+      private final Field field;
+      private final int width;
+      private final String literal;
+
+      private Token(final Field field, final int width, final String literal) {
+         this.field = field;
+         this.width = width;
+         this.literal = literal;
+      }
+   }
+
+   private final List<Token> tokens;
+   private final boolean fullDate;
+
+   private MomentDateFormat(final List<Token> tokens, final boolean fullDate) {
+      this.tokens = tokens;
+      this.fullDate = fullDate;
+   }
+
+   static MomentDateFormat get(final String format, final String locale) {
+      if (format == null || format.isEmpty() || !isLocaleSupported(locale)) {
+         return null;
+      }
+
+      final MomentDateFormat dateFormat = formats.computeIfAbsent(format, MomentDateFormat::compile);
+      return dateFormat != UNSUPPORTED ? dateFormat : null;
+   }
+
+   private static boolean isLocaleSupported(final String locale) {
+      if (locale == null || locale.isEmpty()) {
+         return true;
+      }
+      final int separator = locale.indexOf('-');
+      return LOCALES.contains((separator > 0 ? locale.substring(0, separator) : locale).toLowerCase());
+   }
+
+   private static MomentDateFormat compile(final String format) {
+      final List<Token> tokens = new ArrayList<>();
+      int i = 0;
+      while (i < format.length()) {
+         final char c = format.charAt(i);
+         int end = i + 1;
+         while (end < format.length() && format.charAt(end) == c) {
+            end++;
+         }
+         final String part = format.substring(i, end);
+
+         if (Character.isLetterOrDigit(c)) {
+            final Token token = getToken(part);
+            if (token == null) {
+               return UNSUPPORTED;
+            }
+            tokens.add(token);
+         } else if (" .,-/:".indexOf(c) >= 0) {
+            tokens.add(new Token(null, 0, part));
+         } else {
+            return UNSUPPORTED;
+         }
+         i = end;
+      }
+
+      final boolean fullDate = tokens.stream().anyMatch(t -> t.field == Field.YEAR) && tokens.stream().anyMatch(t -> t.field == Field.MONTH) && tokens.stream().anyMatch(t -> t.field == Field.DAY);
+      return new MomentDateFormat(tokens, fullDate);
+   }
+
+   private static Token getToken(final String part) {
+      switch (part) {
+         case "YYYY":
+            return new Token(Field.YEAR, 4, null);
+         case "MM":
+         case "M":
+            return new Token(Field.MONTH, part.length(), null);
+         case "DD":
+         case "D":
+            return new Token(Field.DAY, part.length(), null);
+         case "HH":
+         case "H":
+            return new Token(Field.HOUR, part.length(), null);
+         case "mm":
+         case "m":
+            return new Token(Field.MINUTE, part.length(), null);
+         case "ss":
+         case "s":
+            return new Token(Field.SECOND, part.length(), null);
+         case "SSS":
+            return new Token(Field.MILLISECOND, 3, null);
+         default:
+            return null;
+      }
+   }
+
+   String format(final long time) {
+      final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+      if (dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+         return null;
+      }
+
+      final StringBuilder builder = new StringBuilder();
+      for (Token token : tokens) {
+         if (token.field == null) {
+            builder.append(token.literal);
+         } else {
+            appendPadded(builder, getValue(dateTime, token.field), token.width);
+         }
+      }
+      return builder.toString();
+   }
+
+   private static int getValue(final LocalDateTime dateTime, final Field field) {
+      switch (field) {
+         case YEAR:
+            return dateTime.getYear();
+         case MONTH:
+            return dateTime.getMonthValue();
+         case DAY:
+            return dateTime.getDayOfMonth();
+         case HOUR:
+            return dateTime.getHour();
+         case MINUTE:
+            return dateTime.getMinute();
+         case SECOND:
+            return dateTime.getSecond();
+         default:
+            return dateTime.getNano() / 1_000_000;
+      }
+   }
+
+   private static void appendPadded(final StringBuilder builder, final int value, final int width) {
+      final String digits = Integer.toString(value);
+      for (int i = digits.length(); i < width; i++) {
+         builder.append('0');
+      }
+      builder.append(digits);
+   }
+
+   /**
+    * Parses only input which matches the pattern exactly and describes a valid date.
+    */
+   Long parse(final String date) {
+      if (date == null || !fullDate) {
+         return null;
+      }
+
+      final int[] values = new int[Field.values().length];
+      int position = 0;
+      for (Token token : tokens) {
+         if (token.field == null) {
+            if (!date.startsWith(token.literal, position)) {
+               return null;
+            }
+            position += token.literal.length();
+            continue;
+         }
+
+         final int maxDigits = token.field == Field.YEAR ? 4 : (token.field == Field.MILLISECOND ? 3 : 2);
+         int end = position;
+         while (end < date.length() && end - position < maxDigits && date.charAt(end) >= '0' && date.charAt(end) <= '9') {
+            end++;
+         }
+         if (end == position || (token.field == Field.YEAR && end - position != 4)) {
+            return null;
+         }
+
+         final String digits = date.substring(position, end);
+         values[token.field.ordinal()] = token.field == Field.MILLISECOND ? Integer.parseInt((digits + "00").substring(0, 3)) : Integer.parseInt(digits);
+         position = end;
+      }
+
+      if (position != date.length()) {
+         return null;
+      }
+
+      try {
+         final LocalDateTime dateTime = LocalDateTime.of(values[Field.YEAR.ordinal()], values[Field.MONTH.ordinal()], values[Field.DAY.ordinal()],
+               values[Field.HOUR.ordinal()], values[Field.MINUTE.ordinal()], values[Field.SECOND.ordinal()], values[Field.MILLISECOND.ordinal()] * 1_000_000);
+         return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+      } catch (DateTimeException e) {
+         return null;
+      }
+   }
+}
@@ -18,6 +18,7 @@
  */
 package io.lumeer.core.util;
 
+import io.lumeer.core.facade.PusherFacade;
 import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 
 import com.fasterxml.jackson.databind.AnnotationIntrospector;
@@ -34,37 +35,62 @@ import org.marvec.pusher.data.Result;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 public class PusherClient {
 
+   // same limit and event name suffix as used by the Pusher library for events with backup data
+   private static final int MAX_DATA_LENGTH = 9000;
+   private static final String ALTERNATIVE_EVENT_SUFFIX = ":ALT";
+
+   private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+   private static final long DEFAULT_QUEUE_WINDOW = 50L;
+   private static final int MAX_ATTEMPTS = 3;
+   private static final long RETRY_BACKOFF = 200L;
+
    private Pusher pusher;
    private ObjectMapper mapper;
+   private PusherDeliveryQueue deliveryQueue;
 
    private String secret;
    private String key;
 
    public static PusherClient getInstance(final DefaultConfigurationProducer configurationProducer) {
+      return getInstance(configurationProducer, null);
+   }
+
+   public static PusherClient getInstance(final DefaultConfigurationProducer configurationProducer, final ScheduledExecutorService executor) {
       String pusherAppId = Optional.ofNullable(configurationProducer.get(DefaultConfigurationProducer.PUSHER_APP_ID)).orElse("");
       String pusheyKey = Optional.ofNullable(configurationProducer.get(DefaultConfigurationProducer.PUSHER_KEY)).orElse("");
       String pusherSecret = Optional.ofNullable(configurationProducer.get(DefaultConfigurationProducer.PUSHER_SECRET)).orElse("");
       String pusherCluster = Optional.ofNullable(configurationProducer.get(DefaultConfigurationProducer.PUSHER_CLUSTER)).orElse("");
 
       if (StringUtils.isNotEmpty(pusherSecret)) {
-         return new PusherClient(pusherAppId, pusheyKey, pusherSecret, pusherCluster);
+         final PusherClient client = new PusherClient(pusherAppId, pusheyKey, pusherSecret, pusherCluster);
+         if (executor != null) {
+            final int capacity = configurationProducer.getInt(DefaultConfigurationProducer.PUSHER_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+            final long window = configurationProducer.getLong(DefaultConfigurationProducer.PUSHER_QUEUE_WINDOW, DEFAULT_QUEUE_WINDOW);
+            client.enableDeliveryQueue(executor, capacity, window, MAX_ATTEMPTS, RETRY_BACKOFF);
+         }
+         return client;
       }
 
       return null;
    }
 
    public PusherClient(final String appId, final String key, final String secret, final String cluster) {
+      this(createPusher(appId, key, secret, cluster), key, secret);
+   }
+
+   PusherClient(final Pusher pusher, final String key, final String secret) {
       this.secret = secret;
       this.key = key;
-
-      pusher = new Pusher(appId, key, secret);
-      pusher.setCluster(cluster);
-      pusher.setEncrypted(true);
+      this.pusher = pusher;
 
       mapper = new ObjectMapper();
       AnnotationIntrospector primary = new JacksonAnnotationIntrospector();
@@ -72,15 +98,65 @@ public class PusherClient {
       AnnotationIntrospector pair = AnnotationIntrospector.pair(primary, secondary);
       mapper.setAnnotationIntrospector(pair);
 
-      pusher.setDataMarshaller(o -> {
-         StringWriter sw = new StringWriter();
-         try {
-            mapper.writeValue(sw, o);
-            return sw.toString();
-         } catch (IOException e) {
-            return null;
+      pusher.setDataMarshaller(o -> o instanceof SerializedData ? ((SerializedData) o).json : marshall(o));
+   }
+
+   private static Pusher createPusher(final String appId, final String key, final String secret, final String cluster) {
+      final Pusher pusher = new Pusher(appId, key, secret);
+      pusher.setCluster(cluster);
+      pusher.setEncrypted(true);
+
+      return pusher;
+   }
+
+   /**
+    * Events passed to {@link #trigger(List)} are sent asynchronously by the given executor from now on.
+    */
+   void enableDeliveryQueue(final ScheduledExecutorService executor, final int capacity, final long windowMillis, final int maxAttempts, final long backoffMillis) {
+      deliveryQueue = new PusherDeliveryQueue(executor,
+            batch -> pusher.trigger(batch).stream().findFirst().orElse(null),
+            event -> event.getData() instanceof SerializedData ? ((SerializedData) event.getData()).coalescingKey : null,
+            capacity, windowMillis, maxAttempts, backoffMillis);
+   }
+
+   private String marshall(final Object o) {
+      StringWriter sw = new StringWriter();
+      try {
+         mapper.writeValue(sw, o);
+         return sw.toString();
+      } catch (IOException e) {
+         return null;
+      }
+   }
+
+   /**
+    * Serializes the event data right away as the objects can be modified by the caller after the event has been queued.
+    */
+   private Event serialize(final Event event) {
+      String name = event.getName();
+      String data = marshall(event.getData());
+      final Object backupData = event instanceof BackupDataEvent ? ((BackupDataEvent) event).getBackupData() : null;
+
+      if (data != null && data.length() > MAX_DATA_LENGTH && backupData != null) {
+         name = name + ALTERNATIVE_EVENT_SUFFIX;
+         data = marshall(backupData);
+      }
+
+      return data != null ? new Event(event.getChannel(), name, new SerializedData(data, getCoalescingKey(event, backupData)), event.getSocketId()) : null;
+   }
+
+   /**
+    * Only the latest of pending update events of the same resource in a channel needs to be delivered.
+    */
+   private static Object getCoalescingKey(final Event event, final Object backupData) {
+      if (event.getName() != null && event.getName().endsWith(PusherFacade.UPDATE_EVENT_SUFFIX) && backupData instanceof PusherFacade.ResourceId) {
+         final String resourceId = ((PusherFacade.ResourceId) backupData).getId();
+         if (resourceId != null) {
+            return List.of(event.getChannel(), event.getName(), resourceId);
          }
-      });
+      }
+
+      return null;
    }
 
    public Result trigger(final String channel, final String eventName, final Object message) {
@@ -88,7 +164,13 @@ public class PusherClient {
    }
 
    public Collection<Result> trigger(List<Event> notifications) {
-      return pusher.trigger(notifications);
+      if (deliveryQueue == null) {
+         return pusher.trigger(notifications);
+      }
+
+      deliveryQueue.offer(notifications.stream().map(this::serialize).filter(Objects::nonNull).collect(Collectors.toList()));
+
+      return Collections.emptyList();
    }
 
    public String getSecret() {
@@ -98,4 +180,14 @@ public class PusherClient {
    public String getKey() {
       return key;
    }
+
+   private static final class SerializedData {
+      private final String json;
+      private final Object coalescingKey;
+
+      private SerializedData(final String json, final Object coalescingKey) {
+         this.json = json;
+         this.coalescingKey = coalescingKey;
+      }
+   }
 }
@@ -0,0 +1,281 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import org.marvec.pusher.data.Event;
+import org.marvec.pusher.data.Result;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers Pusher events off the calling thread. Events wait in a single FIFO queue for a short window, an event replacing
+ * a pending one with the same coalescing key takes its place in the queue, and the queue is drained in batches of at most
+ * {@link #MAX_BATCH_SIZE} events, so the order of events in every channel is kept. Failed batches which can be retried are
+ * scheduled again with an exponential backoff before any later batch. When the queue is full, the caller sends the oldest
+ * batches itself until there is room for its events, so no event is lost and the callers are slowed down instead.
+ */
+public class PusherDeliveryQueue {
+
+   private static final Logger log = Logger.getLogger(PusherDeliveryQueue.class.getName());
+
+   // limit of events in a single Pusher batch request
+   public static final int MAX_BATCH_SIZE = 10;
+
+   private final ScheduledExecutorService executor;
+   private final Function<List<Event>, Result> sender;
+   private final Function<Event, Object> coalescingKey;
+   private final int capacity;
+   private final long windowMillis;
+   private final int maxAttempts;
+   private final long backoffMillis;
+
+   private final Object lock = new Object();
+   private final LinkedHashMap<Object, Event> pending = new LinkedHashMap<>();
+   private boolean draining = false;
+   private long overflows = 0;
+
+   // batches are taken from the queue and sent under this lock only, so the batches sent by callers keep their order
+   private final Object sendLock = new Object();
+
+   // batch waiting for its next attempt, it is sent before any pending event
+   private List<Event> retryBatch = null;
+   private int retryAttempt = 0;
+
+   public PusherDeliveryQueue(final ScheduledExecutorService executor, final Function<List<Event>, Result> sender, final Function<Event, Object> coalescingKey,
+         final int capacity, final long windowMillis, final int maxAttempts, final long backoffMillis) {
+      this.executor = executor;
+      this.sender = sender;
+      this.coalescingKey = coalescingKey;
+      this.capacity = Math.max(1, capacity);
+      this.windowMillis = Math.max(0, windowMillis);
+      this.maxAttempts = Math.max(1, maxAttempts);
+      this.backoffMillis = Math.max(0, backoffMillis);
+   }
+
+   public void offer(final List<Event> events) {
+      for (final Event event : events) {
+         final Object key = coalescingKey != null ? coalescingKey.apply(event) : null;
+         while (!enqueue(key, event)) {
+            sendOldest();
+         }
+      }
+
+      boolean startDrain = false;
+      synchronized (lock) {
+         if (!draining && !pending.isEmpty()) {
+            draining = true;
+            startDrain = true;
+         }
+      }
+
+      if (startDrain) {
+         // lets events arriving shortly after each other be coalesced and sent together
+         schedule(windowMillis);
+      }
+   }
+
+   public int size() {
+      synchronized (lock) {
+         return pending.size();
+      }
+   }
+
+   public long getOverflowCount() {
+      synchronized (lock) {
+         return overflows;
+      }
+   }
+
+   private boolean enqueue(final Object key, final Event event) {
+      synchronized (lock) {
+         if (key != null && pending.replace(key, event) != null) {
+            return true;
+         }
+
+         if (pending.size() >= capacity) {
+            if (overflows++ % 1000 == 0) {
+               log.warning("Pusher delivery queue is full, events are sent by the callers, " + overflows + " times so far.");
+            }
+            return false;
+         }
+
+         pending.put(key != null ? key : new Object(), event);
+         return true;
+      }
+   }
+
+   private void sendOldest() {
+      synchronized (sendLock) {
+         if (retryBatch != null) {
+            final List<Event> batch = retryBatch;
+            retryBatch = null;
+            sendNow(batch, retryAttempt);
+         }
+
+         final List<Event> batch;
+         synchronized (lock) {
+            batch = takeBatch();
+         }
+         if (!batch.isEmpty()) {
+            sendNow(batch, 1);
+         }
+      }
+   }
+
+   private void schedule(final long delayMillis) {
+      try {
+         executor.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+         log.log(Level.WARNING, "Unable to schedule Pusher delivery, dropping " + size() + " events: ", e);
+         synchronized (lock) {
+            pending.clear();
+            draining = false;
+         }
+         synchronized (sendLock) {
+            retryBatch = null;
+         }
+      }
+   }
+
+   private void drain() {
+      try {
+         while (true) {
+            synchronized (sendLock) {
+               final List<Event> batch;
+               final int attempt;
+               if (retryBatch != null) {
+                  batch = retryBatch;
+                  attempt = retryAttempt;
+                  retryBatch = null;
+               } else {
+                  batch = nextBatch();
+                  attempt = 1;
+                  if (batch.isEmpty()) {
+                     return;
+                  }
+               }
+
+               if (!send(batch, attempt)) {
+                  return;
+               }
+            }
+         }
+      } catch (RuntimeException e) {
+         log.log(Level.WARNING, "Unable to deliver Pusher events: ", e);
+         synchronized (sendLock) {
+            retryBatch = null;
+         }
+         synchronized (lock) {
+            draining = false;
+         }
+      }
+   }
+
+   private List<Event> nextBatch() {
+      synchronized (lock) {
+         final List<Event> batch = takeBatch();
+         if (batch.isEmpty()) {
+            draining = false;
+         }
+
+         return batch;
+      }
+   }
+
+   private List<Event> takeBatch() {
+      final List<Event> batch = new ArrayList<>(MAX_BATCH_SIZE);
+      final Iterator<Event> iterator = pending.values().iterator();
+      while (iterator.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+         batch.add(iterator.next());
+         iterator.remove();
+      }
+
+      return batch;
+   }
+
+   /**
+    * Returns false when the batch is scheduled to be sent again, the draining then continues in the scheduled task.
+    */
+   private boolean send(final List<Event> batch, final int attempt) {
+      if (!shouldRetry(batch, deliver(batch), attempt)) {
+         return true;
+      }
+
+      retryBatch = batch;
+      retryAttempt = attempt + 1;
+      schedule(getBackoff(attempt));
+      return false;
+   }
+
+   /**
+    * Sends the batch in the calling thread, the retries wait for the backoff there.
+    */
+   private void sendNow(final List<Event> batch, final int firstAttempt) {
+      int attempt = firstAttempt;
+      while (shouldRetry(batch, deliver(batch), attempt)) {
+         try {
+            Thread.sleep(getBackoff(attempt));
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warning("Unable to deliver " + batch.size() + " Pusher events: interrupted");
+            return;
+         }
+         attempt++;
+      }
+   }
+
+   private Result deliver(final List<Event> batch) {
+      try {
+         return sender.apply(batch);
+      } catch (RuntimeException e) {
+         log.log(Level.FINE, "Pusher request failed: ", e);
+         return null;
+      }
+   }
+
+   /**
+    * Returns true when the batch was not delivered and can be sent again, a batch which cannot is logged.
+    */
+   private boolean shouldRetry(final List<Event> batch, final Result result, final int attempt) {
+      final Result.Status status = result != null ? result.getStatus() : Result.Status.UNKNOWN_ERROR;
+      if (status == Result.Status.SUCCESS) {
+         return false;
+      }
+
+      if (!status.shouldRetry() || attempt >= maxAttempts) {
+         log.warning("Unable to deliver " + batch.size() + " Pusher events: " + status + (result != null ? " " + result.getMessage() : ""));
+         return false;
+      }
+
+      return true;
+   }
+
+   private long getBackoff(final int attempt) {
+      return backoffMillis << (attempt - 1);
+   }
+}
@@ -0,0 +1,633 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.filter;
+
+import io.lumeer.api.model.ConditionType;
+import io.lumeer.api.model.ConditionValue;
+import io.lumeer.api.model.Constraint;
+import io.lumeer.api.model.ConstraintData;
+import io.lumeer.api.model.ConstraintType;
+import io.lumeer.api.model.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates attribute conditions with the same semantics as data values in lumeer-data-filters.
+ */
+final class ConditionEvaluator {
+
+   static final Set<ConstraintType> SUPPORTED_TYPES = EnumSet.of(ConstraintType.None, ConstraintType.Text, ConstraintType.Number, ConstraintType.Percentage,
+         ConstraintType.Select, ConstraintType.Boolean, ConstraintType.DateTime, ConstraintType.User);
+
+   private static final Set<Object> TRUE_VALUES = Set.of("true", "yes", "ja", "ano", "áno", "sí", "si", "sim", "да", "是", "はい", "vâng", "כן");
+   private static final String CURRENT_USER_TYPE = "currentUser";
+
+   private static final Pattern FORMAT_TAGS = Pattern.compile("<(/?(strong|em|i|sup|sub|u|strike|s|del|cite|code|b|span|p|br)s*/?)[^>]*>");
+   private static final Pattern ANY_TAG = Pattern.compile("(?s)<.*?>");
+   private static final Pattern CLASS_ATTRIBUTE = Pattern.compile("class=\".*?\"");
+   private static final Pattern WORD = Pattern.compile("\\w\\S*");
+   private static final Pattern JS_NUMBER = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+   private static final Pattern BIG_NUMBER = Pattern.compile("-?(\\d+(\\.\\d*)?|\\.\\d+)([eE][+-]?\\d+)?");
+   private static final Pattern ISO_DATE_PREFIX = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d{3}");
+   private static final DateTimeFormatter ISO_DATE = new DateTimeFormatterBuilder()
+         .appendPattern("uuuu-MM-dd'T'HH:mm:ss.SSS")
+         .optionalStart().appendOffset("+HH:MM", "Z").optionalEnd()
+         .optionalStart().appendOffset("+HHMM", "Z").optionalEnd()
+         .toFormatter()
+         .withResolverStyle(ResolverStyle.STRICT);
+
+   private ConditionEvaluator() {
+   }
+
+   static ConstraintType getType(final Constraint constraint) {
+      return constraint != null && constraint.getType() != null ? constraint.getType() : ConstraintType.None;
+   }
+
+   static boolean meetCondition(final Constraint constraint, final Object value, final ConditionType condition, final List<ConditionValue> conditionValues, final ConstraintData constraintData) {
+      final Map<String, Object> config = getConfig(constraint);
+      final List<ConditionValue> values = conditionValues != null ? conditionValues : Collections.emptyList();
+
+      switch (getType(constraint)) {
+         case None:
+            return meetTextCondition(condition, formatUnknown(value), values.stream().map(v -> formatUnknown(v.getValue())).collect(Collectors.toList()));
+         case Text:
+            return meetTextCondition(config, value, condition, values);
+         case Number:
+            return meetNumberCondition(config, value, condition, values);
+         case Percentage:
+            return meetPercentageCondition(config, value, condition, values);
+         case Select:
+            return meetSelectCondition(config, value, condition, values);
+         case User:
+            return meetUserCondition(value, condition, values, constraintData);
+         case Boolean:
+            return meetBooleanCondition(value, condition, values);
+         case DateTime:
+            return meetDateTimeCondition(config, value, condition, values, constraintData);
+         default:
+            throw new UnsupportedFilterException("Unsupported constraint " + getType(constraint));
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   static Map<String, Object> getConfig(final Constraint constraint) {
+      final Object config = constraint != null ? constraint.getConfig() : null;
+      if (config == null) {
+         return Collections.emptyMap();
+      }
+      if (config instanceof Map) {
+         return (Map<String, Object>) config;
+      }
+      throw new UnsupportedFilterException("Unsupported constraint config");
+   }
+
+   private static List<?> toList(final Object value) {
+      return value instanceof List ? (List<?>) value : Collections.singletonList(value);
+   }
+
+   private static boolean isPresentValue(final Object value) {
+      return value != null && !JsValues.trim(JsValues.toString(value)).isEmpty();
+   }
+
+   // Text
+
+   private static String formatUnknown(final Object value) {
+      return JsValues.trim(JsValues.format(value).toLowerCase(Locale.ROOT));
+   }
+
+   private static boolean meetTextCondition(final Map<String, Object> config, final Object value, final ConditionType condition, final List<ConditionValue> values) {
+      final Object caseStyle = config.get("caseStyle");
+      return meetTextCondition(condition, formatText(value, caseStyle), values.stream().map(v -> formatText(v.getValue(), caseStyle)).collect(Collectors.toList()));
+   }
+
+   private static String formatText(final Object value, final Object caseStyle) {
+      final String formatted = value instanceof String ? applyCaseStyle((String) value, caseStyle) : JsValues.format(value);
+      return JsValues.trim(stripHtml(formatted).toLowerCase(Locale.ROOT));
+   }
+
+   private static String applyCaseStyle(final String value, final Object caseStyle) {
+      if (value.isEmpty() || caseStyle == null) {
+         return value;
+      }
+      switch (caseStyle.toString()) {
+         case "LowerCase":
+            return value.toLowerCase(Locale.ROOT);
+         case "UpperCase":
+            return value.toUpperCase(Locale.ROOT);
+         case "TitleCase":
+            return WORD.matcher(value).replaceAll(match -> match.group().substring(0, 1).toUpperCase(Locale.ROOT) + match.group().substring(1));
+         case "SentenceCase":
+            throw new UnsupportedFilterException("Unsupported case style");
+         default:
+            return value;
+      }
+   }
+
+   private static String stripHtml(final String value) {
+      final String withoutFormatting = JsValues.trim(FORMAT_TAGS.matcher(value).replaceAll(""));
+      final String withoutTags = JsValues.trim(ANY_TAG.matcher(withoutFormatting).replaceAll(" "));
+      return CLASS_ATTRIBUTE.matcher(withoutTags).replaceAll("");
+   }
+
+   private static boolean meetTextCondition(final ConditionType condition, final String value, final List<String> values) {
+      final String first = values.isEmpty() ? null : values.get(0);
+      // String.prototype.includes(undefined) searches for "undefined"
+      final String searched = first != null ? first : "undefined";
+      switch (condition) {
+         case EQUALS:
+            return value.equals(first);
+         case NOT_EQUALS:
+            return !value.equals(first);
+         case CONTAINS:
+            return value.contains(searched);
+         case NOT_CONTAINS:
+            return !value.contains(searched);
+         case STARTS_WITH:
+            return value.startsWith(searched);
+         case ENDS_WITH:
+            return value.endsWith(searched);
+         case IS_EMPTY:
+            return value.isEmpty();
+         case NOT_EMPTY:
+            return !value.isEmpty();
+         default:
+            return false;
+      }
+   }
+
+   // Number and Percentage
+
+   private static class NumericValue {
+      private final BigDecimal number;
+      private final Object parsedValue;
+
+      private NumericValue(final BigDecimal number, final Object parsedValue) {
+         this.number = number;
+         this.parsedValue = parsedValue;
+      }
+   }
+
+   /**
+    * Returns the rounded number the value is compared as or null when the value is empty.
+    */
+   static BigDecimal getNumber(final Object value, final Map<String, Object> config) {
+      return createNumberValue(value, config).number;
+   }
+
+   private static NumericValue createNumberValue(final Object value, final Map<String, Object> config) {
+      if (value instanceof Number) {
+         final double number = JsValues.toNumber((Number) value);
+         return new NumericValue(round(JsValues.toBigDecimal(number), config), number);
+      }
+      if (value != null && !(value instanceof String)) {
+         throw new UnsupportedFilterException("Unsupported number value");
+      }
+
+      final String stringValue = (String) value;
+      if (stringValue == null || JsValues.trim(stringValue).isEmpty()) {
+         final boolean keepRaw = JsValues.isTruthy(config.get("separated")) || JsValues.isTruthy(config.get("currency"));
+         if (keepRaw && stringValue != null && !stringValue.isEmpty()) {
+            throw new UnsupportedFilterException("Unsupported blank number value");
+         }
+         return new NumericValue(null, keepRaw ? stringValue : "");
+      }
+
+      final String normalized = JsValues.removeWhitespaces(stringValue).replaceFirst(",", ".");
+      if (!JS_NUMBER.matcher(normalized).matches()) {
+         throw new UnsupportedFilterException("Unsupported number value");
+      }
+      final double number = Double.parseDouble(normalized);
+      if (Double.isInfinite(number)) {
+         throw new UnsupportedFilterException("Unsupported number value");
+      }
+      return new NumericValue(round(JsValues.toBigDecimal(number), config), number);
+   }
+
+   private static NumericValue createPercentageValue(final Object value, final Map<String, Object> config) {
+      if (value != null && !(value instanceof String) && !(value instanceof Number)) {
+         throw new UnsupportedFilterException("Unsupported percentage value");
+      }
+      if (JsValues.trim(JsValues.toString(value)).endsWith("%")) {
+         throw new UnsupportedFilterException("Unsupported percentage value");
+      }
+
+      BigDecimal number = null;
+      if (value instanceof Number) {
+         number = JsValues.toBigDecimal(JsValues.toNumber((Number) value));
+      } else if (value != null && BIG_NUMBER.matcher((String) value).matches()) {
+         number = new BigDecimal((String) value);
+      }
+
+      return new NumericValue(number != null ? round(number.movePointRight(2), config) : null, value);
+   }
+
+   private static BigDecimal round(final BigDecimal number, final Map<String, Object> config) {
+      final Object decimals = config.get("decimals");
+      if (decimals == null) {
+         return number;
+      }
+      if (!(decimals instanceof Number) || ((Number) decimals).doubleValue() != Math.rint(((Number) decimals).doubleValue())) {
+         throw new UnsupportedFilterException("Unsupported decimals");
+      }
+      final int scale = ((Number) decimals).intValue();
+      return scale >= 0 ? number.setScale(scale, RoundingMode.HALF_UP) : number;
+   }
+
+   private static boolean meetNumberCondition(final Map<String, Object> config, final Object value, final ConditionType condition, final List<ConditionValue> values) {
+      return meetNumericCondition(condition, createNumberValue(value, config), values.stream().map(v -> createNumberValue(v.getValue(), config)).collect(Collectors.toList()));
+   }
+
+   private static boolean meetPercentageCondition(final Map<String, Object> config, final Object value, final ConditionType condition, final List<ConditionValue> values) {
+      return meetNumericCondition(condition, createPercentageValue(value, config), values.stream().map(v -> createPercentageValue(v.getValue(), config)).collect(Collectors.toList()));
+   }
+
+   private static boolean meetNumericCondition(final ConditionType condition, final NumericValue value, final List<NumericValue> values) {
+      final BigDecimal number = value.number;
+      final BigDecimal first = values.size() > 0 ? values.get(0).number : null;
+      final BigDecimal second = values.size() > 1 ? values.get(1).number : null;
+
+      if (number != null || first != null) {
+         if ((number == null || first == null) && condition == ConditionType.NOT_EQUALS) {
+            return true;
+         }
+      } else if (condition == ConditionType.EQUALS || condition == ConditionType.NOT_EQUALS) {
+         final Object firstParsed = values.size() > 0 ? values.get(0).parsedValue : null;
+         final boolean equals = (!JsValues.isTruthy(value.parsedValue) && !JsValues.isTruthy(firstParsed)) || JsValues.strictEquals(value.parsedValue, firstParsed);
+         return condition == ConditionType.EQUALS ? equals : !equals;
+      }
+
+      switch (condition) {
+         case EQUALS:
+            return number != null && first != null && number.compareTo(first) == 0;
+         case NOT_EQUALS:
+            return number != null && first != null && number.compareTo(first) != 0;
+         case GREATER_THAN:
+            return number != null && first != null && number.compareTo(first) > 0;
+         case GREATER_THAN_EQUALS:
+            return number != null && first != null && number.compareTo(first) >= 0;
+         case LOWER_THAN:
+            return number != null && first != null && number.compareTo(first) < 0;
+         case LOWER_THAN_EQUALS:
+            return number != null && first != null && number.compareTo(first) <= 0;
+         case BETWEEN:
+            return number != null && first != null && second != null && number.compareTo(first) >= 0 && number.compareTo(second) <= 0;
+         case NOT_BETWEEN:
+            return number != null && first != null && second != null && (number.compareTo(first) < 0 || number.compareTo(second) > 0);
+         case IS_EMPTY:
+            return value.parsedValue == null || JsValues.trim(JsValues.toString(value.parsedValue)).isEmpty();
+         case NOT_EMPTY:
+            return value.parsedValue != null && !JsValues.trim(JsValues.toString(value.parsedValue)).isEmpty();
+         default:
+            return false;
+      }
+   }
+
+   // Select and User
+
+   static List<Object> createSelectOptions(final Object value, final Map<String, Object> config) {
+      final Object configOptions = config.get("options");
+      final List<?> options = configOptions instanceof List ? (List<?>) configOptions : Collections.emptyList();
+
+      final List<Object> result = new ArrayList<>();
+      for (Object item : toList(value)) {
+         if (!isPresentValue(item)) {
+            continue;
+         }
+         final String itemString = JsValues.toString(item);
+         final Object option = options.stream()
+                                      .filter(o -> o instanceof Map && ((Map<?, ?>) o).get("value") != null)
+                                      .<Object>map(o -> ((Map<?, ?>) o).get("value"))
+                                      .filter(optionValue -> JsValues.toString(optionValue).equals(itemString))
+                                      .findFirst()
+                                      .orElse(item);
+         result.add(option);
+      }
+      return result;
+   }
+
+   private static boolean meetSelectCondition(final Map<String, Object> config, final Object value, final ConditionType condition, final List<ConditionValue> values) {
+      final List<Object> options = createSelectOptions(value, config);
+      final List<Object> conditionOptions = values.isEmpty() ? Collections.emptyList() : createSelectOptions(values.get(0).getValue(), config);
+      return meetOptionsCondition(condition, value, options, conditionOptions);
+   }
+
+   private static List<Object> createUserEmails(final Object value) {
+      return toList(value).stream().filter(ConditionEvaluator::isPresentValue).map(JsValues::toString).collect(Collectors.toList());
+   }
+
+   private static boolean meetUserCondition(final Object value, final ConditionType condition, final List<ConditionValue> values, final ConstraintData constraintData) {
+      final List<Object> emails = createUserEmails(value);
+
+      List<Object> conditionEmails = Collections.emptyList();
+      if (!values.isEmpty()) {
+         final ConditionValue first = values.get(0);
+         if (CURRENT_USER_TYPE.equals(first.getType())) {
+            final User currentUser = constraintData != null ? constraintData.getCurrentUser() : null;
+            conditionEmails = createUserEmails(currentUser != null ? currentUser.getEmail() : null);
+         } else {
+            conditionEmails = createUserEmails(first.getValue());
+         }
+      }
+
+      return meetOptionsCondition(condition, value, emails, conditionEmails);
+   }
+
+   private static boolean containsValue(final List<Object> values, final Object value) {
+      return values.stream().anyMatch(v -> JsValues.strictEquals(v, value));
+   }
+
+   private static boolean meetOptionsCondition(final ConditionType condition, final Object value, final List<Object> options, final List<Object> conditionOptions) {
+      switch (condition) {
+         case HAS_SOME:
+         case EQUALS:
+            return options.stream().anyMatch(option -> containsValue(conditionOptions, option));
+         case HAS_NONE_OF:
+         case NOT_EQUALS:
+            return options.stream().noneMatch(option -> containsValue(conditionOptions, option));
+         case IN:
+            return !options.isEmpty() && options.stream().allMatch(option -> containsValue(conditionOptions, option));
+         case HAS_ALL:
+            return conditionOptions.stream().filter(option -> containsValue(options, option)).count() == conditionOptions.size();
+         case IS_EMPTY:
+            return options.isEmpty() && JsValues.trim(JsValues.format(value)).isEmpty();
+         case NOT_EMPTY:
+            return !options.isEmpty() || !JsValues.trim(JsValues.format(value)).isEmpty();
+         default:
+            return false;
+      }
+   }
+
+   // Boolean
+
+   static boolean isBooleanTrue(final Object value) {
+      final Object booleanValue = value instanceof List ? ((List<?>) value).stream().allMatch(JsValues::isTruthy) : value;
+      if (booleanValue instanceof String) {
+         return TRUE_VALUES.contains(((String) booleanValue).toLowerCase(Locale.ROOT));
+      }
+      return Boolean.TRUE.equals(booleanValue);
+   }
+
+   private static boolean meetBooleanCondition(final Object value, final ConditionType condition, final List<ConditionValue> values) {
+      final boolean booleanValue = isBooleanTrue(value);
+      final boolean conditionValue = !values.isEmpty() && isBooleanTrue(values.get(0).getValue());
+      switch (condition) {
+         case EQUALS:
+            return booleanValue == conditionValue;
+         case NOT_EQUALS:
+            return booleanValue != conditionValue;
+         default:
+            return false;
+      }
+   }
+
+   // DateTime
+
+   private static class DateFormatUnits {
+      private final boolean year;
+      private final boolean quarter;
+      private final boolean month;
+      private final boolean week;
+      private final boolean day;
+      private final boolean dayOfWeek;
+      private final boolean hours;
+      private final boolean minutes;
+      private final boolean seconds;
+      private final boolean milliseconds;
+
+      private DateFormatUnits(final String format) {
+         final String lowerCase = format.toLowerCase(Locale.ROOT);
+         year = lowerCase.contains("y");
+         quarter = lowerCase.contains("q");
+         month = format.contains("M");
+         week = lowerCase.contains("w");
+         day = lowerCase.contains("d");
+         dayOfWeek = lowerCase.contains("ddd");
+         hours = lowerCase.contains("h") || format.contains("k");
+         minutes = format.contains("m");
+         seconds = format.contains("s");
+         milliseconds = format.contains("S");
+      }
+
+      private boolean hasTime() {
+         return hours || minutes || seconds || milliseconds;
+      }
+
+      // truncation to leading units only never moves a later date before an earlier one
+      private boolean isLeadingUnits() {
+         final boolean[] units = {month, day, hours, minutes, seconds, milliseconds};
+         for (int i = 1; i < units.length; i++) {
+            if (units[i] && !units[i - 1]) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      private ZonedDateTime truncate(final ZonedDateTime dateTime) {
+         ZonedDateTime result = dateTime;
+         if (!month) {
+            result = result.withMonth(1);
+         }
+         if (!day) {
+            result = result.withDayOfMonth(1);
+         }
+         if (!hours) {
+            result = result.withHour(0);
+         }
+         if (!minutes) {
+            result = result.withMinute(0);
+         }
+         if (!seconds) {
+            result = result.withSecond(0);
+         }
+         if (!milliseconds) {
+            result = result.withNano(0);
+         }
+         return result;
+      }
+   }
+
+   private static Instant createMoment(final Object value, final ZoneId zone, final DateFormatUnits units) {
+      if (!JsValues.isTruthy(value)) {
+         return null;
+      }
+      if (!(value instanceof String) || !ISO_DATE_PREFIX.matcher((String) value).find()) {
+         throw new UnsupportedFilterException("Unsupported date value");
+      }
+
+      final ZonedDateTime dateTime;
+      try {
+         final TemporalAccessor parsed = ISO_DATE.parseBest((String) value, OffsetDateTime::from, LocalDateTime::from);
+         dateTime = parsed instanceof OffsetDateTime ? ((OffsetDateTime) parsed).atZoneSameInstant(zone) : ((LocalDateTime) parsed).atZone(zone);
+      } catch (DateTimeException e) {
+         throw new UnsupportedFilterException("Unsupported date value");
+      }
+
+      return (units != null ? units.truncate(dateTime) : dateTime).toInstant();
+   }
+
+   private static boolean meetDateTimeCondition(final Map<String, Object> config, final Object value, final ConditionType condition, final List<ConditionValue> values, final ConstraintData constraintData) {
+      final Object format = config.get("format");
+      if (format != null && !(format instanceof String)) {
+         throw new UnsupportedFilterException("Unsupported date format");
+      }
+      final DateFormatUnits units = format != null && !((String) format).isEmpty() ? new DateFormatUnits((String) format) : null;
+      if (units != null && (!units.year || units.quarter || units.week || units.dayOfWeek)) {
+         throw new UnsupportedFilterException("Unsupported date format");
+      }
+
+      final boolean utc = JsValues.isTruthy(config.get("asUtc")) || units == null || !units.hasTime();
+      final ZoneId zone = utc ? ZoneOffset.UTC : getTimezone(constraintData);
+
+      final Instant moment = createMoment(value, zone, units);
+      final List<Instant> moments = new ArrayList<>();
+      for (ConditionValue conditionValue : values) {
+         if (conditionValue.getType() != null) {
+            throw new UnsupportedFilterException("Unsupported date condition value");
+         }
+         moments.add(createMoment(conditionValue.getValue(), zone, units));
+      }
+      moments.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+      final Instant first = moments.size() > 0 ? moments.get(0) : null;
+
+      if (moment != null || first != null) {
+         if ((moment == null || first == null) && condition == ConditionType.NOT_EQUALS) {
+            return true;
+         }
+      } else if (condition == ConditionType.EQUALS) {
+         final Object firstValue = values.size() > 0 ? values.get(0).getValue() : null;
+         return (!JsValues.isTruthy(value) && !JsValues.isTruthy(firstValue)) || JsValues.strictEquals(value, firstValue);
+      }
+
+      final int requiredValues = getRequiredConditionValues(condition);
+      for (int i = 0; i < requiredValues; i++) {
+         if (moment == null || i >= moments.size() || moments.get(i) == null) {
+            return false;
+         }
+      }
+
+      switch (condition) {
+         case EQUALS:
+            return moment.equals(first);
+         case NOT_EQUALS:
+            return !moment.equals(first);
+         case GREATER_THAN:
+            return moment.isAfter(first);
+         case GREATER_THAN_EQUALS:
+            return !moment.isBefore(first);
+         case LOWER_THAN:
+            return moment.isBefore(first);
+         case LOWER_THAN_EQUALS:
+            return !moment.isAfter(first);
+         case BETWEEN:
+            return !moment.isBefore(first) && !moment.isAfter(moments.get(1));
+         case NOT_BETWEEN:
+            return moment.isBefore(first) || moment.isAfter(moments.get(1));
+         case IS_EMPTY:
+            return value == null || JsValues.trim(JsValues.toString(value)).isEmpty();
+         case NOT_EMPTY:
+            return value != null && !JsValues.trim(JsValues.toString(value)).isEmpty();
+         default:
+            return false;
+      }
+   }
+
+   /**
+    * Returns the earliest condition date before its truncation to the date format units, so the compared dates can be filtered
+    * against it without any formatting. Returns null when the condition dates can not be compared this way or when exact
+    * is requested and the date format truncates the dates.
+    */
+   static Instant getDateConditionInstant(final Constraint constraint, final List<ConditionValue> values, final ConstraintData constraintData, final boolean exact) {
+      try {
+         final Object format = getConfig(constraint).get("format");
+         if (format != null && !(format instanceof String)) {
+            return null;
+         }
+         final DateFormatUnits units = format != null && !((String) format).isEmpty() ? new DateFormatUnits((String) format) : null;
+         if (units != null && (exact || !units.year || units.quarter || units.week || units.dayOfWeek || !units.isLeadingUnits())) {
+            return null;
+         }
+
+         final boolean utc = JsValues.isTruthy(getConfig(constraint).get("asUtc")) || units == null || !units.hasTime();
+         final ZoneId zone = utc ? ZoneOffset.UTC : getTimezone(constraintData);
+
+         Instant first = null;
+         for (ConditionValue conditionValue : values) {
+            final Instant moment = conditionValue.getType() == null ? createMoment(conditionValue.getValue(), zone, null) : null;
+            if (moment == null) {
+               return null;
+            }
+            first = first == null || moment.isBefore(first) ? moment : first;
+         }
+         return first;
+      } catch (UnsupportedFilterException e) {
+         return null;
+      }
+   }
+
+   private static ZoneId getTimezone(final ConstraintData constraintData) {
+      final String timezone = constraintData != null ? constraintData.getTimezone() : null;
+      if (timezone == null || timezone.isEmpty()) {
+         // filters evaluated in JavaScript depend on the engine default timezone in such case
+         throw new UnsupportedFilterException("Missing timezone");
+      }
+      try {
+         return ZoneId.of(timezone);
+      } catch (DateTimeException e) {
+         throw new UnsupportedFilterException("Unsupported timezone");
+      }
+   }
+
+   private static int getRequiredConditionValues(final ConditionType condition) {
+      switch (condition) {
+         case IS_EMPTY:
+         case NOT_EMPTY:
+         case ENABLED:
+         case DISABLED:
+            return 0;
+         case BETWEEN:
+         case NOT_BETWEEN:
+            return 2;
+         default:
+            return 1;
+      }
+   }
+}
@@ -0,0 +1,167 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.filter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Java counterparts of the JavaScript value coercions used by lumeer-data-filters.
+ * Values which would be coerced differently in Java (exponent formatted numbers, objects...) are reported as unsupported.
+ */
+final class JsValues {
+
+   private static final double MAX_SAFE_INTEGER = 9007199254740991d;
+
+   private JsValues() {
+   }
+
+   static boolean isWhitespace(final char c) {
+      return (c >= 0x09 && c <= 0x0D) || c == 0x20 || c == 0xA0 || c == 0x1680 || (c >= 0x2000 && c <= 0x200A)
+            || c == 0x2028 || c == 0x2029 || c == 0x202F || c == 0x205F || c == 0x3000 || c == 0xFEFF;
+   }
+
+   static String trim(final String value) {
+      int start = 0;
+      int end = value.length();
+      while (start < end && isWhitespace(value.charAt(start))) {
+         start++;
+      }
+      while (end > start && isWhitespace(value.charAt(end - 1))) {
+         end--;
+      }
+      return value.substring(start, end);
+   }
+
+   static String removeWhitespaces(final String value) {
+      final StringBuilder builder = new StringBuilder(value.length());
+      for (int i = 0; i < value.length(); i++) {
+         if (!isWhitespace(value.charAt(i))) {
+            builder.append(value.charAt(i));
+         }
+      }
+      return builder.toString();
+   }
+
+   /**
+    * JavaScript truthiness of a value.
+    */
+   static boolean isTruthy(final Object value) {
+      if (value == null) {
+         return false;
+      }
+      if (value instanceof Boolean) {
+         return (Boolean) value;
+      }
+      if (value instanceof Number) {
+         final double number = toNumber((Number) value);
+         return number != 0;
+      }
+      if (value instanceof String) {
+         return !((String) value).isEmpty();
+      }
+      return true;
+   }
+
+   static boolean isZero(final Object value) {
+      return value instanceof Number && toNumber((Number) value) == 0;
+   }
+
+   /**
+    * Converts a number the same way as it is seen by JavaScript after JSON serialization.
+    */
+   static double toNumber(final Number value) {
+      final double number;
+      if (value instanceof Float) {
+         number = Double.parseDouble(value.toString());
+      } else if (value instanceof Long && Math.abs(value.longValue()) > MAX_SAFE_INTEGER) {
+         throw new UnsupportedFilterException("Number out of safe integer range");
+      } else {
+         number = value.doubleValue();
+      }
+      if (Double.isNaN(number) || Double.isInfinite(number)) {
+         throw new UnsupportedFilterException("Non finite number");
+      }
+      return number;
+   }
+
+   static BigDecimal toBigDecimal(final double number) {
+      return new BigDecimal(Double.toString(number));
+   }
+
+   /**
+    * Equivalent of JavaScript String(value).
+    */
+   static String toString(final Object value) {
+      if (value == null) {
+         return "null";
+      }
+      if (value instanceof String) {
+         return (String) value;
+      }
+      if (value instanceof Boolean) {
+         return value.toString();
+      }
+      if (value instanceof Number) {
+         return numberToString(toNumber((Number) value));
+      }
+      if (value instanceof List) {
+         return ((List<?>) value).stream().map(element -> element == null ? "" : toString(element)).collect(Collectors.joining(","));
+      }
+      throw new UnsupportedFilterException("Unsupported value type " + value.getClass().getSimpleName());
+   }
+
+   /**
+    * Equivalent of the `value || value === 0 ? String(value) : ""` formatting used by data values.
+    */
+   static String format(final Object value) {
+      return isTruthy(value) || isZero(value) ? toString(value) : "";
+   }
+
+   static String numberToString(final double number) {
+      if (number == 0) {
+         return "0";
+      }
+      final double abs = Math.abs(number);
+      if (abs >= 1e21 || abs < 1e-6) {
+         throw new UnsupportedFilterException("Number formatted in exponent notation");
+      }
+      if (number == Math.rint(number) && abs <= MAX_SAFE_INTEGER) {
+         return Long.toString((long) number);
+      }
+      return toBigDecimal(number).stripTrailingZeros().toPlainString();
+   }
+
+   /**
+    * Equivalent of JavaScript strict equality (===) for primitive values.
+    */
+   static boolean strictEquals(final Object first, final Object second) {
+      if (first == null || second == null) {
+         return first == second;
+      }
+      if (first instanceof Number && second instanceof Number) {
+         return toNumber((Number) first) == toNumber((Number) second);
+      }
+      if (first instanceof String || first instanceof Boolean) {
+         return first.equals(second);
+      }
+      return first == second;
+   }
+}
@@ -0,0 +1,212 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.filter;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.CollectionAttributeFilter;
+import io.lumeer.api.model.ConstraintData;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.LinkInstance;
+import io.lumeer.api.model.Query;
+import io.lumeer.api.model.QueryStem;
+import io.lumeer.core.util.Tuple;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates queries directly on decoded documents without the round-trip to the JavaScript filter.
+ * Only single collection stems without fulltexts are supported together with the most common constraint types,
+ * {@code null} is returned for anything else so the caller can fall back to the JavaScript implementation.
+ */
+public class NativeDataFilter {
+
+   private static final Logger log = Logger.getLogger(NativeDataFilter.class.getName());
+
+   private NativeDataFilter() {
+   }
+
+   public static boolean isSupported(final Query query, final List<Collection> collections) {
+      if (query == null) {
+         return true;
+      }
+      if (!query.getFulltexts().isEmpty()) {
+         return false;
+      }
+
+      final Map<String, Collection> collectionsMap = collections.stream().collect(Collectors.toMap(Collection::getId, c -> c, (c1, c2) -> c1));
+      return query.getStems().stream().allMatch(stem -> isStemSupported(stem, collectionsMap.get(stem.getCollectionId())));
+   }
+
+   private static boolean isStemSupported(final QueryStem stem, final Collection collection) {
+      if (!stem.getLinkTypeIds().isEmpty() || !stem.getLinkFilters().isEmpty()) {
+         return false;
+      }
+      if (collection == null) {
+         return true;
+      }
+
+      final Map<String, Attribute> attributes = getAttributesMap(collection);
+      return stem.getFilters().stream()
+                 .filter(filter -> collection.getId().equals(filter.getCollectionId()))
+                 .allMatch(filter -> {
+                    if (filter.getCondition() == null) {
+                       return false;
+                    }
+                    final Attribute attribute = attributes.get(filter.getAttributeId());
+                    return attribute == null || ConditionEvaluator.SUPPORTED_TYPES.contains(ConditionEvaluator.getType(attribute.getConstraint()));
+                 });
+   }
+
+   /**
+    * Filters documents by the query with the same result as the JavaScript data filter.
+    *
+    * @return filtered documents and link instances or null when the query can not be evaluated natively
+    */
+   public static Tuple<List<Document>, List<LinkInstance>> filterDocumentsAndLinks(final List<Document> documents, final List<Collection> collections, final List<LinkInstance> linkInstances,
+         final Query query, final ConstraintData constraintData, final boolean includeChildren) {
+      if (!isSupported(query, collections)) {
+         return null;
+      }
+
+      if (query == null || (query.getStems().isEmpty() && query.getFulltexts().isEmpty())) {
+         return new Tuple<>(paginate(documents, query), linkInstances);
+      }
+
+      try {
+         final Map<String, List<Document>> documentsByCollection = new HashMap<>();
+         documents.forEach(document -> documentsByCollection.computeIfAbsent(document.getCollectionId(), id -> new ArrayList<>()).add(document));
+         final Map<String, Collection> collectionsMap = collections.stream().collect(Collectors.toMap(Collection::getId, c -> c, (c1, c2) -> c1));
+
+         final List<Document> result = new ArrayList<>();
+         final Set<String> resultIds = new HashSet<>();
+         for (QueryStem stem : query.getStems()) {
+            final Collection collection = collectionsMap.get(stem.getCollectionId());
+            if (collection == null) {
+               continue;
+            }
+
+            for (Document document : filterStemDocuments(stem, collection, documentsByCollection.getOrDefault(collection.getId(), Collections.emptyList()), constraintData, includeChildren)) {
+               if (resultIds.add(document.getId())) {
+                  result.add(document);
+               }
+            }
+         }
+
+         return new Tuple<>(paginate(result, query), Collections.emptyList());
+      } catch (UnsupportedFilterException e) {
+         log.log(Level.FINE, "Falling back to JavaScript filter: " + e.getMessage());
+         return null;
+      }
+   }
+
+   private static List<Document> filterStemDocuments(final QueryStem stem, final Collection collection, final List<Document> documents, final ConstraintData constraintData, final boolean includeChildren) {
+      final List<CollectionAttributeFilter> filters = stem.getFilters().stream()
+                                                          .filter(filter -> collection.getId().equals(filter.getCollectionId()))
+                                                          .collect(Collectors.toList());
+      final Map<String, Attribute> attributes = getAttributesMap(collection);
+      final Set<String> documentIds = stem.getDocumentIds();
+      final Map<String, List<Document>> childrenMap = includeChildren ? getChildrenMap(documents) : Collections.emptyMap();
+
+      final List<Document> result = new ArrayList<>();
+      final Set<String> resultIds = new HashSet<>();
+      for (Document document : documents) {
+         if (!meetFilters(document, filters, attributes, constraintData)) {
+            continue;
+         }
+
+         final boolean documentSelected = documentIds.contains(document.getId());
+         final List<Document> candidates = includeChildren ? getDocumentWithChildren(document, childrenMap) : Collections.singletonList(document);
+         for (Document candidate : candidates) {
+            if (!resultIds.contains(candidate.getId()) && (documentIds.isEmpty() || documentSelected || documentIds.contains(candidate.getId()))) {
+               resultIds.add(candidate.getId());
+               result.add(candidate);
+            }
+         }
+      }
+      return result;
+   }
+
+   private static boolean meetFilters(final Document document, final List<CollectionAttributeFilter> filters, final Map<String, Attribute> attributes, final ConstraintData constraintData) {
+      for (CollectionAttributeFilter filter : filters) {
+         final Attribute attribute = attributes.get(filter.getAttributeId());
+         if (attribute == null) {
+            return false;
+         }
+
+         final Object value = document.getData() != null ? document.getData().get(attribute.getId()) : null;
+         if (!ConditionEvaluator.meetCondition(attribute.getConstraint(), value, filter.getCondition(), filter.getConditionValues(), constraintData)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static Map<String, List<Document>> getChildrenMap(final List<Document> documents) {
+      final Map<String, List<Document>> childrenMap = new HashMap<>();
+      documents.forEach(document -> {
+         final Object parentId = document.getMetaData() != null ? document.getMetaData().get(Document.META_PARENT_ID) : null;
+         if (parentId instanceof String && !((String) parentId).isEmpty()) {
+            childrenMap.computeIfAbsent((String) parentId, id -> new ArrayList<>()).add(document);
+         }
+      });
+      return childrenMap;
+   }
+
+   private static List<Document> getDocumentWithChildren(final Document document, final Map<String, List<Document>> childrenMap) {
+      final List<Document> result = new ArrayList<>();
+      final Set<String> visited = new HashSet<>();
+      final Deque<Document> queue = new ArrayDeque<>(Collections.singletonList(document));
+      while (!queue.isEmpty()) {
+         final Document current = queue.poll();
+         if (visited.add(current.getId())) {
+            result.add(current);
+            queue.addAll(childrenMap.getOrDefault(current.getId(), Collections.emptyList()));
+         }
+      }
+      return result;
+   }
+
+   private static Map<String, Attribute> getAttributesMap(final Collection collection) {
+      return collection.getAttributes().stream()
+                       .filter(attribute -> Objects.nonNull(attribute.getId()))
+                       .collect(Collectors.toMap(Attribute::getId, a -> a, (a1, a2) -> a1));
+   }
+
+   private static <T> List<T> paginate(final List<T> values, final Query query) {
+      if (query == null || query.getPage() == null || query.getPageSize() == null || (query.getPage() == 0 && query.getPageSize() == 0)) {
+         return values;
+      }
+      final int from = Math.min(values.size(), Math.max(0, query.getPage() * query.getPageSize()));
+      final int to = Math.min(values.size(), Math.max(from, (query.getPage() + 1) * query.getPageSize()));
+      return new ArrayList<>(values.subList(from, to));
+   }
+}
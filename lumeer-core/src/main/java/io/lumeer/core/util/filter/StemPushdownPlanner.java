@@ -0,0 +1,223 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.filter;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.CollectionAttributeFilter;
+import io.lumeer.api.model.ConditionType;
+import io.lumeer.api.model.ConditionValue;
+import io.lumeer.api.model.Constraint;
+import io.lumeer.api.model.ConstraintData;
+import io.lumeer.api.model.QueryStem;
+import io.lumeer.storage.api.filter.CollectionSearchAttributeFilter;
+import io.lumeer.storage.api.query.SearchQueryStem;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Splits the filters of the stem's first collection into the part evaluated by the database on the encoded data and the rest.
+ * Every pushed filter accepts all the documents the original condition accepts, values stored in another type than the condition
+ * value are always kept, so the whole stem still has to be evaluated on the returned documents. Only conditions which reject
+ * documents without the attribute value are pushed, so documents without any data can be skipped.
+ */
+public class StemPushdownPlanner {
+
+   private static final Pattern JS_NUMBER = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+   private StemPushdownPlanner() {
+   }
+
+   /**
+    * @param collections collections of the stem in the order of its link types
+    * @return query with the pushed filters of the first collection or null when none of the filters can be pushed
+    */
+   public static SearchQueryStem createPushdownQuery(final QueryStem stem, final List<Collection> collections, final ConstraintData constraintData, final boolean includeChildren) {
+      if (includeChildren || collections.isEmpty()) {
+         return null;
+      }
+
+      // documents of the first collection reached by links are not fetched as the first page
+      final Collection collection = collections.get(0);
+      if (collections.stream().skip(1).anyMatch(c -> collection.getId().equals(c.getId()))) {
+         return null;
+      }
+
+      final Set<CollectionSearchAttributeFilter> filters = getPushdownFilters(stem, collection, constraintData);
+      if (filters.isEmpty()) {
+         return null;
+      }
+      return SearchQueryStem.createBuilder(collection.getId()).filters(filters).build();
+   }
+
+   static Set<CollectionSearchAttributeFilter> getPushdownFilters(final QueryStem stem, final Collection collection, final ConstraintData constraintData) {
+      final Map<String, Attribute> attributes = collection.getAttributes().stream()
+                                                          .filter(attribute -> Objects.nonNull(attribute.getId()))
+                                                          .collect(Collectors.toMap(Attribute::getId, a -> a, (a1, a2) -> a1));
+
+      final Set<CollectionSearchAttributeFilter> result = new LinkedHashSet<>();
+      for (CollectionAttributeFilter filter : stem.getFilters()) {
+         final Attribute attribute = attributes.get(filter.getAttributeId());
+         if (!collection.getId().equals(filter.getCollectionId()) || attribute == null || filter.getCondition() == null) {
+            continue;
+         }
+
+         final List<ConditionValue> values = filter.getConditionValues() != null ? filter.getConditionValues() : Collections.emptyList();
+         try {
+            result.addAll(getPushdownFilters(collection.getId(), attribute, filter.getCondition(), values, constraintData));
+         } catch (UnsupportedFilterException | NumberFormatException | ArithmeticException e) {
+            // the filter is evaluated only on the fetched documents
+         }
+      }
+      return result;
+   }
+
+   private static List<CollectionSearchAttributeFilter> getPushdownFilters(final String collectionId, final Attribute attribute, final ConditionType condition, final List<ConditionValue> values, final ConstraintData constraintData) {
+      final Constraint constraint = attribute.getConstraint();
+      final Map<String, Object> config = ConditionEvaluator.getConfig(constraint);
+      if (values.isEmpty() || values.stream().anyMatch(value -> value.getType() != null)) {
+         return Collections.emptyList();
+      }
+
+      final List<Object[]> conditions;
+      switch (ConditionEvaluator.getType(constraint)) {
+         case Number:
+            conditions = getNumberConditions(config, condition, values.get(0).getValue());
+            break;
+         case Boolean:
+            conditions = getBooleanConditions(condition, values.get(0).getValue());
+            break;
+         case Select:
+            conditions = getSelectConditions(config, condition, values.get(0).getValue());
+            break;
+         case DateTime:
+            conditions = getDateTimeConditions(constraint, condition, values, constraintData);
+            break;
+         default:
+            conditions = Collections.emptyList();
+      }
+
+      return conditions.stream()
+                       .map(c -> new CollectionSearchAttributeFilter(collectionId, (ConditionType) c[0], attribute.getId(), c[1], true))
+                       .collect(Collectors.toList());
+   }
+
+   private static List<Object[]> getNumberConditions(final Map<String, Object> config, final ConditionType condition, final Object value) {
+      final Double number = toComparedNumber(value);
+      if (number == null) {
+         return Collections.emptyList();
+      }
+
+      // rounding of the compared numbers never changes their order, so the condition value bounds them
+      switch (condition) {
+         case GREATER_THAN:
+         case LOWER_THAN:
+            return Collections.singletonList(new Object[]{condition, number});
+         case EQUALS:
+            return getNumberEqualsConditions(config, ConditionEvaluator.getNumber(value, config));
+         default:
+            return Collections.emptyList();
+      }
+   }
+
+   // equal numbers lie strictly between the nearest numbers rounded to a different value
+   private static List<Object[]> getNumberEqualsConditions(final Map<String, Object> config, final BigDecimal number) {
+      if (number == null) {
+         return Collections.emptyList();
+      }
+
+      final Object decimals = config.get("decimals");
+      final double lower;
+      final double upper;
+      if (decimals instanceof Number && ((Number) decimals).intValue() >= 0) {
+         final BigDecimal step = BigDecimal.ONE.movePointLeft(((Number) decimals).intValue());
+         lower = number.subtract(step).doubleValue();
+         upper = number.add(step).doubleValue();
+      } else {
+         lower = Math.nextDown(number.doubleValue());
+         upper = Math.nextUp(number.doubleValue());
+      }
+
+      // large numbers may not be representable with the required precision
+      if (!Double.isFinite(lower) || !Double.isFinite(upper)
+            || ConditionEvaluator.getNumber(lower, config).compareTo(number) >= 0 || ConditionEvaluator.getNumber(upper, config).compareTo(number) <= 0) {
+         return Collections.emptyList();
+      }
+      return List.of(new Object[]{ConditionType.GREATER_THAN, lower}, new Object[]{ConditionType.LOWER_THAN, upper});
+   }
+
+   // condition values are compared as doubles, so the double bounds the compared numbers exactly as the original value
+   private static Double toComparedNumber(final Object value) {
+      final double number;
+      if (value instanceof Number) {
+         number = JsValues.toNumber((Number) value);
+      } else if (value instanceof String && JS_NUMBER.matcher(JsValues.removeWhitespaces((String) value).replaceFirst(",", ".")).matches()) {
+         number = Double.parseDouble(JsValues.removeWhitespaces((String) value).replaceFirst(",", "."));
+      } else {
+         return null;
+      }
+      return Double.isFinite(number) ? number : null;
+   }
+
+   private static List<Object[]> getBooleanConditions(final ConditionType condition, final Object value) {
+      final boolean conditionValue = ConditionEvaluator.isBooleanTrue(value);
+      if ((condition == ConditionType.EQUALS && conditionValue) || (condition == ConditionType.NOT_EQUALS && !conditionValue)) {
+         return Collections.singletonList(new Object[]{ConditionType.EQUALS, true});
+      }
+      return Collections.emptyList();
+   }
+
+   // numeric options are kept as another type, their string form does not determine the stored number exactly
+   private static List<Object[]> getSelectConditions(final Map<String, Object> config, final ConditionType condition, final Object value) {
+      if (condition != ConditionType.EQUALS && condition != ConditionType.HAS_SOME) {
+         return Collections.emptyList();
+      }
+
+      final Set<String> options = new HashSet<>();
+      ConditionEvaluator.createSelectOptions(value, config).forEach(option -> options.add(JsValues.toString(option)));
+      if (options.isEmpty()) {
+         return Collections.emptyList();
+      }
+      return Collections.singletonList(new Object[]{ConditionType.HAS_SOME, new ArrayList<>(options)});
+   }
+
+   private static List<Object[]> getDateTimeConditions(final Constraint constraint, final ConditionType condition, final List<ConditionValue> values, final ConstraintData constraintData) {
+      if (condition != ConditionType.GREATER_THAN && condition != ConditionType.LOWER_THAN && condition != ConditionType.EQUALS) {
+         return Collections.emptyList();
+      }
+
+      final Instant instant = ConditionEvaluator.getDateConditionInstant(constraint, values, constraintData, condition == ConditionType.EQUALS);
+      if (instant == null) {
+         return Collections.emptyList();
+      }
+      return Collections.singletonList(new Object[]{condition, Date.from(instant)});
+   }
+}
@@ -33,6 +33,8 @@ private const val FREE_MAX_RECORDS: Int = 3 // number of last records available
 private const val BUSINESS_MAX_WEEKS: Long = 2 // number of last weeks of records available
 private const val UPDATE_MERGE_WINDOW_MINUTES: Long = 5 // number of minutes to merge record changes by the same originator (user or automation)
 
+data class AuditUpdate(val resourceId: String, val oldState: DataDocument, val oldStateDecoded: DataDocument, val newState: DataDocument, val newStateDecoded: DataDocument)
+
 class AuditAdapter(private val auditDao: AuditDao) {
 
    fun getAuditRecords(parentId: String, resourceType: ResourceType, resourceId: String, serviceLevel: Payment.ServiceLevel) =
@@ -46,41 +48,79 @@ class AuditAdapter(private val auditDao: AuditDao) {
             val lastAuditRecord = auditDao.findLatestAuditRecord(parentId, resourceType, resourceId)
 
             if (lastAuditRecord != null && changesOverlap(lastAuditRecord, user?.id, automation, changes)) {
-               changes.keys.forEach {
-                  if (!lastAuditRecord.oldState.containsKey(it) && !lastAuditRecord.newState.containsKey(it))
-                     lastAuditRecord.oldState[it] = oldState[it]
-               }
-               lastAuditRecord.newState.putAll(changes)
-               changes.keys.forEach {
-                  if (lastAuditRecord.oldState[it] == lastAuditRecord.newState[it]) {
-                     lastAuditRecord.oldState.remove(it)
-                     lastAuditRecord.newState.remove(it)
-                  }
-               }
-               lastAuditRecord.changeDate = ZonedDateTime.now()
-
-               if (lastAuditRecord.newState.isEmpty()) {
+               if (mergeChanges(lastAuditRecord, oldState, changes)) {
+                  auditDao.updateAuditRecord(lastAuditRecord)
+               } else {
                   auditDao.deleteAuditRecord(lastAuditRecord.id)
                   lastAuditRecord
-               } else
-                  auditDao.updateAuditRecord(lastAuditRecord)
-            } else {
-               // we will keep only those values that changed
-               val partialOldState = DataDocument(oldState.filterKeys { it != DataDocument.ID })
-               val oldStateKeys = HashSet(partialOldState.keys)
-               oldStateKeys.forEach {
-                  if (!changes.containsKey(it)) partialOldState.remove(it)
                }
-
+            } else {
                // we need to clean the history only when adding new entries
                // we keep business level history in case the user upgraded
                auditDao.cleanAuditRecords(parentId, resourceType, resourceId, ZonedDateTime.now().minusWeeks(BUSINESS_MAX_WEEKS))
 
-               val auditRecord = AuditRecord(parentId, resourceType, resourceId, ZonedDateTime.now(), user?.id, user?.name, user?.email, automation, partialOldState, changes)
-               auditDao.createAuditRecord(auditRecord)
+               auditDao.createAuditRecord(createAuditRecord(parentId, resourceType, resourceId, user, automation, oldState, changes))
             }
          }
 
+   /**
+    * Same as [registerUpdate] for many resources of a single parent, using a constant number of database round trips.
+    */
+   fun registerUpdates(parentId: String, resourceType: ResourceType, user: User?, automation: String?, updates: List<AuditUpdate>) {
+      val changesByResource = updates.associate { it.resourceId to getChanges(it.oldStateDecoded, it.newStateDecoded) }.filterValues { it.isNotEmpty() }
+      if (changesByResource.isEmpty()) {
+         return
+      }
+
+      val lastAuditRecords = auditDao.findLatestAuditRecords(parentId, resourceType, changesByResource.keys)
+      val updatedRecords = mutableListOf<AuditRecord>()
+      val deletedRecords = mutableSetOf<String>()
+      val createdRecords = mutableListOf<AuditRecord>()
+
+      updates.filter { changesByResource.containsKey(it.resourceId) }.distinctBy { it.resourceId }.forEach { update ->
+         val changes = changesByResource.getValue(update.resourceId)
+         val lastAuditRecord = lastAuditRecords[update.resourceId]
+
+         if (lastAuditRecord != null && changesOverlap(lastAuditRecord, user?.id, automation, changes)) {
+            if (mergeChanges(lastAuditRecord, update.oldState, changes)) updatedRecords.add(lastAuditRecord) else deletedRecords.add(lastAuditRecord.id)
+         } else {
+            createdRecords.add(createAuditRecord(parentId, resourceType, update.resourceId, user, automation, update.oldState, changes))
+         }
+      }
+
+      auditDao.updateAuditRecords(updatedRecords, deletedRecords)
+      auditDao.createAuditRecords(createdRecords, ZonedDateTime.now().minusWeeks(BUSINESS_MAX_WEEKS))
+   }
+
+   // returns false when the merged record does not contain any change anymore
+   private fun mergeChanges(lastAuditRecord: AuditRecord, oldState: DataDocument, changes: DataDocument): Boolean {
+      changes.keys.forEach {
+         if (!lastAuditRecord.oldState.containsKey(it) && !lastAuditRecord.newState.containsKey(it))
+            lastAuditRecord.oldState[it] = oldState[it]
+      }
+      lastAuditRecord.newState.putAll(changes)
+      changes.keys.forEach {
+         if (lastAuditRecord.oldState[it] == lastAuditRecord.newState[it]) {
+            lastAuditRecord.oldState.remove(it)
+            lastAuditRecord.newState.remove(it)
+         }
+      }
+      lastAuditRecord.changeDate = ZonedDateTime.now()
+
+      return lastAuditRecord.newState.isNotEmpty()
+   }
+
+   private fun createAuditRecord(parentId: String, resourceType: ResourceType, resourceId: String, user: User?, automation: String?, oldState: DataDocument, changes: DataDocument): AuditRecord {
+      // we will keep only those values that changed
+      val partialOldState = DataDocument(oldState.filterKeys { it != DataDocument.ID })
+      val oldStateKeys = HashSet(partialOldState.keys)
+      oldStateKeys.forEach {
+         if (!changes.containsKey(it)) partialOldState.remove(it)
+      }
+
+      return AuditRecord(parentId, resourceType, resourceId, ZonedDateTime.now(), user?.id, user?.name, user?.email, automation, partialOldState, changes)
+   }
+
    private fun changesOverlap(lastAuditRecord: AuditRecord, userId: String?, automation: String?, changes: DataDocument): Boolean = when {
       (StringUtils.isNotEmpty(lastAuditRecord.user) || StringUtils.isNotEmpty(userId)) && lastAuditRecord.user != userId -> false
       (StringUtils.isNotEmpty(lastAuditRecord.automation) || StringUtils.isNotEmpty(automation)) && lastAuditRecord.automation != automation -> false
@@ -40,6 +40,38 @@ class DocumentAdapter(private val resourceCommentDao: ResourceCommentDao, privat
         commentsCount = getCommentsCount(document.id)
     }
 
+    /**
+     * Maps the document data for all the users with one favorites and one comments query.
+     * Users with the same data share the same document instance.
+     */
+    fun mapDocumentDataForUsers(document: Document, userIds: Set<String>, projectId: String): Map<String, Document> =
+        mapDocumentsDataForUsers(listOf(document), userIds, projectId).mapValues { it.value[0] }
+
+    fun mapDocumentsDataForUsers(documents: List<Document>, userIds: Set<String>, projectId: String): Map<String, List<Document>> {
+        if (documents.isEmpty() || userIds.isEmpty()) {
+            return userIds.associateWith { listOf<Document>() }
+        }
+
+        val favoriteDocumentIds = favoriteItemDao.getFavoriteDocumentIds(userIds, projectId, documents.map { it.id }.toSet())
+        val commentCounts = obtainCommentCounts(documents)
+        val mappedDocuments = documents.map { document ->
+            val commentsCount = (commentCounts[document.id] ?: 0).toLong()
+            lazy { copyDocument(document, false, commentsCount) } to lazy { copyDocument(document, true, commentsCount) }
+        }
+
+        return userIds.associateWith { userId ->
+            val userFavoriteIds = favoriteDocumentIds[userId].orEmpty()
+            documents.mapIndexed { index, document ->
+                if (userFavoriteIds.contains(document.id)) mappedDocuments[index].second.value else mappedDocuments[index].first.value
+            }
+        }
+    }
+
+    private fun copyDocument(document: Document, favorite: Boolean, commentsCount: Long): Document = Document(document).apply {
+        isFavorite = favorite
+        this.commentsCount = commentsCount
+    }
+
     fun mapDocumentsData(documents: List<Document>, userId: String, projectId: String): List<Document> {
         val favoriteDocumentIds = getFavoriteDocumentIds(userId, projectId)
         val commentCounts = obtainCommentCounts(documents)
@@ -0,0 +1,78 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.adapter
+
+import io.lumeer.api.model.Permission
+import io.lumeer.api.model.Permissions
+import io.lumeer.api.model.ResourceType
+import io.lumeer.api.model.Role
+import io.lumeer.api.model.RoleType
+import java.util.*
+
+/**
+ * Roles of a user in a single resource resolved once from the organization, project and resource permissions and the user groups.
+ * The permissions the roles were resolved from are remembered, so a resource whose permissions were modified in place is resolved again.
+ */
+internal class EffectiveRoles(roles: Set<RoleType>, private val sources: List<PermissionsSnapshot>) {
+
+   val roles: Set<RoleType> = Collections.unmodifiableSet(if (roles.isEmpty()) EnumSet.noneOf(RoleType::class.java) else EnumSet.copyOf(roles))
+
+   fun hasRole(role: RoleType) = roles.contains(role)
+
+   fun hasAllRoles(required: Set<RoleType>) = roles.containsAll(required)
+
+   fun hasAnyRole(required: Set<RoleType>) = required.any { roles.contains(it) }
+
+   fun isResolvedFrom(permissions: List<Permissions?>): Boolean {
+      if (permissions.size != sources.size) {
+         return false
+      }
+      for (i in permissions.indices) {
+         if (!sources[i].matches(permissions[i])) {
+            return false
+         }
+      }
+      return true
+   }
+
+   internal data class Key(val userId: String?, val organizationId: String?, val projectId: String?, val resourceType: ResourceType, val resourceId: String?)
+
+   internal class PermissionsSnapshot(permissions: Permissions?) {
+
+      private val users: Map<String?, Set<Role>>? = permissions?.userPermissions?.associate { it.id to HashSet(it.roles.orEmpty()) }
+      private val groups: Map<String?, Set<Role>>? = permissions?.groupPermissions?.associate { it.id to HashSet(it.roles.orEmpty()) }
+
+      fun matches(permissions: Permissions?): Boolean {
+         if (permissions == null) {
+            return users == null && groups == null
+         }
+         return matches(users, permissions.userPermissions) && matches(groups, permissions.groupPermissions)
+      }
+
+      private fun matches(snapshot: Map<String?, Set<Role>>?, current: Set<Permission>?): Boolean {
+         if (snapshot == null || current == null) {
+            return snapshot == null && current == null
+         }
+         if (snapshot.size != current.size) {
+            return false
+         }
+         return current.all { snapshot[it.id] == it.roles.orEmpty() }
+      }
+   }
+}
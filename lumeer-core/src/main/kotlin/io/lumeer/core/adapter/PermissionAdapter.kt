@@ -23,6 +23,9 @@ import io.lumeer.api.model.*
 import io.lumeer.api.model.Collection
 import io.lumeer.api.model.common.Resource
 import io.lumeer.api.util.PermissionUtils
+import io.lumeer.core.cache.ProjectResourcesCache
+import io.lumeer.core.cache.UserCache
+import io.lumeer.core.cache.UsersSnapshotCache
 import io.lumeer.core.exception.NoDocumentPermissionException
 import io.lumeer.core.exception.NoLinkInstancePermissionException
 import io.lumeer.core.exception.NoPermissionException
@@ -30,22 +33,26 @@ import io.lumeer.core.exception.NoResourcePermissionException
 import io.lumeer.core.util.DocumentUtils
 import io.lumeer.core.util.FunctionRuleJsParser
 import io.lumeer.core.util.LinkInstanceUtils
-import io.lumeer.core.util.QueryUtils
 import io.lumeer.storage.api.dao.*
 
-class PermissionAdapter(private val userDao: UserDao,
+class PermissionAdapter @JvmOverloads constructor(private val userDao: UserDao,
                         private val groupDao: GroupDao,
                         private val viewDao: ViewDao,
                         private val linkTypeDao: LinkTypeDao,
-                        private val collectionDao: CollectionDao) {
+                        private val collectionDao: CollectionDao,
+                        private val resourcesCache: ProjectResourcesCache? = null,
+                        private val usersSnapshotCache: UsersSnapshotCache? = null,
+                        private val sharedUserCache: UserCache? = null) {
 
    private val usersCache = mutableMapOf<String, List<User>>()
    private val viewCache = mutableMapOf<String, View>()
    private val collectionCache = mutableMapOf<String, Collection>()
    private val userCache = mutableMapOf<String, User>()
    private val groupsCache = mutableMapOf<String, List<Group>>()
-   private val linkTypes = lazy { linkTypeDao.allLinkTypes }
-   private val collections = lazy { collectionDao.allCollections }
+   private val rolesCache = mutableMapOf<EffectiveRoles.Key, EffectiveRoles>()
+   private val linkTypes = lazy { resourcesCache?.getLinkTypes(linkTypeDao) ?: linkTypeDao.allLinkTypes }
+   private val linkTypesById = lazy { linkTypes.value.associateBy { it.id } }
+   private val collections = lazy { resourcesCache?.getCollections(collectionDao) ?: collectionDao.allCollections }
 
    private var currentViewId: String? = null
 
@@ -67,6 +74,7 @@ class PermissionAdapter(private val userDao: UserDao,
       usersCache.clear()
       userCache.clear()
       groupsCache.clear()
+      rolesCache.clear()
    }
 
    fun invalidateCollectionCache() {
@@ -130,7 +138,24 @@ class PermissionAdapter(private val userDao: UserDao,
    }
 
    fun <T : Resource> getUserRolesInResource(organization: Organization?, project: Project?, resource: T, user: User): Set<RoleType> {
-      return PermissionUtils.getUserRolesInResource(organization, project, resource, user, getGroups(organization?.id ?: resource.id))
+      return getEffectiveRoles(organization, project, resource, user).roles
+   }
+
+   private fun getEffectiveRoles(organization: Organization?, project: Project?, resource: Resource, user: User): EffectiveRoles {
+      val key = EffectiveRoles.Key(user.id, organization?.id, project?.id, resource.type, resource.id)
+      return getEffectiveRoles(key, listOf(organization?.permissions, project?.permissions, resource.permissions)) {
+         PermissionUtils.getUserRolesInResource(organization, project, resource, user, getGroups(organization?.id ?: resource.id))
+      }
+   }
+
+   private fun getEffectiveRoles(key: EffectiveRoles.Key, sources: List<Permissions?>, resolve: () -> Set<RoleType>): EffectiveRoles {
+      val cached = rolesCache[key]
+      if (cached != null && cached.isResolvedFrom(sources)) {
+         return cached
+      }
+      val effectiveRoles = EffectiveRoles(resolve(), sources.map { EffectiveRoles.PermissionsSnapshot(it) })
+      rolesCache[key] = effectiveRoles
+      return effectiveRoles
    }
 
    fun getUserRolesInCollectionWithView(organization: Organization?, project: Project?, collection: Collection, user: User): Set<RoleType> {
@@ -138,8 +163,7 @@ class PermissionAdapter(private val userDao: UserDao,
       if (view != null) {
          val viewRoles = getUserRolesInResource(organization, project, view, user)
          val authorId = view.authorId.orEmpty()
-         val collectionIds = QueryUtils.getQueryCollectionIds(view.query, linkTypes.value)
-         if (collectionIds.contains(collection.id) && authorId.isNotEmpty()) { // does the view contain the collection?
+         if (viewContainsCollection(view, collection.id) && authorId.isNotEmpty()) { // does the view contain the collection?
             val authorRoles = getUserRolesInResource(organization, project, collection, authorId)
             return viewRoles.intersect(authorRoles)
          }
@@ -174,7 +198,25 @@ class PermissionAdapter(private val userDao: UserDao,
    }
 
    fun getUserRolesInLinkType(organization: Organization, project: Project?, linkType: LinkType, collections: List<Collection>, user: User): Set<RoleType> {
-      return PermissionUtils.getUserRolesInLinkType(organization, project, linkType, collections, user, getGroups(organization.id))
+      if (linkType.permissionsType == LinkPermissionsType.Custom) {
+         val key = EffectiveRoles.Key(user.id, organization.id, project?.id, ResourceType.LINK_TYPE, linkType.id)
+         return getEffectiveRoles(key, listOf(organization.permissions, project?.permissions, linkType.permissions)) {
+            PermissionUtils.getUserRolesInLinkType(organization, project, linkType, collections, user, getGroups(organization.id))
+         }.roles
+      }
+
+      // same as PermissionUtils.getUserRolesInLinkType but with the collection roles resolved only once
+      val linkTypeCollectionIds = linkType.collectionIds.orEmpty()
+      val linkTypeCollections = collections.filter { linkTypeCollectionIds.contains(it.id) }
+      if (linkTypeCollections.size != 2) {
+         return emptySet()
+      }
+      val roles1 = getEffectiveRoles(organization, project, linkTypeCollections[0], user)
+      val roles2 = getEffectiveRoles(organization, project, linkTypeCollections[1], user)
+      if (!roles1.hasRole(RoleType.Read) || !roles2.hasRole(RoleType.Read)) {
+         return emptySet()
+      }
+      return roles1.roles.intersect(roles2.roles)
    }
 
    fun checkRole(organization: Organization?, project: Project?, resource: Resource, role: RoleType, userId: String) {
@@ -190,7 +232,7 @@ class PermissionAdapter(private val userDao: UserDao,
    }
 
    fun hasAllRoles(organization: Organization?, project: Project?, resource: Resource, roles: Set<RoleType>, userId: String): Boolean {
-      return roles.all { hasRole(organization, project, resource, it, userId) }
+      return getEffectiveRoles(organization, project, resource, getUser(userId)).hasAllRoles(roles)
    }
 
    fun checkAnyRole(organization: Organization?, project: Project?, resource: Resource, roles: Set<RoleType>, userId: String) {
@@ -200,7 +242,7 @@ class PermissionAdapter(private val userDao: UserDao,
    }
 
    fun hasAnyRole(organization: Organization?, project: Project?, resource: Resource, roles: Set<RoleType>, userId: String): Boolean {
-      return roles.any { hasRole(organization, project, resource, it, userId) }
+      return getEffectiveRoles(organization, project, resource, getUser(userId)).hasAnyRole(roles)
    }
 
    fun checkRoleInCollectionWithView(organization: Organization?, project: Project?, collection: Collection, role: RoleType, userId: String) {
@@ -228,8 +270,7 @@ class PermissionAdapter(private val userDao: UserDao,
    private fun hasRoleInCollectionViaView(organization: Organization?, project: Project?, collection: Collection, role: RoleType, viewRole: RoleType, userId: String, view: View?): Boolean {
       if (view != null && hasRole(organization, project, view, viewRole, userId)) { // does user have access to the view?
          val authorId = view.authorId.orEmpty()
-         val collectionIds = QueryUtils.getQueryCollectionIds(view.query, linkTypes.value)
-         if (collectionIds.contains(collection.id) && authorId.isNotEmpty()) { // does the view contain the collection?
+         if (viewContainsCollection(view, collection.id) && authorId.isNotEmpty()) { // does the view contain the collection?
             if (hasRole(organization, project, collection, role, authorId)) { // has the view author access to the collection?
                return true // grant access
             }
@@ -351,6 +392,13 @@ class PermissionAdapter(private val userDao: UserDao,
       return hasRole(organization, project, linkType, collections, role, userId) || hasRoleInLinkTypeViaView(organization, project, linkType, collections, role, role, userId, activeView())
    }
 
+   // same as QueryUtils.getQueryCollectionIds(view.query, linkTypes).contains(collectionId) without building the sets
+   private fun viewContainsCollection(view: View, collectionId: String): Boolean {
+      val stems = view.query?.stems.orEmpty()
+      return stems.any { it.collectionId == collectionId }
+            || stems.any { stem -> stem.linkTypeIds.orEmpty().any { linkTypesById.value[it]?.collectionIds.orEmpty().contains(collectionId) } }
+   }
+
    private fun getLinkTypeCollections(linkType: LinkType) =
          // on custom permissions collections are not needed
          if (linkType.permissionsType == LinkPermissionsType.Custom) listOf() else linkType.collectionIds.orEmpty().subList(0, 2).map { getCollection(it) }
@@ -383,7 +431,7 @@ class PermissionAdapter(private val userDao: UserDao,
    }
 
    fun hasRole(organization: Organization?, project: Project?, resource: Resource, role: RoleType, userId: String): Boolean {
-      return getUserRolesInResource(organization, project, resource, userId).contains(role)
+      return getEffectiveRoles(organization, project, resource, getUser(userId)).hasRole(role)
    }
 
    fun hasRole(organization: Organization, project: Project?, linkType: LinkType, collection: List<Collection>, role: RoleType, userId: String): Boolean {
@@ -417,13 +465,13 @@ class PermissionAdapter(private val userDao: UserDao,
       if (userCache.containsKey(userId)) {
          return userCache[userId]!!
       }
-      val user = userDao.getUserById(userId)
+      val user = if (sharedUserCache != null) sharedUserCache.getUserById(userId) else userDao.getUserById(userId)
       if (user != null) userCache[userId] = user
       return user ?: User(userId, userId, userId, setOf())
    }
 
    fun getUsers(organizationId: String): List<User> {
-      return usersCache.computeIfAbsent(organizationId) { userDao.getAllUsers(organizationId) }
+      return usersCache.computeIfAbsent(organizationId) { usersSnapshotCache?.getSnapshot(organizationId, userDao, groupDao)?.users ?: userDao.getAllUsers(organizationId) }
    }
 
    fun getView(viewId: String): View {
@@ -435,7 +483,7 @@ class PermissionAdapter(private val userDao: UserDao,
    }
 
    fun getGroups(organizationId: String): List<Group> {
-      return groupsCache.computeIfAbsent(organizationId) { groupDao.getAllGroups(organizationId) }
+      return groupsCache.computeIfAbsent(organizationId) { usersSnapshotCache?.getSnapshot(organizationId, userDao, groupDao)?.groups ?: groupDao.getAllGroups(organizationId) }
    }
 
 }
@@ -20,6 +20,7 @@ package io.lumeer.core.adapter
 
 import io.lumeer.api.model.*
 import io.lumeer.api.model.Collection
+import io.lumeer.core.cache.ProjectResourcesCache
 import io.lumeer.core.util.DocumentUtils
 import io.lumeer.core.util.QueryUtils
 import io.lumeer.storage.api.dao.CollectionDao
@@ -27,32 +28,39 @@ import io.lumeer.storage.api.dao.LinkTypeDao
 import io.lumeer.storage.api.dao.UserDao
 import io.lumeer.storage.api.dao.ViewDao
 
-class ResourceAdapter(private val permissionAdapter: PermissionAdapter,
+class ResourceAdapter @JvmOverloads constructor(private val permissionAdapter: PermissionAdapter,
                       private val collectionDao: CollectionDao,
                       private val linkTypeDao: LinkTypeDao,
                       private val viewDao: ViewDao,
-                      private val userDao: UserDao) {
+                      private val userDao: UserDao,
+                      private val resourcesCache: ProjectResourcesCache? = null) {
 
    fun getViews(organization: Organization, project: Project, userId: String): List<View> {
-      return viewDao.allViews.filter { permissionAdapter.hasRole(organization, project, it, RoleType.Read, userId) }
+      return allViews().filter { permissionAdapter.hasRole(organization, project, it, RoleType.Read, userId) }
    }
 
    fun getCollections(organization: Organization, project: Project, userId: String): List<Collection> {
-      return collectionDao.allCollections.filter { permissionAdapter.hasRole(organization, project, it, RoleType.Read, userId) }
+      return allCollections().filter { permissionAdapter.hasRole(organization, project, it, RoleType.Read, userId) }
    }
 
    fun getLinkTypes(organization: Organization, project: Project, userId: String): List<LinkType> {
-      return linkTypeDao.allLinkTypes.filter { permissionAdapter.hasRoleInLinkType(organization, project, it, RoleType.Read, userId) }
+      return allLinkTypes().filter { permissionAdapter.hasRoleInLinkType(organization, project, it, RoleType.Read, userId) }
    }
 
    fun getAllCollections(organization: Organization, project: Project, userId: String): List<Collection> {
-      return getAllCollections(organization, project, linkTypeDao.allLinkTypes, viewDao.allViews, collectionDao.allCollections, userId)
+      return getAllCollections(organization, project, allLinkTypes(), allViews(), allCollections(), userId)
    }
 
    fun getAllLinkTypes(organization: Organization, project: Project, userId: String): List<LinkType> {
-      return getAllLinkTypes(organization, project, linkTypeDao.allLinkTypes, viewDao.allViews, collectionDao.allCollections, userId)
+      return getAllLinkTypes(organization, project, allLinkTypes(), allViews(), allCollections(), userId)
    }
 
+   private fun allCollections(): List<Collection> = resourcesCache?.getCollections(collectionDao) ?: collectionDao.allCollections
+
+   private fun allLinkTypes(): List<LinkType> = resourcesCache?.getLinkTypes(linkTypeDao) ?: linkTypeDao.allLinkTypes
+
+   private fun allViews(): List<View> = resourcesCache?.getViews(viewDao) ?: viewDao.allViews
+
    fun getAllLinkTypes(organization: Organization, project: Project?, linkTypes: List<LinkType>, views: List<View>, collections: List<Collection>, userId: String): List<LinkType> {
       val viewsByUser = filterViewsByUser(organization, project, views, userId)
       val linkTypeIdsInViews = viewsByUser.flatMap { it.query?.linkTypeIds.orEmpty() }
@@ -145,8 +153,8 @@ class ResourceAdapter(private val permissionAdapter: PermissionAdapter,
    }
 
    fun getCollectionTransitiveReaders(organization: Organization, project: Project, collectionId: String): Set<String> {
-      val linkTypes = linkTypeDao.allLinkTypes
-      val views = viewDao.allViews.filter { QueryUtils.getQueryCollectionIds(it.query, linkTypes).contains(collectionId) }
+      val linkTypes = allLinkTypes()
+      val views = allViews().filter { QueryUtils.getQueryCollectionIds(it.query, linkTypes).contains(collectionId) }
       val linkTypesByCustomPermissions = linkTypes.filter { it.permissionsType == LinkPermissionsType.Custom && it.collectionIds.orEmpty().contains(collectionId) }
 
       val viewsReaders = views.flatMap { permissionAdapter.getResourceUsersByRole(organization, project, it, RoleType.Read) }.toSet()
@@ -156,7 +164,7 @@ class ResourceAdapter(private val permissionAdapter: PermissionAdapter,
    }
 
    fun getLinkTypeTransitiveReaders(organization: Organization, project: Project, linkTypeId: String): Set<String> {
-      val views = viewDao.allViews.filter { it.query?.linkTypeIds.orEmpty().contains(linkTypeId) }
+      val views = allViews().filter { it.query?.linkTypeIds.orEmpty().contains(linkTypeId) }
 
       return views.flatMap { permissionAdapter.getResourceUsersByRole(organization, project, it, RoleType.Read) }.toSet()
    }
@@ -25,7 +25,6 @@ import io.lumeer.core.constraint.ConstraintManager
 import io.lumeer.engine.api.data.DataDocument
 import io.lumeer.storage.api.dao.DataDao
 import io.lumeer.storage.api.dao.DocumentDao
-import io.lumeer.storage.api.dao.LinkDataDao
 import io.lumeer.storage.api.dao.LinkInstanceDao
 import io.lumeer.storage.api.filter.CollectionSearchAttributeFilter
 import io.lumeer.storage.api.query.SearchQueryStem
@@ -36,8 +35,7 @@ class SearchAdapter(private val permissionAdapter: PermissionAdapter,
                     private val constraintManager: ConstraintManager,
                     private val documentDao: DocumentDao,
                     private val dataDao: DataDao,
-                    private val linkInstanceDao: LinkInstanceDao,
-                    private val linkDataDao: LinkDataDao) {
+                    private val linkInstanceDao: LinkInstanceDao) {
 
    fun getDocuments(organization: Organization?, project: Project?, collection: Collection, documentIds: Set<String>, userId: String): List<Document> {
       val documents = mutableListOf<Document>()
@@ -48,72 +46,102 @@ class SearchAdapter(private val permissionAdapter: PermissionAdapter,
          documents.addAll(getContributionDocuments(collection, documentIds, userId))
       }
       if (collection.purposeType == CollectionPurposeType.Tasks) {
-         documents.addAll(getAssigneeDocuments(collection, null, null, documentIds, userId))
+         documents.addAll(getAssigneeDocuments(collection, null, documentIds, userId))
       }
       return documents
    }
 
    private fun getAllDocuments(collection: Collection, documentIds: Set<String>): List<Document> {
-      val documents = documentDao.getDocumentsByCollection(collection.id, documentIds)
-      return mapDocumentsData(collection, documents)
+      val documents = documentIds.chunked(MAX_IDS_QUERY).flatMap { documentDao.getDocumentsWithData(collection.id, it.toSet()) }
+      return decodeDocumentsData(collection, documents)
    }
 
    private fun getContributionDocuments(collection: Collection, documentIds: Set<String>, userId: String): List<Document> {
-      val documents = documentDao.getDocumentsByCreator(collection.id, userId, documentIds)
-      return mapDocumentsData(collection, documents)
+      val documents = documentIds.chunked(MAX_IDS_QUERY).flatMap { documentDao.getDocumentsByCreatorWithData(collection.id, userId, it.toSet()) }
+      return decodeDocumentsData(collection, documents)
    }
 
    fun getDocuments(organization: Organization?, project: Project?, collection: Collection, userId: String): List<Document> {
-      return getDocuments(organization, project, collection, null, null, userId)
+      return getDocuments(organization, project, collection, Pagination(null, null), userId)
    }
 
-   fun getDocuments(organization: Organization?, project: Project?, collection: Collection, page: Int?, limit: Int?, userId: String): List<Document> {
+   /**
+    * Returns at most limit documents ordered by id following the lastId, id of the last returned document is the continuation for the next page.
+    */
+   fun getDocuments(organization: Organization?, project: Project?, collection: Collection, lastId: String?, limit: Int, userId: String): List<Document> {
+      val documents = getDocuments(organization, project, collection, Pagination.seek(lastId, limit), userId)
+      return mergeSeekPage(documents, limit) { it.id }
+   }
+
+   /**
+    * Same as the seek variant without the data query, documents whose data do not match the query are skipped by the database when all documents are readable.
+    * The returned page is empty only when there are no more documents.
+    */
+   fun getDocuments(organization: Organization?, project: Project?, collection: Collection, lastId: String?, limit: Int, userId: String, dataQuery: SearchQueryStem?): List<Document> {
+      if (dataQuery == null || !canReadAllDocuments(organization, project, collection, userId)) {
+         return getDocuments(organization, project, collection, lastId, limit, userId)
+      }
+
+      var seekId = lastId
+      while (true) {
+         val data = dataDao.searchData(dataQuery, Pagination.seek(seekId, limit), collection)
+         if (data.isEmpty()) {
+            return listOf()
+         }
+
+         val documentsMap = data.map { it.id }.chunked(MAX_IDS_QUERY).flatMap { documentDao.getDocumentsByCollection(collection.id, it.toSet()) }.associateBy { it.id }
+         val documents = data.mapNotNull { documentsMap[it.id]?.apply { setData(constraintManager.decodeDataTypes(collection, it)) } }
+         if (documents.isNotEmpty() || data.size < limit) {
+            return documents
+         }
+         seekId = data.last().id
+      }
+   }
+
+   private fun getDocuments(organization: Organization?, project: Project?, collection: Collection, pagination: Pagination, userId: String): List<Document> {
       val documents = mutableListOf<Document>()
       if (canReadAllDocuments(organization, project, collection, userId)) {
-         return getAllDocuments(collection, page, limit)
+         return getAllDocuments(collection, pagination)
       }
       if (canReadContributionDocuments(organization, project, collection, userId)) {
-         documents.addAll(getContributionDocuments(collection, page, limit, userId))
+         documents.addAll(getContributionDocuments(collection, pagination, userId))
       }
       if (collection.purposeType == CollectionPurposeType.Tasks) {
-         documents.addAll(getAssigneeDocuments(collection, page, limit, null, userId))
+         documents.addAll(getAssigneeDocuments(collection, pagination, null, userId))
       }
       return documents
    }
 
-   private fun getAllDocuments(collection: Collection, page: Int?, limit: Int?): List<Document> {
-      val documents = documentDao.getDocumentsByCollection(collection.id, Pagination(page, limit))
-      return mapDocumentsData(collection, documents)
+   private fun getAllDocuments(collection: Collection, pagination: Pagination): List<Document> {
+      val documents = documentDao.getDocumentsWithData(collection.id, pagination)
+      return decodeDocumentsData(collection, documents)
    }
 
-   private fun getContributionDocuments(collection: Collection, page: Int?, limit: Int?, userId: String): List<Document> {
-      val documents = documentDao.getDocumentsByCreator(collection.id, userId, Pagination(page, limit))
-      return mapDocumentsData(collection, documents)
+   private fun getContributionDocuments(collection: Collection, pagination: Pagination, userId: String): List<Document> {
+      val documents = documentDao.getDocumentsByCreatorWithData(collection.id, userId, pagination)
+      return decodeDocumentsData(collection, documents)
    }
 
-   private fun mapDocumentsData(collection: Collection, documents: List<Document>): List<Document> {
-      if (documents.isNotEmpty()) {
-         val data = if (documents.size < MAX_IDS_QUERY) { // large queries throw error in DB
-            dataDao.getData(collection.id, documents.map { it.id }.toSet())
-         } else {
-            dataDao.getData(collection.id)
-         }
-         val dataMap = data.associateBy { it.id }
-         return documents.onEach { it.data = constraintManager.decodeDataTypes(collection, dataMap.getOrDefault(it.id, DataDocument())) }
-      }
-      return documents
+   // every source returns its own keyset page, so only the first limit entities of the merged sources are safe to return
+   private fun <T> mergeSeekPage(entities: List<T>, limit: Int, idSelector: (T) -> String): List<T> {
+      return entities.distinctBy(idSelector).sortedBy(idSelector).take(limit)
+   }
+
+   private fun decodeDocumentsData(collection: Collection, documents: List<Document>): List<Document> {
+      return documents.onEach { it.data = constraintManager.decodeDataTypes(collection, it.data ?: DataDocument()) }
    }
 
-   private fun getAssigneeDocuments(collection: Collection, page: Int?, limit: Int?, documentIds: Set<String>?, userId: String): List<Document> {
+   private fun getAssigneeDocuments(collection: Collection, pagination: Pagination?, documentIds: Set<String>?, userId: String): List<Document> {
       val assigneeAttribute = ResourceUtils.findAttribute(collection.attributes, collection.purpose?.assigneeAttributeId)
       if (assigneeAttribute != null) {
          val user = permissionAdapter.getUser(userId)
          val searchQuery = SearchQueryStem.createBuilder(collection.id)
                .filters(setOf(CollectionSearchAttributeFilter(collection.id, ConditionType.HAS_SOME, assigneeAttribute.id, user.email)))
                .build()
-         val data = if (documentIds != null) dataDao.searchDataByIds(searchQuery, documentIds, collection) else dataDao.searchData(searchQuery, Pagination(page, limit), collection)
+         val data = if (documentIds != null) dataDao.searchDataByIds(searchQuery, documentIds, collection) else dataDao.searchData(searchQuery, pagination, collection)
          if (data.isNotEmpty()) {
-            val documentsMap = documentDao.getDocumentsByCollection(collection.id).associateBy { it.id }
+            // large queries throw error in DB
+            val documentsMap = data.map { it.id }.chunked(MAX_IDS_QUERY).flatMap { documentDao.getDocumentsByCollection(collection.id, it.toSet()) }.associateBy { it.id }
             return data.mapNotNull { documentsMap[it.id]?.apply { setData(constraintManager.decodeDataTypes(collection, it)) } }
          }
       }
@@ -140,51 +168,61 @@ class SearchAdapter(private val permissionAdapter: PermissionAdapter,
    }
 
    private fun getAllLinkInstances(linkType: LinkType, documentIds: Set<String>): List<LinkInstance> {
-      val linkInstances = linkInstanceDao.getLinkInstancesByDocumentIds(documentIds, linkType.id)
-      return mapLinkData(linkType, linkInstances)
+      val linkInstances = documentIds.chunked(MAX_IDS_QUERY).flatMap { linkInstanceDao.getLinkInstancesWithData(linkType.id, it.toSet()) }.distinctBy { it.id }
+      return decodeLinkData(linkType, linkInstances)
    }
 
    private fun getContributionLinkInstances(linkType: LinkType, documentIds: Set<String>, userId: String): List<LinkInstance> {
-      val documents = linkInstanceDao.getLinkInstancesByCreator(linkType.id, userId, documentIds)
-      return mapLinkData(linkType, documents)
+      val linkInstances = documentIds.chunked(MAX_IDS_QUERY).flatMap { linkInstanceDao.getLinkInstancesByCreatorWithData(linkType.id, userId, it.toSet()) }.distinctBy { it.id }
+      return decodeLinkData(linkType, linkInstances)
    }
 
    fun getLinkInstances(organization: Organization, project: Project?, linkType: LinkType, userId: String): List<LinkInstance> {
-      return getLinkInstances(organization, project, linkType, null, null, userId)
+      return getLinkInstances(organization, project, linkType, Pagination(null, null), userId)
    }
 
-   fun getLinkInstances(organization: Organization, project: Project?, linkType: LinkType, page: Int?, limit: Int?, userId: String): List<LinkInstance> {
+   /**
+    * Returns at most limit link instances ordered by id following the lastId, id of the last returned link instance is the continuation for the next page.
+    */
+   fun getLinkInstances(organization: Organization, project: Project?, linkType: LinkType, lastId: String?, limit: Int, userId: String): List<LinkInstance> {
+      return getLinkInstances(organization, project, linkType, Pagination.seek(lastId, limit), userId)
+   }
+
+   /**
+    * Returns the link instances of the link type with the given ids which the user can read.
+    */
+   fun getLinkInstancesByIds(organization: Organization, project: Project?, linkType: LinkType, linkInstanceIds: Set<String>, userId: String): List<LinkInstance> {
+      val canReadAll = canReadAllLinkInstances(organization, project, linkType, userId)
+      if (!canReadAll && !canReadContributionLinkInstances(organization, project, linkType, userId)) {
+         return listOf()
+      }
+      val linkInstances = linkInstanceIds.chunked(MAX_IDS_QUERY).flatMap { linkInstanceDao.getLinkInstancesWithDataByIds(linkType.id, it.toSet()) }
+      return decodeLinkData(linkType, if (canReadAll) linkInstances else linkInstances.filter { it.createdBy == userId })
+   }
+
+   private fun getLinkInstances(organization: Organization, project: Project?, linkType: LinkType, pagination: Pagination, userId: String): List<LinkInstance> {
       val linkInstances = mutableListOf<LinkInstance>()
       if (canReadAllLinkInstances(organization, project, linkType, userId)) {
-         return getAllLinkInstances(linkType, page, limit)
+         return getAllLinkInstances(linkType, pagination)
       }
       if (canReadContributionLinkInstances(organization, project, linkType, userId)) {
-         linkInstances.addAll(getContributionLinkInstances(linkType, page, limit, userId))
+         linkInstances.addAll(getContributionLinkInstances(linkType, pagination, userId))
       }
       return linkInstances
    }
 
-   private fun getAllLinkInstances(linkType: LinkType, page: Int?, limit: Int?): List<LinkInstance> {
-      val linkInstances = linkInstanceDao.getLinkInstancesByLinkType(linkType.id, Pagination(page, limit))
-      return mapLinkData(linkType, linkInstances)
+   private fun getAllLinkInstances(linkType: LinkType, pagination: Pagination): List<LinkInstance> {
+      val linkInstances = linkInstanceDao.getLinkInstancesWithData(linkType.id, pagination)
+      return decodeLinkData(linkType, linkInstances)
    }
 
-   private fun getContributionLinkInstances(linkType: LinkType, page: Int?, limit: Int?, userId: String): List<LinkInstance> {
-      val documents = linkInstanceDao.getLinkInstancesByCreator(linkType.id, userId, Pagination(page, limit))
-      return mapLinkData(linkType, documents)
+   private fun getContributionLinkInstances(linkType: LinkType, pagination: Pagination, userId: String): List<LinkInstance> {
+      val linkInstances = linkInstanceDao.getLinkInstancesByCreatorWithData(linkType.id, userId, pagination)
+      return decodeLinkData(linkType, linkInstances)
    }
 
-   private fun mapLinkData(linkType: LinkType, linkInstances: List<LinkInstance>): List<LinkInstance> {
-      if (linkInstances.isNotEmpty()) {
-         val data = if (linkInstances.size < MAX_IDS_QUERY) { // large queries throw error in DB
-            linkDataDao.getData(linkType.id, linkInstances.map { it.id }.toSet())
-         } else {
-            linkDataDao.getData(linkType.id)
-         }
-         val dataMap = data.associateBy { it.id }
-         return linkInstances.onEach { it.data = constraintManager.decodeDataTypes(linkType, dataMap.getOrDefault(it.id, DataDocument())) }
-      }
-      return linkInstances
+   private fun decodeLinkData(linkType: LinkType, linkInstances: List<LinkInstance>): List<LinkInstance> {
+      return linkInstances.onEach { it.data = constraintManager.decodeDataTypes(linkType, it.data ?: DataDocument()) }
    }
 
    private fun canReadAllLinkInstances(organization: Organization, project: Project?, linkType: LinkType, userId: String): Boolean {
@@ -0,0 +1,140 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.js
+
+import org.graalvm.polyglot.Context
+import org.graalvm.polyglot.Value
+import java.util.concurrent.LinkedBlockingDeque
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * Bounded pool of initialized GraalJS contexts. Every context has its script already evaluated
+ * and the entry function resolved, so borrowers only pay for the function call itself.
+ * A context is used by a single thread at a time, it is closed and replaced when the execution fails.
+ */
+class JsContextPool(private val name: String,
+                    private val maxSize: Int = Runtime.getRuntime().availableProcessors(),
+                    private val initializer: (Context) -> Value) {
+
+    class PooledContext(val context: Context, val function: Value) {
+        /**
+         * Set when the context was closed from outside (e.g. by a watchdog), it is not returned to the pool then.
+         */
+        @Volatile
+        var discarded: Boolean = false
+    }
+
+    data class Stats(val hits: Long, val misses: Long, val waits: Long, val size: Int, val idle: Int)
+
+    private val idle = LinkedBlockingDeque<PooledContext>()
+    private val size = AtomicInteger(0)
+    private val hits = AtomicLong(0)
+    private val misses = AtomicLong(0)
+    private val waits = AtomicLong(0)
+
+    fun <T> execute(block: (PooledContext) -> T): T {
+        val pooled = borrow()
+        var healthy = false
+        try {
+            val result = block(pooled)
+            healthy = true
+            return result
+        } finally {
+            if (healthy && !pooled.discarded) release(pooled) else invalidate(pooled)
+        }
+    }
+
+    fun getStats(): Stats = Stats(hits.get(), misses.get(), waits.get(), size.get(), idle.size)
+
+    fun close() {
+        while (true) {
+            val pooled = idle.pollFirst() ?: break
+            invalidate(pooled)
+        }
+    }
+
+    private fun borrow(): PooledContext {
+        idle.pollFirst()?.let {
+            hits.incrementAndGet()
+            return it
+        }
+
+        var waited = false
+        while (true) {
+            val current = size.get()
+            if (current < maxSize) {
+                if (size.compareAndSet(current, current + 1)) {
+                    misses.incrementAndGet()
+                    return try {
+                        create()
+                    } catch (e: Exception) {
+                        size.decrementAndGet()
+                        throw e
+                    }
+                }
+                continue
+            }
+
+            if (!waited) {
+                waited = true
+                waits.incrementAndGet()
+            }
+
+            // polling with timeout so that we can create a replacement when some context was invalidated meanwhile
+            idle.pollFirst(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)?.let { return it }
+        }
+    }
+
+    private fun release(pooled: PooledContext) {
+        idle.offerFirst(pooled)
+    }
+
+    private fun invalidate(pooled: PooledContext) {
+        size.decrementAndGet()
+        try {
+            pooled.context.close(true)
+        } catch (e: Exception) {
+            logger.log(Level.WARNING, "Unable to close context from pool $name: ", e)
+        }
+    }
+
+    private fun create(): PooledContext {
+        val context = Context
+                .newBuilder("js")
+                .engine(JsEngineFactory.getEngine())
+                .allowAllAccess(true)
+                .build()
+        return try {
+            context.initialize("js")
+            PooledContext(context, initializer(context))
+        } catch (e: Exception) {
+            context.close()
+            throw e
+        }
+    }
+
+    companion object {
+        private val logger: Logger = Logger.getLogger(JsContextPool::class.simpleName)
+        private const val WAIT_INTERVAL_MS = 50L
+    }
+}
@@ -22,6 +22,7 @@ package io.lumeer.core.util.js
 import io.lumeer.api.model.*
 import io.lumeer.api.model.Collection
 import io.lumeer.core.util.Tuple
+import io.lumeer.core.util.filter.NativeDataFilter
 
 class DataFilter {
 
@@ -41,6 +42,8 @@ class DataFilter {
                                                    collections: List<Collection>, linkTypes: List<LinkType>, linkInstances: List<LinkInstance>,
                                                    query: Query, collectionsPermissions: Map<String, AllowedPermissions>, linkTypesPermissions: Map<String, AllowedPermissions>,
                                                    constraintData: ConstraintData, includeChildren: Boolean, language: Language = Language.EN): Tuple<List<Document>, List<LinkInstance>> {
+            NativeDataFilter.filterDocumentsAndLinks(documents, collections, linkInstances, query, constraintData, includeChildren)?.let { return it }
+
             val task = DataFilterJsonTask(documents, collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildren, language)
             return task.call()
         }
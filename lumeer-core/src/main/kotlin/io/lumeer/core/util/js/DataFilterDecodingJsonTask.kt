@@ -22,6 +22,7 @@ import io.lumeer.api.model.*
 import io.lumeer.api.model.Collection
 import io.lumeer.core.constraint.ConstraintManager
 import io.lumeer.core.util.Tuple
+import io.lumeer.core.util.filter.NativeDataFilter
 import java.util.concurrent.Callable
 import java.util.logging.Level
 import java.util.logging.Logger
@@ -63,37 +64,24 @@ data class DataFilterDecodingJsonTask(val documents: List<Document>,
             }
         }
 
+        NativeDataFilter.filterDocumentsAndLinks(decodedDocuments, collections, decodedLinks, query, constraintData, includeChildren)?.let { result ->
+            val documentsMap = documents.groupBy { it.id }
+            val linkInstancesMap = linkInstances.groupBy { it.id }
+            return Tuple(result.first.flatMap { documentsMap[it.id].orEmpty() }, result.second.flatMap { linkInstancesMap[it.id].orEmpty() })
+        }
+
         val emptyTuple = Tuple<List<Document>, List<LinkInstance>>(emptyList(), emptyList())
-        val context = DataFilterJsonTask.getContext()
 
         return try {
-            val filterJsValue = DataFilterJsonTask.getFunction(context)
-
             val json = DataFilterJsonTask.convertToJson(DataFilterJson(decodedDocuments, collections, linkTypes, decodedLinks, query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildren, language.toLanguageTag()))
 
-            val result = filterJsValue.execute(json)
-
-            if (result != null) {
-                val documentsMap = documents.groupBy { it.id }
-                val resultDocumentsList = mutableListOf<Document>()
-                val resultDocuments = result.getMember("documentsIds")
-                for (i in 0 until resultDocuments.arraySize) resultDocumentsList.addAll(documentsMap[resultDocuments.getArrayElement(i).asString()].orEmpty())
-
-                val linkInstancesMap = linkInstances.groupBy { it.id }
-                val resultLinksList = mutableListOf<LinkInstance>()
-                val resultLinks = result.getMember("linkInstancesIds")
-                for (i in 0 until resultLinks.arraySize) resultLinksList.addAll(linkInstancesMap[resultLinks.getArrayElement(i).asString()].orEmpty())
-
-                Tuple(resultDocumentsList, resultLinksList)
-            } else {
+            DataFilterJsonTask.filterFromJson(json, documents, linkInstances) ?: run {
                 logger.log(Level.SEVERE, "Error filtering data - null result.")
                 emptyTuple
             }
         } catch (e: Exception) {
             logger.log(Level.SEVERE, "Error filtering data: ", e)
             emptyTuple
-        } finally {
-            context.close()
         }
     }
 
@@ -22,7 +22,7 @@ import com.google.gson.*
 import io.lumeer.api.model.*
 import io.lumeer.api.model.Collection
 import io.lumeer.api.model.common.Resource
-import io.lumeer.core.js.JsEngineFactory
+import io.lumeer.core.js.JsContextPool
 import io.lumeer.core.util.Tuple
 import org.graalvm.polyglot.Context
 import org.graalvm.polyglot.Value
@@ -48,36 +48,17 @@ data class DataFilterJsonTask(val documents: List<Document>,
 
     override fun call(): Tuple<List<Document>, List<LinkInstance>> {
         val emptyTuple = Tuple<List<Document>, List<LinkInstance>>(emptyList(), emptyList())
-        val context = getContext()
 
         return try {
-            val filterJsValue = getFunction(context)
-
             val json = convertToJson(DataFilterJson(documents, collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildren, language.toLanguageTag()))
 
-            val result = filterJsValue.execute(json)
-
-            if (result != null) {
-                val documentsMap = documents.groupBy { it.id }
-                val resultDocumentsList = mutableListOf<Document>()
-                val resultDocuments = result.getMember("documentsIds")
-                for (i in 0 until resultDocuments.arraySize) resultDocumentsList.addAll(documentsMap[resultDocuments.getArrayElement(i).asString()].orEmpty())
-
-                val linkInstancesMap = linkInstances.groupBy { it.id }
-                val resultLinksList = mutableListOf<LinkInstance>()
-                val resultLinks = result.getMember("linkInstancesIds")
-                for (i in 0 until resultLinks.arraySize) resultLinksList.addAll(linkInstancesMap[resultLinks.getArrayElement(i).asString()].orEmpty())
-
-                Tuple(resultDocumentsList, resultLinksList)
-            } else {
+            filterFromJson(json, documents, linkInstances) ?: run {
                 logger.log(Level.SEVERE, "Error filtering data - null result.")
                 emptyTuple
             }
         } catch (e: Exception) {
             logger.log(Level.SEVERE, "Error filtering data: ", e)
             emptyTuple
-        } finally {
-            context.close()
         }
     }
 
@@ -85,20 +66,34 @@ data class DataFilterJsonTask(val documents: List<Document>,
         private val logger: Logger = Logger.getLogger(DataFilterJsonTask::class.simpleName)
         private const val FILTER_JS = "filterDocumentsAndLinksIdsFromJson"
         private var filterJsCode: String? = null
-        private val engine = JsEngineFactory.getEngine()
+        private val pool = JsContextPool("dataFilterJson") { context -> getFunction(context) }
+
+        @JvmStatic
+        fun getPoolStats(): JsContextPool.Stats = pool.getStats()
 
-        fun getContext(): Context {
-            val context = Context
-                    .newBuilder("js")
-                    .engine(engine)
-                    .allowAllAccess(true)
-                    .build()
-            context.initialize("js")
+        fun filterFromJson(json: String, documents: List<Document>, linkInstances: List<LinkInstance>): Tuple<List<Document>, List<LinkInstance>>? {
+            return pool.execute { pooled ->
+                val result = pooled.function.execute(json)
 
-            return context
+                if (result != null) {
+                    val documentsMap = documents.groupBy { it.id }
+                    val resultDocumentsList = mutableListOf<Document>()
+                    val resultDocuments = result.getMember("documentsIds")
+                    for (i in 0 until resultDocuments.arraySize) resultDocumentsList.addAll(documentsMap[resultDocuments.getArrayElement(i).asString()].orEmpty())
+
+                    val linkInstancesMap = linkInstances.groupBy { it.id }
+                    val resultLinksList = mutableListOf<LinkInstance>()
+                    val resultLinks = result.getMember("linkInstancesIds")
+                    for (i in 0 until resultLinks.arraySize) resultLinksList.addAll(linkInstancesMap[resultLinks.getArrayElement(i).asString()].orEmpty())
+
+                    Tuple<List<Document>, List<LinkInstance>>(resultDocumentsList, resultLinksList)
+                } else {
+                    null
+                }
+            }
         }
 
-        fun getFunction(context: Context): Value {
+        private fun getFunction(context: Context): Value {
             if (filterJsCode != null) {
                 context.eval("js", filterJsCode)
                 return context.getBindings("js").getMember(FILTER_JS)
@@ -107,7 +102,8 @@ data class DataFilterJsonTask(val documents: List<Document>,
             }
         }
 
-        fun convertToJson(dataFilterJson: DataFilterJson): String {
+        // Gson instances are thread safe, so the configured one is shared by all filter tasks
+        private val gson: Gson by lazy {
             val strategy: ExclusionStrategy = object : ExclusionStrategy {
                 override fun shouldSkipField(field: FieldAttributes): Boolean {
                     if (field.declaringClass == Document::class.java && !listOf("id", "data", "metaData", "collectionId").contains(field.name)) {
@@ -161,15 +157,16 @@ data class DataFilterJsonTask(val documents: List<Document>,
                 }
             }
 
-            return GsonBuilder()
+            GsonBuilder()
                     .addSerializationExclusionStrategy(strategy)
                     .registerTypeAdapter(ConditionType::class.java, conditionTypeSerializer)
                     .registerTypeAdapter(Double::class.java, doubleSerializer)
                     .registerTypeAdapter(Float::class.java, floatSerializer)
                     .create()
-                    .toJson(dataFilterJson)
         }
 
+        fun convertToJson(dataFilterJson: DataFilterJson): String = gson.toJson(dataFilterJson)
+
         init {
             try {
                 DataFilterJsonTask::class.java.getResourceAsStream("/lumeer-data-filters.min.js").use { stream ->
@@ -0,0 +1,88 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.adapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.AuditRecord;
+import io.lumeer.api.model.ResourceType;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.api.dao.AuditDao;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AuditAdapterTest {
+
+   private static final String PARENT_ID = "collection";
+   private static final String AUTOMATION = "rule";
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testRegisterUpdates() {
+      final AuditRecord mergedRecord = record("r1", new DataDocument("a", 1), new DataDocument("a", 2));
+      final AuditRecord revertedRecord = record("r2", new DataDocument("a", 1), new DataDocument("a", 2));
+      final AuditDao auditDao = Mockito.mock(AuditDao.class);
+      Mockito.when(auditDao.findLatestAuditRecords(PARENT_ID, ResourceType.DOCUMENT, Set.of("r1", "r2", "r3")))
+             .thenReturn(Map.of("r1", mergedRecord, "r2", revertedRecord));
+
+      final AuditAdapter auditAdapter = new AuditAdapter(auditDao);
+      auditAdapter.registerUpdates(PARENT_ID, ResourceType.DOCUMENT, null, AUTOMATION, List.of(
+            update("r1", new DataDocument("a", 2).append("b", 1), new DataDocument("a", 2).append("b", 5)),
+            update("r2", new DataDocument("a", 2), new DataDocument("a", 1)),
+            update("r3", new DataDocument("a", 1).append("c", 3), new DataDocument("a", 2).append("c", 3)),
+            update("r4", new DataDocument("a", 1), new DataDocument("a", 1))
+      ));
+
+      final ArgumentCaptor<List<AuditRecord>> updated = ArgumentCaptor.forClass(List.class);
+      final ArgumentCaptor<Set<String>> deleted = ArgumentCaptor.forClass(Set.class);
+      Mockito.verify(auditDao).updateAuditRecords(updated.capture(), deleted.capture());
+      assertThat(updated.getValue()).containsExactly(mergedRecord);
+      assertThat(mergedRecord.getOldState()).isEqualTo(new DataDocument("a", 1).append("b", 1));
+      assertThat(mergedRecord.getNewState()).isEqualTo(new DataDocument("a", 2).append("b", 5));
+      assertThat(deleted.getValue()).containsExactly("r2-id");
+
+      final ArgumentCaptor<List<AuditRecord>> created = ArgumentCaptor.forClass(List.class);
+      Mockito.verify(auditDao).createAuditRecords(created.capture(), ArgumentMatchers.any());
+      assertThat(created.getValue()).hasSize(1);
+      assertThat(created.getValue().get(0).getResourceId()).isEqualTo("r3");
+      assertThat(created.getValue().get(0).getOldState()).isEqualTo(new DataDocument("a", 1));
+      assertThat(created.getValue().get(0).getNewState()).isEqualTo(new DataDocument("a", 2));
+
+      Mockito.verify(auditDao).findLatestAuditRecords(PARENT_ID, ResourceType.DOCUMENT, Set.of("r1", "r2", "r3"));
+      Mockito.verifyNoMoreInteractions(auditDao);
+   }
+
+   private static AuditRecord record(final String resourceId, final DataDocument oldState, final DataDocument newState) {
+      final AuditRecord record = new AuditRecord(PARENT_ID, ResourceType.DOCUMENT, resourceId, ZonedDateTime.now(), null, null, null, AUTOMATION, oldState, newState);
+      record.setId(resourceId + "-id");
+      return record;
+   }
+
+   private static AuditUpdate update(final String resourceId, final DataDocument oldState, final DataDocument newState) {
+      return new AuditUpdate(resourceId, oldState, oldState, newState, newState);
+   }
+}
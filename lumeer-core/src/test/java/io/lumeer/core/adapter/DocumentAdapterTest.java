@@ -0,0 +1,72 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.adapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.ResourceType;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.api.dao.FavoriteItemDao;
+import io.lumeer.storage.api.dao.ResourceCommentDao;
+
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class DocumentAdapterTest {
+
+   private static final String PROJECT_ID = "project";
+   private static final String DOCUMENT_ID = "document";
+
+   @Test
+   public void testMapDocumentDataForUsers() {
+      final Set<String> userIds = IntStream.range(0, 300).mapToObj(i -> "user" + i).collect(Collectors.toSet());
+
+      final FavoriteItemDao favoriteItemDao = Mockito.mock(FavoriteItemDao.class);
+      Mockito.when(favoriteItemDao.getFavoriteDocumentIds(userIds, PROJECT_ID, Set.of(DOCUMENT_ID))).thenReturn(Map.of("user7", Set.of(DOCUMENT_ID)));
+      final ResourceCommentDao resourceCommentDao = Mockito.mock(ResourceCommentDao.class);
+      Mockito.when(resourceCommentDao.getCommentsCounts(ResourceType.DOCUMENT, Set.of(DOCUMENT_ID))).thenReturn(Map.of(DOCUMENT_ID, 3));
+
+      final Document document = new Document(new DataDocument("a1", "value"));
+      document.setId(DOCUMENT_ID);
+      document.setCollectionId("collection");
+
+      final Map<String, Document> documents = new DocumentAdapter(resourceCommentDao, favoriteItemDao).mapDocumentDataForUsers(document, userIds, PROJECT_ID);
+
+      assertThat(documents).hasSize(300);
+      assertThat(documents.get("user7").isFavorite()).isTrue();
+      assertThat(documents.get("user8").isFavorite()).isFalse();
+      assertThat(documents.values()).allSatisfy(userDocument -> {
+         assertThat(userDocument.getCommentsCount()).isEqualTo(3L);
+         assertThat(userDocument.getData()).containsEntry("a1", "value");
+      });
+      assertThat(document.isFavorite()).isFalse();
+
+      Mockito.verify(favoriteItemDao, Mockito.times(1)).getFavoriteDocumentIds(ArgumentMatchers.anySet(), ArgumentMatchers.anyString(), ArgumentMatchers.anySet());
+      Mockito.verify(favoriteItemDao, Mockito.never()).getFavoriteDocumentIds(ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+      Mockito.verify(resourceCommentDao, Mockito.times(1)).getCommentsCounts(ArgumentMatchers.eq(ResourceType.DOCUMENT), ArgumentMatchers.anySet());
+      Mockito.verify(resourceCommentDao, Mockito.never()).getCommentsCount(ArgumentMatchers.any(), ArgumentMatchers.anyString());
+   }
+}
@@ -169,6 +169,21 @@ public class PermissionsCheckerTest {
       assertThat(roles).containsOnly(RoleType.Read, RoleType.DataWrite, RoleType.UserConfig, RoleType.PerspectiveConfig);
    }
 
+   @Test
+   public void testCheckRoleAfterPermissionsChange() {
+      Resource resource = Mockito.mock(Resource.class);
+      Mockito.when(resource.getType()).thenReturn(ResourceType.PROJECT);
+      Permissions permissions = new Permissions(Collections.singleton(Permission.buildWithRoles(USER, Collections.singleton(new Role(RoleType.Read)))), Collections.emptySet());
+      Mockito.when(resource.getPermissions()).thenReturn(permissions);
+
+      permissionsChecker.checkRole(resource, RoleType.Read);
+
+      permissions.updateUserPermissions(Permission.buildWithRoles(USER, Collections.singleton(new Role(RoleType.DataWrite))));
+      assertThat(permissionsChecker.getActualRoles(resource)).containsOnly(RoleType.DataWrite);
+      assertThatThrownBy(() -> permissionsChecker.checkRole(resource, RoleType.Read))
+            .isInstanceOf(NoResourcePermissionException.class);
+   }
+
    @Test
    public void testGetActualRolesEmpty() {
       Resource resource = prepareResource(Collections.emptySet(), Collections.emptySet());
@@ -2,8 +2,12 @@ package io.lumeer.core.constraint;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
 import io.lumeer.api.model.Constraint;
 import io.lumeer.api.model.ConstraintType;
+import io.lumeer.api.model.Permissions;
+import io.lumeer.engine.api.data.DataDocument;
 
 import com.mongodb.client.model.geojson.NamedCoordinateReferenceSystem;
 import com.mongodb.client.model.geojson.Point;
@@ -16,6 +20,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 public class ConstraintManagerTest {
@@ -194,4 +199,39 @@ public class ConstraintManagerTest {
       encoded = cm.encodeForFce("40°7.38'N, 74°7.38'W", null);
       assertThat(encoded).isEqualTo(new Point(NamedCoordinateReferenceSystem.EPSG_4326, new Position(40.123, -74.123)));
    }
+
+   @Test
+   public void testCollectionConstraintsChange() {
+      final ConstraintManager cm = new ConstraintManager();
+      cm.setLocale(l);
+
+      final Attribute attribute = new Attribute("a1");
+      attribute.setConstraint(new Constraint(ConstraintType.Boolean, null));
+      final Collection collection = new Collection("C", "C", "", "", new Permissions());
+      collection.setId("c1");
+      collection.setAttributes(List.of(attribute));
+
+      assertThat(cm.encodeDataTypes(collection, new DataDocument("a1", "true")).get("a1")).isEqualTo(Boolean.TRUE);
+
+      // same version, but the constraint has changed
+      attribute.setConstraint(new Constraint(ConstraintType.Text, null));
+      assertThat(cm.encodeDataTypes(collection, new DataDocument("a1", "true")).get("a1")).isEqualTo("true");
+
+      collection.setAttributes(List.of(attribute, new Attribute("a2")));
+      assertThat(cm.decodeDataTypes(collection, new DataDocument("a1", "true").append("a2", null))).containsEntry("a1", "true").containsEntry("a2", null);
+   }
+
+   @Test
+   public void testDateTimeShapes() {
+      final ConstraintManager cm = new ConstraintManager();
+      cm.setLocale(l);
+      final Constraint dateConstraint = new Constraint(ConstraintType.DateTime, null);
+
+      assertThat(cm.encode("1970-01-15T06:56:07.890Z", dateConstraint)).isEqualTo(new Date(1234567890));
+      assertThat(cm.encode("1970-01-15T12:26:07.890+05:30", dateConstraint)).isEqualTo("1970-01-15T12:26:07.890+05:30");
+      assertThat(cm.encode("1970-01-15T06:56:07.890", dateConstraint)).isEqualTo("1970-01-15T06:56:07.890");
+      assertThat(cm.encode("15.01.1970", dateConstraint)).isEqualTo("15.01.1970");
+      assertThat(cm.encodeForFce(" 1970-01-15T07:56:07.890+01 ", null)).isEqualTo(new Date(1234567890));
+      assertThat(cm.encodeForFce("hello", null)).isEqualTo("hello");
+   }
 }
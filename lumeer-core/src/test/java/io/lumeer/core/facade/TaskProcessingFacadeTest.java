@@ -0,0 +1,100 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.facade;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.Permissions;
+import io.lumeer.api.model.Rule;
+import io.lumeer.core.task.ContextualTaskFactory;
+import io.lumeer.core.task.FunctionTask;
+import io.lumeer.core.task.RuleTask;
+import io.lumeer.core.task.TaskExecutor;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.engine.api.event.UpdateDocument;
+import io.lumeer.storage.api.dao.CollectionDao;
+import io.lumeer.storage.api.dao.LinkTypeDao;
+
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TaskProcessingFacadeTest {
+
+   private static final String COLLECTION_ID = "collection";
+   private static final String RULE = "rule";
+
+   @Test
+   public void testDocumentUpdatesAreBatched() {
+      final Collection collection = new Collection("C", "Collection", "", "", new Permissions());
+      collection.setId(COLLECTION_ID);
+      collection.setAttributes(List.of(new Attribute("a1"), new Attribute("a2")));
+      collection.setRules(Map.of(RULE, new Rule(RULE, Rule.RuleType.AUTO_LINK, Rule.RuleTiming.UPDATE, new DataDocument())));
+
+      final TaskExecutor taskExecutor = Mockito.mock(TaskExecutor.class);
+      final CollectionDao collectionDao = Mockito.mock(CollectionDao.class);
+      Mockito.when(collectionDao.getCollectionById(COLLECTION_ID)).thenReturn(collection);
+      final FunctionFacade functionFacade = Mockito.mock(FunctionFacade.class);
+      Mockito.when(functionFacade.createTaskForUpdatedDocuments(ArgumentMatchers.any(), ArgumentMatchers.anySet(), ArgumentMatchers.anyCollection())).thenReturn(Mockito.mock(FunctionTask.class));
+      final List<RuleTask> ruleTasks = new ArrayList<>();
+      final ContextualTaskFactory taskFactory = Mockito.mock(ContextualTaskFactory.class);
+      Mockito.when(taskFactory.getInstance(RuleTask.class)).thenAnswer(invocation -> {
+         final RuleTask ruleTask = Mockito.mock(RuleTask.class);
+         ruleTasks.add(ruleTask);
+         return ruleTask;
+      });
+
+      final TaskProcessingFacade facade = TaskProcessingFacade.getInstance(taskExecutor, taskFactory, collectionDao, Mockito.mock(LinkTypeDao.class), functionFacade);
+
+      facade.startBatch();
+      for (int i = 0; i < 3; i++) {
+         facade.onDocumentUpdate(new UpdateDocument(document("d" + i, "new"), document("d" + i, "old")));
+      }
+      Mockito.verifyNoInteractions(taskExecutor);
+      facade.finishBatch();
+
+      Mockito.verify(functionFacade, Mockito.times(1)).createTaskForUpdatedDocuments(collection, Set.of("d0", "d1", "d2"), List.of("a1"));
+      Mockito.verify(functionFacade, Mockito.never()).createTaskForUpdateDocument(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+      Mockito.verify(taskExecutor, Mockito.times(1)).submitTask(ArgumentMatchers.any());
+      Mockito.verify(collectionDao, Mockito.times(1)).getCollectionById(COLLECTION_ID);
+
+      // rules still run for every single document in the order of the events
+      assertThat(ruleTasks).hasSize(3);
+      for (int i = 0; i < 3; i++) {
+         final String documentId = "d" + i;
+         Mockito.verify(ruleTasks.get(i)).setRule(ArgumentMatchers.eq(RULE), ArgumentMatchers.any(Rule.class), ArgumentMatchers.eq(collection),
+               ArgumentMatchers.argThat((Document d) -> documentId.equals(d.getId())), ArgumentMatchers.argThat((Document d) -> "new".equals(d.getData().getString("a1"))));
+      }
+   }
+
+   private Document document(final String id, final String value) {
+      final Document document = new Document(new DataDocument("a1", value).append("a2", "same"));
+      document.setId(id);
+      document.setCollectionId(COLLECTION_ID);
+      return document;
+   }
+}
@@ -0,0 +1,82 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.lumeer.core.task.ContextualTask;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class JsExecutorTest {
+
+   private static final String JS = "var thisDocument;\n"
+         + "var lumeer = Polyglot.import('lumeer');\n"
+         + "var count;\n"
+         + "count = (count || 0) + 1;\n"
+         + "thisDocument.add(lumeer.getCurrentLocale() + count);\n";
+
+   @Test
+   public void testReusedContextKeepsNoState() {
+      final ContextualTask task = Mockito.mock(ContextualTask.class);
+      Mockito.when(task.getCurrentLocale()).thenReturn("en");
+
+      for (int i = 0; i < 3; i++) {
+         final List<String> values = new ArrayList<>();
+         new JsExecutor().execute(Map.of("thisDocument", values), task, JS);
+
+         assertThat(values).containsExactly("en1");
+      }
+   }
+
+   @Test
+   public void testReusedContextKeepsNoGlobals() {
+      final ContextualTask task = Mockito.mock(ContextualTask.class);
+      final String js = "var thisDocument;\n"
+            + "thisDocument.add(typeof leaked + ' ' + typeof globalThis.other + ' ' + typeof lumeer_isEmpty);\n"
+            + "leaked = thisDocument;\n"
+            + "this.other = 1;\n"
+            + "lumeer_isEmpty = null;\n";
+
+      for (int i = 0; i < 3; i++) {
+         final List<String> values = new ArrayList<>();
+         new JsExecutor().execute(Map.of("thisDocument", values), task, js);
+
+         assertThat(values).containsExactly("undefined undefined function");
+      }
+   }
+
+   @Test
+   public void testTimeout() {
+      final ContextualTask task = Mockito.mock(ContextualTask.class);
+      Mockito.when(task.getCurrentLocale()).thenReturn("cs");
+
+      assertThatThrownBy(() -> new JsExecutor().execute(Map.of("thisDocument", new ArrayList<>()), task, "var thisDocument; while (true) {}")).isNotNull();
+
+      final List<String> values = new ArrayList<>();
+      new JsExecutor().execute(Map.of("thisDocument", values), task, JS);
+      assertThat(values).containsExactly("cs1");
+   }
+}
@@ -0,0 +1,92 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BoundedExecutorTest {
+
+   @Test
+   public void testConcurrencyLimit() {
+      final ExecutorService pool = Executors.newFixedThreadPool(8);
+      try {
+         final BoundedExecutor executor = new BoundedExecutor(pool, 2);
+         final AtomicInteger running = new AtomicInteger();
+         final AtomicInteger maxRunning = new AtomicInteger();
+         final String callerThread = Thread.currentThread().getName();
+
+         final List<Future<Integer>> futures = IntStream.range(0, 20).mapToObj(i -> executor.submit(() -> {
+            if (!Thread.currentThread().getName().equals(callerThread)) {
+               maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+               sleep();
+               running.decrementAndGet();
+            }
+            return i;
+         })).collect(Collectors.toList());
+
+         assertThat(futures.stream().map(BoundedExecutor::getResult).collect(Collectors.toList())).containsExactlyElementsOf(IntStream.range(0, 20).boxed().collect(Collectors.toList()));
+         assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+      } finally {
+         pool.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testWaitingOnSaturatedExecutor() {
+      final ExecutorService pool = Executors.newSingleThreadExecutor();
+      try {
+         final BoundedExecutor executor = new BoundedExecutor(pool, 4);
+         // the outer task occupies the only thread, so the inner one is run by the waiting thread
+         final Future<Integer> outer = executor.submit(() -> BoundedExecutor.getResult(executor.submit(() -> 42)));
+
+         assertThat(BoundedExecutor.getResult(outer)).isEqualTo(42);
+      } finally {
+         pool.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testExceptionIsRethrown() {
+      final BoundedExecutor executor = new BoundedExecutor(null, 0);
+      final Future<Object> future = executor.submit(() -> {
+         throw new IllegalArgumentException("failed");
+      });
+
+      assertThatThrownBy(() -> BoundedExecutor.getResult(future)).isInstanceOf(IllegalArgumentException.class).hasMessage("failed");
+   }
+
+   private static void sleep() {
+      try {
+         Thread.sleep(5);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
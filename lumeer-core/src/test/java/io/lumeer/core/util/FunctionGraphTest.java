@@ -0,0 +1,161 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.function.FunctionParameter;
+import io.lumeer.api.model.function.FunctionResourceType;
+import io.lumeer.api.model.function.FunctionRow;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+public class FunctionGraphTest {
+
+   private static final String C1 = "c1";
+   private static final String C2 = "c2";
+   private static final String L1 = "l1";
+
+   private static final FunctionParameter fpA = fp(C1, "A"), fpB = fp(C1, "B"), fpC = fp(C1, "C"), fpD = fp(C1, "D"), fpE = fp(C1, "E"),
+         fpF = fp(C1, "F"), fpG = fp(C1, "G"), fpH = fp(C1, "H"), fpI = fp(C1, "I");
+
+   // c1.b = f(c1.a), c1.c = f(c1.b, c2.x), c2.y = f(c1.c), l1.z = f(c1.a)
+   private static final List<FunctionRow> ROWS = List.of(
+         FunctionRow.createForCollection(C1, "b", C1, null, "a"),
+         FunctionRow.createForCollection(C1, "c", C1, null, "b"),
+         FunctionRow.createForCollection(C1, "c", C2, null, "x"),
+         FunctionRow.createForCollection(C2, "y", C1, null, "c"),
+         FunctionRow.createForLink(L1, "z", C1, null, "a")
+   );
+
+   @Test
+   public void testSearch() {
+      final FunctionGraph graph = FunctionGraph.of(ROWS);
+
+      assertThat(graph.searchByDependentCollection(C1, "a")).containsExactlyInAnyOrder(ROWS.get(0), ROWS.get(4));
+      assertThat(graph.searchByDependentCollection(C1, null)).hasSize(4);
+      assertThat(graph.searchByDependentCollection(C2, "y")).isEmpty();
+      assertThat(graph.searchByResource(C1, "c", FunctionResourceType.COLLECTION)).containsExactlyInAnyOrder(ROWS.get(1), ROWS.get(2));
+      assertThat(graph.searchByResource(C1, null, FunctionResourceType.LINK)).isEmpty();
+      assertThat(graph.searchByResource(L1, null, FunctionResourceType.LINK)).containsExactly(ROWS.get(4));
+   }
+
+   @Test
+   public void testIncrementalChanges() {
+      final FunctionRow row = FunctionRow.createForCollection(C2, "x", null, L1, "z");
+      final FunctionGraph graph = FunctionGraph.of(ROWS).withRows(List.of(row));
+
+      assertThat(graph.searchByDependentLinkType(L1, "z")).containsExactly(row);
+      assertThat(graph.withoutRows(r -> r.getResourceId().equals(C2)).searchByDependentLinkType(L1, null)).isEmpty();
+      assertThat(FunctionGraph.of(ROWS).searchByDependentLinkType(L1, null)).isEmpty();
+   }
+
+   @Test
+   public void testOrderFunctions() {
+      final FunctionParameter b = fp(C1, "b"), c = fp(C1, "c"), y = fp(C2, "y"), unknown = fp(C2, "u");
+      final FunctionGraph graph = FunctionGraph.of(ROWS);
+
+      final Deque<FunctionParameter> result = graph.orderFunctions(List.of(y, c, unknown, b));
+      assertThat(result).containsExactly(unknown, b, c, y);
+
+      // y depends on b only through c which is not ordered
+      assertThat(graph.orderFunctions(List.of(y, b))).containsExactly(b, y);
+   }
+
+   @Test
+   public void testOrderFunctionsWithCycle() {
+      final FunctionGraph graph = FunctionGraph.of(ROWS).withRows(List.of(FunctionRow.createForCollection(C1, "a", C2, null, "y")));
+
+      // a, b, c and y are on a cycle, they are ordered after the others in the order of their first appearance in the rows
+      assertThat(graph.orderFunctions(List.of(fp(C2, "y"), fp(C1, "b"), fp(C1, "a"), fp(C1, "c")))).containsExactly(fp(C1, "a"), fp(C1, "b"), fp(C1, "c"), fp(C2, "y"));
+   }
+
+   @Test
+   public void testOrderFunctionsChain() {
+      final FunctionGraph graph = graph(
+            List.of(fpA, fpB, fpC, fpD),
+            List.of(fpC, fpD, fpE, fpF),
+            List.of(fpD, fpB, fpE),
+            List.of(fpB, fpE, fpF));
+
+      assertThat(graph.orderFunctions(List.of(fpA, fpB, fpC, fpD))).containsExactly(fpB, fpD, fpC, fpA);
+   }
+
+   @Test
+   public void testOrderFunctionsSharedDependencies() {
+      final FunctionGraph graph = graph(
+            List.of(fpC, fpA, fpB),
+            List.of(fpD, fpB, fpC),
+            List.of(fpE, fpA, fpB));
+
+      assertThat(graph.orderFunctions(List.of(fpC, fpD, fpE))).containsExactly(fpC, fpE, fpD);
+   }
+
+   @Test
+   public void testOrderFunctionsTransitive() {
+      final FunctionGraph graph = graph(
+            List.of(fpC, fpB),
+            List.of(fpD, fpC, fpB),
+            List.of(fpE, fpC, fpD));
+
+      assertThat(graph.orderFunctions(List.of(fpE, fpD, fpC))).containsExactly(fpC, fpD, fpE);
+   }
+
+   @Test
+   public void testOrderFunctionsCycleWithDependency() {
+      // B, C, D and E form a cycle, B depends also on A
+      final FunctionGraph graph = graph(
+            List.of(fpC, fpB),
+            List.of(fpD, fpC, fpB),
+            List.of(fpE, fpC, fpD),
+            List.of(fpB, fpE, fpA));
+
+      assertThat(graph.orderFunctions(List.of(fpE, fpD, fpC, fpB))).containsExactly(fpB, fpC, fpD, fpE);
+   }
+
+   @Test
+   public void testOrderFunctionsIndependentTrees() {
+      final FunctionGraph graph = graph(
+            List.of(fpA, fpB, fpC),
+            List.of(fpD, fpG, fpH),
+            List.of(fpG, fpI),
+            List.of(fpB, fpE, fpF));
+
+      assertThat(graph.orderFunctions(List.of(fpA, fpD, fpG, fpB))).containsExactly(fpG, fpB, fpD, fpA);
+   }
+
+   private static FunctionParameter fp(final String collectionId, final String attributeId) {
+      return new FunctionParameter(FunctionResourceType.COLLECTION, collectionId, attributeId);
+   }
+
+   // every list holds a function followed by the attributes it reads
+   @SafeVarargs
+   private static FunctionGraph graph(final List<FunctionParameter>... functions) {
+      final List<FunctionRow> rows = new ArrayList<>();
+      for (List<FunctionParameter> function : functions) {
+         function.subList(1, function.size()).forEach(dependency ->
+               rows.add(FunctionRow.createForCollection(function.get(0).getResourceId(), function.get(0).getAttributeId(), dependency.getResourceId(), null, dependency.getAttributeId())));
+      }
+      return FunctionGraph.of(rows);
+   }
+}
@@ -0,0 +1,111 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.core.js.JsEngineFactory;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MomentDateFormatTest {
+
+   private static final List<String> FORMATS = List.of("DD.MM.YYYY", "D.M.YYYY", "YYYY-MM-DD", "MM/DD/YYYY", "DD.MM.YYYY HH:mm", "YYYY-MM-DD HH:mm:ss", "D. M. YYYY H:m:s", "HH:mm", "YYYY-MM-DD HH:mm:ss.SSS");
+
+   private static Context context;
+   private static Value format;
+   private static Value parse;
+
+   @BeforeClass
+   public static void initMoment() {
+      context = Context.newBuilder("js").engine(JsEngineFactory.getEngine()).allowAllAccess(true).build();
+      context.eval("js", JsFunctionsParser.getMomentJsCode());
+      format = context.getBindings("js").getMember(JsFunctionsParser.FORMAT_JS_DATE);
+      parse = context.getBindings("js").getMember(JsFunctionsParser.PARSE_JS_DATE);
+   }
+
+   @AfterClass
+   public static void closeMoment() {
+      context.close();
+   }
+
+   @Test
+   public void testSameResultsAsMomentJs() {
+      final Random random = new Random(42);
+      for (String pattern : FORMATS) {
+         final MomentDateFormat dateFormat = MomentDateFormat.get(pattern, "cs");
+         assertThat(dateFormat).isNotNull();
+
+         for (int i = 0; i < 200; i++) {
+            final long time = (long) (random.nextDouble() * 4_000_000_000_000L);
+            final String formatted = dateFormat.format(time);
+            assertThat(formatted).as(pattern).isEqualTo(format.execute(time, pattern, "cs").asString());
+
+            final Long parsed = dateFormat.parse(formatted);
+            if (parsed != null) {
+               assertThat(parsed).as(formatted).isEqualTo(parse.execute(formatted, pattern, "cs").asLong());
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testInvalidInputFallsBack() {
+      final MomentDateFormat dateFormat = MomentDateFormat.get("DD.MM.YYYY", "en");
+      assertThat(dateFormat.parse("31.02.2020")).isNull();
+      assertThat(dateFormat.parse("1.2.20")).isNull();
+      assertThat(dateFormat.parse("01.02.2020 ")).isNull();
+      assertThat(dateFormat.parse("1.2.2020")).isEqualTo(parse.execute("1.2.2020", "DD.MM.YYYY", "en").asLong());
+
+      assertThat(MomentDateFormat.get("DD MMMM YYYY", "en")).isNull();
+      assertThat(MomentDateFormat.get("DD.MM.YYYY", "ar")).isNull();
+      assertThat(MomentDateFormat.get("[Day] DD", "en")).isNull();
+   }
+
+   @Test
+   public void testConcurrentFormatting() throws Exception {
+      final List<Long> times = IntStream.range(0, 64).mapToObj(i -> 1_500_000_000_000L + i * 86_400_000L * 17).collect(Collectors.toList());
+      final List<String> expected = times.stream().map(time -> format.execute(time, "D MMMM YYYY", "cs").asString()).collect(Collectors.toList());
+
+      final ExecutorService pool = Executors.newFixedThreadPool(32);
+      try {
+         final List<Future<List<String>>> results = IntStream.range(0, 32).mapToObj(i -> pool.submit(() ->
+               times.stream().map(time -> JsFunctionsParser.formatMomentJsDate(time, "D MMMM YYYY", "cs")).collect(Collectors.toList())
+         )).collect(Collectors.toList());
+
+         for (Future<List<String>> result : results) {
+            assertThat(result.get()).isEqualTo(expected);
+         }
+      } finally {
+         pool.shutdownNow();
+      }
+   }
+}
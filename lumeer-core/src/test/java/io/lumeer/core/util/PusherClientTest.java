@@ -0,0 +1,179 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.core.facade.PusherFacade;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.marvec.pusher.Pusher;
+import org.marvec.pusher.data.BackupDataEvent;
+import org.marvec.pusher.data.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PusherClientTest {
+
+   private static final String CHANNEL = "channel";
+
+   private final ObjectMapper mapper = new ObjectMapper();
+   private final List<List<JsonNode>> requests = new CopyOnWriteArrayList<>();
+   private final ConcurrentLinkedQueue<Integer> responseCodes = new ConcurrentLinkedQueue<>();
+
+   private HttpServer server;
+   private ScheduledExecutorService executor;
+   private PusherClient client;
+
+   @Before
+   public void startServer() throws IOException {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      server.createContext("/", exchange -> {
+         try (InputStream body = exchange.getRequestBody()) {
+            final List<JsonNode> events = new ArrayList<>();
+            mapper.readTree(body).get("batch").forEach(events::add);
+
+            final Integer code = responseCodes.poll();
+            if (code == null || code == 200) {
+               requests.add(events);
+            }
+
+            final byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code != null ? code : 200, response.length);
+            exchange.getResponseBody().write(response);
+         } finally {
+            exchange.close();
+         }
+      });
+      server.start();
+
+      final Pusher pusher = new Pusher("app", "key", "secret");
+      pusher.setHost("localhost:" + server.getAddress().getPort());
+      pusher.setEncrypted(false);
+
+      executor = Executors.newSingleThreadScheduledExecutor();
+      client = new PusherClient(pusher, "key", "secret");
+      client.enableDeliveryQueue(executor, 100, 20, 3, 10);
+   }
+
+   @After
+   public void stopServer() {
+      executor.shutdownNow();
+      server.stop(0);
+   }
+
+   @Test
+   public void testEventsAreSentInBatchesInOrder() {
+      final List<Event> events = IntStream.range(0, 25).mapToObj(i -> new Event(CHANNEL, "Document:create", Map.of("id", String.valueOf(i)), null)).collect(Collectors.toList());
+
+      assertThat(client.trigger(events)).isEmpty();
+      final List<JsonNode> delivered = waitForEvents(25);
+
+      assertThat(requests).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(PusherDeliveryQueue.MAX_BATCH_SIZE));
+      assertThat(delivered.stream().map(this::getDataId).collect(Collectors.toList()))
+            .containsExactlyElementsOf(IntStream.range(0, 25).mapToObj(String::valueOf).collect(Collectors.toList()));
+   }
+
+   @Test
+   public void testOverflowingEventsAreSentByCaller() {
+      // the window is long enough for the caller to fill the queue before it is drained
+      client.enableDeliveryQueue(executor, 2, 500, 3, 10);
+      final List<Event> events = IntStream.range(0, 25).mapToObj(i -> new Event(CHANNEL, "Document:create", Map.of("id", String.valueOf(i)), null)).collect(Collectors.toList());
+
+      // the caller has sent the full queue whenever it had no room for the next event, the last event waits for the window
+      client.trigger(events);
+      assertThat(requests.stream().mapToInt(List::size).sum()).isEqualTo(24);
+
+      final List<JsonNode> delivered = waitForEvents(25);
+      assertThat(delivered.stream().map(this::getDataId).collect(Collectors.toList()))
+            .containsExactlyElementsOf(IntStream.range(0, 25).mapToObj(String::valueOf).collect(Collectors.toList()));
+   }
+
+   @Test
+   public void testPendingUpdatesAreCoalesced() {
+      final List<Event> events = IntStream.range(0, 5).mapToObj(i -> updateEvent("d1", i)).collect(Collectors.toList());
+      events.add(updateEvent("d2", 0));
+      events.add(updateEvent("d1", 5));
+
+      client.trigger(events);
+      final List<JsonNode> delivered = waitForEvents(2);
+
+      assertThat(delivered).hasSize(2);
+      assertThat(delivered.stream().map(this::getDataId).collect(Collectors.toList())).containsExactly("d1", "d2");
+      assertThat(readData(delivered.get(0)).get("value").asInt()).isEqualTo(5);
+   }
+
+   @Test
+   public void testFailedBatchIsRetried() {
+      responseCodes.add(500);
+
+      client.trigger(List.of(new Event(CHANNEL, "Document:create", Map.of("id", "d1"), null)));
+      client.trigger(List.of(new Event(CHANNEL, "Document:create", Map.of("id", "d2"), null)));
+      final List<JsonNode> delivered = waitForEvents(2);
+
+      assertThat(responseCodes).isEmpty();
+      assertThat(delivered.stream().map(this::getDataId).collect(Collectors.toList())).containsExactly("d1", "d2");
+   }
+
+   private Event updateEvent(final String id, final int value) {
+      return new BackupDataEvent(CHANNEL, "Document" + PusherFacade.UPDATE_EVENT_SUFFIX, Map.of("id", id, "value", value), new PusherFacade.ResourceId(id), null);
+   }
+
+   private List<JsonNode> waitForEvents(final int count) {
+      final long deadline = System.currentTimeMillis() + 5000;
+      while (System.currentTimeMillis() < deadline && requests.stream().mapToInt(List::size).sum() < count) {
+         try {
+            Thread.sleep(10);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+
+      return requests.stream().flatMap(List::stream).collect(Collectors.toList());
+   }
+
+   private String getDataId(final JsonNode event) {
+      return readData(event).get("id").asText();
+   }
+
+   private JsonNode readData(final JsonNode event) {
+      try {
+         return mapper.readTree(event.get("data").asText());
+      } catch (IOException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+}
@@ -0,0 +1,69 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.js
+
+import org.assertj.core.api.Assertions
+import org.junit.Test
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class JsContextPoolTest {
+
+    @Test
+    fun reusesInitializedContexts() {
+        val initializations = AtomicInteger(0)
+        val pool = JsContextPool("test", 2) { context ->
+            initializations.incrementAndGet()
+            context.eval("js", "function add(a, b) { return a + b; }")
+            context.getBindings("js").getMember("add")
+        }
+
+        for (i in 1..10) {
+            Assertions.assertThat(pool.execute { it.function.execute(i, 1).asInt() }).isEqualTo(i + 1)
+        }
+
+        Assertions.assertThat(initializations.get()).isEqualTo(1)
+        Assertions.assertThat(pool.getStats().misses).isEqualTo(1)
+        Assertions.assertThat(pool.getStats().hits).isEqualTo(9)
+        pool.close()
+    }
+
+    @Test
+    fun isBoundedAndReplacesFailedContexts() {
+        val pool = JsContextPool("test", 2) { context ->
+            context.eval("js", "function check(a) { if (a < 0) { throw new Error('negative'); } return a; }")
+            context.getBindings("js").getMember("check")
+        }
+
+        val executor = Executors.newFixedThreadPool(8)
+        for (i in 1..64) {
+            executor.submit { pool.execute { it.function.execute(i).asInt() } }
+        }
+        executor.shutdown()
+        executor.awaitTermination(30, TimeUnit.SECONDS)
+
+        Assertions.assertThat(pool.getStats().size).isLessThanOrEqualTo(2)
+
+        Assertions.assertThatThrownBy { pool.execute { it.function.execute(-1) } }.hasMessageContaining("negative")
+        Assertions.assertThat(pool.execute { it.function.execute(5).asInt() }).isEqualTo(5)
+        Assertions.assertThat(pool.getStats().size).isLessThanOrEqualTo(2)
+        pool.close()
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.filter
+
+import io.lumeer.api.model.*
+import io.lumeer.api.model.Collection
+import io.lumeer.core.util.js.DataFilterJsonTask
+import io.lumeer.engine.api.data.DataDocument
+import org.assertj.core.api.Assertions
+import org.junit.Test
+
+/**
+ * Differential tests comparing the native evaluation with the JavaScript data filter.
+ */
+class NativeDataFilterTest {
+
+    private val users = listOf(User("u1", "User 1", "one@lumeer.io", setOf()), User("u2", "User 2", "two@lumeer.io", setOf()))
+    private val constraintData = ConstraintData(users, users[0], mapOf(), CurrencyData(listOf(), listOf()), "Europe/Bratislava")
+
+    @Test
+    fun unknownConstraint() {
+        val values = listOf("abc", "ABC ", "", null, 0, 12, 1.5, 12L, true, false, "<b>x</b>", listOf("a", "b"), MISSING)
+        val conditions = textConditions() + listOf(
+                ConditionType.EQUALS to listOf(ConditionValue(12)),
+                ConditionType.CONTAINS to listOf(ConditionValue("1")),
+                ConditionType.EQUALS to listOf(ConditionValue("a,b")),
+                ConditionType.EQUALS to listOf(ConditionValue("false"))
+        )
+
+        verify(null, values, conditions)
+        verify(Constraint(ConstraintType.None, null), values, conditions)
+    }
+
+    @Test
+    fun textConstraint() {
+        val values = listOf("Lumeer", "lumeer engine", " LUMEER ", "<p>Lumeer <strong>engine</strong></p>", "<span class=\"x\">lu</span>", "", null, 42, true, false, MISSING)
+
+        verify(Constraint(ConstraintType.Text, null), values, textConditions())
+        verify(Constraint(ConstraintType.Text, mapOf("caseStyle" to "UpperCase")), values, textConditions())
+        verify(Constraint(ConstraintType.Text, mapOf("caseStyle" to "TitleCase")), values, textConditions())
+    }
+
+    @Test
+    fun numberConstraint() {
+        val values = listOf(0, 1, 1.005, -3, 12L, 2.5, "3,5", " 4 ", "1e3", "0.1", "", "  ", null, MISSING)
+        val conditions = listOf(
+                ConditionType.EQUALS to listOf(ConditionValue(1)),
+                ConditionType.EQUALS to listOf(ConditionValue("1.0")),
+                ConditionType.EQUALS to listOf(ConditionValue("")),
+                ConditionType.EQUALS to listOf(),
+                ConditionType.NOT_EQUALS to listOf(ConditionValue(1)),
+                ConditionType.NOT_EQUALS to listOf(ConditionValue(null)),
+                ConditionType.GREATER_THAN to listOf(ConditionValue("2")),
+                ConditionType.GREATER_THAN_EQUALS to listOf(ConditionValue(2.5)),
+                ConditionType.LOWER_THAN to listOf(ConditionValue(0)),
+                ConditionType.LOWER_THAN_EQUALS to listOf(ConditionValue("-3")),
+                ConditionType.BETWEEN to listOf(ConditionValue(1), ConditionValue(4)),
+                ConditionType.NOT_BETWEEN to listOf(ConditionValue(1), ConditionValue(4)),
+                ConditionType.BETWEEN to listOf(ConditionValue(1)),
+                ConditionType.IS_EMPTY to listOf(),
+                ConditionType.NOT_EMPTY to listOf(),
+                ConditionType.CONTAINS to listOf(ConditionValue(1))
+        )
+
+        verify(Constraint(ConstraintType.Number, null), values, conditions)
+        verify(Constraint(ConstraintType.Number, mapOf("decimals" to 2)), values, conditions)
+        verify(Constraint(ConstraintType.Number, mapOf("decimals" to 0, "separated" to true)), values.filter { it != "  " }, conditions)
+    }
+
+    @Test
+    fun percentageConstraint() {
+        val values = listOf(0.25, "0.5", 1, 0, 0.123, "", null, "abc", MISSING)
+        val conditions = listOf(
+                ConditionType.EQUALS to listOf(ConditionValue(0.25)),
+                ConditionType.EQUALS to listOf(ConditionValue("")),
+                ConditionType.NOT_EQUALS to listOf(ConditionValue("0.5")),
+                ConditionType.GREATER_THAN to listOf(ConditionValue(0.3)),
+                ConditionType.LOWER_THAN_EQUALS to listOf(ConditionValue(0.12)),
+                ConditionType.BETWEEN to listOf(ConditionValue(0.2), ConditionValue(0.6)),
+                ConditionType.NOT_BETWEEN to listOf(ConditionValue(0.2), ConditionValue(0.6)),
+                ConditionType.IS_EMPTY to listOf(),
+                ConditionType.NOT_EMPTY to listOf()
+        )
+
+        verify(Constraint(ConstraintType.Percentage, null), values, conditions)
+        verify(Constraint(ConstraintType.Percentage, mapOf("decimals" to 1)), values, conditions)
+    }
+
+    @Test
+    fun selectConstraint() {
+        val config = mapOf("options" to listOf(mapOf("value" to "a", "displayValue" to "A"), mapOf("value" to "b", "displayValue" to "B"), mapOf("value" to 1, "displayValue" to "One")))
+        val values = listOf("a", listOf("a", "b"), "1", 1, "c", listOf("c", 1), "", " ", null, listOf<Any>(), listOf(" "), MISSING)
+        val conditions = listOf(
+                ConditionType.HAS_SOME to listOf(ConditionValue(listOf("a"))),
+                ConditionType.EQUALS to listOf(ConditionValue("b")),
+                ConditionType.EQUALS to listOf(ConditionValue("1")),
+                ConditionType.EQUALS to listOf(ConditionValue("c")),
+                ConditionType.HAS_NONE_OF to listOf(ConditionValue(listOf("a", "c"))),
+                ConditionType.NOT_EQUALS to listOf(ConditionValue("a")),
+                ConditionType.IN to listOf(ConditionValue(listOf("a", "b"))),
+                ConditionType.HAS_ALL to listOf(ConditionValue(listOf("a", "b"))),
+                ConditionType.HAS_ALL to listOf(),
+                ConditionType.IS_EMPTY to listOf(),
+                ConditionType.NOT_EMPTY to listOf(),
+                ConditionType.GREATER_THAN to listOf(ConditionValue("a"))
+        )
+
+        verify(Constraint(ConstraintType.Select, config), values, conditions)
+    }
+
+    @Test
+    fun userConstraint() {
+        val values = listOf("one@lumeer.io", listOf("one@lumeer.io", "two@lumeer.io"), "two@lumeer.io", "other@lumeer.io", "", null, listOf<Any>(), MISSING)
+        val conditions = listOf(
+                ConditionType.HAS_SOME to listOf(ConditionValue(listOf("one@lumeer.io"))),
+                ConditionType.EQUALS to listOf(ConditionValue("currentUser", null)),
+                ConditionType.NOT_EQUALS to listOf(ConditionValue("currentUser", null)),
+                ConditionType.HAS_NONE_OF to listOf(ConditionValue(listOf("two@lumeer.io"))),
+                ConditionType.IN to listOf(ConditionValue(listOf("one@lumeer.io", "two@lumeer.io"))),
+                ConditionType.HAS_ALL to listOf(ConditionValue(listOf("one@lumeer.io", "two@lumeer.io"))),
+                ConditionType.IS_EMPTY to listOf(),
+                ConditionType.NOT_EMPTY to listOf()
+        )
+
+        verify(Constraint(ConstraintType.User, mapOf("multi" to true)), values, conditions)
+        verify(Constraint(ConstraintType.User, null), values, conditions, ConstraintData(users, null, mapOf(), CurrencyData(listOf(), listOf()), "Europe/Bratislava"))
+    }
+
+    @Test
+    fun booleanConstraint() {
+        val values = listOf(true, false, "yes", "no", "TRUE", "Ano", 1, 0, "", null, listOf(true, true), listOf(true, false), MISSING)
+        val conditions = listOf(
+                ConditionType.EQUALS to listOf(ConditionValue(true)),
+                ConditionType.EQUALS to listOf(ConditionValue(false)),
+                ConditionType.EQUALS to listOf(),
+                ConditionType.NOT_EQUALS to listOf(ConditionValue(true)),
+                ConditionType.EQUALS to listOf(ConditionValue("ano")),
+                ConditionType.IS_EMPTY to listOf()
+        )
+
+        verify(Constraint(ConstraintType.Boolean, null), values, conditions)
+    }
+
+    @Test
+    fun dateTimeConstraint() {
+        val values = listOf("2021-03-01T10:15:00.000+0000", "2021-03-01T23:30:00.000+0000", "2021-02-28T00:00:00.000Z", "2021-03-01T00:00:00.000+01:00",
+                "2021-03-15T12:00:00.000", "", null, MISSING)
+        val conditions = listOf(
+                ConditionType.EQUALS to listOf(ConditionValue("2021-03-01T00:00:00.000Z")),
+                ConditionType.EQUALS to listOf(ConditionValue("")),
+                ConditionType.NOT_EQUALS to listOf(ConditionValue("2021-03-01T10:15:00.000Z")),
+                ConditionType.NOT_EQUALS to listOf(),
+                ConditionType.GREATER_THAN to listOf(ConditionValue("2021-03-01T10:15:00.000+0000")),
+                ConditionType.GREATER_THAN_EQUALS to listOf(ConditionValue("2021-03-01T12:00:00.000Z")),
+                ConditionType.LOWER_THAN to listOf(ConditionValue("2021-03-01T00:00:00.000Z")),
+                ConditionType.LOWER_THAN_EQUALS to listOf(ConditionValue("2021-03-01T23:59:00.000Z")),
+                ConditionType.BETWEEN to listOf(ConditionValue("2021-03-02T00:00:00.000Z"), ConditionValue("2021-02-28T00:00:00.000Z")),
+                ConditionType.NOT_BETWEEN to listOf(ConditionValue("2021-02-28T00:00:00.000Z"), ConditionValue("2021-03-01T00:00:00.000Z")),
+                ConditionType.IS_EMPTY to listOf(),
+                ConditionType.NOT_EMPTY to listOf()
+        )
+
+        verify(Constraint(ConstraintType.DateTime, null), values, conditions)
+        verify(Constraint(ConstraintType.DateTime, mapOf("format" to "DD.MM.YYYY")), values, conditions)
+        verify(Constraint(ConstraintType.DateTime, mapOf("format" to "MM/YYYY")), values, conditions)
+        verify(Constraint(ConstraintType.DateTime, mapOf("format" to "DD.MM.YYYY HH:mm")), values, conditions)
+        verify(Constraint(ConstraintType.DateTime, mapOf("format" to "DD.MM.YYYY HH:mm", "asUtc" to true)), values, conditions)
+    }
+
+    @Test
+    fun documentIdsChildrenAndPagination() {
+        val collection = createCollection(Constraint(ConstraintType.Number, null))
+        val documents = (0 until 10).map { i ->
+            Document(DataDocument(ATTRIBUTE_ID, i)).apply {
+                id = "d$i"
+                collectionId = collection.id
+                metaData = if (i > 0 && i % 3 != 0) DataDocument(Document.META_PARENT_ID, "d${i - 1}") else DataDocument()
+            }
+        }
+        val filter = CollectionAttributeFilter.createFromValues(collection.id, ATTRIBUTE_ID, ConditionType.LOWER_THAN, 7)
+
+        val queries = listOf(
+                Query(listOf(QueryStem(null, collection.id, listOf(), setOf(), listOf(filter), listOf())), setOf(), null, null),
+                Query(listOf(QueryStem(null, collection.id, listOf(), setOf("d1", "d4"), listOf(filter), listOf())), setOf(), null, null),
+                Query(listOf(QueryStem(null, collection.id, listOf(), setOf("d8"), listOf(filter), listOf())), setOf(), null, null),
+                Query(listOf(QueryStem(null, collection.id, listOf(), setOf(), listOf(filter), listOf()), QueryStem(null, collection.id, listOf(), setOf("d9"), listOf(), listOf())), setOf(), 1, 3),
+                Query(listOf(), setOf(), 1, 4),
+                Query(listOf(QueryStem(null, "unknown", listOf(), setOf(), listOf(), listOf())), setOf(), null, null)
+        )
+
+        queries.forEach { query ->
+            listOf(true, false).forEach { includeChildren ->
+                verifyQuery(documents, collection, query, includeChildren, constraintData)
+            }
+        }
+    }
+
+    @Test
+    fun unsupportedQueries() {
+        val collection = createCollection(Constraint(ConstraintType.DateTime, null))
+        val documents = listOf(Document(DataDocument(ATTRIBUTE_ID, "2021-03-01T10:15:00.000+0000")).apply {
+            id = "d1"
+            collectionId = collection.id
+        })
+
+        val fulltextQuery = Query(listOf(), setOf("lumeer"), null, null)
+        val linkQuery = Query(listOf(QueryStem(null, collection.id, listOf("lt1"), setOf(), listOf(), listOf())), setOf(), null, null)
+        val typedQuery = Query(listOf(QueryStem(null, collection.id, listOf(), setOf(),
+                listOf(CollectionAttributeFilter.createFromTypes(collection.id, ATTRIBUTE_ID, ConditionType.EQUALS, "today")), listOf())), setOf(), null, null)
+        val actionCollection = createCollection(Constraint(ConstraintType.Action, null))
+        val actionQuery = Query(listOf(QueryStem(null, actionCollection.id, listOf(), setOf(),
+                listOf(CollectionAttributeFilter.createFromValues(actionCollection.id, ATTRIBUTE_ID, ConditionType.ENABLED)), listOf())), setOf(), null, null)
+
+        Assertions.assertThat(NativeDataFilter.filterDocumentsAndLinks(documents, listOf(collection), listOf(), fulltextQuery, constraintData, false)).isNull()
+        Assertions.assertThat(NativeDataFilter.filterDocumentsAndLinks(documents, listOf(collection), listOf(), linkQuery, constraintData, false)).isNull()
+        Assertions.assertThat(NativeDataFilter.filterDocumentsAndLinks(documents, listOf(collection), listOf(), typedQuery, constraintData, false)).isNull()
+        Assertions.assertThat(NativeDataFilter.filterDocumentsAndLinks(documents, listOf(actionCollection), listOf(), actionQuery, constraintData, false)).isNull()
+    }
+
+    private fun textConditions(): List<Pair<ConditionType, List<ConditionValue>>> = listOf(
+            ConditionType.EQUALS to listOf(ConditionValue("lumeer")),
+            ConditionType.EQUALS to listOf(ConditionValue("abc")),
+            ConditionType.EQUALS to listOf(),
+            ConditionType.NOT_EQUALS to listOf(ConditionValue("LUMEER")),
+            ConditionType.CONTAINS to listOf(ConditionValue("eer")),
+            ConditionType.CONTAINS to listOf(ConditionValue("x")),
+            ConditionType.CONTAINS to listOf(),
+            ConditionType.NOT_CONTAINS to listOf(ConditionValue("engine")),
+            ConditionType.STARTS_WITH to listOf(ConditionValue("lu")),
+            ConditionType.ENDS_WITH to listOf(ConditionValue("ne")),
+            ConditionType.IS_EMPTY to listOf(),
+            ConditionType.NOT_EMPTY to listOf(),
+            ConditionType.GREATER_THAN to listOf(ConditionValue("a"))
+    )
+
+    private fun createCollection(constraint: Constraint?): Collection {
+        val attribute = Attribute(ATTRIBUTE_ID, ATTRIBUTE_ID, null, constraint, null, 0)
+        return Collection("c1", "c1", "", "", "", null, Permissions(), setOf(attribute), mapOf(), "", null).apply { id = "c1" }
+    }
+
+    private fun verify(constraint: Constraint?, values: List<Any?>, conditions: List<Pair<ConditionType, List<ConditionValue>>>, constraintData: ConstraintData = this.constraintData) {
+        val collection = createCollection(constraint)
+        val documents = values.mapIndexed { index, value ->
+            Document(if (value === MISSING) DataDocument() else DataDocument(ATTRIBUTE_ID, value)).apply {
+                id = "d$index"
+                collectionId = collection.id
+                metaData = DataDocument()
+            }
+        }
+
+        conditions.forEach { (condition, conditionValues) ->
+            val filter = CollectionAttributeFilter(collection.id, ATTRIBUTE_ID, condition, conditionValues)
+            val query = Query(listOf(QueryStem(null, collection.id, listOf(), setOf(), listOf(filter), listOf())), setOf(), null, null)
+            verifyQuery(documents, collection, query, false, constraintData)
+        }
+    }
+
+    private fun verifyQuery(documents: List<Document>, collection: Collection, query: Query, includeChildren: Boolean, constraintData: ConstraintData) {
+        val permissions = mapOf(collection.id to AllowedPermissions.allAllowed())
+        val expected = DataFilterJsonTask(documents, listOf(collection), listOf(), listOf(), query, permissions, mapOf(), constraintData, includeChildren).call()
+        val actual = NativeDataFilter.filterDocumentsAndLinks(documents, listOf(collection), listOf(), query, constraintData, includeChildren)
+
+        val description = "$query with ${collection.attributes.first().constraint} and children $includeChildren"
+        Assertions.assertThat(actual).describedAs(description).isNotNull
+        Assertions.assertThat(actual!!.first.map { it.id }).describedAs(description).isEqualTo(expected.first.map { it.id })
+        Assertions.assertThat(actual.second).describedAs(description).isEqualTo(expected.second)
+    }
+
+    companion object {
+        private const val ATTRIBUTE_ID = "a1"
+        private val MISSING = Any()
+    }
+}
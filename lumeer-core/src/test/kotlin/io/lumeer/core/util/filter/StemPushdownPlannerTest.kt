@@ -0,0 +1,188 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.filter
+
+import io.lumeer.api.model.*
+import io.lumeer.api.model.Collection
+import io.lumeer.storage.api.filter.CollectionSearchAttributeFilter
+import org.assertj.core.api.Assertions
+import org.junit.Test
+import java.math.BigDecimal
+import java.text.SimpleDateFormat
+import java.util.*
+
+/**
+ * Checks that the pushed filters keep every stored value the query accepts after decoding.
+ */
+class StemPushdownPlannerTest {
+
+    private val constraintData = ConstraintData(listOf(), null, mapOf(), CurrencyData(listOf(), listOf()), "Europe/Bratislava")
+
+    @Test
+    fun numberConstraint() {
+        val values = listOf(0L, 1L, 2L, 3L, -3L, 12L, 1.004, 1.005, 1.006, 2.5, 0.1, 1e20, BigDecimal("1.0000000000000000000001"), BigDecimal("12.5"), "0123", "abc", true, listOf(1L, 5L), null)
+        val conditions = listOf(
+                ConditionType.EQUALS to ConditionValue(1),
+                ConditionType.EQUALS to ConditionValue("1,0"),
+                ConditionType.EQUALS to ConditionValue(1.005),
+                ConditionType.EQUALS to ConditionValue(""),
+                ConditionType.GREATER_THAN to ConditionValue("2"),
+                ConditionType.GREATER_THAN to ConditionValue(12.4),
+                ConditionType.LOWER_THAN to ConditionValue(0.1),
+                ConditionType.NOT_EQUALS to ConditionValue(1)
+        )
+
+        verify(Constraint(ConstraintType.Number, null), values, conditions)
+        verify(Constraint(ConstraintType.Number, mapOf("decimals" to 0)), values, conditions)
+        verify(Constraint(ConstraintType.Number, mapOf("decimals" to 2)), values, conditions)
+    }
+
+    @Test
+    fun booleanConstraint() {
+        val values = listOf(true, false, "true", "yes", 1L, listOf(true), null)
+        val conditions = listOf(
+                ConditionType.EQUALS to ConditionValue(true),
+                ConditionType.EQUALS to ConditionValue("ano"),
+                ConditionType.EQUALS to ConditionValue(false),
+                ConditionType.NOT_EQUALS to ConditionValue(false),
+                ConditionType.NOT_EQUALS to ConditionValue(true)
+        )
+
+        verify(Constraint(ConstraintType.Boolean, null), values, conditions)
+    }
+
+    @Test
+    fun selectConstraint() {
+        val options = listOf(mapOf("value" to "a"), mapOf("value" to "b"), mapOf("value" to 1))
+        val values = listOf("a", "b", "c", "1", 1L, 2L, listOf("a", "c"), listOf("c"), "", null)
+        val conditions = listOf(
+                ConditionType.HAS_SOME to ConditionValue(listOf("a", "b")),
+                ConditionType.EQUALS to ConditionValue("c"),
+                ConditionType.HAS_SOME to ConditionValue(listOf(1)),
+                ConditionType.HAS_SOME to ConditionValue(listOf<String>()),
+                ConditionType.NOT_EQUALS to ConditionValue("a")
+        )
+
+        verify(Constraint(ConstraintType.Select, null), values, conditions)
+        verify(Constraint(ConstraintType.Select, mapOf("options" to options)), values, conditions)
+    }
+
+    @Test
+    fun dateTimeConstraint() {
+        val values = listOf(date("2020-01-01T00:00:00.000Z"), date("2020-03-15T10:30:00.000Z"), date("2020-03-15T23:30:00.000Z"), date("2020-03-16T00:00:00.000Z"),
+                date("2021-07-01T12:00:00.000Z"), "not a date", 5L, listOf(date("2020-03-15T10:30:00.000Z")), null)
+        val conditions = listOf(
+                ConditionType.EQUALS to ConditionValue("2020-03-15T10:30:00.000Z"),
+                ConditionType.GREATER_THAN to ConditionValue("2020-03-15T00:00:00.000Z"),
+                ConditionType.LOWER_THAN to ConditionValue("2020-03-15T12:00:00.000+02:00"),
+                ConditionType.LOWER_THAN to ConditionValue(""),
+                ConditionType.NOT_EQUALS to ConditionValue("2020-03-15T10:30:00.000Z")
+        )
+
+        verify(Constraint(ConstraintType.DateTime, null), values, conditions)
+        verify(Constraint(ConstraintType.DateTime, mapOf("format" to "DD.MM.YYYY")), values, conditions)
+        verify(Constraint(ConstraintType.DateTime, mapOf("format" to "DD.MM.YYYY HH:mm")), values, conditions)
+        verify(Constraint(ConstraintType.DateTime, mapOf("format" to "MM.YYYY HH")), values, conditions)
+    }
+
+    @Test
+    fun stemWithRepeatedCollection() {
+        val collection = collection(Constraint(ConstraintType.Number, null))
+        val stem = QueryStem(null, COLLECTION_ID, listOf("l1"), setOf(), listOf(CollectionAttributeFilter.createFromValues(COLLECTION_ID, ATTRIBUTE_ID, ConditionType.EQUALS, 1)), listOf())
+
+        Assertions.assertThat(StemPushdownPlanner.createPushdownQuery(stem, listOf(collection), constraintData, false)).isNotNull
+        Assertions.assertThat(StemPushdownPlanner.createPushdownQuery(stem, listOf(collection), constraintData, true)).isNull()
+        Assertions.assertThat(StemPushdownPlanner.createPushdownQuery(stem, listOf(collection, collection), constraintData, false)).isNull()
+    }
+
+    private fun verify(constraint: Constraint, values: List<Any?>, conditions: List<Pair<ConditionType, ConditionValue>>) {
+        val collection = collection(constraint)
+        conditions.forEach { (condition, conditionValue) ->
+            val filter = CollectionAttributeFilter(COLLECTION_ID, ATTRIBUTE_ID, condition, listOf(conditionValue))
+            val stem = QueryStem(null, COLLECTION_ID, listOf(), setOf(), listOf(filter), listOf())
+            val pushed = StemPushdownPlanner.getPushdownFilters(stem, collection, constraintData)
+
+            val description = "$constraint $condition ${conditionValue.value}"
+            if (pushed.isNotEmpty()) {
+                // documents without data are not returned by the data query
+                Assertions.assertThat(meets(constraint, null, filter)).`as`(description).isFalse()
+            }
+
+            values.forEach { value ->
+                if (meets(constraint, decode(value, constraint), filter)) {
+                    Assertions.assertThat(pushed).`as`("$description accepts $value").allMatch { matches(it, value) }
+                }
+            }
+        }
+    }
+
+    private fun meets(constraint: Constraint, value: Any?, filter: CollectionAttributeFilter): Boolean =
+            try {
+                ConditionEvaluator.meetCondition(constraint, value, filter.condition, filter.conditionValues, constraintData)
+            } catch (e: UnsupportedFilterException) {
+                // such values are never excluded by the evaluator, the JavaScript filter decides
+                true
+            }
+
+    // decoding of the stored values done by the constraint manager
+    private fun decode(value: Any?, constraint: Constraint): Any? = when {
+        value is Date -> SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").apply { timeZone = TimeZone.getTimeZone("UTC") }.format(value)
+        value is BigDecimal -> value.toString()
+        constraint.type == ConstraintType.Boolean -> value != null && value.toString().toBoolean()
+        else -> value
+    }
+
+    // semantics of the filter in the database
+    private fun matches(filter: CollectionSearchAttributeFilter, value: Any?): Boolean {
+        val filterValues = (filter.value as? kotlin.collections.Collection<*>) ?: listOf(filter.value)
+        if (filter.isKeepOtherTypes && (value is List<*> || filterValues.none { sameType(it, value) })) {
+            return true
+        }
+        return when (filter.conditionType) {
+            ConditionType.EQUALS -> compare(filter.value, value) == 0
+            ConditionType.HAS_SOME -> filterValues.any { compare(it, value) == 0 }
+            ConditionType.GREATER_THAN -> compare(filter.value, value)?.let { it < 0 } ?: false
+            ConditionType.LOWER_THAN -> compare(filter.value, value)?.let { it > 0 } ?: false
+            else -> throw IllegalArgumentException("Unexpected condition ${filter.conditionType}")
+        }
+    }
+
+    private fun sameType(first: Any?, second: Any?) =
+            (first is Number && second is Number) || (first is String && second is String) || (first is Boolean && second is Boolean) || (first is Date && second is Date)
+
+    private fun compare(filterValue: Any?, value: Any?): Int? = when {
+        filterValue is Number && value is Number -> BigDecimal(filterValue.toString()).compareTo(BigDecimal(value.toString()))
+        filterValue is Date && value is Date -> filterValue.compareTo(value)
+        filterValue is String && value is String -> filterValue.compareTo(value)
+        filterValue is Boolean && value is Boolean -> if (filterValue == value) 0 else 1
+        else -> null
+    }
+
+    private fun collection(constraint: Constraint): Collection {
+        val attribute = Attribute(ATTRIBUTE_ID, ATTRIBUTE_ID, null, constraint, null, 0)
+        return Collection(COLLECTION_ID, COLLECTION_ID, "", "", "", null, Permissions(), setOf(attribute), mapOf(), "", null).apply { id = COLLECTION_ID }
+    }
+
+    private fun date(value: String): Date = Date.from(java.time.Instant.parse(value))
+
+    companion object {
+        private const val COLLECTION_ID = "c1"
+        private const val ATTRIBUTE_ID = "a1"
+    }
+}
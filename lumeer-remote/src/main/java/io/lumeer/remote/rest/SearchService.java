@@ -27,6 +27,11 @@ import io.lumeer.core.util.Tuple;
 import io.lumeer.remote.rest.annotation.HealthCheck;
 import io.lumeer.remote.rest.annotation.QueryProcessor;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
@@ -38,6 +43,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 @RequestScoped
 @Produces(MediaType.APPLICATION_JSON)
@@ -45,6 +51,10 @@ import javax.ws.rs.core.MediaType;
 @Path("organizations/{organizationId:[0-9a-fA-F]{24}}/projects/{projectId:[0-9a-fA-F]{24}}/search")
 public class SearchService extends AbstractService {
 
+   public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+   private static final ObjectMapper mapper = new ObjectMapper();
+
    @PathParam("organizationId")
    private String organizationId;
 
@@ -85,6 +95,35 @@ public class SearchService extends AbstractService {
       return new DocumentsAndLinks(documentsAndLinks.getFirst(), documentsAndLinks.getSecond());
    }
 
+   /**
+    * Writes documents and links as they are found, one {@link DocumentsAndLinks} JSON object per line, so the whole result never needs to be kept in memory.
+    */
+   @POST
+   @Path("documentsAndLinks/stream")
+   @Produces(APPLICATION_NDJSON)
+   @QueryProcessor
+   @HealthCheck
+   public StreamingOutput streamDocumentsAndLinkInstances(Query query, @QueryParam("subItems") boolean includeSubItems) {
+      return output -> {
+         try {
+            searchFacade.searchDocumentsAndLinks(query, includeSubItems, (documents, linkInstances) -> writeLine(output, new DocumentsAndLinks(documents, linkInstances)));
+         } catch (UncheckedIOException e) {
+            // client has disconnected, the search has been cancelled by the failed consumer
+            throw e.getCause();
+         }
+      };
+   }
+
+   private void writeLine(final OutputStream output, final DocumentsAndLinks documentsAndLinks) {
+      try {
+         output.write(mapper.writeValueAsBytes(documentsAndLinks));
+         output.write('\n');
+         output.flush();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
    @POST
    @Path("tasks")
    @QueryProcessor
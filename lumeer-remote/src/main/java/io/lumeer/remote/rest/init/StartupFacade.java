@@ -23,7 +23,10 @@ import io.lumeer.api.model.LinkInstance;
 import io.lumeer.api.model.ResourceComment;
 import io.lumeer.api.model.ResourceType;
 import io.lumeer.core.WorkspaceKeeper;
+import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
+import io.lumeer.storage.api.dao.AuditDao;
 import io.lumeer.storage.api.dao.CollectionDao;
+import io.lumeer.storage.api.dao.DataIndexDao;
 import io.lumeer.storage.api.dao.DocumentDao;
 import io.lumeer.storage.api.dao.LinkInstanceDao;
 import io.lumeer.storage.api.dao.LinkTypeDao;
@@ -38,6 +41,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.control.RequestContextController;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -53,6 +58,9 @@ public class StartupFacade implements Serializable {
    @Inject
    private ProjectDao projectDao;
 
+   @Inject
+   private CollectionDao collectionDao;
+
    @Inject
    private DocumentDao documentDao;
 
@@ -62,14 +70,32 @@ public class StartupFacade implements Serializable {
    @Inject
    private ResourceCommentDao resourceCommentDao;
 
+   @Inject
+   private AuditDao auditDao;
+
+   @Inject
+   private DataIndexDao dataIndexDao;
+
    @Inject
    private WorkspaceKeeper workspaceKeeper;
 
+   @Inject
+   private DefaultConfigurationProducer configurationProducer;
+
+   @Inject
+   private ManagedExecutorService executorService;
+
+   @Inject
+   private RequestContextController requestContextController;
+
    @PostConstruct
    public void afterDeployment() {
       log.info("Checking database for updates...");
       long tm = System.currentTimeMillis();
 
+      ensureIndexesInBackground();
+      configureDataIndexes();
+
       /*final LongAdder orgs = new LongAdder(), projs = new LongAdder(), comments = new LongAdder();
 
       workspaceKeeper.push();
@@ -127,4 +153,61 @@ public class StartupFacade implements Serializable {
 
       log.info("Updates completed in " + (System.currentTimeMillis() - tm) + "ms.");
    }
+
+   private void configureDataIndexes() {
+      final int maxIndexes = configurationProducer.getInt(DefaultConfigurationProducer.DATA_INDEX_BUDGET, DataIndexDao.DEFAULT_MAX_INDEXES);
+      final int maxCollectionIndexes = configurationProducer.getInt(DefaultConfigurationProducer.DATA_INDEX_COLLECTION_BUDGET, DataIndexDao.DEFAULT_MAX_COLLECTION_INDEXES);
+      final int minQueries = configurationProducer.getInt(DefaultConfigurationProducer.DATA_INDEX_MIN_QUERIES, DataIndexDao.DEFAULT_MIN_QUERIES);
+      dataIndexDao.setBudget(maxIndexes, maxCollectionIndexes, minQueries);
+      dataIndexDao.setExecutor(executorService);
+   }
+
+   /**
+    * Creating the indexes may take long in large projects, so the deployment does not wait for it. The repositories are request scoped,
+    * hence the request context of the executor thread.
+    */
+   private void ensureIndexesInBackground() {
+      executorService.submit(() -> {
+         requestContextController.activate();
+         try {
+            ensureIndexes();
+         } finally {
+            requestContextController.deactivate();
+         }
+      });
+   }
+
+   /**
+    * Creates the indexes added since the project repositories were created, already existing indexes are left untouched.
+    */
+   private void ensureIndexes() {
+      final LongAdder projs = new LongAdder();
+
+      workspaceKeeper.push();
+
+      try {
+         organizationDao.getAllOrganizations().forEach(organization -> {
+            workspaceKeeper.setOrganization(organization);
+            projectDao.switchOrganization();
+            projectDao.getAllProjects().forEach(project -> {
+               projs.increment();
+               try {
+                  collectionDao.ensureIndexes(project);
+                  documentDao.ensureIndexes(project);
+                  linkInstanceDao.ensureIndexes(project);
+                  resourceCommentDao.ensureIndexes(project);
+                  auditDao.ensureIndexes(project);
+               } catch (Exception e) {
+                  log.log(Level.WARNING, "Unable to ensure indexes in project " + project.getCode(), e);
+               }
+            });
+         });
+      } catch (Exception e) {
+         log.log(Level.SEVERE, "Unable to ensure indexes", e);
+      }
+
+      workspaceKeeper.pop();
+
+      log.info(String.format("Ensured indexes in %d projects.", projs.longValue()));
+   }
 }
@@ -24,10 +24,13 @@ import io.lumeer.api.model.ResourceType;
 
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface AuditDao extends ProjectScopedDao {
 
    AuditRecord findLatestAuditRecord(final String parentId, final ResourceType resourceType, final String resourceId);
+   Map<String, AuditRecord> findLatestAuditRecords(final String parentId, final ResourceType resourceType, final Set<String> resourceIds);
    List<AuditRecord> findAuditRecords(final String parentId, final ResourceType resourceType, final String resourceId);
    List<AuditRecord> findAuditRecords(final String parentId, final ResourceType resourceType, final String resourceId, final ZonedDateTime noOlderThan);
    List<AuditRecord> findAuditRecords(final String parentId, final ResourceType resourceType, final String resourceId, final int countLimit);
@@ -35,6 +38,16 @@ public interface AuditDao extends ProjectScopedDao {
    AuditRecord createAuditRecord(final AuditRecord record);
    AuditRecord updateAuditRecord(final AuditRecord record);
 
+   /**
+    * Inserts all the records and cleans the history of their resources older than the given date in a single round trip.
+    */
+   List<AuditRecord> createAuditRecords(final List<AuditRecord> records, final ZonedDateTime cleanOlderThan);
+
+   /**
+    * Updates and deletes the given records in a single round trip.
+    */
+   void updateAuditRecords(final List<AuditRecord> records, final Set<String> deletedIds);
+
    void deleteAuditRecord(final String id);
    void deleteAuditRecords(final String parentId, final ResourceType resourceType, final String resourceId);
    void cleanAuditRecords(final String parentId, final ResourceType resourceType, final String resourceId, final ZonedDateTime cleanOlderThan);
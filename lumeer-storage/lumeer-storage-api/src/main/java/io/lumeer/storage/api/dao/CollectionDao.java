@@ -25,6 +25,7 @@ import io.lumeer.storage.api.query.DatabaseQuery;
 import io.lumeer.storage.api.query.SearchSuggestionQuery;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface CollectionDao extends ProjectScopedDao {
@@ -63,6 +64,8 @@ public interface CollectionDao extends ProjectScopedDao {
 
    Set<String> getAllCollectionIds();
 
+   Map<String, Long> getAllCollectionVersions();
+
    Collection bookAttributesNum(String id, Collection collection, int count);
 
    void ensureIndexes(final Project project);
@@ -42,6 +42,8 @@ public interface DataDao {
 
    DataDocument patchData(String collectionId, String documentId, DataDocument data);
 
+   List<DataDocument> patchDataBulk(String collectionId, Map<String, DataDocument> data);
+
    void deleteData(String collectionId, String documentId);
 
    long deleteAttribute(String collectionId, String attributeId);
@@ -62,6 +64,13 @@ public interface DataDao {
 
    List<DataDocument> searchDataByFulltexts(Set<String> fulltexts, Pagination pagination, List<Collection> projectCollections);
 
+   /**
+    * Returns ids of documents whose data values may contain any of the fulltexts (case and diacritics insensitive), every document containing
+    * some of them as a substring of its plain text or number values is included. Returns null when the index is not available yet and the
+    * data have to be scanned.
+    */
+   Set<String> searchFulltextCandidates(String collectionId, Set<String> fulltexts);
+
    List<DataDocument> duplicateData(String collectionId, java.util.Collection<DataDocument> data, Map<String, String> documentIds);
 
 }
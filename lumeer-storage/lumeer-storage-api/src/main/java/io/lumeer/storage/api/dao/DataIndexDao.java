@@ -0,0 +1,44 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.api.dao;
+
+import io.lumeer.engine.api.data.DataIndexDecision;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Manages the attribute indexes which are created in the data collections according to the filters used.
+ */
+public interface DataIndexDao {
+
+   int DEFAULT_MAX_INDEXES = 50;
+   int DEFAULT_MAX_COLLECTION_INDEXES = 3;
+   int DEFAULT_MIN_QUERIES = 100;
+
+   void setBudget(int maxIndexes, int maxCollectionIndexes, int minQueries);
+
+   /**
+    * Sets the executor which creates and drops the indexes, no indexes are managed until it is set.
+    */
+   void setExecutor(Executor executor);
+
+   List<DataIndexDecision> getDecisions();
+
+}
@@ -20,6 +20,7 @@ package io.lumeer.storage.api.dao;
 
 import io.lumeer.api.model.Document;
 import io.lumeer.api.model.Pagination;
+import io.lumeer.api.model.Project;
 import io.lumeer.engine.api.data.DataDocument;
 
 import java.util.Collection;
@@ -35,6 +36,8 @@ public interface DocumentDao extends ProjectScopedDao {
 
    Document updateDocument(String id, Document document);
 
+   List<Document> updateDocumentsBulk(List<Document> documents);
+
    void deleteDocument(String id, DataDocument data);
 
    void deleteDocuments(String collectionId);
@@ -61,6 +64,14 @@ public interface DocumentDao extends ProjectScopedDao {
 
    List<Document> getDocumentsByCollection(String collectionId, Pagination pagination);
 
+   List<Document> getDocumentsWithData(String collectionId, Set<String> ids);
+
+   List<Document> getDocumentsWithData(String collectionId, Pagination pagination);
+
+   List<Document> getDocumentsByCreatorWithData(String collectionId, String userId, Set<String> ids);
+
+   List<Document> getDocumentsByCreatorWithData(String collectionId, String userId, Pagination pagination);
+
    List<Document> getDocumentsWithTemplateId();
 
    List<Document> getRecentDocuments(final String collectionId, boolean byUpdate);
@@ -69,4 +80,6 @@ public interface DocumentDao extends ProjectScopedDao {
 
    List<Document> duplicateDocuments(List<Document> documents);
 
+   void ensureIndexes(final Project project);
+
 }
@@ -1,5 +1,6 @@
 package io.lumeer.storage.api.dao;
 
+import java.util.Map;
 import java.util.Set;
 
 public interface FavoriteItemDao extends OrganizationScopedDao {
@@ -39,4 +40,6 @@ public interface FavoriteItemDao extends OrganizationScopedDao {
    void removeFavoriteDocumentsByCollectionFromUsers(String projectId, String collectionId);
 
    Set<String> getFavoriteDocumentIds(String userId, String projectId);
+
+   Map<String, Set<String>> getFavoriteDocumentIds(Set<String> userIds, String projectId, Set<String> documentIds);
 }
@@ -42,6 +42,8 @@ public interface LinkDataDao {
 
    DataDocument patchData(String linkTypeId, String linkInstanceId, DataDocument data);
 
+   List<DataDocument> patchDataBulk(String linkTypeId, Map<String, DataDocument> data);
+
    void deleteData(String linkTypeId, String linkInstanceId);
 
    void deleteData(String linkTypeId, Set<String> linkInstanceIds);
@@ -62,6 +64,13 @@ public interface LinkDataDao {
 
    List<DataDocument> searchDataByFulltexts(Set<String> fulltexts, Pagination pagination, List<LinkType> linkTypes);
 
+   /**
+    * Returns ids of link instances whose data values may contain any of the fulltexts (case and diacritics insensitive), every link instance containing
+    * some of them as a substring of its plain text or number values is included. Returns null when the index is not available yet and the
+    * data have to be scanned.
+    */
+   Set<String> searchFulltextCandidates(String linkTypeId, Set<String> fulltexts);
+
    List<DataDocument> duplicateData(String linkTypeId, Map<String, String> linkIds);
 
 }
@@ -39,6 +39,8 @@ public interface LinkInstanceDao extends ProjectScopedDao {
 
    LinkInstance updateLinkInstance(String id, LinkInstance linkInstance);
 
+   List<LinkInstance> updateLinkInstancesBulk(List<LinkInstance> linkInstances);
+
    void deleteLinkInstance(String id, final DataDocument data);
 
    void deleteLinkInstances(List<String> ids);
@@ -63,6 +65,16 @@ public interface LinkInstanceDao extends ProjectScopedDao {
 
    List<LinkInstance> getLinkInstancesByLinkType(String linkTypeId, Pagination pagination);
 
+   List<LinkInstance> getLinkInstancesWithData(String linkTypeId, Set<String> documentIds);
+
+   List<LinkInstance> getLinkInstancesWithData(String linkTypeId, Pagination pagination);
+
+   List<LinkInstance> getLinkInstancesWithDataByIds(String linkTypeId, Set<String> linkInstanceIds);
+
+   List<LinkInstance> getLinkInstancesByCreatorWithData(String linkTypeId, String userId, Set<String> documentIds);
+
+   List<LinkInstance> getLinkInstancesByCreatorWithData(String linkTypeId, String userId, Pagination pagination);
+
    Long getLinkInstancesCountByLinkType(String linkTypeId);
 
    Map<String, Long> getLinkInstancesCounts();
@@ -79,4 +91,6 @@ public interface LinkInstanceDao extends ProjectScopedDao {
 
    List<LinkInstance> duplicateLinkInstances(List<LinkInstance> linkInstances, String replaceDocumentId, String newDocumentId, Map<String, String> documentMap);
 
+   void ensureIndexes(final Project project);
+
 }
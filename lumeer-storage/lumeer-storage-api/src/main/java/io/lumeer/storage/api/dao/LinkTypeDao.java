@@ -24,6 +24,7 @@ import io.lumeer.api.model.Project;
 import io.lumeer.storage.api.query.SearchSuggestionQuery;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface LinkTypeDao extends ProjectScopedDao {
@@ -46,6 +47,8 @@ public interface LinkTypeDao extends ProjectScopedDao {
 
    List<LinkType> getLinkTypesByIds(Set<String> ids);
 
+   Map<String, Long> getAllLinkTypeVersions();
+
    List<LinkType> getLinkTypes(SearchSuggestionQuery query);
 
    List<LinkType> getLinkTypesByAttributes(SearchSuggestionQuery query);
@@ -20,6 +20,8 @@ package io.lumeer.storage.api.dao;
 
 import io.lumeer.api.model.Project;
 
+import java.util.Optional;
+
 public interface ProjectScopedDao {
 
    void createRepository(Project project);
@@ -28,4 +30,6 @@ public interface ProjectScopedDao {
 
    void setProject(Project project);
 
+   Optional<Project> getProject();
+
 }
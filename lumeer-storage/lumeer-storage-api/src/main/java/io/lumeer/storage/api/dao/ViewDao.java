@@ -23,6 +23,7 @@ import io.lumeer.storage.api.query.DatabaseQuery;
 import io.lumeer.storage.api.query.SearchSuggestionQuery;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface ViewDao extends ProjectScopedDao {
@@ -41,10 +42,14 @@ public interface ViewDao extends ProjectScopedDao {
 
    List<View> getAllViews();
 
+   List<View> getViewsByIds(Set<String> ids);
+
    List<View> getViews(DatabaseQuery query);
 
    List<View> getViews(SearchSuggestionQuery query, boolean skipPermissions);
 
    Set<String> getAllViewCodes();
 
+   Map<String, Long> getAllViewVersions();
+
 }
@@ -31,6 +31,11 @@ public class CollectionSearchAttributeFilter extends SearchAttributeFilter {
       this.collectionId = collectionId;
    }
 
+   public CollectionSearchAttributeFilter(final String collectionId, final ConditionType conditionType, final String attributeId, final Object value, final boolean keepOtherTypes) {
+      super(conditionType, attributeId, value, keepOtherTypes);
+      this.collectionId = collectionId;
+   }
+
    public String getCollectionId() {
       return collectionId;
    }
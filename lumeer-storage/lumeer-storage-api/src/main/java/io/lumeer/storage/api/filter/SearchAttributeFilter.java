@@ -27,11 +27,20 @@ public class SearchAttributeFilter {
    private final ConditionType conditionType;
    private final String attributeId;
    private final Object value;
+   private final boolean keepOtherTypes;
 
    public SearchAttributeFilter(final ConditionType conditionType, final String attributeId, final Object value) {
+      this(conditionType, attributeId, value, false);
+   }
+
+   /**
+    * @param keepOtherTypes when true, the condition is applied only to values of the same type as the filter value and all other values are kept
+    */
+   public SearchAttributeFilter(final ConditionType conditionType, final String attributeId, final Object value, final boolean keepOtherTypes) {
       this.conditionType = conditionType;
       this.attributeId = attributeId;
       this.value = value;
+      this.keepOtherTypes = keepOtherTypes;
    }
 
    public ConditionType getConditionType() {
@@ -46,6 +55,10 @@ public class SearchAttributeFilter {
       return attributeId;
    }
 
+   public boolean isKeepOtherTypes() {
+      return keepOtherTypes;
+   }
+
    @Override
    public boolean equals(final Object o) {
       if (this == o) {
@@ -56,6 +69,7 @@ public class SearchAttributeFilter {
       }
       final SearchAttributeFilter that = (SearchAttributeFilter) o;
       return getConditionType() == that.getConditionType() &&
+            isKeepOtherTypes() == that.isKeepOtherTypes() &&
             Objects.equals(getValue(), that.getValue()) &&
             Objects.equals(getAttributeId(), that.getAttributeId());
    }
@@ -63,7 +77,7 @@ public class SearchAttributeFilter {
    @Override
    public int hashCode() {
 
-      return Objects.hash(getConditionType(), getValue(), getAttributeId());
+      return Objects.hash(getConditionType(), getValue(), getAttributeId(), isKeepOtherTypes());
    }
 
    @Override
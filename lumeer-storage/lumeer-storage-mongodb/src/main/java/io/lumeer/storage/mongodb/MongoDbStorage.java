@@ -42,6 +42,7 @@ import io.lumeer.storage.mongodb.codecs.providers.CollectionPurposeCodecProvider
 import io.lumeer.storage.mongodb.codecs.providers.CompanyContactCodedProvider;
 import io.lumeer.storage.mongodb.codecs.providers.ConditionValueCodecProvider;
 import io.lumeer.storage.mongodb.codecs.providers.ConstraintCodecProvider;
+import io.lumeer.storage.mongodb.codecs.providers.DataDocumentCodecProvider;
 import io.lumeer.storage.mongodb.codecs.providers.DefaultViewConfigCodecProvider;
 import io.lumeer.storage.mongodb.codecs.providers.DelayedActionCodecProvider;
 import io.lumeer.storage.mongodb.codecs.providers.DocumentCodecProvider;
@@ -77,6 +78,7 @@ import com.mongodb.ErrorCategory;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientOptions;
 import com.mongodb.MongoCredential;
+import com.mongodb.MongoException;
 import com.mongodb.MongoNamespace;
 import com.mongodb.MongoWriteException;
 import com.mongodb.ServerAddress;
@@ -107,7 +109,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -161,7 +165,9 @@ public class MongoDbStorage implements DataStorage {
                new DelayedActionCodecProvider(), new NotificationSettingCodecProvider(), new CollectionPurposeCodecProvider(), new AuditRecordCodecProvider(),
                new RoleCodecProvider()
          );
-         final CodecRegistry registry = CodecRegistries.fromRegistries(defaultRegistry, codecRegistry, providersRegistry);
+         // the default registry would decode DataDocument as a plain map
+         final CodecRegistry dataDocumentRegistry = CodecRegistries.fromProviders(new DataDocumentCodecProvider());
+         final CodecRegistry registry = CodecRegistries.fromRegistries(dataDocumentRegistry, defaultRegistry, codecRegistry, providersRegistry);
 
          log.log(Level.INFO, "Opening connection to " + connections.stream().map(StorageConnection::getHost).collect(Collectors.joining(", ")));
 
@@ -590,10 +596,26 @@ public class MongoDbStorage implements DataStorage {
       dss.setStorageSize(collStats.getInteger("storageSize"));
       dss.setIndexes(collStats.getInteger("nindexes"));
       dss.setIndexSize(collStats.getInteger("totalIndexSize"));
+      dss.setIndexUsage(getIndexUsage(collectionName));
 
       return dss;
    }
 
+   private Map<String, Long> getIndexUsage(final String collectionName) {
+      final Map<String, Long> indexUsage = new TreeMap<>();
+      try {
+         database.getCollection(collectionName).aggregate(Collections.singletonList(new Document("$indexStats", new Document()))).forEach((Consumer<? super Document>) indexStats -> {
+            final Document accesses = indexStats.get("accesses", Document.class);
+            final Object ops = accesses != null ? accesses.get("ops") : null;
+            indexUsage.put(indexStats.getString("name"), ops instanceof Number ? ((Number) ops).longValue() : 0L);
+         });
+      } catch (MongoException e) {
+         // reading index statistics needs the indexStats privilege which the database user may not have
+         log.log(Level.FINE, "Unable to read index statistics of " + collectionName, e);
+      }
+      return indexUsage;
+   }
+
    public MongoDatabase getDatabase() {
       return database;
    }
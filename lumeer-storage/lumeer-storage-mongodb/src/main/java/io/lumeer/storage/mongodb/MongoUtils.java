@@ -47,6 +47,16 @@ public class MongoUtils {
       return dataDocument;
    }
 
+   /**
+    * Converts the data joined by the $lookup stage, the joined array is empty when the data does not exist.
+    */
+   public static DataDocument convertLookupDocument(Object lookup) {
+      if (lookup instanceof List && !((List<?>) lookup).isEmpty() && ((List<?>) lookup).get(0) instanceof Document) {
+         return convertDocument((Document) ((List<?>) lookup).get(0));
+      }
+      return new DataDocument();
+   }
+
    public static List<DataDocument> convertIterableToList(MongoIterable<Document> documents) {
       final List<DataDocument> result = new ArrayList<>();
       MongoCursor<Document> it = documents.iterator();
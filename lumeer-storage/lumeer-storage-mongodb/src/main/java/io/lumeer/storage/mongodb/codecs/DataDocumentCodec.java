@@ -0,0 +1,175 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.codecs;
+
+import io.lumeer.engine.api.data.DataDocument;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonTypeClassMap;
+import org.bson.codecs.BsonTypeCodecMap;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.Decimal128;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@link DataDocument} directly from BSON in a single pass. Nested documents are read as {@link DataDocument},
+ * arrays as {@link ArrayList} and {@link Decimal128} as {@link java.math.BigDecimal}. The object id of the document
+ * (and of a shadow document stored in its id) is converted to its hex string the same way as in {@link io.lumeer.storage.mongodb.MongoUtils#convertDocument(org.bson.Document)}.
+ */
+public class DataDocumentCodec implements Codec<DataDocument> {
+
+   private static final String ID = "_id";
+
+   private final CodecRegistry registry;
+   private final BsonTypeCodecMap bsonTypeCodecMap;
+
+   public DataDocumentCodec(final CodecRegistry registry) {
+      this.registry = registry;
+      this.bsonTypeCodecMap = new BsonTypeCodecMap(new BsonTypeClassMap(), registry);
+   }
+
+   @Override
+   public DataDocument decode(final BsonReader reader, final DecoderContext decoderContext) {
+      return readDocument(reader, decoderContext, true);
+   }
+
+   /**
+    * Reads the current value of the reader, documents and arrays are read recursively.
+    */
+   public Object readValue(final BsonReader reader, final DecoderContext decoderContext) {
+      switch (reader.getCurrentBsonType()) {
+         case NULL:
+            reader.readNull();
+            return null;
+         case STRING:
+            return reader.readString();
+         case INT32:
+            return reader.readInt32();
+         case INT64:
+            return reader.readInt64();
+         case DOUBLE:
+            return reader.readDouble();
+         case BOOLEAN:
+            return reader.readBoolean();
+         case DATE_TIME:
+            return new Date(reader.readDateTime());
+         case DECIMAL128:
+            return reader.readDecimal128().bigDecimalValue();
+         case DOCUMENT:
+            return readDocument(reader, decoderContext, false);
+         case ARRAY:
+            return readList(reader, decoderContext);
+         default:
+            return bsonTypeCodecMap.get(reader.getCurrentBsonType()).decode(reader, decoderContext);
+      }
+   }
+
+   /**
+    * Reads the data joined by the $lookup stage, the joined array is empty when the data does not exist.
+    */
+   public DataDocument readLookup(final BsonReader reader, final DecoderContext decoderContext) {
+      if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+         reader.skipValue();
+         return new DataDocument();
+      }
+
+      DataDocument data = null;
+      reader.readStartArray();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+         if (data == null && reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+            data = decode(reader, decoderContext);
+         } else {
+            reader.skipValue();
+         }
+      }
+      reader.readEndArray();
+
+      return data != null ? data : new DataDocument();
+   }
+
+   private DataDocument readDocument(final BsonReader reader, final DecoderContext decoderContext, final boolean replaceId) {
+      final DataDocument document = new DataDocument();
+
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+         final String name = reader.readName();
+         if (replaceId && ID.equals(name)) {
+            document.put(name, readId(reader, decoderContext));
+         } else {
+            document.put(name, readValue(reader, decoderContext));
+         }
+      }
+      reader.readEndDocument();
+
+      return document;
+   }
+
+   private Object readId(final BsonReader reader, final DecoderContext decoderContext) {
+      switch (reader.getCurrentBsonType()) {
+         case OBJECT_ID:
+            return reader.readObjectId().toHexString();
+         case DOCUMENT: // shadow document
+            return readDocument(reader, decoderContext, true);
+         default:
+            return readValue(reader, decoderContext);
+      }
+   }
+
+   private List<Object> readList(final BsonReader reader, final DecoderContext decoderContext) {
+      final List<Object> list = new ArrayList<>();
+
+      reader.readStartArray();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+         list.add(readValue(reader, decoderContext));
+      }
+      reader.readEndArray();
+
+      return list;
+   }
+
+   @Override
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void encode(final BsonWriter writer, final DataDocument value, final EncoderContext encoderContext) {
+      writer.writeStartDocument();
+      for (final Map.Entry<String, Object> entry : value.entrySet()) {
+         writer.writeName(entry.getKey());
+         if (entry.getValue() == null) {
+            writer.writeNull();
+         } else {
+            final Codec codec = registry.get(entry.getValue().getClass());
+            encoderContext.encodeWithChildContext(codec, writer, entry.getValue());
+         }
+      }
+      writer.writeEndDocument();
+   }
+
+   @Override
+   public Class<DataDocument> getEncoderClass() {
+      return DataDocument.class;
+   }
+}
@@ -24,6 +24,7 @@ import io.lumeer.engine.api.data.DataDocument;
 
 import org.bson.BsonObjectId;
 import org.bson.BsonReader;
+import org.bson.BsonType;
 import org.bson.BsonValue;
 import org.bson.BsonWriter;
 import org.bson.codecs.Codec;
@@ -47,33 +48,77 @@ public class DocumentCodec implements CollectibleCodec<Document> {
    public static final String UPDATED_BY = "updatedBy";
    public static final String DATA_VERSION = "dataVersion";
    public static final String META_DATA = "metaData";
+   public static final String DATA = "data";
 
    private final Codec<org.bson.Document> documentCodec;
+   private final DataDocumentCodec dataDocumentCodec;
 
    public DocumentCodec(final CodecRegistry registry) {
       this.documentCodec = registry.get(org.bson.Document.class);
+      this.dataDocumentCodec = new DataDocumentCodec(registry);
    }
 
    @Override
    public Document decode(final BsonReader reader, final DecoderContext decoderContext) {
-      org.bson.Document bson = documentCodec.decode(reader, decoderContext);
-
-      String id = bson.getObjectId(ID).toHexString();
-      String collectionId = bson.getString(COLLECTION_ID);
-      Date creationDate = bson.getDate(CREATION_DATE);
-      ZonedDateTime creationZonedDate = creationDate != null ? ZonedDateTime.ofInstant(creationDate.toInstant(), ZoneOffset.UTC) : null;
-      String createdBy = bson.getString(CREATED_BY);
-      Date updateDate = bson.getDate(UPDATE_DATE);
-      ZonedDateTime updatedZonedDate = updateDate != null ? ZonedDateTime.ofInstant(updateDate.toInstant(), ZoneOffset.UTC) : null;
-      String updatedBy = bson.getString(UPDATED_BY);
-      Integer version = bson.getInteger(DATA_VERSION);
-      org.bson.Document metaData = bson.get(META_DATA, org.bson.Document.class);
-
-      Document document = new Document(collectionId, creationZonedDate, updatedZonedDate, createdBy, updatedBy, version == null ? 0 : version, new DataDocument(metaData != null ? metaData : new org.bson.Document()));
+      String id = null;
+      String collectionId = null;
+      ZonedDateTime creationDate = null;
+      ZonedDateTime updateDate = null;
+      String createdBy = null;
+      String updatedBy = null;
+      Integer version = null;
+      DataDocument metaData = null;
+      DataDocument data = null;
+
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+         switch (reader.readName()) {
+            case ID:
+               id = reader.readObjectId().toHexString();
+               break;
+            case COLLECTION_ID:
+               collectionId = (String) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case CREATION_DATE:
+               creationDate = toZonedDateTime((Date) dataDocumentCodec.readValue(reader, decoderContext));
+               break;
+            case UPDATE_DATE:
+               updateDate = toZonedDateTime((Date) dataDocumentCodec.readValue(reader, decoderContext));
+               break;
+            case CREATED_BY:
+               createdBy = (String) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case UPDATED_BY:
+               updatedBy = (String) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case DATA_VERSION:
+               version = (Integer) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case META_DATA:
+               metaData = (DataDocument) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case DATA:
+               data = dataDocumentCodec.readLookup(reader, decoderContext);
+               break;
+            default:
+               reader.skipValue();
+         }
+      }
+      reader.readEndDocument();
+
+      Document document = new Document(collectionId, creationDate, updateDate, createdBy, updatedBy, version == null ? 0 : version, metaData != null ? metaData : new DataDocument());
       document.setId(id);
+
+      if (data != null) {
+         document.setData(data);
+      }
       return document;
    }
 
+   private ZonedDateTime toZonedDateTime(final Date date) {
+      return date != null ? ZonedDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC) : null;
+   }
+
    @Override
    public void encode(final BsonWriter writer, final Document document, final EncoderContext encoderContext) {
       org.bson.Document bson = document.getId() != null ? new org.bson.Document(ID, new ObjectId(document.getId())) : new org.bson.Document();
@@ -20,9 +20,11 @@
 package io.lumeer.storage.mongodb.codecs;
 
 import io.lumeer.api.model.LinkInstance;
+import io.lumeer.engine.api.data.DataDocument;
 
 import org.bson.BsonObjectId;
 import org.bson.BsonReader;
+import org.bson.BsonType;
 import org.bson.BsonValue;
 import org.bson.BsonWriter;
 import org.bson.Document;
@@ -48,39 +50,83 @@ public class LinkInstanceCodec implements CollectibleCodec<LinkInstance> {
    public static final String CREATED_BY = "createdBy";
    public static final String UPDATED_BY = "updatedBy";
    public static final String DATA_VERSION = "dataVersion";
+   public static final String DATA = "data";
 
    private final Codec<Document> documentCodec;
+   private final DataDocumentCodec dataDocumentCodec;
 
    public LinkInstanceCodec(final CodecRegistry registry) {
       this.documentCodec = registry.get(Document.class);
+      this.dataDocumentCodec = new DataDocumentCodec(registry);
    }
 
    @Override
+   @SuppressWarnings("unchecked")
    public LinkInstance decode(final BsonReader reader, final DecoderContext decoderContext) {
-      Document bson = documentCodec.decode(reader, decoderContext);
-
-      String id = bson.getObjectId(ID).toHexString();
-      String linkTypeId = bson.getString(LINK_TYPE_ID);
-      @SuppressWarnings("unchecked")
-      List<String> documentIds = bson.get(DOCUMENTS_IDS, List.class);
-      Date creationDate = bson.getDate(CREATION_DATE);
-      ZonedDateTime creationZonedDate = creationDate != null ? ZonedDateTime.ofInstant(creationDate.toInstant(), ZoneOffset.UTC) : null;
-      String createdBy = bson.getString(CREATED_BY);
-      Date updateDate = bson.getDate(UPDATE_DATE);
-      ZonedDateTime updatedZonedDate = updateDate != null ? ZonedDateTime.ofInstant(updateDate.toInstant(), ZoneOffset.UTC) : null;
-      String updatedBy = bson.getString(UPDATED_BY);
-      Integer version = bson.getInteger(DATA_VERSION);
+      String id = null;
+      String linkTypeId = null;
+      List<String> documentIds = null;
+      ZonedDateTime creationDate = null;
+      ZonedDateTime updateDate = null;
+      String createdBy = null;
+      String updatedBy = null;
+      Integer version = null;
+      DataDocument data = null;
+
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+         switch (reader.readName()) {
+            case ID:
+               id = reader.readObjectId().toHexString();
+               break;
+            case LINK_TYPE_ID:
+               linkTypeId = (String) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case DOCUMENTS_IDS:
+               documentIds = (List<String>) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case CREATION_DATE:
+               creationDate = toZonedDateTime((Date) dataDocumentCodec.readValue(reader, decoderContext));
+               break;
+            case UPDATE_DATE:
+               updateDate = toZonedDateTime((Date) dataDocumentCodec.readValue(reader, decoderContext));
+               break;
+            case CREATED_BY:
+               createdBy = (String) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case UPDATED_BY:
+               updatedBy = (String) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case DATA_VERSION:
+               version = (Integer) dataDocumentCodec.readValue(reader, decoderContext);
+               break;
+            case DATA:
+               data = dataDocumentCodec.readLookup(reader, decoderContext);
+               break;
+            default:
+               reader.skipValue();
+         }
+      }
+      reader.readEndDocument();
 
       LinkInstance linkInstance = new LinkInstance(linkTypeId, documentIds);
       linkInstance.setId(id);
       linkInstance.setUpdatedBy(updatedBy);
-      linkInstance.setUpdateDate(updatedZonedDate);
+      linkInstance.setUpdateDate(updateDate);
       linkInstance.setCreatedBy(createdBy);
-      linkInstance.setCreationDate(creationZonedDate);
+      linkInstance.setCreationDate(creationDate);
       linkInstance.setDataVersion(version == null ? 0 : version);
+
+      if (data != null) {
+         linkInstance.setData(data);
+      }
       return linkInstance;
    }
 
+   private ZonedDateTime toZonedDateTime(final Date date) {
+      return date != null ? ZonedDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC) : null;
+   }
+
    @Override
    public void encode(final BsonWriter writer, final LinkInstance value, final EncoderContext encoderContext) {
       Document bson = value.getId() != null ? new Document(ID, new ObjectId(value.getId())) : new Document();
@@ -20,17 +20,26 @@ package io.lumeer.storage.mongodb.dao;
 
 import io.lumeer.api.model.Pagination;
 import io.lumeer.storage.api.query.DatabaseQuery;
+import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 
+import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class MongoDao {
 
+   private static final String ID = "_id";
+
    protected MongoDatabase database;
 
    public void setDatabase(final MongoDatabase database) {
@@ -41,21 +50,60 @@ public abstract class MongoDao {
       addPaginationToQuery(findIterable, query.getPagination());
    }
 
+   /**
+    * Restricts the filter to entities following the last seen id when keyset pagination is used,
+    * the query itself must be then paginated by {@link #addPaginationToQuery(FindIterable, Pagination)}.
+    */
+   public Bson addPaginationToFilter(Bson filter, Pagination pagination) {
+      if (pagination != null && pagination.isSeek() && pagination.getLastId() != null) {
+         return Filters.and(filter, MongoFilters.idGreaterThanFilter(pagination.getLastId()));
+      }
+      return filter;
+   }
+
    public <T> void addPaginationToQuery(FindIterable<T> findIterable, Pagination pagination) {
       Integer page = pagination != null ? pagination.getPage() : null;
       Integer pageSize = pagination != null ? pagination.getPageSize() : null;
 
-      if (page != null && pageSize != null) {
+      if (pagination != null && pagination.isSeek()) {
+         findIterable.sort(Sorts.ascending(ID));
+         if (pageSize != null) {
+            findIterable.limit(pageSize);
+         }
+      } else if (page != null && pageSize != null) {
          findIterable.skip(page * pageSize)
                      .limit(pageSize);
       }
    }
 
    public void addPaginationToAggregates(List<Bson> aggregates, DatabaseQuery query) {
-      if (query.getPage() != null && query.getPageSize() != null) {
-         aggregates.add(Aggregates.skip(query.getPage() * query.getPageSize()));
-         aggregates.add(Aggregates.limit(query.getPageSize()));
+      addPaginationToAggregates(aggregates, query.getPagination());
+   }
+
+   public void addPaginationToAggregates(List<Bson> aggregates, Pagination pagination) {
+      Integer page = pagination != null ? pagination.getPage() : null;
+      Integer pageSize = pagination != null ? pagination.getPageSize() : null;
+
+      if (pagination != null && pagination.isSeek()) {
+         aggregates.add(Aggregates.sort(Sorts.ascending(ID)));
+         if (pageSize != null) {
+            aggregates.add(Aggregates.limit(pageSize));
+         }
+      } else if (page != null && pageSize != null) {
+         aggregates.add(Aggregates.skip(page * pageSize));
+         aggregates.add(Aggregates.limit(pageSize));
       }
    }
 
+   /**
+    * Reads only ids and versions of all entities in the database collection, the natural order of the collection is kept.
+    */
+   protected Map<String, Long> getVersions(final String collectionName, final String versionField) {
+      final Map<String, Long> versions = new LinkedHashMap<>();
+      for (Document document : database.getCollection(collectionName).find().projection(Projections.include(versionField))) {
+         final Object version = document.get(versionField);
+         versions.put(document.getObjectId(ID).toHexString(), version instanceof Number ? ((Number) version).longValue() : 0L);
+      }
+      return versions;
+   }
 }
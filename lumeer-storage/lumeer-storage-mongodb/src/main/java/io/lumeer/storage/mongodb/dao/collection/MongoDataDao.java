@@ -31,17 +31,23 @@ import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.api.filter.CollectionSearchAttributeFilter;
 import io.lumeer.storage.api.query.SearchQueryStem;
 import io.lumeer.storage.mongodb.MongoUtils;
+import io.lumeer.storage.mongodb.util.MongoDataIndexAdvisor;
 import io.lumeer.storage.mongodb.util.MongoFilters;
+import io.lumeer.storage.mongodb.util.MongoFulltextIndex;
 
+import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.UpdateResult;
 import org.bson.BsonDocument;
 import org.bson.Document;
@@ -54,7 +60,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -79,12 +84,15 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
    @Override
    public void deleteDataRepository(final String collectionId) {
       dataCollection(collectionId).drop();
+      fulltextIndex(collectionId).drop();
+      MongoDataIndexAdvisor.getInstance().forget(database, dataCollectionName(collectionId));
    }
 
    @Override
    public DataDocument createData(final String collectionId, final String documentId, final DataDocument data) {
       Document document = new Document(data).append(ID, new ObjectId(documentId));
       dataCollection(collectionId).insertOne(document);
+      fulltextIndex(collectionId).index(List.of(new DataDocument(data).append(ID, documentId)));
       return data;
    }
 
@@ -98,6 +106,7 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
          String id = idObj instanceof String ? (String) idObj : ((ObjectId) idObj).toHexString();
          data.get(i).setId(id);
       }
+      fulltextIndex(collectionId).index(data);
       return data;
    }
 
@@ -110,7 +119,10 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       if (updatedDocument == null) {
          throw new StorageException("Document '" + documentId + "' has not been updated (replaced).");
       }
-      return MongoUtils.convertDocument(updatedDocument);
+
+      final DataDocument updatedData = MongoUtils.convertDocument(updatedDocument);
+      fulltextIndex(collectionId).index(List.of(updatedData));
+      return updatedData;
    }
 
    @Override
@@ -128,37 +140,62 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       if (patchedDocument == null) {
          throw new StorageException("Document '" + documentId + "' has not been patched (partially updated).");
       }
-      return MongoUtils.convertDocument(patchedDocument);
+
+      final DataDocument patchedData = MongoUtils.convertDocument(patchedDocument);
+      fulltextIndex(collectionId).index(List.of(patchedData));
+      return patchedData;
+   }
+
+   @Override
+   public List<DataDocument> patchDataBulk(final String collectionId, final Map<String, DataDocument> data) {
+      final List<WriteModel<Document>> updates = new ArrayList<>();
+      data.forEach((documentId, patch) -> {
+         patch.remove(ID);
+         if (patch.size() > 0) {
+            updates.add(new UpdateOneModel<>(idFilter(documentId), new Document("$set", new Document(patch)), new UpdateOptions().upsert(true)));
+         }
+      });
+
+      if (!updates.isEmpty()) {
+         try {
+            dataCollection(collectionId).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+         } catch (MongoException ex) {
+            throw new StorageException("Cannot patch data in collection '" + collectionId + "'.", ex);
+         }
+      }
+
+      final List<DataDocument> patchedData = getData(collectionId, data.keySet());
+      fulltextIndex(collectionId).index(patchedData);
+      return patchedData;
    }
 
    @Override
    public void deleteData(final String collectionId, final String documentId) {
       dataCollection(collectionId).deleteOne(idFilter(documentId));
+      fulltextIndex(collectionId).remove(List.of(documentId));
    }
 
    @Override
    public long deleteAttribute(final String collectionId, final String attributeId) {
+      // n-grams of the removed values stay in the fulltext index, it only returns more candidates
       final UpdateResult updateResult = dataCollection(collectionId).updateMany(new BsonDocument(), Updates.unset(attributeId));
       return updateResult.getModifiedCount();
    }
 
    @Override
    public DataDocument getData(final String collectionId, final String documentId) {
-      MongoCursor<Document> mongoCursor = dataCollection(collectionId).find(idFilter(documentId)).iterator();
-      if (!mongoCursor.hasNext()) {
-         return new DataDocument();
-      }
-      return MongoUtils.convertDocument(mongoCursor.next());
+      final DataDocument data = dataDocumentCollection(collectionId).find(idFilter(documentId)).first();
+      return data != null ? data : new DataDocument();
    }
 
    @Override
    public List<DataDocument> getData(final String collectionId) {
-      return MongoUtils.convertIterableToList(dataCollection(collectionId).find());
+      return dataDocumentCollection(collectionId).find().into(new ArrayList<>());
    }
 
    @Override
    public Stream<DataDocument> getDataStream(String collectionId) {
-      return StreamSupport.stream(dataCollection(collectionId).find().map(MongoUtils::convertDocument).spliterator(), false);
+      return StreamSupport.stream(dataDocumentCollection(collectionId).find().spliterator(), false);
    }
 
    @Override
@@ -167,20 +204,23 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       if (idsFilter == null) {
          return Collections.emptyList();
       }
-      return MongoUtils.convertIterableToList(dataCollection(collectionId).find(idsFilter));
+      return dataDocumentCollection(collectionId).find(idsFilter).into(new ArrayList<>());
    }
 
    @Override
    public List<DataDocument> getData(final String collectionId, final Integer skip, final Integer limit) {
-      return MongoUtils.convertIterableToList(dataCollection(collectionId).find().skip(skip).limit(limit));
+      return dataDocumentCollection(collectionId).find().skip(skip).limit(limit).into(new ArrayList<>());
    }
 
    @Override
    public List<DataDocument> searchData(final SearchQueryStem stem, final Pagination pagination, final Collection collection) {
-      Bson filter = createFilterForStem(stem, collection);
-      FindIterable<Document> iterable = dataCollection(collection.getId()).find(filter);
+      Bson filter = addPaginationToFilter(createFilterForStem(stem, collection), pagination);
+      FindIterable<DataDocument> iterable = dataDocumentCollection(collection.getId()).find(filter);
       addPaginationToQuery(iterable, pagination);
-      return MongoUtils.convertIterableToList(iterable);
+      final long start = System.nanoTime();
+      final List<DataDocument> data = iterable.into(new ArrayList<>());
+      recordFilters(collection.getId(), stem, start);
+      return data;
    }
 
    @Override
@@ -190,8 +230,17 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
          return Collections.emptyList();
       }
       Bson filter = Filters.and(idsFilter, createFilterForStem(stem, collection));
-      FindIterable<Document> iterable = dataCollection(collection.getId()).find(filter);
-      return MongoUtils.convertIterableToList(iterable);
+      FindIterable<DataDocument> iterable = dataDocumentCollection(collection.getId()).find(filter);
+      final long start = System.nanoTime();
+      final List<DataDocument> data = iterable.into(new ArrayList<>());
+      recordFilters(collection.getId(), stem, start);
+      return data;
+   }
+
+   private void recordFilters(final String collectionId, final SearchQueryStem stem, final long start) {
+      if (stem.containsFiltersQuery()) {
+         MongoDataIndexAdvisor.getInstance().record(database, dataCollectionName(collectionId), stem.getFilters(), System.nanoTime() - start);
+      }
    }
 
    private Bson createFilterForStem(final SearchQueryStem stem, Collection collection) {
@@ -234,15 +283,20 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       for (Collection collection : projectCollections) {
          Bson filter = createFilterForFulltexts(collection.getAttributes(), fulltexts);
          if (filter != null) {
-            FindIterable<Document> iterable = dataCollection(collection.getId()).find(filter);
+            FindIterable<DataDocument> iterable = dataDocumentCollection(collection.getId()).find(filter);
             addPaginationToQuery(iterable, pagination);
-            documents.addAll(MongoUtils.convertIterableToList(iterable));
+            documents.addAll(iterable.into(new ArrayList<>()));
          }
       }
 
       return documents;
    }
 
+   @Override
+   public Set<String> searchFulltextCandidates(final String collectionId, final Set<String> fulltexts) {
+      return fulltextIndex(collectionId).findCandidates(fulltexts, () -> getDataStream(collectionId).iterator());
+   }
+
    @Override
    public List<DataDocument> duplicateData(final String collectionId, final java.util.Collection<DataDocument> dataList, final Map<String, String> documentIds) {
       final List<DataDocument> newData = new ArrayList<>();
@@ -260,16 +314,25 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
                                 .map(data -> new Document(data).append(ID, new ObjectId(data.getId())))
                                 .collect(Collectors.toList());
          dataCollection(collectionId).insertMany(documents);
+         fulltextIndex(collectionId).index(newData);
       }
 
       return newData;
    }
 
+   private MongoFulltextIndex fulltextIndex(final String collectionId) {
+      return new MongoFulltextIndex(database, dataCollectionName(collectionId));
+   }
+
    MongoCollection<Document> dataCollection(String collectionId) {
       return database.getCollection(dataCollectionName(collectionId));
    }
 
-   String dataCollectionName(String collectionId) {
+   private MongoCollection<DataDocument> dataDocumentCollection(String collectionId) {
+      return dataCollection(collectionId).withDocumentClass(DataDocument.class);
+   }
+
+   public static String dataCollectionName(String collectionId) {
       return PREFIX + collectionId;
    }
 
@@ -0,0 +1,46 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.dao.collection;
+
+import io.lumeer.engine.api.data.DataIndexDecision;
+import io.lumeer.storage.api.dao.DataIndexDao;
+import io.lumeer.storage.mongodb.util.MongoDataIndexAdvisor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import javax.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class MongoDataIndexDao implements DataIndexDao {
+
+   @Override
+   public void setBudget(final int maxIndexes, final int maxCollectionIndexes, final int minQueries) {
+      MongoDataIndexAdvisor.getInstance().setBudget(maxIndexes, maxCollectionIndexes, minQueries);
+   }
+
+   @Override
+   public void setExecutor(final Executor executor) {
+      MongoDataIndexAdvisor.getInstance().setExecutor(executor);
+   }
+
+   @Override
+   public List<DataIndexDecision> getDecisions() {
+      return MongoDataIndexAdvisor.getInstance().getDecisions();
+   }
+}
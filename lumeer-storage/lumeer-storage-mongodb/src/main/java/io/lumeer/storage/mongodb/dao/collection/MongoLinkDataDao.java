@@ -30,16 +30,21 @@ import io.lumeer.storage.api.filter.LinkSearchAttributeFilter;
 import io.lumeer.storage.api.query.SearchQueryStem;
 import io.lumeer.storage.mongodb.MongoUtils;
 import io.lumeer.storage.mongodb.util.MongoFilters;
+import io.lumeer.storage.mongodb.util.MongoFulltextIndex;
 
+import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.UpdateResult;
 import org.bson.BsonDocument;
 import org.bson.Document;
@@ -77,12 +82,14 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
    @Override
    public void deleteDataRepository(final String linkTypeId) {
       linkDataCollection(linkTypeId).drop();
+      fulltextIndex(linkTypeId).drop();
    }
 
    @Override
    public DataDocument createData(final String linkTypeId, final String linkInstanceId, final DataDocument data) {
       Document document = new Document(data).append(ID, new ObjectId(linkInstanceId));
       linkDataCollection(linkTypeId).insertOne(document);
+      fulltextIndex(linkTypeId).index(List.of(new DataDocument(data).append(ID, linkInstanceId)));
       return data;
    }
 
@@ -96,6 +103,7 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
          String id = idObj instanceof String ? (String) idObj : ((ObjectId) idObj).toHexString();
          data.get(i).setId(id);
       }
+      fulltextIndex(linkTypeId).index(data);
 
       return data;
    }
@@ -109,7 +117,10 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
       if (updatedDocument == null) {
          throw new StorageException("LinkInstance '" + linkInstanceId + "' has not been updated (replaced).");
       }
-      return MongoUtils.convertDocument(updatedDocument);
+
+      final DataDocument updatedData = MongoUtils.convertDocument(updatedDocument);
+      fulltextIndex(linkTypeId).index(List.of(updatedData));
+      return updatedData;
    }
 
    @Override
@@ -127,12 +138,39 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
       if (patchedDocument == null) {
          throw new StorageException("LinkInstance '" + linkInstanceId + "' has not been patched (partially updated).");
       }
-      return MongoUtils.convertDocument(patchedDocument);
+
+      final DataDocument patchedData = MongoUtils.convertDocument(patchedDocument);
+      fulltextIndex(linkTypeId).index(List.of(patchedData));
+      return patchedData;
+   }
+
+   @Override
+   public List<DataDocument> patchDataBulk(final String linkTypeId, final Map<String, DataDocument> data) {
+      final List<WriteModel<Document>> updates = new ArrayList<>();
+      data.forEach((linkInstanceId, patch) -> {
+         patch.remove(ID);
+         if (patch.size() > 0) {
+            updates.add(new UpdateOneModel<>(idFilter(linkInstanceId), new Document("$set", new Document(patch)), new UpdateOptions().upsert(true)));
+         }
+      });
+
+      if (!updates.isEmpty()) {
+         try {
+            linkDataCollection(linkTypeId).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+         } catch (MongoException ex) {
+            throw new StorageException("Cannot patch data in link type '" + linkTypeId + "'.", ex);
+         }
+      }
+
+      final List<DataDocument> patchedData = getData(linkTypeId, data.keySet());
+      fulltextIndex(linkTypeId).index(patchedData);
+      return patchedData;
    }
 
    @Override
    public void deleteData(final String linkTypeId, final String linkInstanceId) {
       linkDataCollection(linkTypeId).deleteOne(idFilter(linkInstanceId));
+      fulltextIndex(linkTypeId).remove(List.of(linkInstanceId));
    }
 
    @Override
@@ -142,36 +180,35 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
          return;
       }
       linkDataCollection(linkTypeId).deleteMany(filter);
+      fulltextIndex(linkTypeId).remove(linkInstanceIds);
    }
 
    @Override
    public long deleteAttribute(final String linkTypeId, final String attributeId) {
+      // n-grams of the removed values stay in the fulltext index, it only returns more candidates
       final UpdateResult updateResult = linkDataCollection(linkTypeId).updateMany(new BsonDocument(), Updates.unset(attributeId));
       return updateResult.getModifiedCount();
    }
 
    @Override
    public DataDocument getData(final String linkTypeId, final String linkInstanceId) {
-      MongoCursor<Document> mongoCursor = linkDataCollection(linkTypeId).find(idFilter(linkInstanceId)).iterator();
-      if (!mongoCursor.hasNext()) {
-         return new DataDocument();
-      }
-      return MongoUtils.convertDocument(mongoCursor.next());
+      final DataDocument data = linkDataDocumentCollection(linkTypeId).find(idFilter(linkInstanceId)).first();
+      return data != null ? data : new DataDocument();
    }
 
    @Override
    public List<DataDocument> getData(final String linkTypeId) {
-      return MongoUtils.convertIterableToList(linkDataCollection(linkTypeId).find());
+      return linkDataDocumentCollection(linkTypeId).find().into(new ArrayList<>());
    }
 
    @Override
    public List<DataDocument> getData(final String linkTypeId, final Integer skip, final Integer limit) {
-      return MongoUtils.convertIterableToList(linkDataCollection(linkTypeId).find().skip(skip).limit(limit));
+      return linkDataDocumentCollection(linkTypeId).find().skip(skip).limit(limit).into(new ArrayList<>());
    }
 
    @Override
    public Stream<DataDocument> getDataStream(final String linkTypeId) {
-      return StreamSupport.stream(linkDataCollection(linkTypeId).find().map(MongoUtils::convertDocument).spliterator(), false);
+      return StreamSupport.stream(linkDataDocumentCollection(linkTypeId).find().spliterator(), false);
    }
 
    @Override
@@ -180,15 +217,15 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
       if (idsFilter == null) {
          return Collections.emptyList();
       }
-      return MongoUtils.convertIterableToList(linkDataCollection(linkTypeId).find(idsFilter));
+      return linkDataDocumentCollection(linkTypeId).find(idsFilter).into(new ArrayList<>());
    }
 
    @Override
    public List<DataDocument> searchData(final SearchQueryStem stem, final Pagination pagination, final LinkType linkType) {
-      Bson filter = createFilterForStem(stem, linkType);
-      FindIterable<Document> iterable = linkDataCollection(linkType.getId()).find(filter);
+      Bson filter = addPaginationToFilter(createFilterForStem(stem, linkType), pagination);
+      FindIterable<DataDocument> iterable = linkDataDocumentCollection(linkType.getId()).find(filter);
       addPaginationToQuery(iterable, pagination);
-      return MongoUtils.convertIterableToList(iterable);
+      return iterable.into(new ArrayList<>());
    }
 
    @Override
@@ -197,9 +234,9 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
       for (LinkType linkType : linkTypes) {
          Bson filter = createFilterForFulltexts(linkType.getAttributes(), fulltexts);
          if (filter != null) {
-            FindIterable<Document> iterable = linkDataCollection(linkType.getId()).find(filter);
+            FindIterable<DataDocument> iterable = linkDataDocumentCollection(linkType.getId()).find(filter);
             addPaginationToQuery(iterable, pagination);
-            documents.addAll(MongoUtils.convertIterableToList(iterable));
+            documents.addAll(iterable.into(new ArrayList<>()));
          }
       }
 
@@ -212,9 +249,7 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
 
       final Bson idsFilter = MongoFilters.idsFilter(linkIds.keySet());
       if (idsFilter != null) {
-         linkDataCollection(linkTypeId).find(idsFilter).forEach((Consumer<? super Document>) d -> {
-            final DataDocument doc = MongoUtils.convertDocument(d);
-
+         linkDataDocumentCollection(linkTypeId).find(idsFilter).forEach((Consumer<? super DataDocument>) doc -> {
             if (linkIds.containsKey(doc.getId())) {
                doc.setId(linkIds.get(doc.getId()));
                newData.add(doc);
@@ -223,12 +258,18 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
 
          if (newData.size() > 0) {
             linkDataCollection(linkTypeId).insertMany(newData.stream().map(Document::new).collect(Collectors.toList()));
+            fulltextIndex(linkTypeId).index(newData);
          }
       }
 
       return newData;
    }
 
+   @Override
+   public Set<String> searchFulltextCandidates(final String linkTypeId, final Set<String> fulltexts) {
+      return fulltextIndex(linkTypeId).findCandidates(fulltexts, () -> getDataStream(linkTypeId).iterator());
+   }
+
    private Bson createFilterForStem(final SearchQueryStem stem, final LinkType linkType) {
       List<Bson> filters = new ArrayList<>();
 
@@ -263,11 +304,19 @@ public class MongoLinkDataDao extends MongoCollectionScopedDao implements LinkDa
       return MongoFilters.attributeFilter(filter);
    }
 
+   private MongoFulltextIndex fulltextIndex(final String linkTypeId) {
+      return new MongoFulltextIndex(database, linkDataCollectionName(linkTypeId));
+   }
+
    MongoCollection<Document> linkDataCollection(String linkTypeId) {
       return database.getCollection(linkDataCollectionName(linkTypeId));
    }
 
-   String linkDataCollectionName(String linkTypeId) {
+   private MongoCollection<DataDocument> linkDataDocumentCollection(String linkTypeId) {
+      return linkDataCollection(linkTypeId).withDocumentClass(DataDocument.class);
+   }
+
+   public static String linkDataCollectionName(String linkTypeId) {
       return PREFIX + linkTypeId;
    }
 
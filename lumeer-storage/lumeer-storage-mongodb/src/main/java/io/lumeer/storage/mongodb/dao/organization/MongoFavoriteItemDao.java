@@ -32,10 +32,15 @@ import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.enterprise.context.RequestScoped;
@@ -259,6 +264,20 @@ public class MongoFavoriteItemDao extends MongoOrganizationScopedDao implements
                               .collect(Collectors.toSet());
    }
 
+   @Override
+   public Map<String, Set<String>> getFavoriteDocumentIds(final Set<String> userIds, final String projectId, final Set<String> documentIds) {
+      if (userIds.isEmpty() || documentIds.isEmpty()) {
+         return Collections.emptyMap();
+      }
+
+      Bson filter = and(in(USER_ID, userIds), eq(PROJECT_ID, projectId), in(DOCUMENT_ID, documentIds));
+      final Map<String, Set<String>> favoriteDocumentIds = new HashMap<>();
+      for (Document document : favoriteDocumentsDBCollection().find(filter).projection(Projections.include(USER_ID, DOCUMENT_ID))) {
+         favoriteDocumentIds.computeIfAbsent(document.getString(USER_ID), userId -> new HashSet<>()).add(document.getString(DOCUMENT_ID));
+      }
+      return favoriteDocumentIds;
+   }
+
    private String favoriteCollectionsDBName() {
       if (getOrganization().isEmpty()) {
          throw new ResourceNotFoundException(ResourceType.ORGANIZATION);
@@ -29,23 +29,38 @@ import io.lumeer.storage.api.exception.StorageException;
 
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertOneModel;
 import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class MongoAuditRecordDao extends MongoProjectScopedDao implements AuditDao {
 
    private static final String PREFIX = "auditlog_p-";
+   private static final String LATEST_RECORD = "latest";
 
    @Override
    public void createRepository(final Project project) {
@@ -84,6 +99,28 @@ public class MongoAuditRecordDao extends MongoProjectScopedDao implements AuditD
       return databaseCollection().find(filters).sort(Sorts.descending(AuditRecord.CHANGE_DATE)).limit(1).first();
    }
 
+   @Override
+   public Map<String, AuditRecord> findLatestAuditRecords(final String parentId, final ResourceType resourceType, final Set<String> resourceIds) {
+      if (resourceIds.isEmpty()) {
+         return new HashMap<>();
+      }
+
+      final Bson filters = Filters.and(
+            Filters.eq(AuditRecord.RESOURCE_TYPE, resourceType.toString()),
+            Filters.eq(AuditRecord.PARENT_ID, parentId),
+            Filters.in(AuditRecord.RESOURCE_ID, resourceIds)
+      );
+      final List<Bson> pipeline = Arrays.asList(
+            Aggregates.match(filters),
+            Aggregates.sort(Sorts.descending(AuditRecord.CHANGE_DATE)),
+            Aggregates.group("$" + AuditRecord.RESOURCE_ID, Accumulators.first(LATEST_RECORD, "$$ROOT")),
+            Aggregates.replaceRoot("$" + LATEST_RECORD)
+      );
+
+      return databaseCollection().aggregate(pipeline).into(new ArrayList<>())
+                                 .stream().collect(Collectors.toMap(AuditRecord::getResourceId, Function.identity()));
+   }
+
    @Override
    public List<AuditRecord> findAuditRecords(final String parentId, final ResourceType resourceType, final String resourceId) {
       final Bson filters = Filters.and(
@@ -146,6 +183,48 @@ public class MongoAuditRecordDao extends MongoProjectScopedDao implements AuditD
       }
    }
 
+   @Override
+   public List<AuditRecord> createAuditRecords(final List<AuditRecord> records, final ZonedDateTime cleanOlderThan) {
+      if (records.isEmpty()) {
+         return records;
+      }
+
+      final List<WriteModel<AuditRecord>> writes = new ArrayList<>();
+      final Map<List<Object>, Set<String>> resourceIdsByParent = records.stream().collect(Collectors.groupingBy(
+            record -> Arrays.asList(record.getParentId(), record.getResourceType()),
+            Collectors.mapping(AuditRecord::getResourceId, Collectors.toSet())));
+      resourceIdsByParent.forEach((parent, resourceIds) -> writes.add(new DeleteManyModel<>(Filters.and(
+            Filters.eq(AuditRecord.RESOURCE_TYPE, parent.get(1).toString()),
+            Filters.eq(AuditRecord.PARENT_ID, parent.get(0)),
+            Filters.in(AuditRecord.RESOURCE_ID, resourceIds),
+            Filters.lt(AuditRecord.CHANGE_DATE, Date.from(cleanOlderThan.toInstant()))
+      ))));
+      records.forEach(record -> writes.add(new InsertOneModel<>(record)));
+
+      try {
+         databaseCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+
+         return records;
+      } catch (MongoException ex) {
+         throw new StorageException("Cannot create audit log records: " + records.size(), ex);
+      }
+   }
+
+   @Override
+   public void updateAuditRecords(final List<AuditRecord> records, final Set<String> deletedIds) {
+      final List<WriteModel<AuditRecord>> writes = new ArrayList<>();
+      records.forEach(record -> writes.add(new UpdateOneModel<>(idFilter(record.getId()), new Document("$set", record))));
+      deletedIds.forEach(id -> writes.add(new DeleteOneModel<>(idFilter(id))));
+
+      if (!writes.isEmpty()) {
+         try {
+            databaseCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+         } catch (MongoException ex) {
+            throw new StorageException("Cannot update audit log records: " + records.size(), ex);
+         }
+      }
+   }
+
    @Override
    public void deleteAuditRecord(final String id) {
       final AuditRecord record = databaseCollection().findOneAndDelete(idFilter(id));
@@ -62,6 +62,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -147,7 +148,7 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
       FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
 
       try {
-         Bson update = new Document("$inc", new Document(CollectionCodec.LAST_ATTRIBUTE_NUM, count));
+         Bson update = new Document("$inc", new Document(CollectionCodec.LAST_ATTRIBUTE_NUM, count).append(CollectionCodec.VERSION, 1L));
          final Collection updatedCollection = databaseCollection().findOneAndUpdate(idFilter(id), update, options);
          if (updatedCollection == null) {
             throw new StorageException("Collection '" + id + "' has not been updated.");
@@ -181,7 +182,7 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
       FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE);
 
       try {
-         Bson update = new Document("$set", new Document(CollectionCodec.RULES, collection.getRules()));
+         Bson update = new Document("$set", new Document(CollectionCodec.RULES, collection.getRules())).append("$inc", new Document(CollectionCodec.VERSION, 1L));
          final Collection originalCollection = databaseCollection().findOneAndUpdate(idFilter(collection.getId()), update, options);
          if (originalCollection == null) {
             throw new StorageException("Collection '" + collection.getId() + "' has not been updated.");
@@ -340,6 +341,11 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
                                  .collect(Collectors.toSet());
    }
 
+   @Override
+   public Map<String, Long> getAllCollectionVersions() {
+      return getVersions(databaseCollectionName(), CollectionCodec.VERSION);
+   }
+
    private String databaseCollectionName(Project project) {
       return PREFIX + project.getId();
    }
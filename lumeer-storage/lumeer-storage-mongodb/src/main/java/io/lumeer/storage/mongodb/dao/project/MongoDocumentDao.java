@@ -31,18 +31,22 @@ import io.lumeer.storage.api.exception.ResourceNotFoundException;
 import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.mongodb.MongoUtils;
 import io.lumeer.storage.mongodb.codecs.DocumentCodec;
+import io.lumeer.storage.mongodb.dao.collection.MongoDataDao;
 import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
@@ -69,11 +73,19 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
    @Override
    public void createRepository(final Project project) {
       database.createCollection(databaseCollectionName(project));
+      ensureIndexes(project);
+   }
 
+   @Override
+   public void ensureIndexes(final Project project) {
       MongoCollection<org.bson.Document> collection = database.getCollection(databaseCollectionName(project));
       collection.createIndex(Indexes.ascending(DocumentCodec.COLLECTION_ID), new IndexOptions().unique(false));
+      collection.createIndex(Indexes.ascending(DocumentCodec.COLLECTION_ID, DocumentCodec.ID), new IndexOptions().unique(false));
       collection.createIndex(Indexes.descending(DocumentCodec.CREATION_DATE), new IndexOptions().unique(false));
       collection.createIndex(Indexes.descending(DocumentCodec.UPDATE_DATE), new IndexOptions().unique(false));
+      collection.createIndex(Indexes.ascending(DocumentCodec.CREATED_BY, DocumentCodec.COLLECTION_ID, DocumentCodec.ID), new IndexOptions().unique(false));
+      // only child documents have the parent
+      collection.createIndex(Indexes.ascending(MongoUtils.concatParams(DocumentCodec.META_DATA, Document.META_PARENT_ID)), new IndexOptions().unique(false).sparse(true));
    }
 
    @Override
@@ -120,6 +132,32 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
       }
    }
 
+   @Override
+   public List<Document> updateDocumentsBulk(final List<Document> documents) {
+      if (documents.isEmpty()) {
+         return Collections.emptyList();
+      }
+
+      final List<WriteModel<Document>> updates = documents.stream().map(document -> {
+         Bson update = new org.bson.Document("$set", document).append("$inc", new org.bson.Document(DocumentCodec.DATA_VERSION, 1));
+         return new UpdateOneModel<Document>(idFilter(document.getId()), update);
+      }).collect(Collectors.toList());
+
+      try {
+         databaseCollection().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+      } catch (MongoException ex) {
+         throw new StorageException("Cannot update documents: " + documents.size(), ex);
+      }
+
+      final Set<String> ids = documents.stream().map(Document::getId).collect(Collectors.toSet());
+      final List<Document> updatedDocuments = getDocumentsByIds(ids);
+      if (updatedDocuments.size() < ids.size()) {
+         throw new StorageException("Some of the documents " + ids + " have not been updated.");
+      }
+
+      return updatedDocuments;
+   }
+
    @Override
    public void deleteDocument(final String id, final DataDocument data) {
       Document document = databaseCollection().findOneAndDelete(idFilter(id));
@@ -197,7 +235,7 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
    }
 
    private List<Document> getDocumentsPaginated(final Bson filter, final Pagination pagination) {
-      FindIterable<Document> iterable = databaseCollection().find(filter);
+      FindIterable<Document> iterable = databaseCollection().find(addPaginationToFilter(filter, pagination));
       addPaginationToQuery(iterable, pagination);
       return iterable.into(new ArrayList<>());
    }
@@ -232,6 +270,45 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
       return getDocumentsPaginated(filter, pagination);
    }
 
+   @Override
+   public List<Document> getDocumentsWithData(final String collectionId, final Set<String> ids) {
+      Bson idsFilter = MongoFilters.idsFilter(ids);
+      if (idsFilter == null) {
+         return Collections.emptyList();
+      }
+      Bson filter = Filters.and(idsFilter, Filters.eq(DocumentCodec.COLLECTION_ID, collectionId));
+      return getDocumentsWithData(collectionId, filter, null);
+   }
+
+   @Override
+   public List<Document> getDocumentsWithData(final String collectionId, final Pagination pagination) {
+      Bson filter = Filters.eq(DocumentCodec.COLLECTION_ID, collectionId);
+      return getDocumentsWithData(collectionId, filter, pagination);
+   }
+
+   @Override
+   public List<Document> getDocumentsByCreatorWithData(final String collectionId, final String userId, final Set<String> ids) {
+      Bson idsFilter = MongoFilters.idsFilter(ids);
+      if (idsFilter == null) {
+         return Collections.emptyList();
+      }
+      Bson filter = Filters.and(idsFilter, creatorFilter(collectionId, userId));
+      return getDocumentsWithData(collectionId, filter, null);
+   }
+
+   @Override
+   public List<Document> getDocumentsByCreatorWithData(final String collectionId, final String userId, final Pagination pagination) {
+      return getDocumentsWithData(collectionId, creatorFilter(collectionId, userId), pagination);
+   }
+
+   private List<Document> getDocumentsWithData(final String collectionId, final Bson filter, final Pagination pagination) {
+      final List<Bson> aggregates = new ArrayList<>();
+      aggregates.add(Aggregates.match(addPaginationToFilter(filter, pagination)));
+      addPaginationToAggregates(aggregates, pagination);
+      aggregates.add(Aggregates.lookup(MongoDataDao.dataCollectionName(collectionId), DocumentCodec.ID, DocumentCodec.ID, DocumentCodec.DATA));
+      return databaseCollection().aggregate(aggregates).into(new ArrayList<>());
+   }
+
    @Override
    public List<Document> getDocumentsWithTemplateId() {
       return databaseCollection().find(Filters.exists(DocumentCodec.META_DATA + "." + Document.META_TEMPLATE_ID)).into(new ArrayList<>());
@@ -34,17 +34,21 @@ import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.api.query.SearchQuery;
 import io.lumeer.storage.api.query.SearchQueryStem;
 import io.lumeer.storage.mongodb.codecs.LinkInstanceCodec;
+import io.lumeer.storage.mongodb.dao.collection.MongoLinkDataDao;
 import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -74,9 +78,17 @@ public class MongoLinkInstanceDao extends MongoProjectScopedDao implements LinkI
    @Override
    public void createRepository(Project project) {
       database.createCollection(databaseCollectionName(project));
+      ensureIndexes(project);
+   }
 
+   @Override
+   public void ensureIndexes(final Project project) {
       MongoCollection<Document> projectCollection = database.getCollection(databaseCollectionName(project));
       projectCollection.createIndex(Indexes.ascending(LinkInstanceCodec.LINK_TYPE_ID), new IndexOptions().unique(false));
+      projectCollection.createIndex(Indexes.ascending(LinkInstanceCodec.LINK_TYPE_ID, LinkInstanceCodec.ID), new IndexOptions().unique(false));
+      // multikey indexes for the traversal of links from documents
+      projectCollection.createIndex(Indexes.ascending(LinkInstanceCodec.DOCUMENTS_IDS), new IndexOptions().unique(false));
+      projectCollection.createIndex(Indexes.ascending(LinkInstanceCodec.LINK_TYPE_ID, LinkInstanceCodec.DOCUMENTS_IDS), new IndexOptions().unique(false));
    }
 
    @Override
@@ -130,6 +142,32 @@ public class MongoLinkInstanceDao extends MongoProjectScopedDao implements LinkI
       }
    }
 
+   @Override
+   public List<LinkInstance> updateLinkInstancesBulk(final List<LinkInstance> linkInstances) {
+      if (linkInstances.isEmpty()) {
+         return Collections.emptyList();
+      }
+
+      final List<WriteModel<LinkInstance>> updates = linkInstances.stream().map(linkInstance -> {
+         Bson update = new Document("$set", linkInstance).append("$inc", new Document(LinkInstanceCodec.DATA_VERSION, 1));
+         return new UpdateOneModel<LinkInstance>(idFilter(linkInstance.getId()), update);
+      }).collect(Collectors.toList());
+
+      try {
+         databaseCollection().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+      } catch (MongoException ex) {
+         throw new StorageException("Cannot update link instances: " + linkInstances.size(), ex);
+      }
+
+      final Set<String> ids = linkInstances.stream().map(LinkInstance::getId).collect(Collectors.toSet());
+      final List<LinkInstance> updatedLinkInstances = getLinkInstances(ids);
+      if (updatedLinkInstances.size() < ids.size()) {
+         throw new StorageException("Some of the link instances " + ids + " have not been updated.");
+      }
+
+      return updatedLinkInstances;
+   }
+
    @Override
    public void deleteLinkInstance(final String id, final DataDocument data) {
       LinkInstance linkInstance = databaseCollection().findOneAndDelete(idFilter(id));
@@ -212,11 +250,58 @@ public class MongoLinkInstanceDao extends MongoProjectScopedDao implements LinkI
    }
 
    private List<LinkInstance> getLinkInstancesPaginated(final Bson filter, final Pagination pagination) {
-      FindIterable<LinkInstance> iterable = databaseCollection().find(filter);
+      FindIterable<LinkInstance> iterable = databaseCollection().find(addPaginationToFilter(filter, pagination));
       addPaginationToQuery(iterable, pagination);
       return iterable.into(new ArrayList<>());
    }
 
+   @Override
+   public List<LinkInstance> getLinkInstancesWithData(final String linkTypeId, final Set<String> documentIds) {
+      Bson filter = Filters.and(Filters.eq(LinkInstanceCodec.LINK_TYPE_ID, linkTypeId), Filters.in(LinkInstanceCodec.DOCUMENTS_IDS, documentIds));
+      return getLinkInstancesWithData(linkTypeId, filter, null);
+   }
+
+   @Override
+   public List<LinkInstance> getLinkInstancesWithData(final String linkTypeId, final Pagination pagination) {
+      return getLinkInstancesWithData(linkTypeId, Filters.eq(LinkInstanceCodec.LINK_TYPE_ID, linkTypeId), pagination);
+   }
+
+   @Override
+   public List<LinkInstance> getLinkInstancesWithDataByIds(final String linkTypeId, final Set<String> linkInstanceIds) {
+      Bson filter = idsFilter(linkInstanceIds);
+      if (filter == null) {
+         return Collections.emptyList();
+      }
+      return getLinkInstancesWithData(linkTypeId, Filters.and(Filters.eq(LinkInstanceCodec.LINK_TYPE_ID, linkTypeId), filter), null);
+   }
+
+   @Override
+   public List<LinkInstance> getLinkInstancesByCreatorWithData(final String linkTypeId, final String userId, final Set<String> documentIds) {
+      Bson filter = Filters.and(
+            Filters.eq(LinkInstanceCodec.LINK_TYPE_ID, linkTypeId),
+            Filters.eq(LinkInstanceCodec.CREATED_BY, userId),
+            Filters.in(LinkInstanceCodec.DOCUMENTS_IDS, documentIds)
+      );
+      return getLinkInstancesWithData(linkTypeId, filter, null);
+   }
+
+   @Override
+   public List<LinkInstance> getLinkInstancesByCreatorWithData(final String linkTypeId, final String userId, final Pagination pagination) {
+      Bson filter = Filters.and(
+            Filters.eq(LinkInstanceCodec.LINK_TYPE_ID, linkTypeId),
+            Filters.eq(LinkInstanceCodec.CREATED_BY, userId)
+      );
+      return getLinkInstancesWithData(linkTypeId, filter, pagination);
+   }
+
+   private List<LinkInstance> getLinkInstancesWithData(final String linkTypeId, final Bson filter, final Pagination pagination) {
+      final List<Bson> aggregates = new ArrayList<>();
+      aggregates.add(Aggregates.match(addPaginationToFilter(filter, pagination)));
+      addPaginationToAggregates(aggregates, pagination);
+      aggregates.add(Aggregates.lookup(MongoLinkDataDao.linkDataCollectionName(linkTypeId), LinkInstanceCodec.ID, LinkInstanceCodec.ID, LinkInstanceCodec.DATA));
+      return databaseCollection().aggregate(aggregates).into(new ArrayList<>());
+   }
+
    @Override
    public Long getLinkInstancesCountByLinkType(final String linkTypeId) {
       return databaseCollection().countDocuments(Filters.in(LinkInstanceCodec.LINK_TYPE_ID, linkTypeId));
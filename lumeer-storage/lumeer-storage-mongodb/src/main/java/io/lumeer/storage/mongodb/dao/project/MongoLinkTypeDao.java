@@ -52,6 +52,7 @@ import org.bson.conversions.Bson;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import javax.enterprise.context.RequestScoped;
@@ -161,6 +162,11 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
       return databaseCollection().find(filter).into(new ArrayList<>());
    }
 
+   @Override
+   public Map<String, Long> getAllLinkTypeVersions() {
+      return getVersions(databaseCollectionName(), LinkTypeCodec.VERSION);
+   }
+
    @Override
    public List<LinkType> getLinkTypes(final SearchSuggestionQuery query) {
       List<Bson> aggregates = linkTypesSuggestionAggregation(query);
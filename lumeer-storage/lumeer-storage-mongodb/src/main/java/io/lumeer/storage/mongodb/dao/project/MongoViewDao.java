@@ -49,7 +49,9 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -158,6 +160,15 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
       return databaseCollection().find().into(new ArrayList<>());
    }
 
+   @Override
+   public List<View> getViewsByIds(final Set<String> ids) {
+      Bson filter = MongoFilters.idsFilter(ids);
+      if (filter == null) {
+         return Collections.emptyList();
+      }
+      return databaseCollection().find(filter).into(new ArrayList<>());
+   }
+
    @Override
    public List<View> getViews(DatabaseQuery query) {
       FindIterable<View> findIterable = databaseCollection().find(MongoFilters.permissionsFilter(query));
@@ -188,6 +199,11 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
                                  .collect(Collectors.toSet());
    }
 
+   @Override
+   public Map<String, Long> getAllViewVersions() {
+      return getVersions(databaseCollectionName(), ViewCodec.VERSION);
+   }
+
    private String databaseCollectionName(Project project) {
       return PREFIX + project.getId();
    }
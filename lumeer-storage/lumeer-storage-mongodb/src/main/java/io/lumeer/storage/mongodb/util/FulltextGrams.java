@@ -0,0 +1,142 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.util;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits data values into n-grams of up to three characters after folding the case and diacritics, so that every value containing
+ * a fulltext as a substring (in the same way the JavaScript data filter compares them) contains all the n-grams of the fulltext.
+ */
+public class FulltextGrams {
+
+   static final int MAX_GRAM_LENGTH = 3;
+   static final int MAX_VALUE_LENGTH = 10_000;
+
+   private static final Pattern DIACRITICS = Pattern.compile("[\\u0300-\\u036f]");
+   private static final Pattern HTML_TAG = Pattern.compile("(?s)<.*?>");
+   private static final double MAX_SAFE_INTEGER = 9007199254740991d;
+
+   private FulltextGrams() {
+   }
+
+   public static String fold(final String value) {
+      return DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+   }
+
+   /**
+    * Returns the n-grams of all the values or null when some value is not a plain text or number, the formatted form
+    * of such values is not known here so they can match any fulltext.
+    */
+   public static Set<String> getValuesGrams(final Map<String, Object> data, final Collection<String> skippedKeys) {
+      final Set<String> grams = new LinkedHashSet<>();
+      for (Map.Entry<String, Object> entry : data.entrySet()) {
+         if (skippedKeys.contains(entry.getKey())) {
+            continue;
+         }
+
+         final List<String> texts = getTexts(entry.getValue());
+         if (texts == null) {
+            return null;
+         }
+         texts.forEach(text -> addGrams(grams, fold(text)));
+      }
+      return grams;
+   }
+
+   /**
+    * Returns the n-grams all the values containing the fulltext must have, empty fulltext matches any value.
+    */
+   public static Set<String> getFulltextGrams(final String fulltext) {
+      final String folded = fold(fulltext).trim();
+      if (folded.length() <= MAX_GRAM_LENGTH) {
+         return folded.isEmpty() ? Collections.emptySet() : Collections.singleton(folded);
+      }
+
+      final Set<String> grams = new LinkedHashSet<>();
+      for (int i = 0; i + MAX_GRAM_LENGTH <= folded.length(); i++) {
+         grams.add(folded.substring(i, i + MAX_GRAM_LENGTH));
+      }
+      return grams;
+   }
+
+   private static void addGrams(final Set<String> grams, final String text) {
+      for (int i = 0; i < text.length(); i++) {
+         for (int length = 1; length <= MAX_GRAM_LENGTH && i + length <= text.length(); length++) {
+            grams.add(text.substring(i, i + length));
+         }
+      }
+   }
+
+   private static List<String> getTexts(final Object value) {
+      if (value == null) {
+         return Collections.emptyList();
+      }
+      if (value instanceof String) {
+         final String text = (String) value;
+         if (text.length() > MAX_VALUE_LENGTH) {
+            return null;
+         }
+         // texts may be displayed without their html formatting
+         if (text.indexOf('<') >= 0 || text.indexOf('&') >= 0) {
+            return List.of(text, unescapeHtml(HTML_TAG.matcher(text).replaceAll("")), unescapeHtml(HTML_TAG.matcher(text).replaceAll(" ")));
+         }
+         return List.of(text);
+      }
+      if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+         return List.of(value.toString());
+      }
+      if (value instanceof Double || value instanceof Float) {
+         final String text = formatNumber(((Number) value).doubleValue());
+         return text != null ? List.of(text) : null;
+      }
+      if (value instanceof BigDecimal || value instanceof Decimal128) {
+         final BigDecimal number = value instanceof Decimal128 ? ((Decimal128) value).bigDecimalValue() : (BigDecimal) value;
+         return List.of(number.toString(), number.toPlainString());
+      }
+      return null;
+   }
+
+   // JavaScript String(number) without the exponent notation
+   private static String formatNumber(final double number) {
+      final double abs = Math.abs(number);
+      if (Double.isNaN(number) || Double.isInfinite(number) || (abs != 0 && (abs >= 1e21 || abs < 1e-6))) {
+         return null;
+      }
+      if (number == Math.rint(number) && abs <= MAX_SAFE_INTEGER) {
+         return Long.toString((long) number);
+      }
+      return new BigDecimal(Double.toString(number)).stripTrailingZeros().toPlainString();
+   }
+
+   private static String unescapeHtml(final String text) {
+      return text.replace("&nbsp;", " ").replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&#39;", "'").replace("&amp;", "&");
+   }
+}
@@ -0,0 +1,379 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.util;
+
+import io.lumeer.api.model.ConditionType;
+import io.lumeer.engine.api.data.DataIndexDecision;
+import io.lumeer.storage.api.dao.DataIndexDao;
+import io.lumeer.storage.api.filter.SearchAttributeFilter;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.Document;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches which attributes of the data collections are filtered on and creates single field indexes on the hottest ones,
+ * keeping the number of created indexes within the budget. Indexes not used for a while are dropped again. Every decision
+ * is kept with the average duration of the filtering queries before and after it. The indexes are created and dropped by
+ * the executor set by the application, the advisor is idle until then.
+ */
+public class MongoDataIndexAdvisor {
+
+   private static final Logger log = Logger.getLogger(MongoDataIndexAdvisor.class.getName());
+
+   static final String INDEX_PREFIX = "advisor_";
+   static final long DECAY_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+   static final long EVALUATION_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+   private static final int MAX_DECISIONS = 200;
+
+   // conditions the filters of which can be answered from an ascending index
+   private static final Set<ConditionType> INDEXED_CONDITIONS = EnumSet.of(ConditionType.EQUALS, ConditionType.HAS_SOME, ConditionType.LOWER_THAN,
+         ConditionType.LOWER_THAN_EQUALS, ConditionType.GREATER_THAN, ConditionType.GREATER_THAN_EQUALS);
+
+   private static final MongoDataIndexAdvisor INSTANCE = new MongoDataIndexAdvisor(null, System::currentTimeMillis);
+
+   private final LongSupplier clock;
+   private final Map<String, CollectionUsage> collections = new ConcurrentHashMap<>();
+   private final Deque<Decision> decisions = new ArrayDeque<>();
+   private final AtomicLong lastEvaluation;
+
+   private volatile Executor executor;
+   private volatile int maxIndexes = DataIndexDao.DEFAULT_MAX_INDEXES;
+   private volatile int maxCollectionIndexes = DataIndexDao.DEFAULT_MAX_COLLECTION_INDEXES;
+   private volatile int minQueries = DataIndexDao.DEFAULT_MIN_QUERIES;
+   private volatile long lastDecay;
+
+   MongoDataIndexAdvisor(final Executor executor, final LongSupplier clock) {
+      this.executor = executor;
+      this.clock = clock;
+      this.lastDecay = clock.getAsLong();
+      this.lastEvaluation = new AtomicLong(lastDecay - EVALUATION_INTERVAL);
+   }
+
+   public static MongoDataIndexAdvisor getInstance() {
+      return INSTANCE;
+   }
+
+   /**
+    * @param maxIndexes
+    *       maximal number of created indexes in all the data collections, zero turns the advisor off
+    * @param maxCollectionIndexes
+    *       maximal number of created indexes in a single data collection
+    * @param minQueries
+    *       number of recent queries filtering by an attribute needed to index it
+    */
+   public void setBudget(final int maxIndexes, final int maxCollectionIndexes, final int minQueries) {
+      this.maxIndexes = Math.max(0, maxIndexes);
+      this.maxCollectionIndexes = Math.max(0, maxCollectionIndexes);
+      this.minQueries = Math.max(1, minQueries);
+   }
+
+   public void setExecutor(final Executor executor) {
+      this.executor = executor;
+   }
+
+   public void record(final MongoDatabase database, final String collectionName, final Collection<? extends SearchAttributeFilter> filters, final long nanos) {
+      if (maxIndexes <= 0 || executor == null || filters == null) {
+         return;
+      }
+
+      final Map<String, Set<ConditionType>> attributesConditions = new HashMap<>();
+      filters.stream()
+             .filter(filter -> !filter.isKeepOtherTypes() && INDEXED_CONDITIONS.contains(filter.getConditionType()))
+             .forEach(filter -> attributesConditions.computeIfAbsent(filter.getAttributeId(), id -> EnumSet.noneOf(ConditionType.class)).add(filter.getConditionType()));
+      if (attributesConditions.isEmpty()) {
+         return;
+      }
+
+      final CollectionUsage collection = collections.computeIfAbsent(collectionKey(database, collectionName), key -> new CollectionUsage(database, collectionName));
+      boolean shouldEvaluate = clock.getAsLong() - lastDecay >= DECAY_INTERVAL;
+      for (Map.Entry<String, Set<ConditionType>> entry : attributesConditions.entrySet()) {
+         final AttributeUsage attribute = collection.attributes.computeIfAbsent(entry.getKey(), id -> new AttributeUsage(collection, id));
+         attribute.record(entry.getValue(), nanos);
+         shouldEvaluate |= attribute.state == IndexState.NONE && attribute.recent.get() >= minQueries;
+      }
+
+      if (shouldEvaluate && startEvaluation()) {
+         evaluate(collection, attributesConditions.keySet());
+      }
+   }
+
+   /**
+    * A hot attribute which does not fit the budget would make every query evaluate all the indexes, so the queries evaluate
+    * once in the interval at most.
+    */
+   private boolean startEvaluation() {
+      final long now = clock.getAsLong();
+      final long last = lastEvaluation.get();
+      return now - last >= EVALUATION_INTERVAL && lastEvaluation.compareAndSet(last, now);
+   }
+
+   /**
+    * Forgets the usage of a dropped data collection.
+    */
+   public void forget(final MongoDatabase database, final String collectionName) {
+      collections.remove(collectionKey(database, collectionName));
+   }
+
+   public synchronized List<DataIndexDecision> getDecisions() {
+      return decisions.stream().map(Decision::toDataIndexDecision).collect(Collectors.toList());
+   }
+
+   private synchronized void evaluate(final CollectionUsage collection, final Set<String> attributeIds) {
+      decayIfNeeded();
+      collection.loadIndexes(minQueries);
+
+      for (String attributeId : attributeIds) {
+         final AttributeUsage attribute = collection.attributes.get(attributeId);
+         if (attribute == null || attribute.state != IndexState.NONE || attribute.recent.get() < minQueries) {
+            continue;
+         }
+
+         if (countIndexes(collection) >= maxCollectionIndexes || countIndexes(null) >= maxIndexes) {
+            // replaces the coldest index when the attribute is filtered on much more often
+            final boolean collectionFull = countIndexes(collection) >= maxCollectionIndexes;
+            final Optional<AttributeUsage> coldest = collections.values().stream()
+                                                                .filter(usage -> !collectionFull || usage == collection)
+                                                                .flatMap(usage -> usage.attributes.values().stream())
+                                                                .filter(usage -> usage.state == IndexState.INDEXED)
+                                                                .min(Comparator.comparingLong(usage -> usage.recent.get()));
+            if (coldest.isEmpty() || coldest.get().recent.get() * 2 >= attribute.recent.get()) {
+               continue;
+            }
+            dropIndex(coldest.get());
+            if (countIndexes(collection) >= maxCollectionIndexes || countIndexes(null) >= maxIndexes) {
+               continue;
+            }
+         }
+
+         createIndex(attribute);
+      }
+   }
+
+   private void decayIfNeeded() {
+      final long now = clock.getAsLong();
+      if (now - lastDecay < DECAY_INTERVAL) {
+         return;
+      }
+      lastDecay = now;
+
+      collections.values().forEach(collection -> {
+         collection.attributes.values().forEach(attribute -> attribute.recent.updateAndGet(recent -> recent / 2));
+         collection.attributes.values().stream()
+                              .filter(attribute -> attribute.state == IndexState.INDEXED && attribute.recent.get() == 0)
+                              .collect(Collectors.toList())
+                              .forEach(this::dropIndex);
+         collection.attributes.values().removeIf(attribute -> attribute.state == IndexState.NONE && attribute.recent.get() == 0);
+      });
+   }
+
+   private long countIndexes(final CollectionUsage collection) {
+      return (collection != null ? Stream.of(collection) : collections.values().stream())
+            .flatMap(usage -> usage.attributes.values().stream())
+            .filter(attribute -> attribute.state != IndexState.NONE)
+            .count();
+   }
+
+   private void createIndex(final AttributeUsage attribute) {
+      attribute.state = IndexState.PENDING;
+      final Decision decision = addDecision(attribute, DataIndexDecision.Action.CREATE);
+      executor.execute(() -> {
+         try {
+            attribute.collection.collection().createIndex(Indexes.ascending(attribute.attributeId), new IndexOptions().name(INDEX_PREFIX + attribute.attributeId).background(true));
+            attribute.state = IndexState.INDEXED;
+         } catch (MongoException e) {
+            log.log(Level.WARNING, "Unable to create index on " + attribute.attributeId + " in " + attribute.collection.collectionName, e);
+            synchronized (this) {
+               decisions.remove(decision);
+               attribute.recent.set(0);
+               attribute.state = IndexState.NONE;
+            }
+         }
+      });
+   }
+
+   private void dropIndex(final AttributeUsage attribute) {
+      attribute.state = IndexState.NONE;
+      addDecision(attribute, DataIndexDecision.Action.DROP);
+      executor.execute(() -> {
+         try {
+            attribute.collection.collection().dropIndex(INDEX_PREFIX + attribute.attributeId);
+         } catch (MongoException e) {
+            log.log(Level.WARNING, "Unable to drop index on " + attribute.attributeId + " in " + attribute.collection.collectionName, e);
+         }
+      });
+   }
+
+   private Decision addDecision(final AttributeUsage attribute, final DataIndexDecision.Action action) {
+      final Decision decision = new Decision(attribute, action, clock.getAsLong());
+      decisions.addLast(decision);
+      while (decisions.size() > MAX_DECISIONS) {
+         decisions.removeFirst();
+      }
+      return decision;
+   }
+
+   private static String collectionKey(final MongoDatabase database, final String collectionName) {
+      return database.getName() + "." + collectionName;
+   }
+
+   private enum IndexState {
+      NONE, PENDING, INDEXED
+   }
+
+   private static final class CollectionUsage {
+
+      private final MongoDatabase database;
+      private final String collectionName;
+      private final Map<String, AttributeUsage> attributes = new ConcurrentHashMap<>();
+      private boolean indexesLoaded;
+
+      private CollectionUsage(final MongoDatabase database, final String collectionName) {
+         this.database = database;
+         this.collectionName = collectionName;
+      }
+
+      private MongoCollection<Document> collection() {
+         return database.getCollection(collectionName);
+      }
+
+      // indexes created before a restart or by other nodes are taken over, so they are counted in the budget and dropped when
+      // not used, their usage is not known yet, so they start as if they have just been created
+      private void loadIndexes(final int minQueries) {
+         if (indexesLoaded) {
+            return;
+         }
+         indexesLoaded = true;
+
+         try {
+            collection().listIndexes().into(new ArrayList<>()).stream()
+                        .map(index -> index.getString("name"))
+                        .filter(name -> name != null && name.startsWith(INDEX_PREFIX))
+                        .map(name -> name.substring(INDEX_PREFIX.length()))
+                        .forEach(attributeId -> {
+                           final AttributeUsage attribute = attributes.computeIfAbsent(attributeId, id -> new AttributeUsage(this, id));
+                           attribute.recent.accumulateAndGet(minQueries, Math::max);
+                           attribute.state = IndexState.INDEXED;
+                        });
+         } catch (MongoException e) {
+            log.log(Level.FINE, "Unable to list indexes of " + collectionName, e);
+         }
+      }
+   }
+
+   private static final class AttributeUsage {
+
+      private final CollectionUsage collection;
+      private final String attributeId;
+      private final AtomicLong recent = new AtomicLong();
+      private final Set<ConditionType> conditions = ConcurrentHashMap.newKeySet();
+      private volatile IndexState state = IndexState.NONE;
+      private volatile Period period = new Period();
+
+      private AttributeUsage(final CollectionUsage collection, final String attributeId) {
+         this.collection = collection;
+         this.attributeId = attributeId;
+      }
+
+      private void record(final Set<ConditionType> conditions, final long nanos) {
+         this.conditions.addAll(conditions);
+         recent.incrementAndGet();
+         period.record(nanos);
+      }
+   }
+
+   private static final class Period {
+
+      private final LongAdder queries = new LongAdder();
+      private final LongAdder nanos = new LongAdder();
+
+      private void record(final long nanos) {
+         this.queries.increment();
+         this.nanos.add(nanos);
+      }
+
+      private double getAverageMillis() {
+         final long count = queries.sum();
+         return count > 0 ? nanos.sum() / (double) count / 1_000_000d : 0d;
+      }
+   }
+
+   private static final class Decision {
+
+      private final AttributeUsage attribute;
+      private final DataIndexDecision.Action action;
+      private final long time;
+      private final Set<String> conditions;
+      private final long queriesBefore;
+      private final double averageMillisBefore;
+      private final Period after = new Period();
+
+      private Decision(final AttributeUsage attribute, final DataIndexDecision.Action action, final long time) {
+         this.attribute = attribute;
+         this.action = action;
+         this.time = time;
+         this.conditions = attribute.conditions.stream().map(ConditionType::toString).collect(Collectors.toCollection(TreeSet::new));
+         this.queriesBefore = attribute.period.queries.sum();
+         this.averageMillisBefore = attribute.period.getAverageMillis();
+         attribute.period = after;
+      }
+
+      private DataIndexDecision toDataIndexDecision() {
+         final DataIndexDecision decision = new DataIndexDecision();
+         decision.setDatabaseName(attribute.collection.database.getName());
+         decision.setCollectionName(attribute.collection.collectionName);
+         decision.setAttributeId(attribute.attributeId);
+         decision.setConditions(conditions);
+         decision.setAction(action);
+         decision.setTime(time);
+         decision.setQueriesBefore(queriesBefore);
+         decision.setAverageMillisBefore(averageMillisBefore);
+         decision.setQueriesAfter(after.queries.sum());
+         decision.setAverageMillisAfter(after.getAverageMillis());
+         return decision;
+      }
+   }
+}
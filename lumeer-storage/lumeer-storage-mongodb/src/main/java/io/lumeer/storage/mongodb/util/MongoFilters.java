@@ -28,15 +28,20 @@ import io.lumeer.storage.mongodb.codecs.PermissionsCodec;
 import io.lumeer.storage.mongodb.codecs.RoleCodec;
 
 import com.mongodb.client.model.Filters;
+import org.bson.BsonType;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MongoFilters {
 
@@ -49,7 +54,11 @@ public class MongoFilters {
       return Filters.eq(ID, new ObjectId(id));
    }
 
-   public static Bson idsFilter(java.util.Collection<String> ids) {
+   public static Bson idGreaterThanFilter(String id) {
+      return Filters.gt(ID, new ObjectId(id));
+   }
+
+   public static Bson idsFilter(Collection<String> ids) {
       if (ids == null) {
          return null;
       }
@@ -104,7 +113,7 @@ public class MongoFilters {
       return Filters.in(PermissionCodec.ROLES + "." + RoleCodec.TYPE, rolesStrings);
    }
 
-   public static Bson createFilterForFulltexts(java.util.Collection<Attribute> attributes, Set<String> fulltexts) {
+   public static Bson createFilterForFulltexts(Collection<Attribute> attributes, Set<String> fulltexts) {
       List<Bson> filters = fulltexts.stream().map(fulltext -> createFilterForFulltext(attributes, fulltext))
                                     .filter(Objects::nonNull)
                                     .collect(Collectors.toList());
@@ -112,7 +121,7 @@ public class MongoFilters {
       return filters.size() > 0 ? Filters.and(filters) : null;
    }
 
-   private static Bson createFilterForFulltext(java.util.Collection<Attribute> attributes, String fulltext) {
+   private static Bson createFilterForFulltext(Collection<Attribute> attributes, String fulltext) {
       List<Attribute> fulltextAttrs = attributes.stream()
                                                 .filter(attr -> attr.getName().toLowerCase().contains(fulltext.toLowerCase()))
                                                 .collect(Collectors.toList());
@@ -138,12 +147,24 @@ public class MongoFilters {
       if (filter == null || filter.getConditionType() == null) {
          return null;
       }
+
+      final Bson valueFilter = attributeValueFilter(filter);
+      if (valueFilter != null && filter.isKeepOtherTypes()) {
+         return Filters.or(valueFilter, otherTypesFilter(filter.getAttributeId(), filter.getValue()));
+      }
+      return valueFilter;
+   }
+
+   private static Bson attributeValueFilter(SearchAttributeFilter filter) {
       switch (filter.getConditionType()) {
          case EQUALS:
             return Filters.eq(filter.getAttributeId(), filter.getValue());
          case NOT_EQUALS:
             return Filters.ne(filter.getAttributeId(), filter.getValue());
          case HAS_SOME:
+            if (filter.getValue() instanceof Collection) {
+               return Filters.in(filter.getAttributeId(), (Collection<?>) filter.getValue());
+            }
             return Filters.in(filter.getAttributeId(), filter.getValue());
          case LOWER_THAN:
             return Filters.lt(filter.getAttributeId(), filter.getValue());
@@ -157,4 +178,34 @@ public class MongoFilters {
       return null;
    }
 
+   // arrays are always kept because the comparison operators match any of their elements
+   private static Bson otherTypesFilter(String attributeId, Object value) {
+      final List<String> types = (value instanceof Collection ? ((Collection<?>) value).stream() : Stream.of(value))
+            .map(MongoFilters::typeAlias)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+      if (types.isEmpty()) {
+         return new Document();
+      }
+
+      return Filters.or(
+            new Document(attributeId, new Document("$not", new Document("$type", types))),
+            Filters.type(attributeId, BsonType.ARRAY)
+      );
+   }
+
+   private static String typeAlias(Object value) {
+      if (value instanceof Number) {
+         return "number";
+      } else if (value instanceof String) {
+         return "string";
+      } else if (value instanceof Boolean) {
+         return "bool";
+      } else if (value instanceof Date) {
+         return "date";
+      }
+      return null;
+   }
+
 }
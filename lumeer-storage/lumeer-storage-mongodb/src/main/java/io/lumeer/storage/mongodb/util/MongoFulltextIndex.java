@@ -0,0 +1,219 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.util;
+
+import io.lumeer.engine.api.data.DataDocument;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted n-gram index of the data of a single collection or link type. Every document or link instance has one entry with the n-grams
+ * of its values and the multikey index on them holds the posting lists. The data are indexed on the first search only, so collections
+ * which are never searched do not pay for the index. Since then the data writes keep it up to date, a failed index write makes the next
+ * search index the data again.
+ *
+ * <p>A single search claims the build in the state entry, other searches fall back to scanning the data until the index is ready. Data
+ * writes update the entries as soon as the build is claimed and the build only inserts entries which do not exist yet, so the data read
+ * by the build never overwrite newer data written meanwhile.
+ */
+public class MongoFulltextIndex {
+
+   private static final Logger log = Logger.getLogger(MongoFulltextIndex.class.getName());
+
+   private static final String PREFIX = "fulltext_";
+   private static final String ID = "_id";
+   private static final String GRAMS = "grams";
+   private static final String COMPLETE = "complete";
+   private static final String STATE = "state";
+   private static final String READY = "ready";
+   private static final String STARTED = "started";
+   private static final int BATCH_SIZE = 500;
+   private static final long BUILD_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+   private static final Set<String> SKIPPED_KEYS = Set.of(DataDocument.ID);
+
+   private final MongoDatabase database;
+   private final String dataCollectionName;
+
+   public MongoFulltextIndex(final MongoDatabase database, final String dataCollectionName) {
+      this.database = database;
+      this.dataCollectionName = dataCollectionName;
+   }
+
+   public void index(final Collection<DataDocument> data) {
+      try {
+         if (data.isEmpty() || !exists()) {
+            return;
+         }
+         indexCollection().bulkWrite(data.stream().map(this::createEntryWrite).collect(Collectors.toList()), new BulkWriteOptions().ordered(false));
+      } catch (MongoException e) {
+         invalidate(e);
+      }
+   }
+
+   public void remove(final Collection<String> ids) {
+      try {
+         if (ids.isEmpty() || !exists()) {
+            return;
+         }
+         indexCollection().deleteMany(Filters.in(ID, ids));
+      } catch (MongoException e) {
+         invalidate(e);
+      }
+   }
+
+   public void drop() {
+      indexCollection().drop();
+   }
+
+   /**
+    * Returns ids of the documents or link instances which may contain any of the fulltexts, every one containing some of them is included.
+    * Returns null when the index is being built by another search.
+    *
+    * @param allData data to index when they have not been indexed yet
+    */
+   public Set<String> findCandidates(final Set<String> fulltexts, final Supplier<Iterator<DataDocument>> allData) {
+      final Document state = indexCollection().find(Filters.eq(ID, STATE)).first();
+      if (state == null || !state.getBoolean(READY, false)) {
+         final Date started = claimBuild(state);
+         if (started == null) {
+            return null;
+         }
+         build(allData.get(), started);
+      }
+
+      final List<Set<String>> fulltextsGrams = fulltexts.stream().map(FulltextGrams::getFulltextGrams).collect(Collectors.toList());
+      final Bson filter;
+      if (fulltextsGrams.isEmpty() || fulltextsGrams.stream().anyMatch(Set::isEmpty)) {
+         // an empty fulltext is contained in every value
+         filter = Filters.exists(COMPLETE);
+      } else {
+         final List<Bson> gramsFilters = fulltextsGrams.stream().map(grams -> Filters.all(GRAMS, grams)).collect(Collectors.toList());
+         filter = Filters.or(Filters.eq(COMPLETE, false), Filters.or(gramsFilters));
+      }
+
+      final Set<String> ids = new HashSet<>();
+      indexCollection().find(filter).projection(Projections.include(ID)).forEach((Consumer<? super Document>) entry -> ids.add(entry.getString(ID)));
+      return ids;
+   }
+
+   /**
+    * Returns the start of the build when this search has claimed it, a build which takes too long is taken over.
+    */
+   private Date claimBuild(final Document state) {
+      final Date started = new Date();
+      try {
+         if (state == null) {
+            indexCollection().insertOne(new Document(ID, STATE).append(READY, false).append(STARTED, started));
+            return started;
+         }
+
+         final Bson expired = Filters.and(Filters.eq(ID, STATE), Filters.eq(READY, false), Filters.lt(STARTED, new Date(started.getTime() - BUILD_TIMEOUT)));
+         return indexCollection().updateOne(expired, Updates.set(STARTED, started)).getModifiedCount() > 0 ? started : null;
+      } catch (MongoWriteException e) {
+         if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+            return null;
+         }
+         throw e;
+      }
+   }
+
+   private void build(final Iterator<DataDocument> data, final Date started) {
+      final MongoCollection<Document> collection = indexCollection();
+      // entries left by an invalidated index may be outdated
+      collection.deleteMany(Filters.ne(ID, STATE));
+      collection.createIndex(Indexes.ascending(GRAMS));
+      collection.createIndex(Indexes.ascending(COMPLETE));
+
+      final List<WriteModel<Document>> writes = new ArrayList<>();
+      while (data.hasNext()) {
+         writes.add(createBuildWrite(data.next()));
+         if (writes.size() >= BATCH_SIZE) {
+            collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            writes.clear();
+         }
+      }
+      if (!writes.isEmpty()) {
+         collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+      }
+
+      // the state is not restored when the index has been invalidated meanwhile
+      collection.updateOne(Filters.and(Filters.eq(ID, STATE), Filters.eq(STARTED, started)), Updates.set(READY, true));
+   }
+
+   private boolean exists() {
+      return indexCollection().countDocuments(Filters.eq(ID, STATE)) > 0;
+   }
+
+   private Document createEntry(final DataDocument data) {
+      final Set<String> grams = FulltextGrams.getValuesGrams(data, SKIPPED_KEYS);
+      return new Document(GRAMS, grams != null ? new ArrayList<>(grams) : List.of())
+            .append(COMPLETE, grams != null);
+   }
+
+   private WriteModel<Document> createEntryWrite(final DataDocument data) {
+      return new ReplaceOneModel<>(Filters.eq(ID, data.getId()), createEntry(data).append(ID, data.getId()), new ReplaceOptions().upsert(true));
+   }
+
+   private WriteModel<Document> createBuildWrite(final DataDocument data) {
+      return new UpdateOneModel<>(Filters.eq(ID, data.getId()), new Document("$setOnInsert", createEntry(data)), new UpdateOptions().upsert(true));
+   }
+
+   private void invalidate(final MongoException cause) {
+      log.log(Level.WARNING, "Fulltext index of " + dataCollectionName + " could not be updated.", cause);
+      try {
+         indexCollection().deleteOne(Filters.eq(ID, STATE));
+      } catch (MongoException e) {
+         log.log(Level.SEVERE, "Fulltext index of " + dataCollectionName + " could not be invalidated.", e);
+      }
+   }
+
+   private MongoCollection<Document> indexCollection() {
+      return database.getCollection(PREFIX + dataCollectionName);
+   }
+}
@@ -672,6 +672,7 @@ public class MongoDbStorageTest extends MongoDbTestBase {
       assertThat(dss.getDataSize()).isGreaterThan(0);
       assertThat(dss.getStorageSize()).isGreaterThan(0);
       assertThat(dss.getIndexSize()).isGreaterThan(0);
+      assertThat(dss.getIndexUsage()).containsOnlyKeys("_id_", "stats_1");
 
       mongoDbStorage.dropCollection(COLLECTION_CSTATS);
    }
@@ -0,0 +1,135 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.codecs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.Document;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.mongodb.MongoUtils;
+import io.lumeer.storage.mongodb.codecs.providers.DataDocumentCodecProvider;
+import io.lumeer.storage.mongodb.codecs.providers.DocumentCodecProvider;
+
+import com.mongodb.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+public class DataDocumentCodecTest {
+
+   private static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+         CodecRegistries.fromProviders(new DataDocumentCodecProvider()),
+         MongoClient.getDefaultCodecRegistry(),
+         CodecRegistries.fromCodecs(new BigDecimalCodec()),
+         CodecRegistries.fromProviders(new DocumentCodecProvider()));
+
+   private static final String ID = "5f1a7c3e2b9d4e0012345678";
+
+   @Test
+   public void testDecodeAsConvertDocument() {
+      final Date date = new Date();
+      final org.bson.Document bson = new org.bson.Document("_id", new ObjectId(ID))
+            .append("a1", "text")
+            .append("a2", 42)
+            .append("a3", 42L)
+            .append("a4", 4.2)
+            .append("a5", new Decimal128(new BigDecimal("123.456")))
+            .append("a6", date)
+            .append("a7", null)
+            .append("a8", true)
+            .append("a9", List.of("x", "y"))
+            .append("a10", new org.bson.Document("n1", new Decimal128(BigDecimal.ONE)).append("n2", new org.bson.Document("n3", "z")))
+            .append("a11", List.of(new org.bson.Document("l1", 1), new org.bson.Document("l2", new Decimal128(BigDecimal.TEN))));
+
+      final DataDocument decoded = decode(bson);
+
+      assertThat(decoded).isEqualTo(MongoUtils.convertDocument(decode(bson, org.bson.Document.class)));
+      assertThat(decoded.getId()).isEqualTo(ID);
+      assertThat(decoded.get("a5")).isEqualTo(new BigDecimal("123.456"));
+      assertThat(decoded.get("a10")).isInstanceOf(DataDocument.class);
+      assertThat(decoded.getDataDocument("a10").get("n1")).isEqualTo(BigDecimal.ONE);
+      assertThat(decoded.getDataDocument("a10").get("n2")).isInstanceOf(DataDocument.class);
+      assertThat(decoded.getArrayList("a11", DataDocument.class)).extracting(d -> d.get("l2")).containsExactly(null, BigDecimal.TEN);
+   }
+
+   @Test
+   public void testShadowDocumentId() {
+      final DataDocument decoded = decode(new org.bson.Document("_id", new org.bson.Document("_id", new ObjectId(ID)).append("v", 1)));
+
+      assertThat(decoded.get("_id")).isEqualTo(new DataDocument("_id", ID).append("v", 1));
+   }
+
+   @Test
+   public void testEncodeDecode() {
+      final DataDocument data = new DataDocument("a1", new BigDecimal("1.5"))
+            .append("a2", new DataDocument("n1", "text"))
+            .append("a3", List.of(1, 2));
+
+      final BsonDocument bson = new BsonDocument();
+      REGISTRY.get(DataDocument.class).encode(new BsonDocumentWriter(bson), data, EncoderContext.builder().build());
+
+      assertThat(bson.get("a1").asDecimal128().getValue()).isEqualTo(new Decimal128(new BigDecimal("1.5")));
+      assertThat(REGISTRY.get(DataDocument.class).decode(new BsonDocumentReader(bson), DecoderContext.builder().build())).isEqualTo(data);
+   }
+
+   @Test
+   public void testDecodeDocumentWithLookupData() {
+      final org.bson.Document bson = new org.bson.Document("_id", new ObjectId(ID))
+            .append(DocumentCodec.COLLECTION_ID, "c1")
+            .append(DocumentCodec.CREATED_BY, "u1")
+            .append(DocumentCodec.UPDATED_BY, null)
+            .append(DocumentCodec.DATA_VERSION, 3)
+            .append(DocumentCodec.META_DATA, new org.bson.Document(Document.META_PARENT_ID, "p1"))
+            .append("unknown", new org.bson.Document("x", 1))
+            .append(DocumentCodec.DATA, List.of(new org.bson.Document("_id", new ObjectId(ID)).append("a1", new Decimal128(BigDecimal.ONE))));
+
+      final Document document = decode(bson, Document.class);
+
+      assertThat(document.getId()).isEqualTo(ID);
+      assertThat(document.getCollectionId()).isEqualTo("c1");
+      assertThat(document.getCreatedBy()).isEqualTo("u1");
+      assertThat(document.getUpdatedBy()).isNull();
+      assertThat(document.getDataVersion()).isEqualTo(3);
+      assertThat(document.getMetaData()).containsEntry(Document.META_PARENT_ID, "p1");
+      assertThat(document.getData()).isEqualTo(new DataDocument("_id", ID).append("a1", BigDecimal.ONE));
+
+      bson.put(DocumentCodec.DATA, List.of());
+      assertThat(decode(bson, Document.class).getData()).isEmpty();
+   }
+
+   private static DataDocument decode(final org.bson.Document bson) {
+      return decode(bson, DataDocument.class);
+   }
+
+   private static <T> T decode(final org.bson.Document bson, final Class<T> clazz) {
+      final BsonDocument bsonDocument = bson.toBsonDocument(BsonDocument.class, REGISTRY);
+      return REGISTRY.get(clazz).decode(new BsonDocumentReader(bsonDocument), DecoderContext.builder().build());
+   }
+}
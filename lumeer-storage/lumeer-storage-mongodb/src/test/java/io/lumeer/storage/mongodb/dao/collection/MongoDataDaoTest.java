@@ -34,6 +34,7 @@ import io.lumeer.storage.mongodb.MongoDbTestBase;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -42,6 +43,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 public class MongoDataDaoTest extends MongoDbTestBase {
 
@@ -157,6 +159,22 @@ public class MongoDataDaoTest extends MongoDbTestBase {
       assertThat(document).containsEntry(KEY2, VALUE2);
    }
 
+   @Test
+   public void testPatchDataBulk() {
+      String id1 = createDocument();
+      String id2 = createDocument();
+
+      List<DataDocument> patchedData = dataDao.patchDataBulk(COLLECTION_ID, Map.of(
+            id1, new DataDocument().append(KEY1, VALUE2),
+            id2, new DataDocument().append(KEY3, VALUE1),
+            DOCUMENT_ID, new DataDocument()
+      ));
+      assertThat(patchedData).hasSize(2);
+
+      assertThat(dataCollection().find(new Document("_id", new ObjectId(id1))).first()).containsEntry(KEY1, VALUE2).containsEntry(KEY2, VALUE2);
+      assertThat(dataCollection().find(new Document("_id", new ObjectId(id2))).first()).containsEntry(KEY1, VALUE1).containsEntry(KEY3, VALUE1);
+   }
+
    @Test
    public void testPatchNestedAttributes() {
 
@@ -11,6 +11,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.Map;
+import java.util.Set;
+
 public class MongoFavoriteItemDaoTest extends MongoDbTestBase {
 
    private static final String ORGANIZATION_ID = "596e3b86d412bc5a3caaa22a";
@@ -83,6 +86,21 @@ public class MongoFavoriteItemDaoTest extends MongoDbTestBase {
       assertThat(dao.getFavoriteDocumentIds(USER2, PROJECT_ID1)).isEmpty();
    }
 
+   @Test
+   public void testGetFavoriteDocumentIdsByUsers() {
+      dao.addFavoriteDocument(USER, PROJECT_ID1, COLLECTION_ID1, DOCUMENT_ID1);
+      dao.addFavoriteDocument(USER, PROJECT_ID1, COLLECTION_ID1, DOCUMENT_ID2);
+      dao.addFavoriteDocument(USER2, PROJECT_ID1, COLLECTION_ID1, DOCUMENT_ID2);
+      dao.addFavoriteDocument(USER2, PROJECT_ID2, COLLECTION_ID2, DOCUMENT_ID1);
+
+      Map<String, Set<String>> favoriteDocumentIds = dao.getFavoriteDocumentIds(Set.of(USER, USER2), PROJECT_ID1, Set.of(DOCUMENT_ID2));
+      assertThat(favoriteDocumentIds).containsOnlyKeys(USER, USER2);
+      assertThat(favoriteDocumentIds.get(USER)).containsOnly(DOCUMENT_ID2);
+      assertThat(favoriteDocumentIds.get(USER2)).containsOnly(DOCUMENT_ID2);
+
+      assertThat(dao.getFavoriteDocumentIds(Set.of(USER2), PROJECT_ID1, Set.of(DOCUMENT_ID1))).isEmpty();
+   }
+
    @Test
    public void testAddFavoriteCollectionDuplicate() {
       dao.addFavoriteCollection(USER, PROJECT_ID1, COLLECTION_ID1);
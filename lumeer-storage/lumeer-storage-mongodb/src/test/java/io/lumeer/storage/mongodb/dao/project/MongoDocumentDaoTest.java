@@ -22,12 +22,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import io.lumeer.api.model.Document;
+import io.lumeer.api.model.Pagination;
 import io.lumeer.api.model.Project;
 import io.lumeer.api.model.ResourceType;
 import io.lumeer.engine.api.data.DataDocument;
 import io.lumeer.storage.api.exception.ResourceNotFoundException;
 import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.mongodb.MongoDbTestBase;
+import io.lumeer.storage.mongodb.dao.collection.MongoDataDao;
 import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import org.assertj.core.api.SoftAssertions;
@@ -39,6 +41,7 @@ import org.mockito.Mockito;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -246,6 +249,36 @@ public class MongoDocumentDaoTest extends MongoDbTestBase {
       assertThat(documents).isEmpty();
    }
 
+   @Test
+   public void testGetDocumentsByCollectionSeekPagination() {
+      final List<String> ids = IntStream.range(0, 10).mapToObj(i -> createDocument().getId()).sorted().collect(Collectors.toList());
+
+      final List<String> pagedIds = new ArrayList<>();
+      String lastId = null;
+      List<Document> documents;
+      do {
+         documents = documentDao.getDocumentsByCollection(COLLECTION_ID, Pagination.seek(lastId, 3));
+         assertThat(documents.size()).isLessThanOrEqualTo(3);
+         documents.forEach(document -> pagedIds.add(document.getId()));
+         lastId = documents.isEmpty() ? null : documents.get(documents.size() - 1).getId();
+      } while (!documents.isEmpty());
+
+      assertThat(pagedIds).containsExactlyElementsOf(ids);
+   }
+
+   @Test
+   public void testGetDocumentsWithData() {
+      String id = createDocument().getId();
+      String id2 = createDocument().getId();
+      database.getCollection(MongoDataDao.dataCollectionName(COLLECTION_ID))
+              .insertOne(new org.bson.Document("_id", new ObjectId(id)).append("a1", "value"));
+
+      List<Document> documents = documentDao.getDocumentsWithData(COLLECTION_ID, Set.of(id, id2));
+      assertThat(documents).extracting(Document::getId).containsOnly(id, id2);
+      assertThat(documents).filteredOn(document -> document.getId().equals(id)).extracting(document -> document.getData().getString("a1")).containsExactly("value");
+      assertThat(documents).filteredOn(document -> document.getId().equals(id2)).extracting(document -> document.getData().isEmpty()).containsExactly(true);
+   }
+
    @Test
    public void testDuplicateDocuments() {
       final List<Document> documents = IntStream.range(0, 10).mapToObj(i -> createDocument()).collect(Collectors.toList());
@@ -0,0 +1,82 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.engine.api.data.DataDocument;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+public class FulltextGramsTest {
+
+   private static final Set<String> SKIPPED_KEYS = Set.of(DataDocument.ID);
+
+   @Test
+   public void testFold() {
+      assertThat(FulltextGrams.fold("Žluťoučký KŮŇ")).isEqualTo("zlutoucky kun");
+   }
+
+   @Test
+   public void testValueContainsFulltextGrams() {
+      final Set<String> grams = FulltextGrams.getValuesGrams(new DataDocument("_id", "5f1").append("a1", "Příliš žluťoučký kůň").append("a2", 42L), SKIPPED_KEYS);
+
+      for (String fulltext : List.of("kůň", "LUTOUC", "š ž", "p", "iš", "42", "Příliš žluťoučký kůň")) {
+         assertThat(grams).containsAll(FulltextGrams.getFulltextGrams(fulltext));
+      }
+      assertThat(grams.containsAll(FulltextGrams.getFulltextGrams("koně"))).isFalse();
+      assertThat(grams).doesNotContain("5f1");
+   }
+
+   @Test
+   public void testFulltextGrams() {
+      assertThat(FulltextGrams.getFulltextGrams("  ")).isEmpty();
+      assertThat(FulltextGrams.getFulltextGrams(" Ab ")).containsExactly("ab");
+      assertThat(FulltextGrams.getFulltextGrams("abcde")).containsExactly("abc", "bcd", "cde");
+   }
+
+   @Test
+   public void testHtmlValue() {
+      final Set<String> grams = FulltextGrams.getValuesGrams(new DataDocument("a1", "<p>bold<b>text</b></p> &amp; more"), SKIPPED_KEYS);
+
+      assertThat(grams).containsAll(FulltextGrams.getFulltextGrams("boldtext & more"));
+      assertThat(grams).containsAll(FulltextGrams.getFulltextGrams("bold text"));
+   }
+
+   @Test
+   public void testNumberValues() {
+      final Set<String> grams = FulltextGrams.getValuesGrams(new DataDocument("a1", 2.0d).append("a2", 0.25d).append("a3", new BigDecimal("1E+3")), SKIPPED_KEYS);
+
+      assertThat(grams).containsAll(FulltextGrams.getFulltextGrams("0.25"));
+      assertThat(grams).containsAll(FulltextGrams.getFulltextGrams("1000"));
+      assertThat(grams).contains("2").doesNotContain("2.0");
+   }
+
+   @Test
+   public void testUnsupportedValues() {
+      assertThat(FulltextGrams.getValuesGrams(new DataDocument("a1", "text").append("a2", new Date()), SKIPPED_KEYS)).isNull();
+      assertThat(FulltextGrams.getValuesGrams(new DataDocument("a1", List.of("a", "b")), SKIPPED_KEYS)).isNull();
+      assertThat(FulltextGrams.getValuesGrams(new DataDocument("a1", "x".repeat(FulltextGrams.MAX_VALUE_LENGTH + 1)), SKIPPED_KEYS)).isNull();
+   }
+}
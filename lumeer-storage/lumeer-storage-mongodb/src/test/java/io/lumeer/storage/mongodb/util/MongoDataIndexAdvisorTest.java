@@ -0,0 +1,163 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.lumeer.api.model.ConditionType;
+import io.lumeer.engine.api.data.DataIndexDecision;
+import io.lumeer.storage.api.filter.CollectionSearchAttributeFilter;
+
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MongoDataIndexAdvisorTest {
+
+   private static final String COLLECTION = "data_c-5f1";
+
+   private final AtomicLong time = new AtomicLong(1_000_000L);
+
+   private MongoDatabase database;
+   private MongoCollection<Document> collection;
+   private ListIndexesIterable<Document> indexes;
+   private MongoDataIndexAdvisor advisor;
+
+   @Before
+   @SuppressWarnings("unchecked")
+   public void prepare() {
+      database = mock(MongoDatabase.class);
+      collection = mock(MongoCollection.class);
+      indexes = mock(ListIndexesIterable.class);
+      when(database.getName()).thenReturn("lumeer");
+      when(database.getCollection(COLLECTION)).thenReturn(collection);
+      when(collection.listIndexes()).thenReturn(indexes);
+      when(indexes.into(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+      advisor = new MongoDataIndexAdvisor(Runnable::run, time::get);
+      advisor.setBudget(10, 1, 2);
+   }
+
+   @Test
+   public void testCreateIndexOnHotAttribute() {
+      record("a1", ConditionType.HAS_SOME);
+      verify(collection, never()).createIndex(any(Bson.class), any(IndexOptions.class));
+
+      record("a1", ConditionType.EQUALS);
+      verify(collection, times(1)).createIndex(any(Bson.class), argThat((IndexOptions options) -> "advisor_a1".equals(options.getName())));
+
+      record("a1", ConditionType.EQUALS);
+      verify(collection, times(1)).createIndex(any(Bson.class), any(IndexOptions.class));
+
+      final List<DataIndexDecision> decisions = advisor.getDecisions();
+      assertThat(decisions).hasSize(1);
+      assertThat(decisions.get(0).getAction()).isEqualTo(DataIndexDecision.Action.CREATE);
+      assertThat(decisions.get(0).getConditions()).containsExactlyInAnyOrder("eq", "hasSome");
+      assertThat(decisions.get(0).getQueriesBefore()).isEqualTo(2);
+      assertThat(decisions.get(0).getQueriesAfter()).isEqualTo(1);
+   }
+
+   @Test
+   public void testIgnoreNotIndexedFilters() {
+      for (int i = 0; i < 5; i++) {
+         record("a1", ConditionType.NOT_EQUALS);
+         advisor.record(database, COLLECTION, Set.of(new CollectionSearchAttributeFilter("5f1", ConditionType.EQUALS, "a2", "x", true)), 1_000_000L);
+      }
+
+      verify(collection, never()).createIndex(any(Bson.class), any(IndexOptions.class));
+      assertThat(advisor.getDecisions()).isEmpty();
+   }
+
+   @Test
+   public void testReplaceColdIndexWithinBudget() {
+      record("a1", ConditionType.EQUALS);
+      record("a1", ConditionType.EQUALS);
+      for (int i = 0; i < 4; i++) {
+         record("a2", ConditionType.EQUALS);
+      }
+      verify(collection, never()).dropIndex(anyString());
+
+      // the queries do not evaluate again within the interval
+      record("a2", ConditionType.EQUALS);
+      verify(collection, never()).dropIndex(anyString());
+
+      time.addAndGet(MongoDataIndexAdvisor.EVALUATION_INTERVAL);
+      record("a2", ConditionType.EQUALS);
+      verify(collection).dropIndex("advisor_a1");
+      verify(collection).createIndex(any(Bson.class), argThat((IndexOptions options) -> "advisor_a2".equals(options.getName())));
+      assertThat(advisor.getDecisions()).extracting(DataIndexDecision::getAttributeId, DataIndexDecision::getAction)
+                                        .containsExactly(tuple("a1", DataIndexDecision.Action.CREATE),
+                                              tuple("a1", DataIndexDecision.Action.DROP),
+                                              tuple("a2", DataIndexDecision.Action.CREATE));
+   }
+
+   @Test
+   public void testDropUnusedIndex() {
+      record("a1", ConditionType.EQUALS);
+      record("a1", ConditionType.EQUALS);
+
+      time.addAndGet(MongoDataIndexAdvisor.DECAY_INTERVAL);
+      record("a2", ConditionType.EQUALS);
+      verify(collection, never()).dropIndex(anyString());
+
+      time.addAndGet(MongoDataIndexAdvisor.DECAY_INTERVAL);
+      record("a2", ConditionType.EQUALS);
+      verify(collection).dropIndex("advisor_a1");
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testKeepAdoptedIndexForWindow() {
+      when(indexes.into(any())).thenAnswer(invocation -> {
+         final List<Document> list = invocation.getArgument(0);
+         list.add(new Document("name", "advisor_a3"));
+         return list;
+      });
+
+      record("a1", ConditionType.EQUALS);
+      record("a1", ConditionType.EQUALS);
+      verify(collection, never()).createIndex(any(Bson.class), any(IndexOptions.class));
+
+      time.addAndGet(MongoDataIndexAdvisor.DECAY_INTERVAL);
+      record("a1", ConditionType.EQUALS);
+      verify(collection, never()).dropIndex(anyString());
+   }
+
+   private void record(final String attributeId, final ConditionType conditionType) {
+      advisor.record(database, COLLECTION, Set.of(new CollectionSearchAttributeFilter("5f1", conditionType, attributeId, "x")), 1_000_000L);
+   }
+}
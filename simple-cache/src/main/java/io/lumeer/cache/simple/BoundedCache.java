@@ -0,0 +1,299 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.cache.simple;
+
+import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheConfiguration;
+import io.lumeer.engine.api.cache.CacheStatistics;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Cache limited by size and/or entry age. Keys are spread over independently locked segments, each segment evicts
+ * its least recently used entries when it is full, expired entries are removed when they are accessed or pushed to the
+ * least recently used end of the segment.
+ */
+public class BoundedCache<T> implements Cache<T> {
+
+   private static final int MAX_SEGMENTS = 16;
+
+   // smaller segments would make the least recently used order too coarse
+   private static final int MIN_SEGMENT_SIZE = 32;
+
+   private final Segment<T>[] segments;
+   private final long expireAfterWrite;
+   private final long expireAfterAccess;
+   private final LongSupplier clock;
+
+   private final KeyLocks locks = new KeyLocks();
+
+   // separate from the locks above so the lock API of the cache does not block computations of the same key
+   private final KeyLocks computeLocks = new KeyLocks();
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+
+   public BoundedCache(final CacheConfiguration configuration) {
+      this(configuration, System::currentTimeMillis);
+   }
+
+   @SuppressWarnings("unchecked")
+   BoundedCache(final CacheConfiguration configuration, final LongSupplier clock) {
+      this.expireAfterWrite = configuration.getExpireAfterWriteMillis();
+      this.expireAfterAccess = configuration.getExpireAfterAccessMillis();
+      this.clock = clock;
+
+      final long maximumSize = configuration.getMaximumSize();
+      final int segmentsCount = maximumSize > 0 ? (int) Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / MIN_SEGMENT_SIZE)) : MAX_SEGMENTS;
+      segments = new Segment[segmentsCount];
+      for (int i = 0; i < segmentsCount; i++) {
+         // the remainder is spread over the first segments so the total capacity is exactly the maximum size
+         final long segmentSize = maximumSize > 0 ? maximumSize / segmentsCount + (i < maximumSize % segmentsCount ? 1 : 0) : 0;
+         segments[i] = new Segment<>(segmentSize);
+      }
+   }
+
+   @Override
+   public T get(final String key) {
+      final Segment<T> segment = segmentFor(key);
+      final long now = clock.getAsLong();
+
+      segment.lock.lock();
+      try {
+         final T value = getValue(segment, key, now);
+         (value != null ? hits : misses).increment();
+         return value;
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   /**
+    * The value is computed outside of the segment lock so the function can use the cache for other keys as well,
+    * threads computing the same key wait for the first one and get its value.
+    */
+   @Override
+   public T computeIfAbsent(final String key, final Function<String, T> fce) {
+      final T value = get(key);
+      if (value != null) {
+         return value;
+      }
+
+      computeLocks.lock(key);
+      try {
+         final Segment<T> segment = segmentFor(key);
+
+         segment.lock.lock();
+         try {
+            final T current = getValue(segment, key, clock.getAsLong());
+            if (current != null) {
+               return current;
+            }
+         } finally {
+            segment.lock.unlock();
+         }
+
+         final T computed = fce.apply(key);
+         if (computed == null) {
+            return null;
+         }
+
+         segment.lock.lock();
+         try {
+            putValue(segment, key, computed, clock.getAsLong());
+            return computed;
+         } finally {
+            segment.lock.unlock();
+         }
+      } finally {
+         computeLocks.unlock(key);
+      }
+   }
+
+   @Override
+   public void set(final String key, final T t) {
+      final Segment<T> segment = segmentFor(key);
+      final long now = clock.getAsLong();
+
+      segment.lock.lock();
+      try {
+         putValue(segment, key, t, now);
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   @Override
+   public T remove(final String key) {
+      final Segment<T> segment = segmentFor(key);
+      final long now = clock.getAsLong();
+
+      segment.lock.lock();
+      try {
+         final Entry<T> entry = segment.entries.remove(key);
+         return entry != null && !isExpired(entry, now) ? entry.value : null;
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   @Override
+   public void lock(final String key) {
+      locks.lock(key);
+   }
+
+   @Override
+   public void unlock(final String key) {
+      locks.unlock(key);
+   }
+
+   @Override
+   public boolean tryLock(final String key) {
+      return locks.tryLock(key);
+   }
+
+   @Override
+   public void clear() {
+      for (Segment<T> segment : segments) {
+         segment.lock.lock();
+         try {
+            segment.entries.clear();
+         } finally {
+            segment.lock.unlock();
+         }
+      }
+      locks.clear();
+   }
+
+   @Override
+   public Stream<T> stream() {
+      final long now = clock.getAsLong();
+      final List<T> values = new ArrayList<>();
+
+      for (Segment<T> segment : segments) {
+         segment.lock.lock();
+         try {
+            segment.entries.values().forEach(entry -> {
+               if (!isExpired(entry, now)) {
+                  values.add(entry.value);
+               }
+            });
+         } finally {
+            segment.lock.unlock();
+         }
+      }
+
+      return values.stream();
+   }
+
+   @Override
+   public CacheStatistics getStatistics() {
+      return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum());
+   }
+
+   public long size() {
+      long size = 0;
+      for (Segment<T> segment : segments) {
+         segment.lock.lock();
+         try {
+            size += segment.entries.size();
+         } finally {
+            segment.lock.unlock();
+         }
+      }
+      return size;
+   }
+
+   private T getValue(final Segment<T> segment, final String key, final long now) {
+      final Entry<T> entry = segment.entries.get(key);
+      if (entry == null) {
+         return null;
+      }
+      if (isExpired(entry, now)) {
+         segment.entries.remove(key);
+         evictions.increment();
+         return null;
+      }
+
+      entry.accessed = now;
+      return entry.value;
+   }
+
+   private void putValue(final Segment<T> segment, final String key, final T value, final long now) {
+      if (value == null) {
+         throw new NullPointerException("Cache values can not be null");
+      }
+
+      segment.entries.put(key, new Entry<>(value, now));
+
+      final Iterator<Entry<T>> iterator = segment.entries.values().iterator();
+      while (iterator.hasNext()) {
+         final Entry<T> eldest = iterator.next();
+         if (segment.maximumSize > 0 && segment.entries.size() > segment.maximumSize || isExpired(eldest, now)) {
+            iterator.remove();
+            evictions.increment();
+         } else {
+            break;
+         }
+      }
+   }
+
+   private boolean isExpired(final Entry<T> entry, final long now) {
+      return (expireAfterWrite > 0 && now - entry.written >= expireAfterWrite) || (expireAfterAccess > 0 && now - entry.accessed >= expireAfterAccess);
+   }
+
+   private Segment<T> segmentFor(final String key) {
+      final int hash = key.hashCode();
+      return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+   }
+
+   private static final class Segment<T> {
+
+      private final ReentrantLock lock = new ReentrantLock();
+      private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+      private final long maximumSize;
+
+      private Segment(final long maximumSize) {
+         this.maximumSize = maximumSize;
+      }
+   }
+
+   private static final class Entry<T> {
+
+      private final T value;
+      private final long written;
+      private long accessed;
+
+      private Entry(final T value, final long now) {
+         this.value = value;
+         this.written = now;
+         this.accessed = now;
+      }
+   }
+}
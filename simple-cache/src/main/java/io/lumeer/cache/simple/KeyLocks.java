@@ -0,0 +1,82 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.cache.simple;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks on cache keys. A lock is kept only while some thread holds or waits for it.
+ */
+class KeyLocks {
+
+   private final Map<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+   void lock(final String key) {
+      acquire(key).lock.lock();
+   }
+
+   boolean tryLock(final String key) {
+      final KeyLock keyLock = acquire(key);
+      if (keyLock.lock.tryLock()) {
+         return true;
+      }
+
+      release(key);
+      return false;
+   }
+
+   void unlock(final String key) {
+      final KeyLock keyLock = locks.get(key);
+
+      if (keyLock != null) {
+         keyLock.lock.unlock();
+         release(key);
+      }
+   }
+
+   void clear() {
+      locks.clear();
+   }
+
+   int size() {
+      return locks.size();
+   }
+
+   private KeyLock acquire(final String key) {
+      return locks.compute(key, (k, keyLock) -> {
+         final KeyLock result = keyLock != null ? keyLock : new KeyLock();
+         result.users++;
+         return result;
+      });
+   }
+
+   private void release(final String key) {
+      locks.computeIfPresent(key, (k, keyLock) -> --keyLock.users > 0 ? keyLock : null);
+   }
+
+   private static final class KeyLock {
+
+      private final ReentrantLock lock = new ReentrantLock();
+
+      // number of lock and successful tryLock calls not unlocked yet, guarded by the map compute
+      private int users;
+   }
+}
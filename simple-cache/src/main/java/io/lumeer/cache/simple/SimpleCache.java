@@ -19,11 +19,11 @@
 package io.lumeer.cache.simple;
 
 import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheStatistics;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -31,15 +31,27 @@ public class SimpleCache<T> implements Cache<T> {
 
    private Map<String, T> cache = new ConcurrentHashMap<>();
 
-   private Map<String, Lock> locks = new ConcurrentHashMap<>();
+   private KeyLocks locks = new KeyLocks();
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
 
    @Override
    public T get(final String key) {
-      return cache.get(key);
+      final T value = cache.get(key);
+      (value != null ? hits : misses).increment();
+      return value;
    }
 
    @Override
    public T computeIfAbsent(final String key, final Function<String, T> fce) {
+      final T value = cache.get(key);
+      if (value != null) {
+         hits.increment();
+         return value;
+      }
+
+      misses.increment();
       return cache.computeIfAbsent(key, fce);
    }
 
@@ -55,24 +67,17 @@ public class SimpleCache<T> implements Cache<T> {
 
    @Override
    public void lock(final String key) {
-      final Lock l = locks.computeIfAbsent(key, k -> new ReentrantLock());
-      l.lock();
+      locks.lock(key);
    }
 
    @Override
    public void unlock(final String key) {
-      final Lock l = locks.get(key);
-
-      if (l != null) {
-         l.unlock();
-      }
+      locks.unlock(key);
    }
 
    @Override
    public boolean tryLock(final String key) {
-      final Lock l = locks.computeIfAbsent(key, k -> new ReentrantLock());
-
-      return l.tryLock();
+      return locks.tryLock(key);
    }
 
    @Override
@@ -84,4 +89,9 @@ public class SimpleCache<T> implements Cache<T> {
    public Stream<T> stream() {
       return cache.values().stream();
    }
+
+   @Override
+   public CacheStatistics getStatistics() {
+      return new CacheStatistics(hits.sum(), misses.sum(), 0);
+   }
 }
@@ -19,6 +19,7 @@
 package io.lumeer.cache.simple;
 
 import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheConfiguration;
 import io.lumeer.engine.api.cache.CacheFactory;
 
 import java.io.Serializable;
@@ -31,4 +32,13 @@ public class SimpleCacheFactory implements CacheFactory, Serializable {
    public <T> Cache<T> getCache() {
       return new SimpleCache<>();
    }
+
+   @Override
+   public <T> Cache<T> getCache(final CacheConfiguration configuration) {
+      if (configuration == null || configuration.isUnbounded()) {
+         return new SimpleCache<>();
+      }
+
+      return new BoundedCache<>(configuration);
+   }
 }
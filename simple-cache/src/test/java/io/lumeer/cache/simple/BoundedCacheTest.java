@@ -0,0 +1,142 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.cache.simple;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.engine.api.cache.CacheConfiguration;
+import io.lumeer.engine.api.cache.CacheStatistics;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class BoundedCacheTest {
+
+   @Test
+   public void testLeastRecentlyUsedEviction() {
+      final BoundedCache<String> cache = new BoundedCache<>(CacheConfiguration.unbounded().maximumSize(3));
+
+      cache.set("a", "A");
+      cache.set("b", "B");
+      cache.set("c", "C");
+      assertThat(cache.get("a")).isEqualTo("A");
+
+      cache.set("d", "D");
+
+      assertThat(cache.size()).isEqualTo(3);
+      assertThat(cache.get("b")).isNull();
+      assertThat(cache.stream().collect(Collectors.toSet())).containsOnly("A", "C", "D");
+
+      final CacheStatistics statistics = cache.getStatistics();
+      assertThat(statistics.getHitCount()).isEqualTo(1);
+      assertThat(statistics.getMissCount()).isEqualTo(1);
+      assertThat(statistics.getEvictionCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void testMaximumSizeOverSegments() {
+      final BoundedCache<Integer> cache = new BoundedCache<>(CacheConfiguration.unbounded().maximumSize(1000));
+
+      for (int i = 0; i < 10000; i++) {
+         cache.set("key" + i, i);
+      }
+
+      assertThat(cache.size()).isLessThanOrEqualTo(1000);
+      assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(10000 - cache.size());
+   }
+
+   @Test
+   public void testExpiration() {
+      final AtomicLong clock = new AtomicLong();
+      final BoundedCache<String> writeCache = new BoundedCache<>(CacheConfiguration.unbounded().expireAfterWrite(Duration.ofMillis(100)), clock::get);
+      final BoundedCache<String> accessCache = new BoundedCache<>(CacheConfiguration.unbounded().expireAfterAccess(Duration.ofMillis(100)), clock::get);
+
+      writeCache.set("a", "A");
+      accessCache.set("a", "A");
+
+      clock.set(60);
+      assertThat(writeCache.get("a")).isEqualTo("A");
+      assertThat(accessCache.get("a")).isEqualTo("A");
+
+      clock.set(120);
+      assertThat(writeCache.get("a")).isNull();
+      assertThat(accessCache.get("a")).isEqualTo("A");
+      assertThat(writeCache.computeIfAbsent("a", key -> "B")).isEqualTo("B");
+
+      clock.set(250);
+      assertThat(accessCache.get("a")).isNull();
+      assertThat(accessCache.getStatistics().getEvictionCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void testConcurrentComputeIfAbsent() throws Exception {
+      final BoundedCache<String> cache = new BoundedCache<>(CacheConfiguration.unbounded().maximumSize(100));
+      final AtomicInteger computations = new AtomicInteger();
+      final CountDownLatch start = new CountDownLatch(1);
+      final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+      try {
+         final List<Future<String>> results = new ArrayList<>();
+         for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+               start.await();
+               return cache.computeIfAbsent("a", key -> {
+                  Thread.yield();
+                  return "A" + computations.incrementAndGet();
+               });
+            }));
+         }
+         start.countDown();
+
+         for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("A1");
+         }
+         assertThat(computations.get()).isEqualTo(1);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testLocksAreRemovedOnUnlock() {
+      final KeyLocks locks = new KeyLocks();
+
+      locks.lock("a");
+      locks.lock("a");
+      assertThat(locks.tryLock("b")).isTrue();
+      assertThat(locks.size()).isEqualTo(2);
+
+      locks.unlock("a");
+      assertThat(locks.size()).isEqualTo(2);
+      locks.unlock("a");
+      locks.unlock("b");
+      assertThat(locks.size()).isZero();
+   }
+}